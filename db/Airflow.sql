@@ -78,3 +78,28 @@ CREATE TABLE IF NOT EXISTS `seats` (
   FOREIGN KEY (`airplane_FK`) REFERENCES `airplanes` (`id_PK`),
   FOREIGN KEY (`reservation_FK`) REFERENCES `reservations` (`id_PK`)
 );
+
+
+-- Per-flight seat inventory: one row per (flight, seat of the flight's airplane).
+-- The reservation holding a seat is tracked here, so booking a seat on one flight
+-- does not block the same physical seat on other flights of the same airplane.
+CREATE TABLE IF NOT EXISTS `flight_seats` (
+  `flight_FK` int NOT NULL,
+  `seat_FK` int NOT NULL,
+  `reservation_FK` int NULL,
+  PRIMARY KEY (`flight_FK`, `seat_FK`),
+  FOREIGN KEY (`flight_FK`) REFERENCES `flights` (`id_PK`) ON DELETE CASCADE,
+  FOREIGN KEY (`seat_FK`) REFERENCES `seats` (`id_PK`) ON DELETE CASCADE,
+  FOREIGN KEY (`reservation_FK`) REFERENCES `reservations` (`id_PK`) ON DELETE SET NULL
+);
+
+-- Backfill for databases created before flight_seats existed.
+INSERT IGNORE INTO `flight_seats` (`flight_FK`, `seat_FK`, `reservation_FK`)
+SELECT f.`id_PK`, s.`id_PK`, CASE WHEN r.`flight_FK` = f.`id_PK` THEN s.`reservation_FK` END
+FROM `flights` f
+JOIN `seats` s ON s.`airplane_FK` = f.`airplane_FK`
+LEFT JOIN `reservations` r ON r.`id_PK` = s.`reservation_FK`;
+
+-- Secondary indexes and later schema changes are versioned migrations in
+-- src/main/resources/db/migration, applied in order by MigrationRunner when the
+-- application starts and recorded in the `schema_version` table.
@@ -0,0 +1,193 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.DAO.*;
+import org.airflow.reservations.model.*;
+import org.airflow.reservations.service.ApiServer;
+import org.airflow.reservations.utils.Json;
+import org.airflow.reservations.utils.PasswordUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of the HTTP API under concurrent clients: flight searches, seat maps and
+ * bookings followed by their cancellation, each a full request through the JDK HTTP server.
+ * The services run over an InMemoryStore, so the server, the executor and the services are measured
+ * without a database. On Java 21 or later, {@code -p executor=virtual,fixed} compares virtual threads
+ * with the fixed pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ApiServerBenchmark {
+    /** Number of cities; there is a flight every day between each ordered pair */
+    private static final int CITIES = 8;
+    /** Number of days with flights */
+    private static final int DAYS = 30;
+    /** Number of seats of the airplane of every flight, and of users able to log in */
+    private static final int SEATS = 64;
+
+    /** Executor of the server, virtual or fixed */
+    @Param({"fixed"})
+    public String executor;
+
+    /** Size of the fixed pool */
+    @Param({"64"})
+    public int poolThreads;
+
+    private ApiServer server;
+    private HttpClient client;
+    private String baseUrl;
+    private LocalDate firstDay;
+    private int flights;
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    /**
+     * Fills a store with cities, one airplane, daily flights on every route departing from next week on,
+     * and users, and starts the server over it.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        InMemoryStore store = new InMemoryStore();
+        for (int i = 1; i <= CITIES; i++) {
+            new InMemoryCityDAO(store, null).create(new City(0, "City " + i, "Colombia", "C" + i));
+        }
+        Airplane airplane = new Airplane(0, "Avianca", "A320", "HK-1", SEATS, Year.of(2015));
+        new InMemoryAirplaneDAO(store, null).create(airplane);
+        InMemorySeatDAO seatDAO = new InMemorySeatDAO(store, null);
+        for (int i = 0; i < SEATS; i++) {
+            seatDAO.create(new Seat(0, airplane.getId(), null, (i / 6 + 1) + "" + (char) ('A' + i % 6),
+                    Seat.SeatClass.ECONOMY, i % 6 == 0));
+        }
+
+        firstDay = LocalDate.now().plusDays(7);
+        InMemoryFlightDAO flightDAO = new InMemoryFlightDAO(store, null);
+        for (int day = 0; day < DAYS; day++) {
+            for (int origin = 1; origin <= CITIES; origin++) {
+                for (int destination = 1; destination <= CITIES; destination++) {
+                    if (origin != destination) {
+                        LocalDateTime departure = firstDay.plusDays(day).atTime(6 + (origin + destination) % 14, 0);
+                        Flight flight = new Flight();
+                        flight.setAirplane_FK(airplane.getId());
+                        flight.setStatus_FK(1);
+                        flight.setOrigin_city_FK(origin);
+                        flight.setDestination_city_FK(destination);
+                        flight.setCode("AV" + (++flights));
+                        flight.setDeparture_time(departure);
+                        flight.setScheduled_arrival_time(departure.plusHours(1));
+                        flight.setPrice_base(100f + flights % 200);
+                        flightDAO.create(flight);
+                    }
+                }
+            }
+        }
+
+        String hash = PasswordUtils.hashPassword("secret");
+        InMemoryUsersDAO usersDAO = new InMemoryUsersDAO(store, null);
+        for (int i = 1; i <= SEATS; i++) {
+            usersDAO.create(new User(0, "User", "" + i, "user" + i + "@airflow.com", hash, false, LocalDateTime.now()));
+        }
+
+        DAOFactory.useInMemory(store);
+        server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), ApiServer.newExecutor(executor, poolThreads),
+                3_600_000);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://127.0.0.1:" + server.getPort();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown
+    public void tearDown() {
+        server.close();
+        DAOFactory.useDatabase();
+    }
+
+    /**
+     * A client thread with its own session and its own seat, so bookings of different threads never collide.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        String token;
+        int seatId;
+        Random random;
+
+        /**
+         * Logs in as the next free user.
+         */
+        @Setup
+        public void setUp(ApiServerBenchmark benchmark) throws Exception {
+            int user = benchmark.nextUser.incrementAndGet();
+            if (user > SEATS) {
+                throw new IllegalStateException("At most " + SEATS + " benchmark threads are supported");
+            }
+            HttpResponse<String> login = benchmark.send("POST", "/api/login",
+                    Json.write(Map.of("email", "user" + user + "@airflow.com", "password", "secret")), null);
+            token = (String) ((Map<?, ?>) Json.parse(login.body())).get("token");
+            seatId = user;
+            random = new Random(user);
+        }
+    }
+
+    /**
+     * Searches the flights of a random route on a random day, as the search screen does.
+     */
+    @Benchmark
+    public String search(Client client) throws Exception {
+        int origin = 1 + client.random.nextInt(CITIES);
+        int destination = 1 + (origin + client.random.nextInt(CITIES - 1)) % CITIES;
+        return send("GET", "/api/flights?origin=" + origin + "&destination=" + destination + "&date="
+                + firstDay.plusDays(client.random.nextInt(DAYS)), null, client.token).body();
+    }
+
+    /**
+     * Lists the available seats of a random flight.
+     */
+    @Benchmark
+    public String seatMap(Client client) throws Exception {
+        return send("GET", "/api/flights/" + (1 + client.random.nextInt(flights)) + "/seats", null,
+                client.token).body();
+    }
+
+    /**
+     * Books the seat of the thread on a random flight and cancels the reservation.
+     */
+    @Benchmark
+    public int bookAndCancel(Client client) throws Exception {
+        HttpResponse<String> booked = send("POST", "/api/reservations", "{\"flightId\":"
+                + (1 + client.random.nextInt(flights)) + ",\"seatIds\":[" + client.seatId + "]}", client.token);
+        if (booked.statusCode() != 201) {
+            throw new IllegalStateException("Booking failed: " + booked.body());
+        }
+        Object id = ((Map<?, ?>) Json.parse(booked.body())).get("id");
+        return send("DELETE", "/api/reservations/" + id, null, client.token).statusCode();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String token)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).method(method,
+                body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
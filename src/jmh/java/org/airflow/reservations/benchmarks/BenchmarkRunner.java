@@ -0,0 +1,254 @@
+package org.airflow.reservations.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs the JMH benchmarks and compares them with the results of a previous run.
+ * <p>
+ * Usage: {@code BenchmarkRunner [REGEX] [JMH options...]}, normally through {@code mvn -P benchmarks verify}.
+ * The results are written as JMH JSON to the file in the {@code jmh.result} system property. When the
+ * {@code jmh.baseline} property names the JSON results of an earlier run, every benchmark present in both
+ * is compared and the runner exits with status 1 if one got more than {@code jmh.threshold} percent worse.
+ */
+public class BenchmarkRunner {
+    /** Exit status when a benchmark regressed against the baseline */
+    private static final int REGRESSION_STATUS = 1;
+
+    /**
+     * Main method to run the benchmarks.
+     *
+     * @param args the benchmarks to include as a regular expression, followed by JMH options
+     * @throws Exception if a benchmark fails or a result file cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 && !args[0].startsWith("-") ? args[0] : ".*";
+        String[] jmhArgs = args.length > 0 && !args[0].startsWith("-") ? Arrays.copyOfRange(args, 1, args.length) : args;
+        String result = System.getProperty("jmh.result", "target/jmh-result.json");
+        String baseline = System.getProperty("jmh.baseline", "");
+        double threshold = Double.parseDouble(System.getProperty("jmh.threshold", "10"));
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs))
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        System.out.println("✓ Benchmark results written to " + result);
+
+        if (!baseline.isBlank()) {
+            List<String> regressions = compare(results, Path.of(baseline), threshold);
+            if (!regressions.isEmpty()) {
+                regressions.forEach(regression -> System.err.println("⚠ Regression: " + regression));
+                System.exit(REGRESSION_STATUS);
+            }
+            System.out.println("✓ No benchmark regressed more than " + threshold + "% against " + baseline);
+        }
+    }
+
+    /**
+     * Compares the results of this run with a baseline.
+     * A benchmark regresses when its score moves in the wrong direction for its mode by more than the threshold:
+     * throughput should not go down, while times should not go up.
+     *
+     * @param results   the results of this run
+     * @param baseline  the JMH JSON results of the previous run
+     * @param threshold the largest change accepted, in percent
+     * @return a description of every regression, empty if there are none
+     * @throws IOException if the baseline cannot be read
+     */
+    static List<String> compare(Collection<RunResult> results, Path baseline, double threshold) throws IOException {
+        Map<String, Double> previous = new HashMap<>();
+        for (Object entry : (List<?>) new JsonReader(Files.readString(baseline, StandardCharsets.UTF_8)).read()) {
+            Map<?, ?> benchmark = (Map<?, ?>) entry;
+            Map<?, ?> params = (Map<?, ?>) benchmark.get("params");
+            Map<String, String> sortedParams = new TreeMap<>();
+            if (params != null) {
+                params.forEach((key, value) -> sortedParams.put((String) key, String.valueOf(value)));
+            }
+            Object score = ((Map<?, ?>) benchmark.get("primaryMetric")).get("score");
+            if (score instanceof Double) {
+                previous.put(key((String) benchmark.get("benchmark"), (String) benchmark.get("mode"), sortedParams),
+                        (Double) score);
+            }
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (RunResult result : results) {
+            Map<String, String> params = new TreeMap<>();
+            for (String name : result.getParams().getParamsKeys()) {
+                params.put(name, result.getParams().getParam(name));
+            }
+            String mode = result.getParams().getMode().shortLabel();
+            String key = key(result.getParams().getBenchmark(), mode, params);
+            Double before = previous.get(key);
+            double now = result.getPrimaryResult().getScore();
+            if (before == null || before == 0) {
+                continue;
+            }
+            double change = (now - before) / before * 100;
+            boolean worse = "thrpt".equals(mode) ? change < -threshold : change > threshold;
+            System.out.printf("%-90s %12.3f -> %12.3f %s (%+.1f%%)%n", key, before, now,
+                    result.getPrimaryResult().getScoreUnit(), change);
+            if (worse) {
+                regressions.add(String.format("%s %.3f -> %.3f %s (%+.1f%%)", key, before, now,
+                        result.getPrimaryResult().getScoreUnit(), change));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Returns the key that identifies a benchmark across runs.
+     */
+    private static String key(String benchmark, String mode, Map<String, String> params) {
+        return benchmark + " " + mode + (params.isEmpty() ? "" : " " + params);
+    }
+
+    /**
+     * Minimal reader for the JSON written by JMH.
+     * Objects are read as maps, arrays as lists, numbers as doubles.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Reads the next value.
+         */
+        Object read() {
+            skipWhitespace();
+            char c = text.charAt(position);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                default:
+            }
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            if (start == position) {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at " + position);
+            }
+            return Double.parseDouble(text.substring(start, position));
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (text.charAt(position) == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                expect(':');
+                object.put(name, read());
+                if (next(',', '}') == '}') {
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (text.charAt(position) == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(read());
+                if (next(',', ']') == ']') {
+                    return array;
+                }
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        default -> value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+
+        private void expect(char expected) {
+            skipWhitespace();
+            if (text.charAt(position) != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at " + position);
+            }
+            position++;
+        }
+
+        private char next(char separator, char end) {
+            skipWhitespace();
+            char c = text.charAt(position++);
+            if (c != separator && c != end) {
+                throw new IllegalArgumentException("Expected '" + separator + "' or '" + end + "' at " + (position - 1));
+            }
+            return c;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.airflow.reservations.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory JDBC objects for the DAO benchmarks.
+ * <p>
+ * A connection made here answers every query with the same table of rows, so the benchmarks measure
+ * how the DAOs map rows to objects and not the network or the database. Columns are read by index, or
+ * by label through a hash map as a driver does. Date-time values are kept as LocalDateTime: getObject
+ * returns them as they are and getTimestamp builds a new Timestamp for every call, as Connector/J does.
+ * <p>
+ * Preparing a statement can be given a cost, spent busy-waiting, to stand for the round trip in which
+ * the server parses the query.
+ */
+final class FakeJdbc {
+
+    private FakeJdbc() {
+    }
+
+    /**
+     * Creates a connection whose statements return a result set over the given rows.
+     *
+     * @param labels the column labels
+     * @param rows   the rows, one value per label
+     * @return the connection
+     */
+    static Connection connection(String[] labels, Object[][] rows) {
+        return connection(labels, rows, 0);
+    }
+
+    /**
+     * Creates a connection whose statements return a result set over the given rows,
+     * and whose prepared statements take some time to prepare.
+     *
+     * @param labels       the column labels
+     * @param rows         the rows, one value per label
+     * @param prepareNanos time spent preparing each statement, in nanoseconds
+     * @return the connection
+     */
+    static Connection connection(String[] labels, Object[][] rows, long prepareNanos) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            columns.put(labels[i], i);
+        }
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method) {
+            case "getColumnCount" -> labels.length;
+            case "getColumnLabel", "getColumnName" -> labels[(Integer) args[0] - 1];
+            default -> throw new UnsupportedOperationException(method);
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> switch (method) {
+            case "executeQuery" -> resultSet(columns, metaData, rows);
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "createStatement" -> statement;
+            case "prepareStatement" -> {
+                long end = System.nanoTime() + prepareNanos;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+                yield preparedStatement(columns, metaData, rows);
+            }
+            case "isClosed", "isReadOnly" -> false;
+            case "isValid", "getAutoCommit" -> true;
+            case "close", "clearWarnings" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Creates a prepared statement whose parameters are ignored and whose queries return the given rows.
+     */
+    private static PreparedStatement preparedStatement(Map<String, Integer> columns, ResultSetMetaData metaData,
+                                                       Object[][] rows) {
+        ResultSet[] last = {null};
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer) {
+                return null;
+            }
+            return switch (method) {
+                case "executeQuery" -> last[0] = resultSet(columns, metaData, rows);
+                case "getResultSet" -> last[0];
+                case "clearParameters", "clearWarnings", "close" -> null;
+                case "isClosed" -> false;
+                default -> throw new UnsupportedOperationException(method);
+            };
+        });
+    }
+
+    /**
+     * Creates a forward-only result set over the given rows.
+     */
+    private static ResultSet resultSet(Map<String, Integer> columns, ResultSetMetaData metaData, Object[][] rows) {
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++cursor[0] < rows.length;
+                case "close":
+                    return null;
+                case "wasNull":
+                    return wasNull[0];
+                case "getMetaData":
+                    return metaData;
+                default:
+            }
+            int column;
+            if (args[0] instanceof Integer index) {
+                column = index - 1;
+            } else {
+                Integer found = columns.get((String) args[0]);
+                if (found == null) {
+                    throw new SQLException("Unknown column " + args[0]);
+                }
+                column = found;
+            }
+            Object value = rows[cursor[0]][column];
+            wasNull[0] = value == null;
+            return switch (method) {
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getFloat" -> value == null ? 0f : ((Number) value).floatValue();
+                case "getBoolean" -> value != null && (Boolean) value;
+                case "getTimestamp" -> value == null ? null : Timestamp.valueOf((LocalDateTime) value);
+                case "getString", "getObject" -> value;
+                default -> throw new UnsupportedOperationException(method);
+            };
+        });
+    }
+
+    /**
+     * Handles a call to a proxied JDBC object.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws SQLException;
+    }
+
+    /**
+     * Creates a proxy of a JDBC interface that dispatches on the method name.
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}
@@ -0,0 +1,100 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.model.Flight;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast FlightDAO maps a result set of flights to Flight objects.
+ * The rows come from an in-memory result set, see {@link FakeJdbc}.
+ * <p>
+ * {@link #getAll()} goes through the row mapper of FlightDAO, which resolves the column indexes once per
+ * result set, and {@link #getAllByLabel()} reads every value by label and through Timestamp, as the DAOs
+ * did before. Run with {@code -Djmh.args="-prof gc"} to compare the bytes allocated per row as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlightMappingBenchmark {
+    /** Column labels of the flights query */
+    private static final String[] LABELS = {"id_PK", "airplane_FK", "status_FK", "origin_city_FK",
+            "destination_city_FK", "code", "departure_time", "scheduled_arrival_time", "arrival_time",
+            "price_base", "status_name", "status_description"};
+
+    /** Number of flights returned by the query */
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private FlightDAO flightDAO;
+    private Connection connection;
+
+    /**
+     * Builds the rows of the result set.
+     */
+    @Setup
+    public void setUp() {
+        Object[][] data = new Object[rows][];
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 6, 0);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime departure = start.plusMinutes(37L * i);
+            boolean flown = i % 3 == 0;
+            data[i] = new Object[]{i + 1, i % 400 + 1, flown ? 7 : 1, i % 120 + 1, (i + 7) % 120 + 1,
+                    "AF" + (1000 + i % 9000), departure, departure.plusMinutes(95),
+                    flown ? departure.plusMinutes(102) : null,
+                    89.5f + i % 300, flown ? "COMPLETED" : "SCHEDULED", flown ? "Flight completed" : "On schedule"};
+        }
+        connection = FakeJdbc.connection(LABELS, data);
+        flightDAO = new FlightDAO(connection);
+    }
+
+    /**
+     * Maps every row of the result set.
+     */
+    @Benchmark
+    public ArrayList<Flight> getAll() throws SQLException {
+        return flightDAO.getAll();
+    }
+
+    /**
+     * Maps every row of the result set by column label, without the row mapper.
+     */
+    @Benchmark
+    public ArrayList<Flight> getAllByLabel() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT * FROM flights");
+            ArrayList<Flight> flights = new ArrayList<>();
+            while (resultSet.next()) {
+                Flight flight = new Flight();
+                flight.setId(resultSet.getInt("id_PK"));
+                flight.setAirplane_FK(resultSet.getInt("airplane_FK"));
+                flight.setStatus_FK(resultSet.getInt("status_FK"));
+                flight.setOrigin_city_FK(resultSet.getInt("origin_city_FK"));
+                flight.setDestination_city_FK(resultSet.getInt("destination_city_FK"));
+                flight.setCode(resultSet.getString("code"));
+                Timestamp departure = resultSet.getTimestamp("departure_time");
+                flight.setDeparture_time(departure != null ? departure.toLocalDateTime() : null);
+                Timestamp scheduledArrival = resultSet.getTimestamp("scheduled_arrival_time");
+                flight.setScheduled_arrival_time(scheduledArrival != null ? scheduledArrival.toLocalDateTime() : null);
+                Timestamp arrival = resultSet.getTimestamp("arrival_time");
+                flight.setArrival_time(arrival != null ? arrival.toLocalDateTime() : null);
+                flight.setPrice_base(resultSet.getFloat("price_base"));
+                flight.setStatus_name(resultSet.getString("status_name"));
+                flight.setStatus_description(resultSet.getString("status_description"));
+                flights.add(flight);
+            }
+            return flights;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.utils.PasswordUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures password hashing and checking, the cost of every sign-up and login.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private String hashed;
+
+    /**
+     * Hashes the password checked by the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        hashed = PasswordUtils.hashPassword(PASSWORD);
+    }
+
+    /**
+     * Hashes a password, as a sign-up does.
+     */
+    @Benchmark
+    public String hash() {
+        return PasswordUtils.hashPassword(PASSWORD);
+    }
+
+    /**
+     * Checks a password against its hash, as a login does.
+     */
+    @Benchmark
+    public boolean check() {
+        return PasswordUtils.checkPassword(PASSWORD, hashed);
+    }
+}
@@ -0,0 +1,65 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.GUI.panels.ConfirmPanel;
+import org.airflow.reservations.model.Seat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the price total of the confirmation screen for a booking of several seats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceTotalBenchmark {
+    /** Number of seats in the booking */
+    @Param({"1", "9"})
+    public int seats;
+
+    private ArrayList<Seat> selectedSeats;
+    private Map<Seat.SeatClass, Double> hashMultipliers;
+    private Map<Seat.SeatClass, Double> enumMultipliers;
+
+    /**
+     * Builds the booking and the multipliers used by the Controller.
+     */
+    @Setup
+    public void setUp() {
+        Seat.SeatClass[] classes = Seat.SeatClass.values();
+        selectedSeats = new ArrayList<>(seats);
+        for (int i = 1; i <= seats; i++) {
+            selectedSeats.add(new Seat(i, 1, null, i + "A", classes[i % classes.length], false));
+        }
+        hashMultipliers = new HashMap<>();
+        hashMultipliers.put(Seat.SeatClass.ECONOMY, 1.0);
+        hashMultipliers.put(Seat.SeatClass.BUSINESS, 1.5);
+        hashMultipliers.put(Seat.SeatClass.FIRST, 2.0);
+        enumMultipliers = new EnumMap<>(hashMultipliers);
+    }
+
+    /**
+     * Computes the total with the multipliers in a HashMap, as the Controller passes them.
+     */
+    @Benchmark
+    public double hashMap() {
+        double subtotal = ConfirmPanel.calculateSubtotal(selectedSeats, hashMultipliers, 129.9);
+        return subtotal + subtotal * ConfirmPanel.TAX_RATE;
+    }
+
+    /**
+     * Computes the total with the multipliers in an EnumMap.
+     */
+    @Benchmark
+    public double enumMap() {
+        double subtotal = ConfirmPanel.calculateSubtotal(selectedSeats, enumMultipliers, 129.9);
+        return subtotal + subtotal * ConfirmPanel.TAX_RATE;
+    }
+}
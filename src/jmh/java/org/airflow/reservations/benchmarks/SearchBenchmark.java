@@ -0,0 +1,114 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
+import org.airflow.reservations.service.ConnectionSearchService;
+import org.airflow.reservations.service.FlightTimetable;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the search for the flights of a route on a given day.
+ * The timetable search is compared with filtering the full flight list, as the search did before the timetable.
+ * The search for itineraries with stops over the same timetable is measured as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    /** Number of cities the flights fly between */
+    private static final int CITIES = 120;
+
+    /** Number of flights in the schedule */
+    @Param({"10000", "250000"})
+    public int flights;
+
+    private ArrayList<Flight> allFlights;
+    private FlightTimetable timetable;
+    private ConnectionSearchService connectionSearch;
+    private final LocalDate firstDay = LocalDate.of(2025, 1, 1);
+    private Random random;
+
+    /**
+     * Builds a schedule of flights over 90 days and loads it into a timetable.
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        Random data = new Random(42);
+        allFlights = new ArrayList<>(flights);
+        for (int i = 1; i <= flights; i++) {
+            int origin = 1 + data.nextInt(CITIES);
+            int destination = 1 + (origin + data.nextInt(CITIES - 1)) % CITIES;
+            LocalDateTime departure = firstDay.atStartOfDay().plusMinutes(data.nextInt(90 * 24 * 60));
+            Flight flight = new Flight();
+            flight.setId(i);
+            flight.setStatus_FK(1);
+            flight.setOrigin_city_FK(origin);
+            flight.setDestination_city_FK(destination);
+            flight.setCode("AF" + i);
+            flight.setDeparture_time(departure);
+            flight.setScheduled_arrival_time(departure.plusMinutes(90));
+            flight.setPrice_base(100f);
+            allFlights.add(flight);
+        }
+        timetable = new FlightTimetable(new FlightDAO((Connection) null) {
+            @Override
+            public ArrayList<Flight> getAll() {
+                return allFlights;
+            }
+        });
+        timetable.load();
+        connectionSearch = new ConnectionSearchService(timetable, Duration.ofMinutes(45), Duration.ofHours(12));
+        random = new Random(7);
+    }
+
+    /**
+     * Searches a route and day through the timetable index.
+     */
+    @Benchmark
+    public List<Flight> timetable() {
+        int origin = 1 + random.nextInt(CITIES);
+        int destination = 1 + (origin + random.nextInt(CITIES - 1)) % CITIES;
+        LocalDateTime from = firstDay.plusDays(random.nextInt(90)).atStartOfDay();
+        return timetable.findFlights(origin, destination, from, from.plusDays(1));
+    }
+
+    /**
+     * Searches a route and day by filtering every flight.
+     */
+    @Benchmark
+    public List<Flight> linearScan() {
+        int origin = 1 + random.nextInt(CITIES);
+        int destination = 1 + (origin + random.nextInt(CITIES - 1)) % CITIES;
+        LocalDateTime from = firstDay.plusDays(random.nextInt(90)).atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        return allFlights.stream()
+                .filter(flight -> flight.getOrigin_city_FK() == origin && flight.getDestination_city_FK() == destination)
+                .filter(flight -> !flight.getDeparture_time().isBefore(from) && flight.getDeparture_time().isBefore(to))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Searches the itineraries with up to two stops between two cities on a day.
+     */
+    @Benchmark
+    public List<Itinerary> connections() throws SQLException {
+        int origin = 1 + random.nextInt(CITIES);
+        int destination = 1 + (origin + random.nextInt(CITIES - 1)) % CITIES;
+        return connectionSearch.searchItineraries(origin, destination, firstDay.plusDays(random.nextInt(90)));
+    }
+}
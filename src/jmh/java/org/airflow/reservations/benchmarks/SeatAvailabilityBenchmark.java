@@ -0,0 +1,103 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.DAO.SeatDAO;
+import org.airflow.reservations.model.FlightSeat;
+import org.airflow.reservations.model.Seat;
+import org.airflow.reservations.service.SeatInventory;
+import org.airflow.reservations.service.SeatService;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the seat availability queries of SeatService against a loaded inventory.
+ * The seats come from an in-memory SeatDAO, so only the service and the inventory are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatAvailabilityBenchmark {
+    /** Number of flights in the inventory */
+    private static final int FLIGHTS = 1_000;
+
+    /** Number of seats of the airplane of every flight */
+    @Param({"150", "400"})
+    public int seats;
+
+    private SeatService seatService;
+    private Random random;
+
+    /**
+     * Builds the seats of every flight, about 80% of them sold, and loads the inventory.
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        ArrayList<Seat> airplaneSeats = new ArrayList<>(seats);
+        for (int i = 1; i <= seats; i++) {
+            Seat.SeatClass seatClass = i <= seats / 20 ? Seat.SeatClass.FIRST
+                    : i <= seats / 5 ? Seat.SeatClass.BUSINESS : Seat.SeatClass.ECONOMY;
+            airplaneSeats.add(new Seat(i, 1, null, (i / 6 + 1) + "" + (char) ('A' + i % 6), seatClass, i % 6 == 0));
+        }
+        Random data = new Random(42);
+        ArrayList<ArrayList<FlightSeat>> flightSeats = new ArrayList<>(FLIGHTS);
+        for (int flight = 1; flight <= FLIGHTS; flight++) {
+            ArrayList<FlightSeat> inventory = new ArrayList<>(seats);
+            for (Seat seat : airplaneSeats) {
+                Integer reservation = data.nextDouble() < 0.8 ? flight * 1_000 + seat.getId() : null;
+                inventory.add(new FlightSeat(flight, seat.getId(), reservation, seat.getSeat_class()));
+            }
+            flightSeats.add(inventory);
+        }
+
+        SeatDAO seatDAO = new SeatDAO((Connection) null) {
+            @Override
+            public ArrayList<Seat> getByFlightId(int flightId) {
+                ArrayList<Seat> copies = new ArrayList<>(airplaneSeats.size());
+                for (Seat seat : airplaneSeats) {
+                    copies.add(new Seat(seat.getId(), seat.getAirplane_FK(), null, seat.getSeat_number(),
+                            seat.getSeat_class(), seat.getIs_window()));
+                }
+                return copies;
+            }
+
+            @Override
+            public ArrayList<FlightSeat> getFlightSeatsByFlightId(int flightId) {
+                return flightSeats.get(flightId - 1);
+            }
+
+            @Override
+            public Stream<FlightSeat> streamAllFlightSeats() {
+                return flightSeats.stream().flatMap(List::stream);
+            }
+        };
+        SeatInventory inventory = new SeatInventory(seatDAO);
+        inventory.rebuild();
+        seatService = new SeatService(seatDAO, inventory);
+        random = new Random(7);
+    }
+
+    /**
+     * Lists the available seats of a flight, as the seat selection screen does.
+     */
+    @Benchmark
+    public ArrayList<Seat> availableSeats() throws SQLException {
+        return seatService.getAvailableSeatsByFlightId(1 + random.nextInt(FLIGHTS));
+    }
+
+    /**
+     * Counts the available seats of a class on a flight, as the search results do.
+     */
+    @Benchmark
+    public int countAvailable() throws SQLException {
+        return seatService.countAvailableSeats(1 + random.nextInt(FLIGHTS), Seat.SeatClass.ECONOMY);
+    }
+}
@@ -0,0 +1,96 @@
+package org.airflow.reservations.benchmarks;
+
+import org.airflow.reservations.DAO.CityDAO;
+import org.airflow.reservations.model.City;
+import org.airflow.reservations.utils.ConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a DAO lookup through the connection pool with and without its prepared statement cache.
+ * Every call borrows a pooled connection, looks a city up by ID and by name, and returns the connection,
+ * as the DAOs do. Preparing a statement on the fake connections costs {@link #prepareMicros}, standing
+ * for the round trip in which MySQL parses the query, so the difference between the cache sizes is the
+ * latency the cache saves per pair of queries. The statement cache hits and misses of the measured calls
+ * are reported next to the time as the {@code statementHits} and {@code statementMisses} counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementCacheBenchmark {
+    /** Column labels of the cities table */
+    private static final String[] LABELS = {"id_PK", "name", "country", "code"};
+
+    /** Prepared statements cached per connection; 0 disables the cache */
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    /** Time the server takes to prepare a statement, in microseconds */
+    @Param({"0", "50"})
+    public int prepareMicros;
+
+    private ConnectionPool pool;
+
+    /**
+     * Creates a pool of one fake connection that answers every query with one city.
+     */
+    @Setup
+    public void setUp() {
+        Object[][] rows = {{1, "Bogotá", "Colombia", "BOG"}};
+        pool = new ConnectionPool(() -> FakeJdbc.connection(LABELS, rows, prepareMicros * 1000L),
+                1, 1, 1_000, 60_000, 0, statementCacheSize);
+    }
+
+    /**
+     * Closes the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Looks a city up by ID and by name on a borrowed connection.
+     */
+    @Benchmark
+    public City lookup(StatementCounters counters) throws SQLException {
+        long hits = pool.getStatementCacheHits();
+        long misses = pool.getStatementCacheMisses();
+        City city;
+        try (Connection connection = pool.getConnection()) {
+            CityDAO cityDAO = new CityDAO(connection);
+            cityDAO.getById(1);
+            city = cityDAO.getByName("Bogotá");
+        }
+        counters.statementHits += pool.getStatementCacheHits() - hits;
+        counters.statementMisses += pool.getStatementCacheMisses() - misses;
+        return city;
+    }
+
+    /**
+     * Statement cache hits and misses of the calls measured in one iteration, reported by JMH as secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounters {
+        /** Statements found in the cache */
+        public long statementHits;
+        /** Statements prepared on the connection */
+        public long statementMisses;
+
+        /**
+         * Starts every iteration from zero.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            statementHits = 0;
+            statementMisses = 0;
+        }
+    }
+}
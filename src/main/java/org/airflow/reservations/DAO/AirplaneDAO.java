@@ -1,31 +1,43 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.Airplane;
-import org.airflow.reservations.utils.ConnectionDB;
+import org.airflow.reservations.utils.ReferenceDataCache;
 
 import java.sql.*;
 import java.time.Year;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) class for managing Airplane entities.
  * This class provides methods to perform CRUD operations on Airplane objects in the database.
  * It implements the DAOMethods interface for generic DAO operations.
+ * Every change drops the airplanes held by the ReferenceDataCache.
  *
  * @see DAOMethods
  * @see Airplane
  */
-public class AirplaneDAO implements DAOMethods<Airplane> {
-    private Connection connection;
+public class AirplaneDAO extends BaseDAO implements DAOMethods<Airplane> {
+    /** Maps the rows of the airplanes table */
+    static final RowMapper<Airplane> ROW_MAPPER = RowMapper.of(Airplane::new)
+            .intColumn("id_PK", Airplane::setId)
+            .stringColumn("airline", Airplane::setAirline)
+            .stringColumn("model", Airplane::setModel)
+            .stringColumn("code", Airplane::setCode)
+            .intColumn("capacity", Airplane::setCapacity)
+            .intColumn("year", (airplane, year) -> airplane.setYear(Year.of(year)));
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT * FROM airplanes";
 
     /**
      * Default constructor for AirplaneDAO class.
-     * Initializes the AirplaneDAO with a new database connection.
+     * Initializes the AirplaneDAO so that each operation borrows a connection from the pool.
      *
      * @throws SQLException if a database access error occurs
      */
     public AirplaneDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -35,7 +47,7 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
      * @param connection the connection to be used by the DAO
      */
     public AirplaneDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -46,15 +58,28 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
      */
     @Override
     public ArrayList<Airplane> getAll() throws SQLException {
-        String query = "SELECT * FROM airplanes";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
+            ArrayList<Airplane> airplanes = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList<Airplane> airplanes = transformResultsToClassArray(resultSet);
-        statement.close();
+            return airplanes;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return airplanes;
+    /**
+     * Streams all airplanes from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all Airplane objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<Airplane> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -68,14 +93,17 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
     public Airplane getById(int id) throws SQLException {
         String query = "SELECT * FROM airplanes WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        Airplane airplane = transformResultsToClass(resultSet);
-        statement.close();
-        return airplane;
+            Airplane airplane = ROW_MAPPER.mapOne(resultSet);
+            return airplane;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -88,15 +116,19 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
     public void create(Airplane object) throws SQLException {
         String query = "INSERT INTO airplanes (airline, model, code, capacity, year) VALUES (?, ?, ?, ?, ?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, object.getAirline());
-        statement.setString(2, object.getModel());
-        statement.setString(3, object.getCode());
-        statement.setInt(4, object.getCapacity());
-        statement.setInt(5, object.getYear().getValue());
-
-        statement.executeUpdate();
-        statement.close();
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, object.getAirline());
+            statement.setString(2, object.getModel());
+            statement.setString(3, object.getCode());
+            statement.setInt(4, object.getCapacity());
+            statement.setInt(5, object.getYear().getValue());
+
+            statement.executeUpdate();
+            ReferenceDataCache.airplanesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -110,16 +142,20 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
     public void update(int id, Airplane toUpdate) throws SQLException {
         String query = "UPDATE airplanes SET airline = ?, model = ?, code = ?, capacity = ?, year = ? WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, toUpdate.getAirline());
-        statement.setString(2, toUpdate.getModel());
-        statement.setString(3, toUpdate.getCode());
-        statement.setInt(4, toUpdate.getCapacity());
-        statement.setInt(5, toUpdate.getYear().getValue());
-        statement.setInt(6, id);
-
-        statement.executeUpdate();
-        statement.close();
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, toUpdate.getAirline());
+            statement.setString(2, toUpdate.getModel());
+            statement.setString(3, toUpdate.getCode());
+            statement.setInt(4, toUpdate.getCapacity());
+            statement.setInt(5, toUpdate.getYear().getValue());
+            statement.setInt(6, id);
+
+            statement.executeUpdate();
+            ReferenceDataCache.airplanesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -132,11 +168,15 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM airplanes WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+            ReferenceDataCache.airplanesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -148,66 +188,14 @@ public class AirplaneDAO implements DAOMethods<Airplane> {
      */
     public Airplane getByCode(String code) throws SQLException {
         String query = "SELECT * FROM airplanes WHERE code = ?";
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, code);
-        ResultSet resultSet = statement.executeQuery();
-        Airplane airplane = transformResultsToClass(resultSet);
-        statement.close();
-        return airplane;
-    }
-
-    /**
-     * Transforms the results from a ResultSet into an Airplane object.
-     *
-     * @param resultSet the ResultSet containing airplane data
-     * @return an Airplane object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private Airplane transformResultsToClass(ResultSet resultSet) throws SQLException {
-        Airplane airplane = new Airplane();
-
-        if (resultSet.next()) {
-            airplane.setId(resultSet.getInt("id_PK"));
-            airplane.setAirline(resultSet.getString("airline"));
-            airplane.setModel(resultSet.getString("model"));
-            airplane.setCode(resultSet.getString("code"));
-            airplane.setCapacity(resultSet.getInt("capacity"));
-            airplane.setYear(Year.of(resultSet.getInt("year")));
-        }
-
-        return airplane;
-    }
-
-    /**
-     * Transforms the results from a ResultSet into an ArrayList of Airplane objects.
-     *
-     * @param resultSet the ResultSet containing airplane data
-     * @return an ArrayList of Airplane objects populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private ArrayList<Airplane> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<Airplane> airplanes = new ArrayList<>();
-
-        while (resultSet.next()) {
-            Airplane airplane = new Airplane();
-            airplane.setId(resultSet.getInt("id_PK"));
-            airplane.setAirline(resultSet.getString("airline"));
-            airplane.setModel(resultSet.getString("model"));
-            airplane.setCode(resultSet.getString("code"));
-            airplane.setCapacity(resultSet.getInt("capacity"));
-            airplane.setYear(Year.of(resultSet.getInt("year")));
-            airplanes.add(airplane);
+        Connection connection = acquireConnection("getByCode");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, code);
+            ResultSet resultSet = statement.executeQuery();
+            Airplane airplane = ROW_MAPPER.mapOne(resultSet);
+            return airplane;
+        } finally {
+            releaseConnection(connection);
         }
-
-        return airplanes;
-    }
-
-    // Getters and Setters
-    public Connection getConnection() {
-        return connection;
-    }
-
-    public void setConnection(Connection connection) {
-        this.connection = connection;
     }
 }
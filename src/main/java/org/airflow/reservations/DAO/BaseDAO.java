@@ -0,0 +1,326 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.utils.ConnectionDB;
+import org.airflow.reservations.utils.LatencyHistogram;
+import org.airflow.reservations.utils.MetricsRegistry;
+import org.airflow.reservations.utils.QueryEvent;
+import org.airflow.reservations.utils.SlowQueryLog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base class for the DAOs that centralizes how database connections are obtained.
+ * A DAO created with an explicit connection uses it for every operation and never closes it,
+ * so the caller can run several DAOs inside one transaction. A DAO created without a connection
+ * borrows one from the {@link ConnectionDB} pool for each operation and returns it right after.
+ * <p>
+ * Streaming reads hold their connection until the stream is closed, and fetch the rows from a
+ * server-side cursor {@link #getFetchSize()} rows at a time, so they run in constant memory
+ * whatever the size of the table. The default fetch size is read from the system property
+ * {@code airflow.db.fetchSize}.
+ * <p>
+ * Every operation that acquires its connection with {@link #acquireConnection(String)} is timed, from
+ * borrowing the connection to releasing it, in the {@code airflow_dao_latency_seconds} histogram of the
+ * {@link MetricsRegistry#global() global registry}, labelled with the DAO class and the operation name.
+ * While a Flight Recorder recording has it enabled, the same operations are also recorded as
+ * {@link QueryEvent}s with the number of rows they mapped, and their statements are timed by the
+ * shared {@link SlowQueryLog}, which wraps the connection given to the operation.
+ */
+public abstract class BaseDAO {
+    /** Rows fetched per round trip by streaming reads unless a DAO sets its own */
+    private static final int DEFAULT_FETCH_SIZE = Integer.getInteger("airflow.db.fetchSize", 1000);
+    /** Timed operations of every DAO class, by operation name */
+    private static final ClassValue<ConcurrentHashMap<String, Operation>> OPERATIONS = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<String, Operation> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    /** Log of the statements slower than its threshold */
+    private static final SlowQueryLog SLOW_QUERIES = SlowQueryLog.getShared();
+    /** Timed operations running on every thread */
+    private static final ThreadLocal<RunningOperations> RUNNING = ThreadLocal.withInitial(RunningOperations::new);
+
+    /** Connection supplied by the caller, or null to borrow pooled connections per operation */
+    private Connection connection;
+    /** Rows fetched per round trip by the streaming reads of this DAO */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Creates a DAO that borrows a pooled connection for each operation.
+     */
+    protected BaseDAO() {
+        this.connection = null;
+    }
+
+    /**
+     * Creates a DAO bound to a caller-managed connection.
+     *
+     * @param connection the connection to be used by the DAO
+     */
+    protected BaseDAO(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the connection to use for one operation.
+     * Every call must be paired with {@link #releaseConnection(Connection)} in a finally block.
+     *
+     * @return the caller-managed connection, or a connection borrowed from the pool
+     * @throws SQLException if no pooled connection can be obtained
+     */
+    protected Connection acquireConnection() throws SQLException {
+        Connection bound = connection;
+        return bound != null ? bound : ConnectionDB.getConnection();
+    }
+
+    /**
+     * Returns the connection for one operation and starts timing it.
+     * The time is recorded when the connection is given to {@link #releaseConnection(Connection)}.
+     * The connection is wrapped so its slow statements reach the slow-query log.
+     *
+     * @param operation the name of the operation, usually the name of the DAO method
+     * @return the caller-managed connection, or a connection borrowed from the pool
+     * @throws SQLException if no pooled connection can be obtained
+     */
+    protected Connection acquireConnection(String operation) throws SQLException {
+        long start = System.nanoTime();
+        Connection acquired = acquireConnection();
+        Operation timed = operation(operation);
+        RUNNING.get().push(timed, start, acquired);
+        return SLOW_QUERIES.wrap(acquired, timed.sqlId());
+    }
+
+    /**
+     * Releases a connection obtained from {@link #acquireConnection()} or {@link #acquireConnection(String)},
+     * recording the time of the operation in the second case.
+     * Pooled connections go back to the pool; caller-managed connections are left open.
+     *
+     * @param acquired the connection to release
+     * @throws SQLException if the connection cannot be returned
+     */
+    protected void releaseConnection(Connection acquired) throws SQLException {
+        Connection unwrapped = SlowQueryLog.unwrap(acquired);
+        try {
+            returnConnection(unwrapped);
+        } finally {
+            RUNNING.get().finish(unwrapped);
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool; leaves a caller-managed one open.
+     */
+    private void returnConnection(Connection acquired) throws SQLException {
+        if (acquired != null && acquired != connection) {
+            acquired.close();
+        }
+    }
+
+    /**
+     * Returns a timed operation of this DAO class.
+     */
+    private Operation operation(String name) {
+        ConcurrentHashMap<String, Operation> operations = OPERATIONS.get(getClass());
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            String dao = getClass().getSimpleName();
+            operation = operations.computeIfAbsent(name, key -> new Operation(dao + "." + key,
+                    MetricsRegistry.global().histogram("airflow_dao_latency_seconds",
+                            "Time of the DAO operations, from acquiring to releasing the connection",
+                            "dao", dao, "method", key)));
+        }
+        return operation;
+    }
+
+    /**
+     * Adds rows mapped by a RowMapper to the innermost timed operation of the current thread.
+     *
+     * @param rows the number of rows mapped
+     */
+    static void countRows(int rows) {
+        RunningOperations running = RUNNING.get();
+        if (running.size > 0) {
+            running.rows[running.size - 1] += rows;
+        }
+    }
+
+    /**
+     * Runs a query and streams its rows mapped to objects, reading them from a server-side cursor.
+     * The connection, statement and result set stay open until the stream is closed, so the stream
+     * must be used in a try-with-resources block. A database error while reading the rows is thrown
+     * as an {@link IllegalStateException} whose cause is the SQLException.
+     *
+     * @param query      the SQL query, with ? placeholders
+     * @param mapper     maps every row
+     * @param parameters the values of the placeholders, in order
+     * @return a sequential stream over the rows
+     * @throws SQLException if the query cannot be run
+     */
+    protected <T> Stream<T> streamQuery(String query, RowMapper<T> mapper, Object... parameters) throws SQLException {
+        Connection acquired = acquireConnection();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = acquired.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            resultSet = statement.executeQuery();
+            RowMapper.Reader<T> reader = mapper.reader(resultSet);
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!reader.next()) {
+                            return false;
+                        }
+                        action.accept(reader.get());
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error reading the rows of a stream: " + e.getMessage(), e);
+                    }
+                }
+            };
+            PreparedStatement openStatement = statement;
+            ResultSet openResultSet = resultSet;
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    closeAll(openResultSet, openStatement, acquired);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error closing a stream: " + e.getMessage(), e);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            try {
+                closeAll(resultSet, statement, acquired);
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the result set and statement of a stream and releases its connection,
+     * releasing the connection even if closing the others fails.
+     */
+    private void closeAll(ResultSet resultSet, PreparedStatement statement, Connection acquired) throws SQLException {
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+        } finally {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } finally {
+                returnConnection(acquired);
+            }
+        }
+    }
+
+    // Getters and Setters
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public void setConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets how many rows the streaming reads of this DAO fetch per round trip.
+     *
+     * @param fetchSize the number of rows, greater than zero
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("The fetch size must be greater than zero");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * A timed operation of a DAO class.
+     *
+     * @param sqlId the DAO class and operation name, such as FlightDAO.getById
+     * @param timer the latency histogram of the operation
+     */
+    private record Operation(String sqlId, LatencyHistogram timer) {
+    }
+
+    /**
+     * Stack of the timed operations running on one thread. An operation is finished when the connection
+     * it acquired is released; operations of other DAOs may run inside it on the same thread.
+     */
+    private static final class RunningOperations {
+        private Operation[] operations = new Operation[4];
+        private long[] starts = new long[4];
+        private Connection[] connections = new Connection[4];
+        private long[] rows = new long[4];
+        /** Flight Recorder events of the operations, null while the event is disabled */
+        private QueryEvent[] events = new QueryEvent[4];
+        private int size;
+
+        private void push(Operation operation, long start, Connection acquired) {
+            if (size == operations.length) {
+                operations = Arrays.copyOf(operations, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                connections = Arrays.copyOf(connections, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+                events = Arrays.copyOf(events, size * 2);
+            }
+            operations[size] = operation;
+            starts[size] = start;
+            connections[size] = acquired;
+            rows[size] = 0;
+            QueryEvent event = new QueryEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                events[size] = event;
+            }
+            size++;
+        }
+
+        /**
+         * Records the innermost operation if it acquired the connection being released.
+         */
+        private void finish(Connection acquired) {
+            if (size > 0 && connections[size - 1] == acquired) {
+                size--;
+                operations[size].timer().record(System.nanoTime() - starts[size]);
+                QueryEvent event = events[size];
+                if (event != null) {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.sqlId = operations[size].sqlId();
+                        event.rows = rows[size];
+                        event.commit();
+                    }
+                    events[size] = null;
+                }
+                operations[size] = null;
+                connections[size] = null;
+            }
+        }
+    }
+}
@@ -1,30 +1,40 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.City;
-import org.airflow.reservations.utils.ConnectionDB;
+import org.airflow.reservations.utils.ReferenceDataCache;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) class for managing City entities.
  * This class provides methods to perform CRUD operations on City objects in the database.
  * It implements the DAOMethods interface for generic DAO operations.
+ * Every change drops the cities held by the ReferenceDataCache.
  *
  * @see DAOMethods
  * @see City
  */
-public class CityDAO implements DAOMethods<City> {
-    private Connection connection;
+public class CityDAO extends BaseDAO implements DAOMethods<City> {
+    /** Maps the rows of the cities table */
+    static final RowMapper<City> ROW_MAPPER = RowMapper.of(City::new)
+            .intColumn("id_PK", City::setId)
+            .stringColumn("name", City::setName)
+            .stringColumn("country", City::setCountry)
+            .stringColumn("code", City::setCode);
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT * FROM cities";
 
     /**
      * Default constructor for CityDAO class.
-     * Initializes the CityDAO with a new database connection.
+     * Initializes the CityDAO so that each operation borrows a connection from the pool.
      *
      * @throws SQLException if a database access error occurs
      */
     public CityDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -34,7 +44,7 @@ public class CityDAO implements DAOMethods<City> {
      * @param connection the connection to be used by the DAO
      */
     public CityDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -45,15 +55,28 @@ public class CityDAO implements DAOMethods<City> {
      */
     @Override
     public ArrayList<City> getAll() throws SQLException {
-        String query = "SELECT * FROM cities";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
+            ArrayList<City> cities = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList<City> cities = transformResultsToClassArray(resultSet);
-        statement.close();
+            return cities;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return cities;
+    /**
+     * Streams all cities from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all City objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<City> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -67,14 +90,17 @@ public class CityDAO implements DAOMethods<City> {
     public City getById(int id) throws SQLException {
         String query = "SELECT * FROM cities WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        City city = transformResultsToClass(resultSet);
-        statement.close();
-        return city;
+            City city = ROW_MAPPER.mapOne(resultSet);
+            return city;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -87,13 +113,17 @@ public class CityDAO implements DAOMethods<City> {
     public void create(City object) throws SQLException {
         String query = "INSERT INTO cities (name, country, code) VALUES (?, ?, ?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, object.getName());
-        statement.setString(2, object.getCountry());
-        statement.setString(3, object.getCode());
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, object.getName());
+            statement.setString(2, object.getCountry());
+            statement.setString(3, object.getCode());
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+            ReferenceDataCache.citiesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -107,14 +137,18 @@ public class CityDAO implements DAOMethods<City> {
     public void update(int id, City toUpdate) throws SQLException {
         String query = "UPDATE cities SET name = ?, country = ?, code = ? WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, toUpdate.getName());
-        statement.setString(2, toUpdate.getCountry());
-        statement.setString(3, toUpdate.getCode());
-        statement.setInt(4, id);
-
-        statement.executeUpdate();
-        statement.close();
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, toUpdate.getName());
+            statement.setString(2, toUpdate.getCountry());
+            statement.setString(3, toUpdate.getCode());
+            statement.setInt(4, id);
+
+            statement.executeUpdate();
+            ReferenceDataCache.citiesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -127,11 +161,15 @@ public class CityDAO implements DAOMethods<City> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM cities WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+            ReferenceDataCache.citiesChanged();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -144,68 +182,20 @@ public class CityDAO implements DAOMethods<City> {
     public City getByName(String name) throws SQLException {
         String query = "SELECT * FROM cities WHERE name = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, name);
-
-        ResultSet resultSet = statement.executeQuery();
-
-        City city = transformResultsToClass(resultSet);
-
-        statement.close();
-
-        return city;
-    }
+        Connection connection = acquireConnection("getByName");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, name);
 
+            ResultSet resultSet = statement.executeQuery();
 
+            City city = ROW_MAPPER.mapOne(resultSet);
 
-    /**
-     * Transforms the results from a ResultSet into a City object.
-     *
-     * @param resultSet the ResultSet containing city data
-     * @return a City object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private City transformResultsToClass(ResultSet resultSet) throws SQLException {
-        City city = new City();
-
-        if (resultSet.next()) {
-            city.setId(resultSet.getInt("id_PK"));
-            city.setName(resultSet.getString("name"));
-            city.setCountry(resultSet.getString("country"));
-            city.setCode(resultSet.getString("code"));
-        }
-
-        return city;
-    }
 
-    /**
-     * Transforms the results from a ResultSet into an ArrayList of City objects.
-     *
-     * @param resultSet the ResultSet containing city data
-     * @return an ArrayList of City objects populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private ArrayList<City> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<City> cities = new ArrayList<>();
-
-        while (resultSet.next()) {
-            City city = new City();
-            city.setId(resultSet.getInt("id_PK"));
-            city.setName(resultSet.getString("name"));
-            city.setCountry(resultSet.getString("country"));
-            city.setCode(resultSet.getString("code"));
-            cities.add(city);
+            return city;
+        } finally {
+            releaseConnection(connection);
         }
-
-        return cities;
     }
 
-    // Getters and Setters
-    public Connection getConnection() {
-        return connection;
-    }
 
-    public void setConnection(Connection connection) {
-        this.connection = connection;
-    }
 }
@@ -0,0 +1,300 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.utils.ConnectionDB;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Creates the DAOs for the storage backend chosen at startup.
+ * <p>
+ * The backend is read once from the {@value #STORAGE_PROPERTY} system property:
+ * <ul>
+ *     <li>{@code mysql} (default): the DAOs read and write the MySQL database through {@link ConnectionDB}.</li>
+ *     <li>{@code memory}: the DAOs use an {@link InMemoryStore}; nothing touches the database.</li>
+ *     <li>{@code replica}: like {@code memory}, but the store starts as a copy of the database.
+ *     Later writes stay in memory.</li>
+ * </ul>
+ * With an in-memory backend, {@value #SNAPSHOT_PROPERTY} names a snapshot file that is loaded at startup,
+ * if it exists, and written again when the JVM exits.
+ */
+public final class DAOFactory {
+    /** System property selecting the storage backend */
+    public static final String STORAGE_PROPERTY = "airflow.storage";
+    /** System property with the snapshot file of the in-memory backend */
+    public static final String SNAPSHOT_PROPERTY = "airflow.storage.snapshot";
+
+    /** The in-memory store, or null when the DAOs use the database */
+    private static volatile InMemoryStore store;
+    /** Whether the backend has been chosen */
+    private static volatile boolean configured;
+
+    private DAOFactory() {
+    }
+
+    /**
+     * Returns whether the DAOs use the in-memory store.
+     *
+     * @return true for the memory and replica backends
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static boolean isInMemory() throws SQLException {
+        return store() != null;
+    }
+
+    /**
+     * Returns the in-memory store of the DAOs.
+     *
+     * @return the store, or null when the DAOs use the database
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static InMemoryStore getStore() throws SQLException {
+        return store();
+    }
+
+    /**
+     * Makes the DAOs created from now on use an in-memory store, whatever the system property says.
+     * Services and shared caches created before keep the DAOs they have.
+     *
+     * @param inMemoryStore the store
+     */
+    public static synchronized void useInMemory(InMemoryStore inMemoryStore) {
+        store = inMemoryStore;
+        configured = true;
+    }
+
+    /**
+     * Makes the DAOs created from now on use the database, whatever the system property says.
+     */
+    public static synchronized void useDatabase() {
+        store = null;
+        configured = true;
+    }
+
+    /**
+     * Returns a connection for a transaction spanning several DAOs created with it.
+     *
+     * @return a pooled database connection, or a connection of the in-memory store
+     * @throws SQLException if no connection can be obtained
+     */
+    public static Connection getConnection() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? current.getConnection() : ConnectionDB.getConnection();
+    }
+
+    /**
+     * Returns a UsersDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static UsersDAO usersDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryUsersDAO(current, null) : new UsersDAO();
+    }
+
+    /**
+     * Returns a UsersDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static UsersDAO usersDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryUsersDAO(current, connection) : new UsersDAO(connection);
+    }
+
+    /**
+     * Returns a CityDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static CityDAO cityDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryCityDAO(current, null) : new CityDAO();
+    }
+
+    /**
+     * Returns a CityDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static CityDAO cityDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryCityDAO(current, connection) : new CityDAO(connection);
+    }
+
+    /**
+     * Returns an AirplaneDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static AirplaneDAO airplaneDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryAirplaneDAO(current, null) : new AirplaneDAO();
+    }
+
+    /**
+     * Returns an AirplaneDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static AirplaneDAO airplaneDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryAirplaneDAO(current, connection) : new AirplaneDAO(connection);
+    }
+
+    /**
+     * Returns a SeatDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static SeatDAO seatDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemorySeatDAO(current, null) : new SeatDAO();
+    }
+
+    /**
+     * Returns a SeatDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static SeatDAO seatDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemorySeatDAO(current, connection) : new SeatDAO(connection);
+    }
+
+    /**
+     * Returns a ReservationDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static ReservationDAO reservationDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryReservationDAO(current, null) : new ReservationDAO();
+    }
+
+    /**
+     * Returns a ReservationDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static ReservationDAO reservationDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryReservationDAO(current, connection) : new ReservationDAO(connection);
+    }
+
+    /**
+     * Returns a FlightDAO that borrows a connection for each operation.
+     *
+     * @return the DAO
+     * @throws SQLException if the DAO cannot be created
+     */
+    public static FlightDAO flightDAO() throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryFlightDAO(current, null) : new FlightDAO();
+    }
+
+    /**
+     * Returns a FlightDAO bound to a connection from {@link #getConnection()}.
+     *
+     * @param connection the connection
+     * @return the DAO
+     * @throws SQLException if the replica cannot be copied from the database
+     */
+    public static FlightDAO flightDAO(Connection connection) throws SQLException {
+        InMemoryStore current = store();
+        return current != null ? new InMemoryFlightDAO(current, connection) : new FlightDAO(connection);
+    }
+
+    /**
+     * Returns the in-memory store, choosing the backend on the first call.
+     */
+    private static InMemoryStore store() throws SQLException {
+        if (!configured) {
+            configure();
+        }
+        return store;
+    }
+
+    /**
+     * Chooses the backend from the system properties and prepares the in-memory store if one is needed.
+     */
+    private static synchronized void configure() throws SQLException {
+        if (configured) {
+            return;
+        }
+        String backend = System.getProperty(STORAGE_PROPERTY, "mysql").trim().toLowerCase(Locale.ROOT);
+        switch (backend) {
+            case "mysql":
+                store = null;
+                break;
+            case "memory":
+            case "replica":
+                store = openStore(backend.equals("replica"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown " + STORAGE_PROPERTY + " '" + backend
+                        + "', use mysql, memory or replica");
+        }
+        configured = true;
+    }
+
+    /**
+     * Opens the in-memory store: from the snapshot if there is one, otherwise as a copy of the database
+     * for a replica or empty. If a snapshot file is configured, the store is saved to it on exit.
+     */
+    private static InMemoryStore openStore(boolean replica) throws SQLException {
+        String snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+        Path snapshotPath = (snapshot == null || snapshot.isBlank()) ? null : Paths.get(snapshot);
+
+        InMemoryStore opened;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            try {
+                opened = InMemoryStore.load(snapshotPath);
+                System.out.println("✓ In-memory store loaded from " + snapshotPath);
+            } catch (IOException e) {
+                throw new SQLException("Cannot load the snapshot " + snapshotPath + ": " + e.getMessage(), e);
+            }
+        } else if (replica) {
+            try (Connection connection = ConnectionDB.getConnection()) {
+                opened = InMemoryStore.copyOf(connection);
+            }
+            System.out.println("✓ In-memory store copied from the database");
+        } else {
+            opened = new InMemoryStore();
+            System.out.println("✓ In-memory store started empty");
+        }
+
+        if (snapshotPath != null) {
+            InMemoryStore toSave = opened;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    toSave.save(snapshotPath);
+                    System.out.println("✓ In-memory store saved to " + snapshotPath);
+                } catch (IOException e) {
+                    System.err.println("⚠ Error saving the in-memory store to " + snapshotPath + ": " + e.getMessage());
+                }
+            }, "airflow-snapshot"));
+        }
+        return opened;
+    }
+}
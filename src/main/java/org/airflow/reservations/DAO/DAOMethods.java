@@ -3,6 +3,8 @@ package org.airflow.reservations.DAO;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interface defining the methods for Data Access Object (DAO) operations.
@@ -20,6 +22,36 @@ public interface DAOMethods<T> {
      */
     ArrayList<T> getAll() throws SQLException;
 
+    /**
+     * Generic method to stream all objects of type T without loading them all in memory.
+     * The stream holds database resources until it is closed, so use it in a try-with-resources block.
+     * A database error while reading is thrown as an IllegalStateException whose cause is the SQLException.
+     * By default the objects are read with {@link #getAll()}.
+     *
+     * @return a stream of all objects of type T.
+     * @throws SQLException if a database access error occurs.
+     */
+    default Stream<T> stream() throws SQLException {
+        return getAll().stream();
+    }
+
+    /**
+     * Generic method to pass all objects of type T to an action, one at a time, through {@link #stream()}.
+     *
+     * @param action the action to be performed on each object.
+     * @throws SQLException if a database access error occurs.
+     */
+    default void forEach(Consumer<? super T> action) throws SQLException {
+        try (Stream<T> objects = stream()) {
+            objects.forEach(action);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Generic method to get an object of type T by its ID.
      *
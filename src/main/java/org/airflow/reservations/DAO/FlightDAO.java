@@ -1,11 +1,17 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.*;
-import org.airflow.reservations.utils.ConnectionDB;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Base64;
 
 /**
  * Data Access Object (DAO) class for managing Flight entities.
@@ -15,17 +21,35 @@ import java.util.ArrayList;
  * @see DAOMethods
  * @see Flight
  */
-public class FlightDAO implements DAOMethods<Flight> {
-    private Connection connection;
+public class FlightDAO extends BaseDAO implements DAOMethods<Flight> {
+    /** Maps the rows of the flights table joined with the name and description of their status */
+    static final RowMapper<Flight> ROW_MAPPER = RowMapper.of(Flight::new)
+            .intColumn("id_PK", Flight::setId)
+            .intColumn("airplane_FK", Flight::setAirplane_FK)
+            .intColumn("status_FK", Flight::setStatus_FK)
+            .intColumn("origin_city_FK", Flight::setOrigin_city_FK)
+            .intColumn("destination_city_FK", Flight::setDestination_city_FK)
+            .stringColumn("code", Flight::setCode)
+            .dateTimeColumn("departure_time", Flight::setDeparture_time)
+            .dateTimeColumn("scheduled_arrival_time", Flight::setScheduled_arrival_time)
+            .dateTimeColumn("arrival_time", Flight::setArrival_time)
+            .floatColumn("price_base", Flight::setPrice_base)
+            .stringColumn("status_name", Flight::setStatus_name)
+            .stringColumn("status_description", Flight::setStatus_description);
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT f.*, fs.name as status_name, fs.description as status_description " +
+            "FROM flights f " +
+            "JOIN flight_status fs ON f.status_FK = fs.id_PK";
 
     /**
      * Default constructor for FlightDAO class.
-     * Initializes the FlightDAO with a new database connection.
+     * Initializes the FlightDAO so that each operation borrows a connection from the pool.
      *
      * @throws SQLException if a database access error occurs
      */
     public FlightDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -35,7 +59,7 @@ public class FlightDAO implements DAOMethods<Flight> {
      * @param connection the connection to be used by the DAO
      */
     public FlightDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -46,17 +70,28 @@ public class FlightDAO implements DAOMethods<Flight> {
      */
     @Override
     public ArrayList<Flight> getAll() throws SQLException {
-        String query = "SELECT f.*, fs.name as status_name, fs.description as status_description " +
-                "FROM flights f " +
-                "JOIN flight_status fs ON f.status_FK = fs.id_PK";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        statement.close();
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return flights;
+    /**
+     * Streams all flights from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all Flight objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<Flight> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -73,18 +108,22 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        Flight flight = transformResultsToClass(resultSet);
-        statement.close();
-        return flight;
+            Flight flight = ROW_MAPPER.mapOne(resultSet);
+            return flight;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
-     * Inserts a new flight into the database.
+     * Inserts a new flight into the database and creates its seat inventory from the seats of its airplane.
+     * The generated ID is set on the given Flight object.
      *
      * @param object the Flight object to be created in the database
      * @throws SQLException if a database access error occurs
@@ -94,28 +133,40 @@ public class FlightDAO implements DAOMethods<Flight> {
         String query = "INSERT INTO flights (airplane_FK, status_FK, origin_city_FK, destination_city_FK, " +
                 "code, departure_time, scheduled_arrival_time, arrival_time, price_base) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, object.getAirplane_FK());
-        statement.setInt(2, object.getStatus_FK());
-        statement.setInt(3, object.getOrigin_city_FK());
-        statement.setInt(4, object.getDestination_city_FK());
-        statement.setString(5, object.getCode());
-        statement.setTimestamp(6, Timestamp.valueOf(object.getDeparture_time()));
-        statement.setTimestamp(7, Timestamp.valueOf(object.getScheduled_arrival_time()));
-        // Handle possible NULL values for arrival_time
-        if (object.getArrival_time() != null) {
-            statement.setTimestamp(8, Timestamp.valueOf(object.getArrival_time()));
-        } else {
-            statement.setNull(8, Types.TIMESTAMP);
-        }
-        statement.setFloat(9, object.getPrice_base());
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setInt(1, object.getAirplane_FK());
+            statement.setInt(2, object.getStatus_FK());
+            statement.setInt(3, object.getOrigin_city_FK());
+            statement.setInt(4, object.getDestination_city_FK());
+            statement.setString(5, object.getCode());
+            statement.setTimestamp(6, Timestamp.valueOf(object.getDeparture_time()));
+            statement.setTimestamp(7, Timestamp.valueOf(object.getScheduled_arrival_time()));
+            // Handle possible NULL values for arrival_time
+            if (object.getArrival_time() != null) {
+                statement.setTimestamp(8, Timestamp.valueOf(object.getArrival_time()));
+            } else {
+                statement.setNull(8, Types.TIMESTAMP);
+            }
+            statement.setFloat(9, object.getPrice_base());
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    object.setId(generatedKeys.getInt(1));
+                    syncFlightSeats(connection, object.getId(), object.getAirplane_FK());
+                }
+            }
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
      * Updates an existing flight in the database.
+     * If the airplane changed, the free seats of the previous airplane are removed from the flight's
+     * inventory and the seats of the new airplane are added.
      *
      * @param id the unique identifier of the flight to be updated
      * @param toUpdate the Flight object containing updated data
@@ -127,25 +178,57 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "destination_city_FK = ?, code = ?, departure_time = ?, scheduled_arrival_time = ?, arrival_time = ?, price_base = ? " +
                 "WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, toUpdate.getAirplane_FK());
-        statement.setInt(2, toUpdate.getStatus_FK());
-        statement.setInt(3, toUpdate.getOrigin_city_FK());
-        statement.setInt(4, toUpdate.getDestination_city_FK());
-        statement.setString(5, toUpdate.getCode());
-        statement.setTimestamp(6, Timestamp.valueOf(toUpdate.getDeparture_time()));
-        statement.setTimestamp(7, Timestamp.valueOf(toUpdate.getScheduled_arrival_time()));
-        // Handle possible NULL values for arrival_time
-        if (toUpdate.getArrival_time() != null) {
-            statement.setTimestamp(8, Timestamp.valueOf(toUpdate.getArrival_time()));
-        } else {
-            statement.setNull(8, Types.TIMESTAMP);
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, toUpdate.getAirplane_FK());
+            statement.setInt(2, toUpdate.getStatus_FK());
+            statement.setInt(3, toUpdate.getOrigin_city_FK());
+            statement.setInt(4, toUpdate.getDestination_city_FK());
+            statement.setString(5, toUpdate.getCode());
+            statement.setTimestamp(6, Timestamp.valueOf(toUpdate.getDeparture_time()));
+            statement.setTimestamp(7, Timestamp.valueOf(toUpdate.getScheduled_arrival_time()));
+            // Handle possible NULL values for arrival_time
+            if (toUpdate.getArrival_time() != null) {
+                statement.setTimestamp(8, Timestamp.valueOf(toUpdate.getArrival_time()));
+            } else {
+                statement.setNull(8, Types.TIMESTAMP);
+            }
+            statement.setFloat(9, toUpdate.getPrice_base());
+            statement.setInt(10, id);
+
+            statement.executeUpdate();
+            syncFlightSeats(connection, id, toUpdate.getAirplane_FK());
+        } finally {
+            releaseConnection(connection);
         }
-        statement.setFloat(9, toUpdate.getPrice_base());
-        statement.setInt(10, id);
+    }
 
-        statement.executeUpdate();
-        statement.close();
+    /**
+     * Makes the seat inventory of a flight match the seats of its airplane.
+     * Seats already in the inventory keep their reservation; free seats that do not belong
+     * to the airplane are removed.
+     *
+     * @param connection the connection to run the statements on
+     * @param flightId   the ID of the flight
+     * @param airplaneId the ID of the airplane operating the flight
+     * @throws SQLException if a database access error occurs
+     */
+    private void syncFlightSeats(Connection connection, int flightId, int airplaneId) throws SQLException {
+        String removeQuery = "DELETE FROM flight_seats WHERE flight_FK = ? AND reservation_FK IS NULL " +
+                "AND seat_FK NOT IN (SELECT id_PK FROM seats WHERE airplane_FK = ?)";
+        String addQuery = "INSERT IGNORE INTO flight_seats (flight_FK, seat_FK) " +
+                "SELECT ?, id_PK FROM seats WHERE airplane_FK = ?";
+
+        try (PreparedStatement remove = connection.prepareStatement(removeQuery);
+             PreparedStatement add = connection.prepareStatement(addQuery)) {
+            remove.setInt(1, flightId);
+            remove.setInt(2, airplaneId);
+            remove.executeUpdate();
+
+            add.setInt(1, flightId);
+            add.setInt(2, airplaneId);
+            add.executeUpdate();
+        }
     }
 
     /**
@@ -158,11 +241,14 @@ public class FlightDAO implements DAOMethods<Flight> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM flights WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -178,14 +264,17 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.code LIKE ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, code);
+        Connection connection = acquireConnection("getByCode");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, code);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        statement.close();
-        return flights;
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -201,99 +290,21 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "FROM flights f " +
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.code = ?";
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, code);
-        ResultSet resultSet = statement.executeQuery();
-
-        Flight flight = transformResultsToClass(resultSet); // Llama a transformResultsToClass directamente
-        statement.close();
-
-        // Si no se encontró un vuelo, transformResultsToClass devolverá un objeto Flight con id=0
-        if (flight != null && flight.getId() == 0) {
-            return null;
-        }
-        return flight;
-    }
-
-    /**
-     * Transforms the results from a ResultSet into a Flight object.
-     *
-     * @param resultSet the ResultSet containing flight data
-     * @return a Flight object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private Flight transformResultsToClass(ResultSet resultSet) throws SQLException {
-        Flight flight = new Flight();
-
-        if (resultSet.next()) {
-            flight.setId(resultSet.getInt("id_PK"));
-            flight.setAirplane_FK(resultSet.getInt("airplane_FK"));
-            flight.setStatus_FK(resultSet.getInt("status_FK"));
-            flight.setOrigin_city_FK(resultSet.getInt("origin_city_FK"));
-            flight.setDestination_city_FK(resultSet.getInt("destination_city_FK"));
-            flight.setCode(resultSet.getString("code"));
-
-            // Manejo de posibles valores NULL para columnas Timestamp
-            Timestamp departureTimestamp = resultSet.getTimestamp("departure_time");
-            flight.setDeparture_time((departureTimestamp != null) ? departureTimestamp.toLocalDateTime() : null);
-
-            Timestamp scheduledArrivalTimestamp = resultSet.getTimestamp("scheduled_arrival_time");
-            flight.setScheduled_arrival_time((scheduledArrivalTimestamp != null) ? scheduledArrivalTimestamp.toLocalDateTime() : null);
+        Connection connection = acquireConnection("getByCodeOb");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, code);
+            ResultSet resultSet = statement.executeQuery();
 
-            // CORRECCIÓN: Usar arrivalTimestamp para la verificación de nulidad
-            Timestamp arrivalTimestamp = resultSet.getTimestamp("arrival_time");
-            flight.setArrival_time((arrivalTimestamp != null) ? arrivalTimestamp.toLocalDateTime() : null);
+            Flight flight = ROW_MAPPER.mapOne(resultSet);
 
-            flight.setPrice_base(resultSet.getFloat("price_base"));
-
-            // Set status information from join
-            flight.setStatus_name(resultSet.getString("status_name"));
-            flight.setStatus_description(resultSet.getString("status_description"));
-        }
-
-        return flight;
-    }
-
-    /**
-     * Transforms the results from a ResultSet into an ArrayList of Flight objects.
-     *
-     * @param resultSet the ResultSet containing flight data
-     * @return an ArrayList of Flight objects populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private ArrayList<Flight> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<Flight> flights = new ArrayList<>();
-
-        while (resultSet.next()) {
-            Flight flight = new Flight();
-            flight.setId(resultSet.getInt("id_PK"));
-            flight.setAirplane_FK(resultSet.getInt("airplane_FK"));
-            flight.setStatus_FK(resultSet.getInt("status_FK"));
-            flight.setOrigin_city_FK(resultSet.getInt("origin_city_FK"));
-            flight.setDestination_city_FK(resultSet.getInt("destination_city_FK"));
-            flight.setCode(resultSet.getString("code"));
-
-            // Manejo de posibles valores NULL para columnas Timestamp
-            Timestamp departureTimestamp = resultSet.getTimestamp("departure_time");
-            flight.setDeparture_time((departureTimestamp != null) ? departureTimestamp.toLocalDateTime() : null);
-
-            Timestamp scheduledArrivalTimestamp = resultSet.getTimestamp("scheduled_arrival_time");
-            flight.setScheduled_arrival_time((scheduledArrivalTimestamp != null) ? scheduledArrivalTimestamp.toLocalDateTime() : null);
-
-            // CORRECCIÓN: Usar arrivalTimestamp para la verificación de nulidad
-            Timestamp arrivalTimestamp = resultSet.getTimestamp("arrival_time");
-            flight.setArrival_time((arrivalTimestamp != null) ? arrivalTimestamp.toLocalDateTime() : null);
-
-            flight.setPrice_base(resultSet.getFloat("price_base"));
-
-            // Set status information from join
-            flight.setStatus_name(resultSet.getString("status_name"));
-            flight.setStatus_description(resultSet.getString("status_description"));
-            // Add the flight to the list
-            flights.add(flight);
+            // Si no se encontró un vuelo, ROW_MAPPER devolverá un objeto Flight con id=0
+            if (flight != null && flight.getId() == 0) {
+                return null;
+            }
+            return flight;
+        } finally {
+            releaseConnection(connection);
         }
-
-        return flights;
     }
 
     /**
@@ -309,14 +320,17 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.origin_city_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, cityId);
+        Connection connection = acquireConnection("getByOriginCity");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, cityId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        statement.close();
-        return flights;
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -332,14 +346,17 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.destination_city_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, cityId);
+        Connection connection = acquireConnection("getByDestinationCity");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, cityId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        statement.close();
-        return flights;
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -368,40 +385,43 @@ public class FlightDAO implements DAOMethods<Flight> {
         System.out.println("DEBUG (FlightDAO): Parámetros - ID Destino: " + destinationCityId + ", ID Origen: " + originCityId);
 
         // ¡CAMBIO CLAVE AQUÍ! Crear un PreparedStatement con un ResultSet desplazable
-        PreparedStatement statement = connection.prepareStatement(
+        Connection connection = acquireConnection("getByDestinationAndOriginCity");
+        try (PreparedStatement statement = connection.prepareStatement(
             query,
             ResultSet.TYPE_SCROLL_INSENSITIVE, // Permite mover el cursor hacia adelante y hacia atrás
             ResultSet.CONCUR_READ_ONLY         // Indica que el ResultSet es de solo lectura (más eficiente)
-        );
-        statement.setInt(1, destinationCityId);
-        statement.setInt(2, originCityId);
-
-        ResultSet resultSet = statement.executeQuery();
-
-        // Debug: Imprimir contenido del ResultSet (esto ahora funcionará y luego se podrá reposicionar)
-        System.out.println("DEBUG (FlightDAO): Contenido del ResultSet para getByDestinationAndOriginCity:");
-        ResultSetMetaData metaData = resultSet.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        int rowCount = 0;
-        while (resultSet.next()) { // Primera iteración para depuración
-            rowCount++;
-            StringBuilder row = new StringBuilder();
-            for (int i = 1; i <= columnCount; i++) {
-                row.append(metaData.getColumnName(i)).append(": ").append(resultSet.getObject(i)).append(" | ");
+        )) {
+            statement.setInt(1, destinationCityId);
+            statement.setInt(2, originCityId);
+
+            ResultSet resultSet = statement.executeQuery();
+
+            // Debug: Imprimir contenido del ResultSet (esto ahora funcionará y luego se podrá reposicionar)
+            System.out.println("DEBUG (FlightDAO): Contenido del ResultSet para getByDestinationAndOriginCity:");
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            int rowCount = 0;
+            while (resultSet.next()) { // Primera iteración para depuración
+                rowCount++;
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columnCount; i++) {
+                    row.append(metaData.getColumnName(i)).append(": ").append(resultSet.getObject(i)).append(" | ");
+                }
+                System.out.println("  Fila " + rowCount + ": " + row.toString());
             }
-            System.out.println("  Fila " + rowCount + ": " + row.toString());
-        }
-        System.out.println("DEBUG (FlightDAO): Total de filas en ResultSet antes de transformar: " + rowCount);
+            System.out.println("DEBUG (FlightDAO): Total de filas en ResultSet antes de transformar: " + rowCount);
 
-        // Mover el cursor del ResultSet de nuevo al principio antes de pasarlo a transformResultsToClassArray
-        // Esto ahora es posible porque el ResultSet es desplazable.
-        resultSet.beforeFirst();
+            // Mover el cursor del ResultSet de nuevo al principio antes de pasarlo a ROW_MAPPER
+            // Esto ahora es posible porque el ResultSet es desplazable.
+            resultSet.beforeFirst();
 
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        System.out.println("DEBUG (FlightDAO): Número de vuelos después de transformResultsToClassArray: " + flights.size());
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+            System.out.println("DEBUG (FlightDAO): Número de vuelos después de ROW_MAPPER: " + flights.size());
 
-        statement.close(); // Asegúrate de cerrar el statement, que también cerrará el resultSet
-        return flights;
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
 }
 
     /**
@@ -416,20 +436,195 @@ public class FlightDAO implements DAOMethods<Flight> {
                 "FROM flights f " +
                 "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
                 "WHERE f.departure_time <= ? AND f.departure_time >= ?";
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setTimestamp(1, Timestamp.valueOf(topRange));
-        statement.setTimestamp(2,Timestamp.valueOf(bottomRange));
-        ResultSet resultSet = statement.executeQuery();
-        ArrayList<Flight> flights = transformResultsToClassArray(resultSet);
-        statement.close();
-        return flights;
+        Connection connection = acquireConnection("getByDepartureTimeRange");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setTimestamp(1, Timestamp.valueOf(topRange));
+            statement.setTimestamp(2,Timestamp.valueOf(bottomRange));
+            ResultSet resultSet = statement.executeQuery();
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+            return flights;
+        } finally {
+            releaseConnection(connection);
+        }
     }
-    // Getters and Setters
-    public Connection getConnection() {
-        return connection;
+
+    /**
+     * Searches the flights of a route departing within a time range, one page at a time.
+     * The filters, the order and the page limit are applied by the database, so only the rows
+     * of the requested page are transferred. Pages use keyset pagination: the page token carries
+     * the sort key and ID of the last flight returned, and the next page starts right after it.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the range ends (exclusive)
+     * @param statusFilter      the status IDs to include, or null to include every status except CANCELLED
+     * @param sort              the order of the results
+     * @param pageToken         the token returned with the previous page, or null for the first page
+     * @param pageSize          the maximum number of flights in the page
+     * @return the page of flights, with the token of the next page if there are more results
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if the page token is invalid or was issued for another sort
+     */
+    public FlightPage search(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to,
+                             int[] statusFilter, FlightPage.Sort sort, String pageToken, int pageSize) throws SQLException {
+        String sortColumn = (sort == FlightPage.Sort.PRICE) ? "f.price_base" : "f.departure_time";
+        String[] after = (pageToken != null) ? decodePageToken(pageToken, sort) : null;
+
+        StringBuilder query = new StringBuilder("SELECT f.*, fs.name as status_name, fs.description as status_description " +
+                "FROM flights f " +
+                "JOIN flight_status fs ON f.status_FK = fs.id_PK " +
+                "WHERE f.origin_city_FK = ? AND f.destination_city_FK = ? " +
+                "AND f.departure_time >= ? AND f.departure_time < ?");
+        if (statusFilter == null) {
+            query.append(" AND f.status_FK <> ").append(Flight.CANCELLED_STATUS);
+        } else if (statusFilter.length > 0) {
+            query.append(" AND f.status_FK IN (").append("?, ".repeat(statusFilter.length - 1)).append("?)");
+        } else {
+            return new FlightPage();
+        }
+        if (after != null) {
+            query.append(" AND (").append(sortColumn).append(" > ? OR (")
+                    .append(sortColumn).append(" = ? AND f.id_PK > ?))");
+        }
+        query.append(" ORDER BY ").append(sortColumn).append(", f.id_PK LIMIT ?");
+
+        Connection connection = acquireConnection("search");
+        try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+            int index = 1;
+            statement.setInt(index++, originCityId);
+            statement.setInt(index++, destinationCityId);
+            statement.setTimestamp(index++, Timestamp.valueOf(from));
+            statement.setTimestamp(index++, Timestamp.valueOf(to));
+            if (statusFilter != null) {
+                for (int statusId : statusFilter) {
+                    statement.setInt(index++, statusId);
+                }
+            }
+            if (after != null) {
+                Object key = (sort == FlightPage.Sort.PRICE)
+                        ? new BigDecimal(after[1])
+                        : Timestamp.valueOf(LocalDateTime.parse(after[1]));
+                statement.setObject(index++, key);
+                statement.setObject(index++, key);
+                statement.setInt(index++, Integer.parseInt(after[2]));
+            }
+            // One extra row tells whether there is a next page
+            statement.setInt(index, pageSize + 1);
+
+            ResultSet resultSet = statement.executeQuery();
+            ArrayList<Flight> flights = ROW_MAPPER.mapAll(resultSet);
+
+            String nextPageToken = null;
+            if (flights.size() > pageSize) {
+                flights.remove(pageSize);
+                nextPageToken = encodePageToken(flights.get(pageSize - 1), sort);
+            }
+            return new FlightPage(flights, nextPageToken);
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
-    public void setConnection(Connection connection) {
-        this.connection = connection;
+    /**
+     * Cuts one page out of flights that are already filtered by route, time range and status,
+     * in the same order and with the same page tokens as {@link #search}, so searches answered
+     * from memory can be paged like the ones answered by the database.
+     *
+     * @param flights   the flights matching the search, in any order; the list is not modified
+     * @param sort      the order of the results, or null to sort by departure time
+     * @param pageToken the token returned with the previous page, or null for the first page
+     * @param pageSize  the maximum number of flights in the page
+     * @return the page of flights, with the token of the next page if there are more results
+     * @throws IllegalArgumentException if the page token is invalid or was issued for another sort
+     */
+    public static FlightPage page(List<Flight> flights, FlightPage.Sort sort, String pageToken, int pageSize) {
+        FlightPage.Sort order = (sort != null) ? sort : FlightPage.Sort.DEPARTURE_TIME;
+        Comparator<Flight> comparator = (order == FlightPage.Sort.PRICE)
+                ? Comparator.comparing(FlightDAO::priceKey)
+                : Comparator.comparing(Flight::getDeparture_time);
+        comparator = comparator.thenComparingInt(Flight::getId);
+
+        Flight last = null;
+        if (pageToken != null) {
+            String[] after = decodePageToken(pageToken, order);
+            last = new Flight();
+            last.setId(Integer.parseInt(after[2]));
+            if (order == FlightPage.Sort.PRICE) {
+                last.setPrice_base(new BigDecimal(after[1]).floatValue());
+            } else {
+                last.setDeparture_time(LocalDateTime.parse(after[1]));
+            }
+        }
+
+        ArrayList<Flight> page = new ArrayList<>();
+        for (Flight flight : flights) {
+            if (last == null || comparator.compare(flight, last) > 0) {
+                page.add(flight);
+            }
+        }
+        page.sort(comparator);
+
+        String nextPageToken = null;
+        if (page.size() > pageSize) {
+            page.subList(pageSize, page.size()).clear();
+            nextPageToken = encodePageToken(page.get(pageSize - 1), order);
+        }
+        return new FlightPage(page, nextPageToken);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the base price of a flight rounded to the two decimals of the price_base column.
+     */
+    private static BigDecimal priceKey(Flight flight) {
+        return new BigDecimal(Float.toString(flight.getPrice_base())).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Builds the token of the page that follows a flight.
+     * The price is written with the two decimals of the price_base column so that it
+     * compares equal to the stored value.
+     *
+     * @param last the last flight of the current page
+     * @param sort the order of the results
+     * @return the opaque page token
+     */
+    static String encodePageToken(Flight last, FlightPage.Sort sort) {
+        String key = (sort == FlightPage.Sort.PRICE)
+                ? new BigDecimal(Float.toString(last.getPrice_base())).setScale(2, RoundingMode.HALF_UP).toPlainString()
+                : last.getDeparture_time().toString();
+        String token = sort.name() + "|" + key + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a page token.
+     *
+     * @param pageToken the token to read
+     * @param sort      the order of the results the token must belong to
+     * @return the sort name, the sort key and the flight ID stored in the token
+     * @throws IllegalArgumentException if the token is invalid or was issued for another sort
+     */
+    static String[] decodePageToken(String pageToken, FlightPage.Sort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        if (parts.length != 3 || !parts[0].equals(sort.name())) {
+            throw new IllegalArgumentException("Invalid page token for sort " + sort);
+        }
+        try {
+            if (sort == FlightPage.Sort.PRICE) {
+                new BigDecimal(parts[1]);
+            } else {
+                LocalDateTime.parse(parts[1]);
+            }
+            Integer.parseInt(parts[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        return parts;
+    }
+}
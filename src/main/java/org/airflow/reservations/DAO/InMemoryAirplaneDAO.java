@@ -0,0 +1,111 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.Airplane;
+import org.airflow.reservations.utils.ReferenceDataCache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+/**
+ * AirplaneDAO backed by an {@link InMemoryStore} instead of the database.
+ * It returns the same results as AirplaneDAO and, like it, drops the airplanes held by the ReferenceDataCache on every change.
+ *
+ * @see AirplaneDAO
+ * @see InMemoryStore
+ */
+public class InMemoryAirplaneDAO extends AirplaneDAO {
+    /** The store holding the airplanes */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemoryAirplaneDAO.
+     *
+     * @param store      the store holding the airplanes
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemoryAirplaneDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<Airplane> getAll() {
+        return store.airplanes.all();
+    }
+
+    /**
+     * Streams the airplanes returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<Airplane> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public Airplane getById(int id) {
+        Airplane airplane = store.airplanes.get(id);
+        return airplane == null ? new Airplane() : airplane;
+    }
+
+    /**
+     * Inserts a new airplane and sets its generated ID.
+     *
+     * @param object the Airplane object to be created
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void create(Airplane object) throws SQLException {
+        store.write(getConnection(), () -> {
+            int id = store.airplanes.nextId();
+            object.setId(id);
+            store.airplanes.put(id, object);
+            return null;
+        });
+        ReferenceDataCache.airplanesChanged();
+    }
+
+    @Override
+    public void update(int id, Airplane toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.airplanes.get(id) != null) {
+                Airplane airplane = InMemoryStore.copy(toUpdate);
+                airplane.setId(id);
+                store.airplanes.put(id, airplane);
+            }
+            return null;
+        });
+        ReferenceDataCache.airplanesChanged();
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> store.airplanes.remove(id));
+        ReferenceDataCache.airplanesChanged();
+    }
+
+    /**
+     * Retrieves an airplane by its code, ignoring case, from the code index.
+     *
+     * @param code the code of the airplane to be retrieved
+     * @return the airplane with the lowest ID and that code, or an empty Airplane if there is none
+     */
+    @Override
+    public Airplane getByCode(String code) {
+        int[] ids = store.airplanesByCode.get(InMemoryStore.lowerCase(code));
+        Airplane airplane = ids.length == 0 ? null : store.airplanes.get(ids[0]);
+        return airplane == null ? new Airplane() : airplane;
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemoryAirplaneDAO does not use a database connection");
+    }
+}
@@ -0,0 +1,111 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.City;
+import org.airflow.reservations.utils.ReferenceDataCache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+/**
+ * CityDAO backed by an {@link InMemoryStore} instead of the database.
+ * It returns the same results as CityDAO and, like it, drops the cities held by the ReferenceDataCache on every change.
+ *
+ * @see CityDAO
+ * @see InMemoryStore
+ */
+public class InMemoryCityDAO extends CityDAO {
+    /** The store holding the cities */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemoryCityDAO.
+     *
+     * @param store      the store holding the cities
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemoryCityDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<City> getAll() {
+        return store.cities.all();
+    }
+
+    /**
+     * Streams the cities returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<City> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public City getById(int id) {
+        City city = store.cities.get(id);
+        return city == null ? new City() : city;
+    }
+
+    /**
+     * Inserts a new city and sets its generated ID.
+     *
+     * @param object the City object to be created
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void create(City object) throws SQLException {
+        store.write(getConnection(), () -> {
+            int id = store.cities.nextId();
+            object.setId(id);
+            store.cities.put(id, object);
+            return null;
+        });
+        ReferenceDataCache.citiesChanged();
+    }
+
+    @Override
+    public void update(int id, City toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.cities.get(id) != null) {
+                City city = InMemoryStore.copy(toUpdate);
+                city.setId(id);
+                store.cities.put(id, city);
+            }
+            return null;
+        });
+        ReferenceDataCache.citiesChanged();
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> store.cities.remove(id));
+        ReferenceDataCache.citiesChanged();
+    }
+
+    /**
+     * Retrieves a city by its name, ignoring case, from the name index.
+     *
+     * @param name the name of the city to be retrieved
+     * @return the city with the lowest ID and that name, or an empty City if there is none
+     */
+    @Override
+    public City getByName(String name) {
+        int[] ids = store.citiesByName.get(InMemoryStore.lowerCase(name));
+        City city = ids.length == 0 ? null : store.cities.get(ids[0]);
+        return city == null ? new City() : city;
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemoryCityDAO does not use a database connection");
+    }
+}
@@ -0,0 +1,247 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.FlightPage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * FlightDAO backed by an {@link InMemoryStore} instead of the database.
+ * Routes are looked up in the origin and destination index of the store and departure ranges in its
+ * sorted departure index, so a search only reads the flights it may return. Searches use the same
+ * page tokens as FlightDAO.
+ *
+ * @see FlightDAO
+ * @see InMemoryStore
+ */
+public class InMemoryFlightDAO extends FlightDAO {
+    /** The store holding the flights */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemoryFlightDAO.
+     *
+     * @param store      the store holding the flights
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemoryFlightDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<Flight> getAll() {
+        return withStatus(store.flights.all());
+    }
+
+    /**
+     * Streams the flights returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<Flight> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public Flight getById(int id) {
+        ArrayList<Flight> flights = withStatus(store.flights.get(new int[]{id}));
+        return flights.isEmpty() ? new Flight() : flights.get(0);
+    }
+
+    /**
+     * Inserts a new flight, sets its generated ID and creates its seat inventory from the seats of its airplane.
+     *
+     * @param object the Flight object to be created
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void create(Flight object) throws SQLException {
+        store.write(getConnection(), () -> {
+            int id = store.flights.nextId();
+            object.setId(id);
+            store.flights.put(id, object);
+            syncFlightSeats(id, object.getAirplane_FK());
+            return null;
+        });
+    }
+
+    /**
+     * Updates an existing flight and makes its seat inventory match the seats of its airplane.
+     *
+     * @param id       the unique identifier of the flight to be updated
+     * @param toUpdate the Flight object containing updated data
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void update(int id, Flight toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.flights.get(id) != null) {
+                Flight flight = InMemoryStore.copy(toUpdate);
+                flight.setId(id);
+                store.flights.put(id, flight);
+                syncFlightSeats(id, toUpdate.getAirplane_FK());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a flight and, as the ON DELETE CASCADE of flight_seats, its seat inventory.
+     *
+     * @param id the unique identifier of the flight to be deleted
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.flights.remove(id)) {
+                for (int seatId : store.flightSeats(id).seatIds) {
+                    store.removeFlightSeat(id, seatId);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the flights whose code matches a LIKE pattern, ignoring case.
+     * A pattern without wildcards is looked up in the code index.
+     *
+     * @param code the code, or a LIKE pattern
+     * @return the matching flights
+     */
+    @Override
+    public ArrayList<Flight> getByCode(String code) {
+        if (code == null) {
+            return new ArrayList<>();
+        }
+        if (!InMemoryStore.hasWildcards(code)) {
+            return withStatus(store.flights.get(store.flightsByCode.get(InMemoryStore.lowerCase(code))));
+        }
+        Pattern pattern = InMemoryStore.likePattern(code);
+        ArrayList<Flight> flights = getAll();
+        flights.removeIf(flight -> flight.getCode() == null || !pattern.matcher(flight.getCode()).matches());
+        return flights;
+    }
+
+    @Override
+    public Flight getByCodeOb(String code) {
+        ArrayList<Flight> flights = withStatus(store.flights.get(store.flightsByCode.get(InMemoryStore.lowerCase(code))));
+        return flights.isEmpty() ? null : flights.get(0);
+    }
+
+    @Override
+    public ArrayList<Flight> getByOriginCity(int cityId) {
+        return withStatus(store.flights.get(store.flightsByOrigin.get(cityId)));
+    }
+
+    @Override
+    public ArrayList<Flight> getByDestinationCity(int cityId) {
+        return withStatus(store.flights.get(store.flightsByDestination.get(cityId)));
+    }
+
+    @Override
+    public ArrayList<Flight> getByDestinationAndOriginCity(int destinationCityId, int originCityId) {
+        return withStatus(store.flights.get(store.flightsByRoute.get(InMemoryStore.routeKey(originCityId, destinationCityId))));
+    }
+
+    @Override
+    public ArrayList<Flight> getByDepartureTimeRange(LocalDateTime bottomRange, LocalDateTime topRange) {
+        return withStatus(store.flights.get(store.flightsByDeparture.range(bottomRange, true, topRange, true)));
+    }
+
+    /**
+     * Searches the flights of a route departing within a time range, one page at a time.
+     * The route index gives the candidate flights, which are filtered and then paged by {@link #page}.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the range ends (exclusive)
+     * @param statusFilter      the status IDs to include, or null to include every status except CANCELLED
+     * @param sort              the order of the results
+     * @param pageToken         the token returned with the previous page, or null for the first page
+     * @param pageSize          the maximum number of flights in the page
+     * @return the page of flights, with the token of the next page if there are more results
+     * @throws IllegalArgumentException if the page token is invalid or was issued for another sort
+     */
+    @Override
+    public FlightPage search(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to,
+                             int[] statusFilter, FlightPage.Sort sort, String pageToken, int pageSize) {
+        if (pageToken != null) {
+            decodePageToken(pageToken, sort);
+        }
+        if (statusFilter != null && statusFilter.length == 0) {
+            return new FlightPage();
+        }
+
+        ArrayList<Flight> flights = new ArrayList<>();
+        for (Flight flight : getByDestinationAndOriginCity(destinationCityId, originCityId)) {
+            LocalDateTime departure = flight.getDeparture_time();
+            if (departure == null || departure.isBefore(from) || !departure.isBefore(to)) {
+                continue;
+            }
+            boolean statusMatches = (statusFilter == null)
+                    ? flight.getStatus_FK() != Flight.CANCELLED_STATUS
+                    : Arrays.stream(statusFilter).anyMatch(statusId -> statusId == flight.getStatus_FK());
+            if (statusMatches) {
+                flights.add(flight);
+            }
+        }
+        return page(flights, sort, pageToken, pageSize);
+    }
+
+    /**
+     * Makes the seat inventory of a flight match the seats of its airplane, as FlightDAO does:
+     * free seats of other airplanes are removed and missing seats of the airplane are added.
+     * Must be called inside a write of the store.
+     */
+    private void syncFlightSeats(int flightId, int airplaneId) {
+        int[] airplaneSeats = store.seatsByAirplane.get(airplaneId);
+        InMemoryStore.FlightSeats inventory = store.flightSeats(flightId);
+        for (int i = 0; i < inventory.seatIds.length; i++) {
+            int seatId = inventory.seatIds[i];
+            if (inventory.reservations.get(i) == 0 && Arrays.binarySearch(airplaneSeats, seatId) < 0) {
+                store.removeFlightSeat(flightId, seatId);
+            }
+        }
+        for (int seatId : airplaneSeats) {
+            store.addFlightSeat(flightId, seatId);
+        }
+    }
+
+
+    /**
+     * Sets the name and description of the status of every flight, dropping the ones with an unknown
+     * status as the join with flight_status does.
+     */
+    private ArrayList<Flight> withStatus(ArrayList<Flight> flights) {
+        flights.removeIf(flight -> {
+            String[] status = store.flightStatuses.get(flight.getStatus_FK());
+            if (status == null) {
+                return true;
+            }
+            flight.setStatus_name(status[0]);
+            flight.setStatus_description(status[1]);
+            return false;
+        });
+        return flights;
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemoryFlightDAO does not use a database connection");
+    }
+}
@@ -0,0 +1,217 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Reservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ReservationDAO backed by an {@link InMemoryStore} instead of the database.
+ * Reservations are found through the user and flight indexes of the store, and come with the name and
+ * description of their status, as the join of ReservationDAO gives them.
+ *
+ * @see ReservationDAO
+ * @see InMemoryStore
+ */
+public class InMemoryReservationDAO extends ReservationDAO {
+    /** The store holding the reservations */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemoryReservationDAO.
+     *
+     * @param store      the store holding the reservations
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemoryReservationDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<Reservation> getAll() {
+        return withStatus(store.reservations.all());
+    }
+
+    /**
+     * Streams the reservations returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<Reservation> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public Reservation getById(int id) {
+        ArrayList<Reservation> reservations = withStatus(store.reservations.get(new int[]{id}));
+        return reservations.isEmpty() ? new Reservation() : reservations.get(0);
+    }
+
+    @Override
+    public void create(Reservation object) throws SQLException {
+        store.write(getConnection(), () -> {
+            int id = store.reservations.nextId();
+            object.setId(id);
+            store.reservations.put(id, object);
+            return null;
+        });
+    }
+
+    /**
+     * Creates the reservations one after another; with a connection of the store they share its transaction.
+     */
+    @Override
+    public void createAll(List<Reservation> reservations) throws SQLException {
+        for (Reservation reservation : reservations) {
+            create(reservation);
+        }
+    }
+
+    @Override
+    public void update(int id, Reservation toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.reservations.get(id) != null) {
+                Reservation reservation = InMemoryStore.copy(toUpdate);
+                reservation.setId(id);
+                store.reservations.put(id, reservation);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a reservation and, as the ON DELETE SET NULL of flight_seats, frees the seats it held.
+     *
+     * @param id the unique identifier of the reservation to be deleted
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.reservations.remove(id)) {
+                for (long key : store.seatsOfReservation(id)) {
+                    store.setSeatReservation((int) (key >>> 32), (int) key, 0);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Reservation> getByUserId(int userId) {
+        return withStatus(store.reservations.get(store.reservationsByUser.get(userId)));
+    }
+
+    @Override
+    public ArrayList<Reservation> getByFlightId(int flightId) {
+        return withStatus(store.reservations.get(store.reservationsByFlight.get(flightId)));
+    }
+
+    @Override
+    public ArrayList<Reservation> getByFlightIdAndUserId(int flightId, int userId) {
+        ArrayList<Reservation> reservations = getByUserId(userId);
+        reservations.removeIf(reservation -> reservation.getFlight_FK() != flightId);
+        reservations.sort(Comparator.comparing(Reservation::getReserved_at,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return reservations;
+    }
+
+    /**
+     * Cancels, in one chunk of at most {@code limit}, the reservations of the flights departing within a time range
+     * that are not already cancelled, checked in or completed. Selecting and cancelling happen under one write lock.
+     *
+     * @param bottomRange the earliest departure time to include
+     * @param topRange    the latest departure time to include
+     * @param limit       the maximum number of reservations to cancel
+     * @return the number of reservations cancelled; fewer than {@code limit} when no more remain
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public int cancelUnconfirmedByDepartureRange(LocalDateTime bottomRange, LocalDateTime topRange, int limit) throws SQLException {
+        return store.write(getConnection(), () -> {
+            int cancelled = 0;
+            for (int flightId : store.flightsByDeparture.range(bottomRange, true, topRange, true)) {
+                for (Reservation reservation : store.reservations.get(store.reservationsByFlight.get(flightId))) {
+                    if (cancelled == limit) {
+                        return cancelled;
+                    }
+                    int status = reservation.getStatus_FK();
+                    if (status != 2 && status != 4 && status != 5) {
+                        reservation.setStatus_FK(2);
+                        store.reservations.put(reservation.getId(), reservation);
+                        cancelled++;
+                    }
+                }
+            }
+            return cancelled;
+        });
+    }
+
+    @Override
+    public int completeCheckedInByFlightId(int flightId) throws SQLException {
+        return store.write(getConnection(), () -> completeCheckedIn(flightId));
+    }
+
+    @Override
+    public int completeCheckedInByDepartureRange(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return store.write(getConnection(), () -> {
+            int completed = 0;
+            for (int flightId : store.flightsByDeparture.range(from, true, to, false)) {
+                Flight flight = store.flights.get(flightId);
+                if (flight != null && flight.getStatus_FK() == 7) {
+                    completed += completeCheckedIn(flightId);
+                }
+            }
+            return completed;
+        });
+    }
+
+    /**
+     * Moves the checked-in reservations of a flight to completed. Must be called inside a write of the store.
+     */
+    private int completeCheckedIn(int flightId) {
+        int completed = 0;
+        for (Reservation reservation : store.reservations.get(store.reservationsByFlight.get(flightId))) {
+            if (reservation.getStatus_FK() == 4) {
+                reservation.setStatus_FK(5);
+                store.reservations.put(reservation.getId(), reservation);
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Sets the name and description of the status of every reservation, dropping the ones with an unknown
+     * status as the join with reservations_status does.
+     */
+    private ArrayList<Reservation> withStatus(ArrayList<Reservation> reservations) {
+        reservations.removeIf(reservation -> {
+            String[] status = store.reservationStatuses.get(reservation.getStatus_FK());
+            if (status == null) {
+                return true;
+            }
+            reservation.setStatus_name(status[0]);
+            reservation.setStatus_description(status[1]);
+            return false;
+        });
+        return reservations;
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemoryReservationDAO does not use a database connection");
+    }
+}
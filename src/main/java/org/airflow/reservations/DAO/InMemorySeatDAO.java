@@ -0,0 +1,310 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.FlightSeat;
+import org.airflow.reservations.model.Seat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * SeatDAO backed by an {@link InMemoryStore} instead of the database.
+ * The seat inventory of a flight is read from the arrays of the store, and claiming or releasing seats
+ * checks and sets every seat under the write lock, with the same counts as the conditional UPDATEs of SeatDAO.
+ *
+ * @see SeatDAO
+ * @see InMemoryStore
+ */
+public class InMemorySeatDAO extends SeatDAO {
+    /** The store holding the seats */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemorySeatDAO.
+     *
+     * @param store      the store holding the seats
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemorySeatDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<Seat> getAll() {
+        return store.seats.all();
+    }
+
+    /**
+     * Streams the seats returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<Seat> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public Seat getById(int id) {
+        Seat seat = store.seats.get(id);
+        return seat == null ? new Seat() : seat;
+    }
+
+    /**
+     * Inserts a new seat, sets its generated ID and adds it, as available, to every flight of its airplane.
+     *
+     * @param object the Seat object to be created
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void create(Seat object) throws SQLException {
+        store.write(getConnection(), () -> {
+            int id = store.seats.nextId();
+            object.setId(id);
+            store.seats.put(id, object);
+            for (int flightId : store.flightsByAirplane.get(object.getAirplane_FK())) {
+                store.addFlightSeat(flightId, id);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void update(int id, Seat toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.seats.get(id) != null) {
+                Seat seat = InMemoryStore.copy(toUpdate);
+                seat.setId(id);
+                store.seats.put(id, seat);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a seat and, as the ON DELETE CASCADE of flight_seats, removes it from every flight.
+     *
+     * @param id the unique identifier of the seat to be deleted
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.seats.remove(id)) {
+                for (int flightId : store.flightsWithSeats()) {
+                    store.removeFlightSeat(flightId, id);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Seat> getByAirplaneId(int airplaneId) {
+        return store.seats.get(store.seatsByAirplane.get(airplaneId));
+    }
+
+    @Override
+    public ArrayList<Seat> getByReservationId(int reservationId) {
+        ArrayList<Seat> seats = new ArrayList<>();
+        for (long key : store.seatsOfReservation(reservationId)) {
+            Seat seat = store.seats.get((int) key);
+            if (seat != null) {
+                seat.setReservation_FK(reservationId);
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    @Deprecated
+    @Override
+    public ArrayList<Seat> getAvailableSeatsByAirplaneId(int airplaneId) {
+        ArrayList<Seat> seats = getByAirplaneId(airplaneId);
+        seats.removeIf(seat -> seat.getReservation_FK() != null);
+        return seats;
+    }
+
+    @Deprecated
+    @Override
+    public ArrayList<Seat> getByavailableSeatsByAirplaneIdClassAndWindow(int airplaneId, String Class, boolean Window) {
+        ArrayList<Seat> seats = getAvailableSeatsByAirplaneId(airplaneId);
+        seats.removeIf(seat -> seat.getSeat_class() == null || !seat.getSeat_class().name().equalsIgnoreCase(Class)
+                || seat.getIs_window() == null || seat.getIs_window() != Window);
+        return seats;
+    }
+
+    @Override
+    public Seat getByAirplaneIdSeatNumber(int airplaneId, String seatNumber) {
+        for (Seat seat : getByAirplaneId(airplaneId)) {
+            if (seat.getSeat_number() != null && seat.getSeat_number().equalsIgnoreCase(seatNumber)) {
+                return seat;
+            }
+        }
+        return new Seat();
+    }
+
+    @Override
+    public ArrayList<Seat> getByFlightId(int flightId) {
+        return flightSeats(flightId, false);
+    }
+
+    @Override
+    public ArrayList<Seat> getAvailableSeatsByFlightId(int flightId) {
+        return flightSeats(flightId, true);
+    }
+
+    @Override
+    public int updateFlightSeatReservation(int flightId, int seatId, Integer reservationId) throws SQLException {
+        return store.write(getConnection(),
+                () -> store.setSeatReservation(flightId, seatId, reservationId == null ? 0 : reservationId) ? 1 : 0);
+    }
+
+    /**
+     * Reserves the seats of a flight that are still free for a reservation, all under the write lock.
+     *
+     * @param flightId      the ID of the flight
+     * @param seatIds       the IDs of the seats to reserve
+     * @param reservationId the reservation ID to associate with the seats
+     * @return the number of seats that were free and are now reserved
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public int claimFlightSeats(int flightId, int[] seatIds, int reservationId) throws SQLException {
+        return changeFlightSeats(flightId, seatIds, 0, reservationId);
+    }
+
+    /**
+     * Reserves the seats of a flight that are still free, each for its own reservation, all under the write lock.
+     *
+     * @param flightId       the ID of the flight
+     * @param seatIds        the IDs of the seats to reserve, without repeats
+     * @param reservationIds the reservation of each seat, in the same order
+     * @return the number of seats that were free and are now reserved
+     * @throws SQLException if the connection of the DAO is closed
+     */
+    @Override
+    public int claimFlightSeats(int flightId, int[] seatIds, int[] reservationIds) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        return store.write(getConnection(), () -> {
+            InMemoryStore.FlightSeats inventory = store.flightSeats(flightId);
+            int changed = 0;
+            for (int i = 0; i < seatIds.length; i++) {
+                int index = Arrays.binarySearch(inventory.seatIds, seatIds[i]);
+                if (index >= 0 && inventory.reservations.get(index) == 0) {
+                    store.setSeatReservation(flightId, seatIds[i], reservationIds[i]);
+                    changed++;
+                }
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public int releaseFlightSeats(int flightId, int[] seatIds) throws SQLException {
+        return changeFlightSeats(flightId, seatIds, -1, 0);
+    }
+
+    @Override
+    public int releaseFlightSeats(int flightId, int[] seatIds, int reservationId) throws SQLException {
+        return changeFlightSeats(flightId, seatIds, reservationId, 0);
+    }
+
+    @Override
+    public ArrayList<FlightSeat> getFlightSeatsByFlightId(int flightId) {
+        ArrayList<FlightSeat> flightSeats = new ArrayList<>();
+        addFlightSeats(flightId, flightSeats);
+        return flightSeats;
+    }
+
+    @Override
+    public ArrayList<FlightSeat> getAllFlightSeats() {
+        ArrayList<FlightSeat> flightSeats = new ArrayList<>();
+        for (int flightId : store.flightsWithSeats()) {
+            addFlightSeats(flightId, flightSeats);
+        }
+        return flightSeats;
+    }
+
+    @Override
+    public Stream<FlightSeat> streamAllFlightSeats() {
+        return getAllFlightSeats().stream();
+    }
+
+    /**
+     * Sets the reservation of the seats of a flight held by an expected reservation.
+     *
+     * @param expected the reservation that must hold a seat for it to change, 0 for a free seat or -1 for any reserved seat
+     * @param replacement the new reservation of the seats, or 0 to free them
+     * @return the number of seats changed
+     */
+    private int changeFlightSeats(int flightId, int[] seatIds, int expected, int replacement) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        return store.write(getConnection(), () -> {
+            InMemoryStore.FlightSeats inventory = store.flightSeats(flightId);
+            int changed = 0;
+            for (int seatId : seatIds) {
+                int index = Arrays.binarySearch(inventory.seatIds, seatId);
+                if (index < 0) {
+                    continue;
+                }
+                int holder = inventory.reservations.get(index);
+                if (expected < 0 ? holder != 0 : holder == expected) {
+                    store.setSeatReservation(flightId, seatId, replacement);
+                    changed++;
+                }
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Returns the seats of a flight, in seat order, with the reservation holding each one on that flight.
+     */
+    private ArrayList<Seat> flightSeats(int flightId, boolean availableOnly) {
+        InMemoryStore.FlightSeats inventory = store.flightSeats(flightId);
+        ArrayList<Seat> seats = new ArrayList<>(inventory.seatIds.length);
+        for (int i = 0; i < inventory.seatIds.length; i++) {
+            int holder = inventory.reservations.get(i);
+            if (availableOnly && holder != 0) {
+                continue;
+            }
+            Seat seat = store.seats.get(inventory.seatIds[i]);
+            if (seat != null) {
+                seat.setReservation_FK(holder == 0 ? null : holder);
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Adds the seat inventory of a flight to a list, in seat order.
+     */
+    private void addFlightSeats(int flightId, ArrayList<FlightSeat> flightSeats) {
+        InMemoryStore.FlightSeats inventory = store.flightSeats(flightId);
+        for (int i = 0; i < inventory.seatIds.length; i++) {
+            Seat seat = store.seats.get(inventory.seatIds[i]);
+            if (seat != null) {
+                int holder = inventory.reservations.get(i);
+                flightSeats.add(new FlightSeat(flightId, seat.getId(), holder == 0 ? null : holder, seat.getSeat_class()));
+            }
+        }
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemorySeatDAO does not use a database connection");
+    }
+}
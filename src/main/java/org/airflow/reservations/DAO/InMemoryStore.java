@@ -0,0 +1,1119 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.*;
+
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory copy of the AirFlow schema, used by the InMemory DAOs instead of MySQL.
+ * <p>
+ * Every table keeps its rows in a concurrent map by primary key, and the columns the DAOs search on
+ * have secondary indexes that map a key to the sorted primary keys of its rows, kept as primitive
+ * int arrays. The seat inventory of a flight is an array of seat IDs with the reservation of each seat
+ * next to it, as the flight_seats table is. Reads take no lock and always see whole rows; the objects
+ * returned are copies, so callers can change them freely.
+ * <p>
+ * Writes are serialized by a single lock. A connection from {@link #getConnection()} gives the DAOs
+ * bound to it a transaction: with auto-commit off, the first write takes the lock and holds it until
+ * commit or rollback, and rollback undoes the writes in reverse order. Readers on other threads see the
+ * writes of an open transaction, so the isolation is read-uncommitted for readers and serializable for
+ * writers. Foreign keys are not checked, but the cascades of the schema are applied: deleting a flight
+ * or a seat deletes its flight_seats rows, and deleting a reservation frees its seats.
+ * <p>
+ * The whole store can be saved to a snapshot file and loaded back, see {@link #save(Path)} and {@link #load(Path)}.
+ */
+public final class InMemoryStore {
+    /** Identifies the snapshot files and their format version */
+    private static final String SNAPSHOT_MAGIC = "AIRFLOW-SNAPSHOT";
+    private static final int SNAPSHOT_VERSION = 1;
+    /** Empty list of primary keys */
+    private static final int[] NO_IDS = new int[0];
+
+    /** Serializes the writes; held by an open transaction until it ends */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** Undo log of the transaction running the current write, or null outside a transaction */
+    private Deque<Runnable> undoLog;
+
+    /** Name and description of the flight and reservation statuses, by ID */
+    final ConcurrentHashMap<Integer, String[]> flightStatuses = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<Integer, String[]> reservationStatuses = new ConcurrentHashMap<>();
+
+    final Table<User> users = new Table<>(InMemoryStore::copy);
+    final Index<User, String> usersByEmail = users.index(user -> lowerCase(user.getEmail()));
+
+    final Table<City> cities = new Table<>(InMemoryStore::copy);
+    final Index<City, String> citiesByName = cities.index(city -> lowerCase(city.getName()));
+
+    final Table<Airplane> airplanes = new Table<>(InMemoryStore::copy);
+    final Index<Airplane, String> airplanesByCode = airplanes.index(airplane -> lowerCase(airplane.getCode()));
+
+    final Table<Seat> seats = new Table<>(InMemoryStore::copy);
+    final Index<Seat, Integer> seatsByAirplane = seats.index(Seat::getAirplane_FK);
+
+    final Table<Flight> flights = new Table<>(InMemoryStore::copy);
+    final Index<Flight, Integer> flightsByOrigin = flights.index(Flight::getOrigin_city_FK);
+    final Index<Flight, Integer> flightsByDestination = flights.index(Flight::getDestination_city_FK);
+    final Index<Flight, Long> flightsByRoute = flights.index(
+            flight -> routeKey(flight.getOrigin_city_FK(), flight.getDestination_city_FK()));
+    final Index<Flight, String> flightsByCode = flights.index(flight -> lowerCase(flight.getCode()));
+    final Index<Flight, Integer> flightsByAirplane = flights.index(Flight::getAirplane_FK);
+    final Index<Flight, LocalDateTime> flightsByDeparture = flights.sortedIndex(Flight::getDeparture_time);
+
+    final Table<Reservation> reservations = new Table<>(InMemoryStore::copy);
+    final Index<Reservation, Integer> reservationsByUser = reservations.index(Reservation::getUser_FK);
+    final Index<Reservation, Integer> reservationsByFlight = reservations.index(Reservation::getFlight_FK);
+
+    /** Seat inventory of every flight, by flight ID */
+    private final ConcurrentHashMap<Integer, FlightSeats> flightSeats = new ConcurrentHashMap<>();
+    /** Seats held by every reservation, as flight ID and seat ID packed in a long, sorted */
+    private final ConcurrentHashMap<Integer, long[]> seatsByReservation = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty store with the flight and reservation statuses of the schema.
+     */
+    public InMemoryStore() {
+        String[][] flightStatusData = {
+                {"SCHEDULED", "Flight is scheduled as planned"},
+                {"DELAYED", "Flight is delayed"},
+                {"CANCELLED", "Flight has been cancelled"},
+                {"BOARDING", "Boarding in progress"},
+                {"IN_FLIGHT", "Flight is currently in the air"},
+                {"LANDED", "Flight has landed at destination"},
+                {"COMPLETED", "Flight has completed all processes"}
+        };
+        String[][] reservationStatusData = {
+                {"CONFIRMED", "Reservation is confirmed"},
+                {"CANCELLED", "Reservation has been cancelled"},
+                {"PENDING", "Reservation is pending confirmation"},
+                {"CHECKED_IN", "Passenger has checked in"},
+                {"COMPLETED", "Travel has been completed"}
+        };
+        for (int i = 0; i < flightStatusData.length; i++) {
+            flightStatuses.put(i + 1, flightStatusData[i]);
+        }
+        for (int i = 0; i < reservationStatusData.length; i++) {
+            reservationStatuses.put(i + 1, reservationStatusData[i]);
+        }
+    }
+
+    /**
+     * Copies every table of the database into a new store, for a read-mostly replica.
+     *
+     * @param connection the connection to read the database with
+     * @return the store
+     * @throws SQLException if a database access error occurs
+     */
+    public static InMemoryStore copyOf(Connection connection) throws SQLException {
+        InMemoryStore store = new InMemoryStore();
+        store.writeLock.lock();
+        try {
+            new UsersDAO(connection).forEach(user -> store.users.put(user.getId(), user));
+            new CityDAO(connection).forEach(city -> store.cities.put(city.getId(), city));
+            new AirplaneDAO(connection).forEach(airplane -> store.airplanes.put(airplane.getId(), airplane));
+            SeatDAO seatDAO = new SeatDAO(connection);
+            seatDAO.forEach(seat -> store.seats.put(seat.getId(), seat));
+            new FlightDAO(connection).forEach(flight -> {
+                store.flights.put(flight.getId(), flight);
+                store.flightStatuses.putIfAbsent(flight.getStatus_FK(),
+                        new String[]{flight.getStatus_name(), flight.getStatus_description()});
+            });
+            new ReservationDAO(connection).forEach(reservation -> {
+                store.reservations.put(reservation.getId(), reservation);
+                store.reservationStatuses.putIfAbsent(reservation.getStatus_FK(),
+                        new String[]{reservation.getStatus_name(), reservation.getStatus_description()});
+            });
+            try (Stream<FlightSeat> flightSeats = seatDAO.streamAllFlightSeats()) {
+                store.putFlightSeats(flightSeats);
+            } catch (IllegalStateException e) {
+                if (e.getCause() instanceof SQLException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        } finally {
+            store.writeLock.unlock();
+        }
+        return store;
+    }
+
+    /**
+     * Returns a connection whose commit and rollback apply to the writes of the DAOs bound to it.
+     * Only the transaction methods of the connection are supported; it cannot run SQL.
+     * The isolation is read-uncommitted: reads take no lock, so they see the writes of transactions still open.
+     *
+     * @return the connection, in auto-commit mode
+     */
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(InMemoryStore.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Transaction());
+    }
+
+    // Writes
+
+    /**
+     * An action that writes to the store.
+     */
+    @FunctionalInterface
+    interface Write<R> {
+        R run() throws SQLException;
+    }
+
+    /**
+     * Runs a write under the write lock. When the connection has an open transaction, the write joins it:
+     * the lock is kept until the transaction ends and the changes are logged so that rollback can undo them.
+     *
+     * @param connection the connection of the DAO, or null for a DAO without one
+     * @param write      the write
+     * @return the result of the write
+     * @throws SQLException if the connection is closed or the write fails
+     */
+    <R> R write(Connection connection, Write<R> write) throws SQLException {
+        Transaction transaction = transactionOf(connection);
+        if (transaction != null && !transaction.autoCommit) {
+            transaction.begin();
+            Deque<Runnable> previous = undoLog;
+            undoLog = transaction.undo;
+            try {
+                return write.run();
+            } finally {
+                undoLog = previous;
+            }
+        }
+        writeLock.lock();
+        try {
+            return write.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records how to undo a change, when the change is part of a transaction.
+     */
+    private void logUndo(Runnable undo) {
+        if (undoLog != null) {
+            undoLog.push(undo);
+        }
+    }
+
+    /**
+     * Returns the transaction of a connection from {@link #getConnection()}.
+     *
+     * @throws SQLException if the connection is closed or does not belong to this store
+     */
+    private Transaction transactionOf(Connection connection) throws SQLException {
+        if (connection == null) {
+            return null;
+        }
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof Transaction transaction
+                && transaction.store() == this) {
+            if (transaction.closed) {
+                throw new SQLException("Connection is closed");
+            }
+            return transaction;
+        }
+        throw new SQLFeatureNotSupportedException("The in-memory DAOs only accept connections from their InMemoryStore");
+    }
+
+    // Flight seats
+
+    /**
+     * Returns the seat inventory of a flight.
+     *
+     * @param flightId the ID of the flight
+     * @return the seat IDs, sorted, and the reservation holding each one; empty if the flight has no seats
+     */
+    FlightSeats flightSeats(int flightId) {
+        return flightSeats.getOrDefault(flightId, FlightSeats.EMPTY);
+    }
+
+    /**
+     * Returns the IDs of the flights that have a seat inventory, sorted.
+     */
+    int[] flightsWithSeats() {
+        return flightSeats.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Returns the seats held by a reservation.
+     *
+     * @param reservationId the ID of the reservation
+     * @return the flight ID and seat ID of every seat, packed with {@link #seatKey(int, int)}, sorted
+     */
+    long[] seatsOfReservation(int reservationId) {
+        return seatsByReservation.getOrDefault(reservationId, new long[0]);
+    }
+
+    /**
+     * Sets the reservation holding a seat of a flight. Must be called inside {@link #write}.
+     *
+     * @param flightId      the ID of the flight
+     * @param seatId        the ID of the seat
+     * @param reservationId the reservation, or 0 to free the seat
+     * @return false if the flight has no such seat
+     */
+    boolean setSeatReservation(int flightId, int seatId, int reservationId) {
+        FlightSeats inventory = flightSeats(flightId);
+        int index = Arrays.binarySearch(inventory.seatIds, seatId);
+        if (index < 0) {
+            return false;
+        }
+        int previous = inventory.reservations.get(index);
+        if (previous == reservationId) {
+            return true;
+        }
+        inventory.reservations.set(index, reservationId);
+        long key = seatKey(flightId, seatId);
+        if (previous != 0) {
+            seatsByReservation.computeIfPresent(previous, (id, keys) -> nullIfEmpty(removeSorted(keys, key)));
+        }
+        if (reservationId != 0) {
+            seatsByReservation.compute(reservationId, (id, keys) -> insertSorted(keys, key));
+        }
+        logUndo(() -> setSeatReservation(flightId, seatId, previous));
+        return true;
+    }
+
+    /**
+     * Adds a free seat to the inventory of a flight, if it is not there. Must be called inside {@link #write}.
+     */
+    void addFlightSeat(int flightId, int seatId) {
+        FlightSeats inventory = flightSeats(flightId);
+        int index = Arrays.binarySearch(inventory.seatIds, seatId);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        int[] seatIds = new int[inventory.seatIds.length + 1];
+        int[] holders = new int[seatIds.length];
+        for (int i = 0, j = 0; i < seatIds.length; i++) {
+            if (i == insertAt) {
+                seatIds[i] = seatId;
+            } else {
+                seatIds[i] = inventory.seatIds[j];
+                holders[i] = inventory.reservations.get(j);
+                j++;
+            }
+        }
+        flightSeats.put(flightId, new FlightSeats(seatIds, new AtomicIntegerArray(holders)));
+        logUndo(() -> removeFlightSeat(flightId, seatId));
+    }
+
+    /**
+     * Removes a seat from the inventory of a flight. Must be called inside {@link #write}.
+     */
+    void removeFlightSeat(int flightId, int seatId) {
+        FlightSeats inventory = flightSeats(flightId);
+        int index = Arrays.binarySearch(inventory.seatIds, seatId);
+        if (index < 0) {
+            return;
+        }
+        int reservationId = inventory.reservations.get(index);
+        setSeatReservation(flightId, seatId, 0);
+        int[] seatIds = new int[inventory.seatIds.length - 1];
+        int[] holders = new int[seatIds.length];
+        for (int i = 0, j = 0; i < inventory.seatIds.length; i++) {
+            if (i != index) {
+                seatIds[j] = inventory.seatIds[i];
+                holders[j] = inventory.reservations.get(i);
+                j++;
+            }
+        }
+        if (seatIds.length == 0) {
+            flightSeats.remove(flightId);
+        } else {
+            flightSeats.put(flightId, new FlightSeats(seatIds, new AtomicIntegerArray(holders)));
+        }
+        // Undone in reverse: the seat comes back first, then its reservation
+        logUndo(() -> addFlightSeat(flightId, seatId));
+        if (reservationId != 0) {
+            logUndo(() -> setSeatReservation(flightId, seatId, reservationId));
+        }
+    }
+
+    /**
+     * Replaces the seat inventories with the given rows, which come ordered by flight.
+     * The rows of one flight are grouped at a time, so they can be streamed from the database.
+     */
+    private void putFlightSeats(Stream<FlightSeat> rows) {
+        List<FlightSeat> seatRows = new ArrayList<>();
+        rows.forEachOrdered(row -> {
+            if (!seatRows.isEmpty() && seatRows.get(0).getFlight_FK() != row.getFlight_FK()) {
+                putInventory(seatRows);
+                seatRows.clear();
+            }
+            seatRows.add(row);
+        });
+        if (!seatRows.isEmpty()) {
+            putInventory(seatRows);
+        }
+        rebuildSeatsByReservation();
+    }
+
+    /**
+     * Stores the seat inventory of one flight from its rows.
+     */
+    private void putInventory(List<FlightSeat> seatRows) {
+        seatRows.sort(Comparator.comparingInt(FlightSeat::getSeat_FK));
+        int[] seatIds = new int[seatRows.size()];
+        int[] holders = new int[seatIds.length];
+        for (int i = 0; i < seatIds.length; i++) {
+            seatIds[i] = seatRows.get(i).getSeat_FK();
+            Integer reservationId = seatRows.get(i).getReservation_FK();
+            holders[i] = reservationId == null ? 0 : reservationId;
+        }
+        flightSeats.put(seatRows.get(0).getFlight_FK(), new FlightSeats(seatIds, new AtomicIntegerArray(holders)));
+    }
+
+    /**
+     * Rebuilds the seats held by every reservation from the seat inventories.
+     */
+    private void rebuildSeatsByReservation() {
+        seatsByReservation.clear();
+        Map<Integer, List<Long>> keys = new HashMap<>();
+        for (Map.Entry<Integer, FlightSeats> entry : flightSeats.entrySet()) {
+            FlightSeats inventory = entry.getValue();
+            for (int i = 0; i < inventory.seatIds.length; i++) {
+                int reservationId = inventory.reservations.get(i);
+                if (reservationId != 0) {
+                    keys.computeIfAbsent(reservationId, k -> new ArrayList<>()).add(seatKey(entry.getKey(), inventory.seatIds[i]));
+                }
+            }
+        }
+        keys.forEach((reservationId, list) ->
+                seatsByReservation.put(reservationId, list.stream().mapToLong(Long::longValue).sorted().toArray()));
+    }
+
+    /**
+     * Packs a flight ID and a seat ID into one key.
+     */
+    static long seatKey(int flightId, int seatId) {
+        return ((long) flightId << 32) | (seatId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs an origin and a destination city into one route key.
+     */
+    static long routeKey(int originCityId, int destinationCityId) {
+        return ((long) originCityId << 32) | (destinationCityId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Seat inventory of one flight: the seat IDs, sorted, and the reservation holding each seat, 0 when free.
+     * The seat IDs never change; adding or removing a seat replaces the whole inventory.
+     */
+    static final class FlightSeats {
+        static final FlightSeats EMPTY = new FlightSeats(NO_IDS, new AtomicIntegerArray(0));
+
+        final int[] seatIds;
+        final AtomicIntegerArray reservations;
+
+        FlightSeats(int[] seatIds, AtomicIntegerArray reservations) {
+            this.seatIds = seatIds;
+            this.reservations = reservations;
+        }
+    }
+
+    // Snapshots
+
+    /**
+     * Writes every table to a compressed snapshot file. The file is written next to the target and moved
+     * into place, so a crash never leaves a partial snapshot. Writes wait while the snapshot is taken.
+     *
+     * @param path the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        writeLock.lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeUTF(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            writeStatuses(out, flightStatuses);
+            writeStatuses(out, reservationStatuses);
+
+            writeTable(out, users, (user, o) -> {
+                writeString(o, user.getName());
+                writeString(o, user.getLast_name());
+                writeString(o, user.getEmail());
+                writeString(o, user.getPassword());
+                writeBoolean(o, user.getSuperUser());
+                writeDateTime(o, user.getCreated_at());
+            });
+            writeTable(out, cities, (city, o) -> {
+                writeString(o, city.getName());
+                writeString(o, city.getCountry());
+                writeString(o, city.getCode());
+            });
+            writeTable(out, airplanes, (airplane, o) -> {
+                writeString(o, airplane.getAirline());
+                writeString(o, airplane.getModel());
+                writeString(o, airplane.getCode());
+                o.writeInt(airplane.getCapacity());
+                o.writeInt(airplane.getYear() == null ? Integer.MIN_VALUE : airplane.getYear().getValue());
+            });
+            writeTable(out, seats, (seat, o) -> {
+                o.writeInt(seat.getAirplane_FK());
+                o.writeInt(seat.getReservation_FK() == null ? 0 : seat.getReservation_FK());
+                writeString(o, seat.getSeat_number());
+                writeString(o, seat.getSeat_class() == null ? null : seat.getSeat_class().name());
+                writeBoolean(o, seat.getIs_window());
+            });
+            writeTable(out, flights, (flight, o) -> {
+                o.writeInt(flight.getAirplane_FK());
+                o.writeInt(flight.getStatus_FK());
+                o.writeInt(flight.getOrigin_city_FK());
+                o.writeInt(flight.getDestination_city_FK());
+                writeString(o, flight.getCode());
+                writeDateTime(o, flight.getDeparture_time());
+                writeDateTime(o, flight.getScheduled_arrival_time());
+                writeDateTime(o, flight.getArrival_time());
+                o.writeFloat(flight.getPrice_base());
+            });
+            writeTable(out, reservations, (reservation, o) -> {
+                o.writeInt(reservation.getUser_FK());
+                o.writeInt(reservation.getStatus_FK());
+                o.writeInt(reservation.getFlight_FK());
+                writeDateTime(o, reservation.getReserved_at());
+            });
+
+            out.writeInt(flightSeats.size());
+            for (int flightId : flightsWithSeats()) {
+                FlightSeats inventory = flightSeats(flightId);
+                out.writeInt(flightId);
+                out.writeInt(inventory.seatIds.length);
+                for (int i = 0; i < inventory.seatIds.length; i++) {
+                    out.writeInt(inventory.seatIds[i]);
+                    out.writeInt(inventory.reservations.get(i));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a store from a snapshot file written by {@link #save(Path)}.
+     *
+     * @param path the snapshot file
+     * @return the store
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static InMemoryStore load(Path path) throws IOException {
+        InMemoryStore store = new InMemoryStore();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (!SNAPSHOT_MAGIC.equals(in.readUTF()) || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not an AirFlow snapshot, or a snapshot of another version: " + path);
+            }
+            readStatuses(in, store.flightStatuses);
+            readStatuses(in, store.reservationStatuses);
+
+            readTable(in, store.users, (id, i) -> new User(id, readString(i), readString(i), readString(i),
+                    readString(i), readBoolean(i), readDateTime(i)));
+            readTable(in, store.cities, (id, i) -> new City(id, readString(i), readString(i), readString(i)));
+            readTable(in, store.airplanes, (id, i) -> {
+                Airplane airplane = new Airplane(id, readString(i), readString(i), readString(i), i.readInt(), null);
+                int year = i.readInt();
+                airplane.setYear(year == Integer.MIN_VALUE ? null : Year.of(year));
+                return airplane;
+            });
+            readTable(in, store.seats, (id, i) -> {
+                int airplaneId = i.readInt();
+                int reservationId = i.readInt();
+                String seatNumber = readString(i);
+                String seatClass = readString(i);
+                return new Seat(id, airplaneId, reservationId == 0 ? null : reservationId, seatNumber,
+                        seatClass == null ? null : Seat.SeatClass.valueOf(seatClass), readBoolean(i));
+            });
+            readTable(in, store.flights, (id, i) -> {
+                Flight flight = new Flight();
+                flight.setId(id);
+                flight.setAirplane_FK(i.readInt());
+                flight.setStatus_FK(i.readInt());
+                flight.setOrigin_city_FK(i.readInt());
+                flight.setDestination_city_FK(i.readInt());
+                flight.setCode(readString(i));
+                flight.setDeparture_time(readDateTime(i));
+                flight.setScheduled_arrival_time(readDateTime(i));
+                flight.setArrival_time(readDateTime(i));
+                flight.setPrice_base(i.readFloat());
+                return flight;
+            });
+            readTable(in, store.reservations, (id, i) -> new Reservation(id, i.readInt(), i.readInt(), i.readInt(), readDateTime(i)));
+
+            int flightCount = in.readInt();
+            for (int f = 0; f < flightCount; f++) {
+                int flightId = in.readInt();
+                int[] seatIds = new int[in.readInt()];
+                int[] holders = new int[seatIds.length];
+                for (int i = 0; i < seatIds.length; i++) {
+                    seatIds[i] = in.readInt();
+                    holders[i] = in.readInt();
+                }
+                store.flightSeats.put(flightId, new FlightSeats(seatIds, new AtomicIntegerArray(holders)));
+            }
+            store.rebuildSeatsByReservation();
+        }
+        return store;
+    }
+
+    /**
+     * Writes the fields of a row, other than its ID.
+     */
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row, DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the fields of a row with a given ID.
+     */
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(int id, DataInputStream in) throws IOException;
+    }
+
+    private static <T> void writeTable(DataOutputStream out, Table<T> table, RowWriter<T> writer) throws IOException {
+        out.writeInt(table.lastId);
+        int[] ids = table.ids();
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+            writer.write(table.rows.get(id), out);
+        }
+    }
+
+    private static <T> void readTable(DataInputStream in, Table<T> table, RowReader<T> reader) throws IOException {
+        int lastId = in.readInt();
+        int count = in.readInt();
+        for (int r = 0; r < count; r++) {
+            int id = in.readInt();
+            table.put(id, reader.read(id, in));
+        }
+        table.lastId = lastId;
+    }
+
+    private static void writeStatuses(DataOutputStream out, Map<Integer, String[]> statuses) throws IOException {
+        out.writeInt(statuses.size());
+        for (Map.Entry<Integer, String[]> status : new TreeMap<>(statuses).entrySet()) {
+            out.writeInt(status.getKey());
+            writeString(out, status.getValue()[0]);
+            writeString(out, status.getValue()[1]);
+        }
+    }
+
+    private static void readStatuses(DataInputStream in, Map<Integer, String[]> statuses) throws IOException {
+        statuses.clear();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            statuses.put(in.readInt(), new String[]{readString(in), readString(in)});
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : value == 1;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    // Tables and indexes
+
+    /**
+     * Rows of one table by primary key, with the secondary indexes over them.
+     * The table keeps its own copies of the rows it is given and hands out copies.
+     */
+    final class Table<T> {
+        /** Rows by primary key */
+        private final ConcurrentHashMap<Integer, T> rows = new ConcurrentHashMap<>();
+        /** Makes an independent copy of a row */
+        private final UnaryOperator<T> copier;
+        /** Secondary indexes, updated on every change */
+        private final List<Index<T, ?>> indexes = new ArrayList<>();
+        /** Largest primary key handed out, as the AUTO_INCREMENT counter of the table */
+        private int lastId;
+
+        private Table(UnaryOperator<T> copier) {
+            this.copier = copier;
+        }
+
+        /**
+         * Creates a secondary index on a key of the rows; rows whose key is null are not indexed.
+         */
+        private <K> Index<T, K> index(Function<T, K> key) {
+            return register(new Index<>(key, null));
+        }
+
+        /**
+         * Creates a secondary index ordered by its key, which supports {@link Index#range}.
+         */
+        private <K extends Comparable<? super K>> Index<T, K> sortedIndex(Function<T, K> key) {
+            return register(new Index<>(key, Comparator.<K>naturalOrder()));
+        }
+
+        private <K> Index<T, K> register(Index<T, K> index) {
+            indexes.add(index);
+            return index;
+        }
+
+        /**
+         * Returns a copy of a row, or null if there is no row with that primary key.
+         */
+        T get(int id) {
+            T row = rows.get(id);
+            return row == null ? null : copier.apply(row);
+        }
+
+        /**
+         * Returns copies of the rows with the given primary keys, in that order, skipping missing ones.
+         */
+        ArrayList<T> get(int[] ids) {
+            ArrayList<T> result = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                T row = rows.get(id);
+                if (row != null) {
+                    result.add(copier.apply(row));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns copies of every row, by primary key.
+         */
+        ArrayList<T> all() {
+            return get(ids());
+        }
+
+        /**
+         * Returns the primary keys of every row, sorted.
+         */
+        int[] ids() {
+            return rows.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        /**
+         * Returns the next primary key, as AUTO_INCREMENT would. Must be called inside {@link #write}.
+         */
+        int nextId() {
+            int previous = lastId;
+            logUndo(() -> lastId = previous);
+            return ++lastId;
+        }
+
+        /**
+         * Inserts or replaces a row. Must be called inside {@link #write}.
+         */
+        void put(int id, T row) {
+            T stored = copier.apply(row);
+            T previous = rows.put(id, stored);
+            if (previous != null) {
+                indexes.forEach(index -> index.remove(previous, id));
+            }
+            indexes.forEach(index -> index.add(stored, id));
+            lastId = Math.max(lastId, id);
+            logUndo(() -> restore(id, previous));
+        }
+
+        /**
+         * Deletes a row. Must be called inside {@link #write}.
+         *
+         * @return true if the row existed
+         */
+        boolean remove(int id) {
+            T previous = rows.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            indexes.forEach(index -> index.remove(previous, id));
+            logUndo(() -> restore(id, previous));
+            return true;
+        }
+
+        /**
+         * Puts back the stored version of a row, or deletes the row if there was none. Used by rollback.
+         */
+        private void restore(int id, T previous) {
+            T current = previous == null ? rows.remove(id) : rows.put(id, previous);
+            if (current != null) {
+                indexes.forEach(index -> index.remove(current, id));
+            }
+            if (previous != null) {
+                indexes.forEach(index -> index.add(previous, id));
+            }
+        }
+
+        /**
+         * Returns the number of rows.
+         */
+        int size() {
+            return rows.size();
+        }
+    }
+
+    /**
+     * Secondary index from a key to the sorted primary keys of the rows with that key.
+     * The lists of primary keys are replaced, never changed, so readers never see a partial update.
+     */
+    static final class Index<T, K> {
+        private final Function<T, K> key;
+        private final ConcurrentMap<K, int[]> ids;
+        /** Order of the keys, or null if the index is not sorted */
+        private final Comparator<? super K> order;
+        /** The same map as ids when the index is sorted, or null */
+        private final ConcurrentNavigableMap<K, int[]> sortedIds;
+
+        private Index(Function<T, K> key, Comparator<? super K> order) {
+            this.key = key;
+            this.order = order;
+            this.sortedIds = order == null ? null : new ConcurrentSkipListMap<>(order);
+            this.ids = order == null ? new ConcurrentHashMap<>() : sortedIds;
+        }
+
+        /**
+         * Returns the primary keys of the rows with a key, sorted.
+         */
+        int[] get(K value) {
+            return value == null ? NO_IDS : ids.getOrDefault(value, NO_IDS);
+        }
+
+        /**
+         * Returns the primary keys of the rows with a key in a range, ordered by key and then by primary key.
+         * Only sorted indexes support ranges.
+         */
+        int[] range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+            if (sortedIds == null) {
+                throw new UnsupportedOperationException("The index is not sorted");
+            }
+            if (order.compare(from, to) > 0) {
+                return NO_IDS;
+            }
+            return sortedIds.subMap(from, fromInclusive, to, toInclusive).values().stream()
+                    .flatMapToInt(Arrays::stream).toArray();
+        }
+
+        private void add(T row, int id) {
+            K value = key.apply(row);
+            if (value != null) {
+                ids.compute(value, (k, current) -> insertSorted(current, id));
+            }
+        }
+
+        private void remove(T row, int id) {
+            K value = key.apply(row);
+            if (value != null) {
+                ids.computeIfPresent(value, (k, current) -> nullIfEmpty(removeSorted(current, id)));
+            }
+        }
+    }
+
+    private static int[] insertSorted(int[] values, int value) {
+        if (values == null) {
+            return new int[]{value};
+        }
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int insertAt = -index - 1;
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return result;
+    }
+
+    private static int[] removeSorted(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static int[] nullIfEmpty(int[] values) {
+        return values.length == 0 ? null : values;
+    }
+
+    private static long[] insertSorted(long[] values, long value) {
+        if (values == null) {
+            return new long[]{value};
+        }
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return result;
+    }
+
+    private static long[] removeSorted(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static long[] nullIfEmpty(long[] values) {
+        return values.length == 0 ? null : values;
+    }
+
+    /**
+     * Lower-cases a searched value, since the columns use a case-insensitive collation.
+     */
+    static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns whether a LIKE pattern has wildcards, so that it cannot be looked up in an index.
+     */
+    static boolean hasWildcards(String pattern) {
+        return pattern != null && (pattern.indexOf('%') >= 0 || pattern.indexOf('_') >= 0);
+    }
+
+    /**
+     * Translates a LIKE pattern, with backslash as the escape character, into a case-insensitive regular expression.
+     */
+    static Pattern likePattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+
+    // Copies
+
+    static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getLast_name(), user.getEmail(), user.getPassword(),
+                user.getSuperUser(), user.getCreated_at());
+    }
+
+    static City copy(City city) {
+        return new City(city.getId(), city.getName(), city.getCountry(), city.getCode());
+    }
+
+    static Airplane copy(Airplane airplane) {
+        return new Airplane(airplane.getId(), airplane.getAirline(), airplane.getModel(), airplane.getCode(),
+                airplane.getCapacity(), airplane.getYear());
+    }
+
+    static Seat copy(Seat seat) {
+        return new Seat(seat.getId(), seat.getAirplane_FK(), seat.getReservation_FK(), seat.getSeat_number(),
+                seat.getSeat_class(), seat.getIs_window());
+    }
+
+    static Flight copy(Flight flight) {
+        Flight copy = new Flight();
+        copy.setId(flight.getId());
+        copy.setAirplane_FK(flight.getAirplane_FK());
+        copy.setStatus_FK(flight.getStatus_FK());
+        copy.setOrigin_city_FK(flight.getOrigin_city_FK());
+        copy.setDestination_city_FK(flight.getDestination_city_FK());
+        copy.setCode(flight.getCode());
+        copy.setDeparture_time(flight.getDeparture_time());
+        copy.setScheduled_arrival_time(flight.getScheduled_arrival_time());
+        copy.setArrival_time(flight.getArrival_time());
+        copy.setPrice_base(flight.getPrice_base());
+        copy.setStatus_name(flight.getStatus_name());
+        copy.setStatus_description(flight.getStatus_description());
+        return copy;
+    }
+
+    static Reservation copy(Reservation reservation) {
+        Reservation copy = new Reservation(reservation.getId(), reservation.getUser_FK(), reservation.getStatus_FK(),
+                reservation.getFlight_FK(), reservation.getReserved_at());
+        copy.setStatus_name(reservation.getStatus_name());
+        copy.setStatus_description(reservation.getStatus_description());
+        return copy;
+    }
+
+    // Transactions
+
+    /**
+     * The transaction state behind a connection from {@link #getConnection()}.
+     * Only writers take the write lock, and an open transaction holds it until it ends, so transactions are
+     * serializable among themselves; readers take no lock and may see rows the transaction later rolls back,
+     * which is why the connection reports {@link Connection#TRANSACTION_READ_UNCOMMITTED}.
+     */
+    private final class Transaction implements InvocationHandler {
+        /** Undo actions of the writes of the open transaction, the latest first */
+        private final Deque<Runnable> undo = new ArrayDeque<>();
+        private boolean autoCommit = true;
+        private boolean closed;
+        /** Whether this transaction holds the write lock */
+        private boolean locked;
+
+        private InMemoryStore store() {
+            return InMemoryStore.this;
+        }
+
+        /**
+         * Takes the write lock for the transaction, on its first write.
+         */
+        private void begin() {
+            if (!locked) {
+                writeLock.lock();
+                locked = true;
+            }
+        }
+
+        /**
+         * Ends the transaction, undoing its writes first when rolling back.
+         */
+        private void end(boolean commit) {
+            if (!locked) {
+                return;
+            }
+            try {
+                if (!commit) {
+                    Deque<Runnable> previous = undoLog;
+                    undoLog = null;
+                    try {
+                        while (!undo.isEmpty()) {
+                            undo.pop().run();
+                        }
+                    } finally {
+                        undoLog = previous;
+                    }
+                }
+                undo.clear();
+            } finally {
+                locked = false;
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "setAutoCommit":
+                    requireOpen();
+                    boolean enable = (Boolean) args[0];
+                    if (enable && !autoCommit) {
+                        end(true);
+                    }
+                    autoCommit = enable;
+                    return null;
+                case "getAutoCommit":
+                    requireOpen();
+                    return autoCommit;
+                case "commit":
+                    requireOpen();
+                    end(true);
+                    return null;
+                case "rollback":
+                    requireOpen();
+                    if (args != null && args.length > 0) {
+                        throw new SQLFeatureNotSupportedException("Savepoints are not supported in memory");
+                    }
+                    end(false);
+                    return null;
+                case "close":
+                    if (!closed) {
+                        end(false);
+                        closed = true;
+                    }
+                    return null;
+                case "getTransactionIsolation":
+                    requireOpen();
+                    return Connection.TRANSACTION_READ_UNCOMMITTED;
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return !closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InMemoryConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    throw new SQLFeatureNotSupportedException("Not supported by the in-memory store: Connection." + method.getName());
+            }
+        }
+
+        private void requireOpen() throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+        }
+    }
+}
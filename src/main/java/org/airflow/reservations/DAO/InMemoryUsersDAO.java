@@ -0,0 +1,140 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.User;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * UsersDAO backed by an {@link InMemoryStore} instead of the database.
+ * It returns the same results as UsersDAO, including the empty User returned when nothing is found,
+ * and rejects a duplicated email as the UNIQUE constraint of the users table does.
+ *
+ * @see UsersDAO
+ * @see InMemoryStore
+ */
+public class InMemoryUsersDAO extends UsersDAO {
+    /** The store holding the users */
+    private final InMemoryStore store;
+
+    /**
+     * Constructor for InMemoryUsersDAO.
+     *
+     * @param store      the store holding the users
+     * @param connection a connection from the store to join its transaction, or null to commit every write at once
+     */
+    public InMemoryUsersDAO(InMemoryStore store, Connection connection) {
+        super(connection);
+        this.store = store;
+    }
+
+    @Override
+    public ArrayList<User> getAll() {
+        return store.users.all();
+    }
+
+    /**
+     * Streams the users returned by {@link #getAll()}; nothing is held open, so closing the stream is optional.
+     */
+    @Override
+    public Stream<User> stream() {
+        return getAll().stream();
+    }
+
+    @Override
+    public User getById(int id) {
+        User user = store.users.get(id);
+        return user == null ? new User() : user;
+    }
+
+    /**
+     * Inserts a new user and sets its generated ID.
+     *
+     * @param object the User object to be created
+     * @throws SQLException if another user has the same email
+     */
+    @Override
+    public void create(User object) throws SQLException {
+        store.write(getConnection(), () -> {
+            requireUniqueEmail(object.getEmail(), 0);
+            int id = store.users.nextId();
+            object.setId(id);
+            store.users.put(id, object);
+            return null;
+        });
+    }
+
+    /**
+     * Updates an existing user; does nothing if there is no user with the ID.
+     *
+     * @param id       the unique identifier of the user to be updated
+     * @param toUpdate the User object containing updated data
+     * @throws SQLException if another user has the new email
+     */
+    @Override
+    public void update(int id, User toUpdate) throws SQLException {
+        store.write(getConnection(), () -> {
+            if (store.users.get(id) != null) {
+                requireUniqueEmail(toUpdate.getEmail(), id);
+                User user = InMemoryStore.copy(toUpdate);
+                user.setId(id);
+                store.users.put(id, user);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        store.write(getConnection(), () -> store.users.remove(id));
+    }
+
+    /**
+     * Returns the user whose email matches a LIKE pattern, ignoring case.
+     * A pattern without wildcards is looked up in the email index.
+     *
+     * @param email the email, or a LIKE pattern
+     * @return the matching user with the highest ID, or an empty User if none matches
+     */
+    @Override
+    public User getByEmail(String email) {
+        if (email == null) {
+            return new User();
+        }
+        ArrayList<User> matches;
+        if (InMemoryStore.hasWildcards(email)) {
+            Pattern pattern = InMemoryStore.likePattern(email);
+            matches = store.users.all();
+            matches.removeIf(user -> user.getEmail() == null || !pattern.matcher(user.getEmail()).matches());
+        } else {
+            matches = store.users.get(store.usersByEmail.get(InMemoryStore.lowerCase(email)));
+        }
+        return matches.isEmpty() ? new User() : matches.get(matches.size() - 1);
+    }
+
+    /**
+     * Throws if a user other than the given one already has an email.
+     */
+    private void requireUniqueEmail(String email, int id) throws SQLException {
+        for (int other : store.usersByEmail.get(InMemoryStore.lowerCase(email))) {
+            if (other != id) {
+                throw new SQLIntegrityConstraintViolationException("Duplicate entry '" + email + "' for key 'users.email'");
+            }
+        }
+    }
+
+    /**
+     * Never called, since every operation is answered by the store.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        throw new SQLFeatureNotSupportedException("InMemoryUsersDAO does not use a database connection");
+    }
+}
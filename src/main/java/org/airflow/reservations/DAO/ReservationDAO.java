@@ -1,10 +1,12 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.*;
-import org.airflow.reservations.utils.ConnectionDB;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) class for managing Reservation entities.
@@ -14,17 +16,30 @@ import java.util.ArrayList;
  * @see DAOMethods
  * @see Reservation
  */
-public class ReservationDAO implements DAOMethods<Reservation> {
-    private Connection connection;
+public class ReservationDAO extends BaseDAO implements DAOMethods<Reservation> {
+    /** Maps the rows of the reservations table joined with the name and description of their status */
+    static final RowMapper<Reservation> ROW_MAPPER = RowMapper.of(Reservation::new)
+            .intColumn("id_PK", Reservation::setId)
+            .intColumn("user_FK", Reservation::setUser_FK)
+            .intColumn("status_FK", Reservation::setStatus_FK)
+            .intColumn("flight_FK", Reservation::setFlight_FK)
+            .dateTimeColumn("reserved_at", Reservation::setReserved_at)
+            .stringColumn("status_name", Reservation::setStatus_name)
+            .stringColumn("status_description", Reservation::setStatus_description);
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT r.*, rs.name as status_name, rs.description as status_description " +
+            "FROM reservations r " +
+            "JOIN reservations_status rs ON r.status_FK = rs.id_PK";
 
     /**
      * Default constructor for ReservationDAO class.
-     * Initializes the ReservationDAO with a new database connection.
+     * Initializes the ReservationDAO so that each operation borrows a connection from the pool.
      *
      * @throws SQLException if a database access error occurs
      */
     public ReservationDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -34,7 +49,7 @@ public class ReservationDAO implements DAOMethods<Reservation> {
      * @param connection the connection to be used by the DAO
      */
     public ReservationDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -45,17 +60,28 @@ public class ReservationDAO implements DAOMethods<Reservation> {
      */
     @Override
     public ArrayList<Reservation> getAll() throws SQLException {
-        String query = "SELECT r.*, rs.name as status_name, rs.description as status_description " +
-                "FROM reservations r " +
-                "JOIN reservations_status rs ON r.status_FK = rs.id_PK";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
+            ArrayList<Reservation> reservations = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList<Reservation> reservations = transformResultsToClassArray(resultSet);
-        statement.close();
+            return reservations;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return reservations;
+    /**
+     * Streams all reservations from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all Reservation objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<Reservation> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -72,18 +98,22 @@ public class ReservationDAO implements DAOMethods<Reservation> {
                 "JOIN reservations_status rs ON r.status_FK = rs.id_PK " +
                 "WHERE r.id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        Reservation reservation = transformResultsToClass(resultSet);
-        statement.close();
-        return reservation;
+            Reservation reservation = ROW_MAPPER.mapOne(resultSet);
+            return reservation;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
      * Inserts a new reservation into the database.
+     * The generated ID is set on the given Reservation object.
      *
      * @param object the Reservation object to be created in the database
      * @throws SQLException if a database access error occurs
@@ -92,13 +122,60 @@ public class ReservationDAO implements DAOMethods<Reservation> {
     public void create(Reservation object) throws SQLException {
         String query = "INSERT INTO reservations (user_FK, status_FK, flight_FK, reserved_at) VALUES (?, ?, ?, ?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, object.getUser_FK());
-        statement.setInt(2, object.getStatus_FK());
-        statement.setInt(3, object.getFlight_FK());
-        statement.setTimestamp(4, Timestamp.valueOf(object.getReserved_at()));
-        statement.executeUpdate();
-        statement.close();
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setInt(1, object.getUser_FK());
+            statement.setInt(2, object.getStatus_FK());
+            statement.setInt(3, object.getFlight_FK());
+            statement.setTimestamp(4, Timestamp.valueOf(object.getReserved_at()));
+            statement.executeUpdate();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    object.setId(generatedKeys.getInt(1));
+                }
+            }
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Inserts several reservations with one batched INSERT.
+     * The driver rewrites the batch as multi-row statements, and the generated IDs are set on the
+     * given Reservation objects in order.
+     *
+     * @param reservations the Reservation objects to be created in the database
+     * @throws SQLException if a database access error occurs
+     */
+    public void createAll(List<Reservation> reservations) throws SQLException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        String query = "INSERT INTO reservations (user_FK, status_FK, flight_FK, reserved_at) VALUES (?, ?, ?, ?)";
+
+        Connection connection = acquireConnection("createAll");
+        try (PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            for (Reservation reservation : reservations) {
+                statement.setInt(1, reservation.getUser_FK());
+                statement.setInt(2, reservation.getStatus_FK());
+                statement.setInt(3, reservation.getFlight_FK());
+                statement.setTimestamp(4, Timestamp.valueOf(reservation.getReserved_at()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                for (Reservation reservation : reservations) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Missing generated key for reservation of user " + reservation.getUser_FK());
+                    }
+                    reservation.setId(generatedKeys.getInt(1));
+                }
+            }
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -112,15 +189,18 @@ public class ReservationDAO implements DAOMethods<Reservation> {
     public void update(int id, Reservation toUpdate) throws SQLException {
         String query = "UPDATE reservations SET user_FK = ?, status_FK = ?, flight_FK = ?, reserved_at = ? WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, toUpdate.getUser_FK());
-        statement.setInt(2, toUpdate.getStatus_FK());
-        statement.setInt(3, toUpdate.getFlight_FK());
-        statement.setTimestamp(4, Timestamp.valueOf(toUpdate.getReserved_at()));
-        statement.setInt(5, id);
-
-        statement.executeUpdate();
-        statement.close();
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, toUpdate.getUser_FK());
+            statement.setInt(2, toUpdate.getStatus_FK());
+            statement.setInt(3, toUpdate.getFlight_FK());
+            statement.setTimestamp(4, Timestamp.valueOf(toUpdate.getReserved_at()));
+            statement.setInt(5, id);
+
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -133,64 +213,14 @@ public class ReservationDAO implements DAOMethods<Reservation> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM reservations WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
-
-        statement.executeUpdate();
-        statement.close();
-    }
-
-    /**
-     * Transforms the results from a ResultSet into a Reservation object.
-     *
-     * @param resultSet the ResultSet containing reservation data
-     * @return a Reservation object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private Reservation transformResultsToClass(ResultSet resultSet) throws SQLException {
-        Reservation reservation = new Reservation();
-
-        if (resultSet.next()) {
-            reservation.setId(resultSet.getInt("id_PK"));
-            reservation.setUser_FK(resultSet.getInt("user_FK"));
-            reservation.setStatus_FK(resultSet.getInt("status_FK"));
-            reservation.setFlight_FK(resultSet.getInt("flight_FK"));
-            reservation.setReserved_at(resultSet.getTimestamp("reserved_at").toLocalDateTime());
-            
-            // Set status information from join
-            reservation.setStatus_name(resultSet.getString("status_name"));
-            reservation.setStatus_description(resultSet.getString("status_description"));
-        }
-
-        return reservation;
-    }
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-    /**
-     * Transforms the results from a ResultSet into an ArrayList of Reservation objects.
-     *
-     * @param resultSet the ResultSet containing reservation data
-     * @return an ArrayList of Reservation objects populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private ArrayList<Reservation> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<Reservation> reservations = new ArrayList<>();
-
-        while (resultSet.next()) {
-            Reservation reservation = new Reservation();
-            reservation.setId(resultSet.getInt("id_PK"));
-            reservation.setUser_FK(resultSet.getInt("user_FK"));
-            reservation.setStatus_FK(resultSet.getInt("status_FK"));
-            reservation.setFlight_FK(resultSet.getInt("flight_FK"));
-            reservation.setReserved_at(resultSet.getTimestamp("reserved_at").toLocalDateTime());
-            
-            // Set status information from join
-            reservation.setStatus_name(resultSet.getString("status_name"));
-            reservation.setStatus_description(resultSet.getString("status_description"));
-            
-            reservations.add(reservation);
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
         }
-
-        return reservations;
     }
 
     /**
@@ -206,14 +236,17 @@ public class ReservationDAO implements DAOMethods<Reservation> {
                 "JOIN reservations_status rs ON r.status_FK = rs.id_PK " +
                 "WHERE r.user_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, userId);
+        Connection connection = acquireConnection("getByUserId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, userId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Reservation> reservations = transformResultsToClassArray(resultSet);
-        statement.close();
-        return reservations;
+            ArrayList<Reservation> reservations = ROW_MAPPER.mapAll(resultSet);
+            return reservations;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -229,14 +262,17 @@ public class ReservationDAO implements DAOMethods<Reservation> {
                 "JOIN reservations_status rs ON r.status_FK = rs.id_PK " +
                 "WHERE r.flight_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, flightId);
+        Connection connection = acquireConnection("getByFlightId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Reservation> reservations = transformResultsToClassArray(resultSet);
-        statement.close();
-        return reservations;
+            ArrayList<Reservation> reservations = ROW_MAPPER.mapAll(resultSet);
+            return reservations;
+        } finally {
+            releaseConnection(connection);
+        }
     }
     public ArrayList<Reservation> getByFlightIdAndUserId(int flightId, int userId) throws SQLException {
         String query = "SELECT r.*, rs.name as status_name, rs.description as status_description " +
@@ -244,22 +280,111 @@ public class ReservationDAO implements DAOMethods<Reservation> {
                 "JOIN reservations_status rs ON r.status_FK = rs.id_PK " +
                 "WHERE r.flight_FK = ? AND r.user_FK = ? "+
                 "ORDER BY r.reserved_at DESC ";
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, flightId);
-        statement.setInt(2, userId);
-        ResultSet resultSet = statement.executeQuery();
-        ArrayList<Reservation> reservation = transformResultsToClassArray(resultSet);
-        statement.close();
-        return reservation;
+        Connection connection = acquireConnection("getByFlightIdAndUserId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            statement.setInt(2, userId);
+            ResultSet resultSet = statement.executeQuery();
+            ArrayList<Reservation> reservation = ROW_MAPPER.mapAll(resultSet);
+            return reservation;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
+    /**
+     * Cancels, in one bounded chunk, the reservations of the flights departing within a time range
+     * that are not already cancelled, checked in or completed.
+     * The IDs of the chunk are selected first and then updated together, so each call locks at most
+     * {@code limit} rows. Reservations that change status between both statements are left untouched,
+     * and running it again never cancels a reservation twice.
+     *
+     * @param bottomRange the earliest departure time to include
+     * @param topRange    the latest departure time to include
+     * @param limit       the maximum number of reservations to cancel
+     * @return the number of reservations cancelled; fewer than {@code limit} when no more remain
+     * @throws SQLException if a database access error occurs
+     */
+    public int cancelUnconfirmedByDepartureRange(LocalDateTime bottomRange, LocalDateTime topRange, int limit) throws SQLException {
+        String selectQuery = "SELECT r.id_PK FROM flights f " +
+                "JOIN reservations r ON r.flight_FK = f.id_PK " +
+                "WHERE f.departure_time >= ? AND f.departure_time <= ? AND r.status_FK NOT IN (2, 4, 5) " +
+                "LIMIT ?";
+
+        Connection connection = acquireConnection("cancelUnconfirmedByDepartureRange");
+        try {
+            ArrayList<Integer> ids = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(selectQuery)) {
+                statement.setTimestamp(1, Timestamp.valueOf(bottomRange));
+                statement.setTimestamp(2, Timestamp.valueOf(topRange));
+                statement.setInt(3, limit);
+                ResultSet resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    ids.add(resultSet.getInt(1));
+                }
+            }
+            if (ids.isEmpty()) {
+                return 0;
+            }
+
+            StringBuilder updateQuery = new StringBuilder(
+                    "UPDATE reservations SET status_FK = 2 WHERE status_FK NOT IN (2, 4, 5) AND id_PK IN (");
+            for (int i = 0; i < ids.size(); i++) {
+                updateQuery.append(i == 0 ? "?" : ", ?");
+            }
+            updateQuery.append(")");
+
+            try (PreparedStatement statement = connection.prepareStatement(updateQuery.toString())) {
+                for (int i = 0; i < ids.size(); i++) {
+                    statement.setInt(i + 1, ids.get(i));
+                }
+                return statement.executeUpdate();
+            }
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-    // Getters and Setters
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Moves the checked-in reservations of one flight to completed.
+     *
+     * @param flightId the ID of the flight
+     * @return the number of reservations completed
+     * @throws SQLException if a database access error occurs
+     */
+    public int completeCheckedInByFlightId(int flightId) throws SQLException {
+        String query = "UPDATE reservations SET status_FK = 5 WHERE flight_FK = ? AND status_FK = 4";
+
+        Connection connection = acquireConnection("completeCheckedInByFlightId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
-    public void setConnection(Connection connection) {
-        this.connection = connection;
+    /**
+     * Moves the checked-in reservations of every completed flight departing within a time range to completed,
+     * with one joined UPDATE. Reservations already completed are not matched, so repeating it changes nothing.
+     *
+     * @param from the earliest departure time to include
+     * @param to   the end of the range, exclusive
+     * @return the number of reservations completed
+     * @throws SQLException if a database access error occurs
+     */
+    public int completeCheckedInByDepartureRange(LocalDateTime from, LocalDateTime to) throws SQLException {
+        String query = "UPDATE reservations r JOIN flights f ON r.flight_FK = f.id_PK " +
+                "SET r.status_FK = 5 " +
+                "WHERE r.status_FK = 4 AND f.status_FK = 7 AND f.departure_time >= ? AND f.departure_time < ?";
+
+        Connection connection = acquireConnection("completeCheckedInByDepartureRange");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 }
@@ -0,0 +1,289 @@
+package org.airflow.reservations.DAO;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps the rows of a ResultSet to objects of an entity.
+ * <p>
+ * A mapper is declared once per entity as a list of columns, each with the setter that receives its value,
+ * and shared by every query of the DAO. When a ResultSet is mapped, the label of every column is looked up
+ * in its metadata once, so each row is read by column index without resolving names again. Date-time
+ * columns are read as LocalDateTime directly when the driver supports {@code getObject(index, LocalDateTime.class)},
+ * which saves the Timestamp built for every value by {@code getTimestamp}.
+ * <p>
+ * Labels are matched ignoring case and, as {@link ResultSet#findColumn(String)} does, the first column with a label wins.
+ *
+ * @param <T> the entity the rows are mapped to
+ */
+public final class RowMapper<T> {
+    /** Creates an empty entity for every row, and for a lookup that finds nothing */
+    private final Supplier<T> factory;
+    /** Labels of the columns read, in declaration order */
+    private final List<String> labels = new ArrayList<>();
+    /** Readers of the columns, in declaration order */
+    private final List<Column<T>> columns = new ArrayList<>();
+
+    private RowMapper(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Starts the declaration of a mapper.
+     *
+     * @param factory creates an empty entity
+     * @return a mapper without columns
+     */
+    public static <T> RowMapper<T> of(Supplier<T> factory) {
+        return new RowMapper<>(factory);
+    }
+
+    /**
+     * Reads an INT column; NULL is read as 0, as {@link ResultSet#getInt(int)} does.
+     *
+     * @param label  the column label
+     * @param setter receives the value
+     * @return this mapper
+     */
+    public RowMapper<T> intColumn(String label, ObjIntConsumer<T> setter) {
+        return add(label, (reader, index, target) -> setter.accept(target, reader.resultSet.getInt(index)));
+    }
+
+    /**
+     * Reads an INT column that may be NULL.
+     *
+     * @param label  the column label
+     * @param setter receives the value, or null
+     * @return this mapper
+     */
+    public RowMapper<T> nullableIntColumn(String label, BiConsumer<T, Integer> setter) {
+        return add(label, (reader, index, target) -> {
+            int value = reader.resultSet.getInt(index);
+            setter.accept(target, reader.resultSet.wasNull() ? null : value);
+        });
+    }
+
+    /**
+     * Reads a numeric column as a float; NULL is read as 0.
+     *
+     * @param label  the column label
+     * @param setter receives the value
+     * @return this mapper
+     */
+    public RowMapper<T> floatColumn(String label, FloatSetter<T> setter) {
+        return add(label, (reader, index, target) -> setter.accept(target, reader.resultSet.getFloat(index)));
+    }
+
+    /**
+     * Reads a BOOLEAN column; NULL is read as false, as {@link ResultSet#getBoolean(int)} does.
+     *
+     * @param label  the column label
+     * @param setter receives the value
+     * @return this mapper
+     */
+    public RowMapper<T> booleanColumn(String label, BiConsumer<T, Boolean> setter) {
+        return add(label, (reader, index, target) -> setter.accept(target, reader.resultSet.getBoolean(index)));
+    }
+
+    /**
+     * Reads a character column.
+     *
+     * @param label  the column label
+     * @param setter receives the value, or null
+     * @return this mapper
+     */
+    public RowMapper<T> stringColumn(String label, BiConsumer<T, String> setter) {
+        return add(label, (reader, index, target) -> setter.accept(target, reader.resultSet.getString(index)));
+    }
+
+    /**
+     * Reads a character column and converts it, for instance to an enum.
+     *
+     * @param label     the column label
+     * @param converter converts the value; never called with null
+     * @param setter    receives the converted value, or null
+     * @return this mapper
+     */
+    public <V> RowMapper<T> stringColumn(String label, Function<String, V> converter,
+                                         BiConsumer<T, V> setter) {
+        return add(label, (reader, index, target) -> {
+            String value = reader.resultSet.getString(index);
+            setter.accept(target, value == null ? null : converter.apply(value));
+        });
+    }
+
+    /**
+     * Reads a TIMESTAMP or DATETIME column as a LocalDateTime.
+     *
+     * @param label  the column label
+     * @param setter receives the value, or null
+     * @return this mapper
+     */
+    public RowMapper<T> dateTimeColumn(String label, BiConsumer<T, LocalDateTime> setter) {
+        return add(label, (reader, index, target) -> setter.accept(target, reader.getDateTime(index)));
+    }
+
+    /**
+     * Maps the first row of a ResultSet.
+     *
+     * @param resultSet the rows, positioned before the first one
+     * @return the entity of the first row, or an empty entity if there are no rows
+     * @throws SQLException if a column is missing or a database access error occurs
+     */
+    public T mapOne(ResultSet resultSet) throws SQLException {
+        Reader<T> reader = reader(resultSet);
+        if (reader.next()) {
+            BaseDAO.countRows(1);
+            return reader.get();
+        }
+        return factory.get();
+    }
+
+    /**
+     * Maps every row of a ResultSet.
+     *
+     * @param resultSet the rows, positioned before the first one
+     * @return the entities, in row order
+     * @throws SQLException if a column is missing or a database access error occurs
+     */
+    public ArrayList<T> mapAll(ResultSet resultSet) throws SQLException {
+        Reader<T> reader = reader(resultSet);
+        ArrayList<T> entities = new ArrayList<>();
+        while (reader.next()) {
+            entities.add(reader.get());
+        }
+        BaseDAO.countRows(entities.size());
+        return entities;
+    }
+
+    /**
+     * Resolves the columns of a ResultSet, to map its rows one at a time.
+     *
+     * @param resultSet the rows
+     * @return a reader over the rows
+     * @throws SQLException if a column is missing or the metadata cannot be read
+     */
+    public Reader<T> reader(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        Map<String, Integer> positions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            // Walking backwards leaves the first column of a repeated label in the map
+            positions.put(metaData.getColumnLabel(i), i);
+        }
+        int[] indexes = new int[labels.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            Integer position = positions.get(labels.get(i));
+            if (position == null) {
+                throw new SQLException("Column '" + labels.get(i) + "' not found.", "S0022");
+            }
+            indexes[i] = position;
+        }
+        return new Reader<>(this, resultSet, indexes);
+    }
+
+    /**
+     * Declares a column.
+     */
+    private RowMapper<T> add(String label, Column<T> column) {
+        labels.add(label);
+        columns.add(column);
+        return this;
+    }
+
+    /**
+     * Reads the columns of a ResultSet into entities, by the column indexes resolved for it.
+     *
+     * @param <T> the entity the rows are mapped to
+     */
+    public static final class Reader<T> {
+        private final RowMapper<T> mapper;
+        private final ResultSet resultSet;
+        /** Index in the ResultSet of every column of the mapper */
+        private final int[] indexes;
+        /** Whether the driver returns LocalDateTime from getObject; cleared on the first refusal */
+        private boolean localDateTimeSupported = true;
+
+        private Reader(RowMapper<T> mapper, ResultSet resultSet, int[] indexes) {
+            this.mapper = mapper;
+            this.resultSet = resultSet;
+            this.indexes = indexes;
+        }
+
+        /**
+         * Moves to the next row.
+         *
+         * @return false when there are no more rows
+         * @throws SQLException if a database access error occurs
+         */
+        public boolean next() throws SQLException {
+            return resultSet.next();
+        }
+
+        /**
+         * Maps the current row.
+         *
+         * @return a new entity with the values of the row
+         * @throws SQLException if a database access error occurs
+         */
+        public T get() throws SQLException {
+            T entity = mapper.factory.get();
+            List<Column<T>> columns = mapper.columns;
+            for (int i = 0; i < indexes.length; i++) {
+                columns.get(i).read(this, indexes[i], entity);
+            }
+            return entity;
+        }
+
+        /**
+         * Returns the ResultSet being read.
+         *
+         * @return the ResultSet
+         */
+        public ResultSet getResultSet() {
+            return resultSet;
+        }
+
+        /**
+         * Reads a date-time column without going through Timestamp when the driver allows it.
+         */
+        private LocalDateTime getDateTime(int index) throws SQLException {
+            if (localDateTimeSupported) {
+                try {
+                    return resultSet.getObject(index, LocalDateTime.class);
+                } catch (SQLFeatureNotSupportedException e) {
+                    localDateTimeSupported = false;
+                }
+            }
+            Timestamp timestamp = resultSet.getTimestamp(index);
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+
+    /**
+     * Receives a float value without boxing it.
+     */
+    @FunctionalInterface
+    public interface FloatSetter<T> {
+        void accept(T target, float value);
+    }
+
+    /**
+     * Reads one column of the current row into an entity.
+     */
+    @FunctionalInterface
+    private interface Column<T> {
+        void read(Reader<T> reader, int index, T target) throws SQLException;
+    }
+}
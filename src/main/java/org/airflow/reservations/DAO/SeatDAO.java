@@ -1,10 +1,10 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.*;
-import org.airflow.reservations.utils.ConnectionDB;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) class for managing Seat entities.
@@ -14,17 +14,38 @@ import java.util.ArrayList;
  * @see DAOMethods
  * @see Seat
  */
-public class SeatDAO implements DAOMethods<Seat> {
-    private Connection connection;
+public class SeatDAO extends BaseDAO implements DAOMethods<Seat> {
+    /** Maps the rows of the seats table, and of the flight inventory joined with it */
+    static final RowMapper<Seat> ROW_MAPPER = RowMapper.of(Seat::new)
+            .intColumn("id_PK", Seat::setId)
+            .intColumn("airplane_FK", Seat::setAirplane_FK)
+            .nullableIntColumn("reservation_FK", Seat::setReservation_FK)
+            .stringColumn("seat_number", Seat::setSeat_number)
+            .stringColumn("seat_class", Seat.SeatClass::valueOf, Seat::setSeat_class)
+            .booleanColumn("is_window", Seat::setIs_window);
+
+    /** Maps the rows of the flight_seats table joined with the class of each seat */
+    static final RowMapper<FlightSeat> FLIGHT_SEAT_MAPPER = RowMapper.of(FlightSeat::new)
+            .intColumn("flight_FK", FlightSeat::setFlight_FK)
+            .intColumn("seat_FK", FlightSeat::setSeat_FK)
+            .nullableIntColumn("reservation_FK", FlightSeat::setReservation_FK)
+            .stringColumn("seat_class", Seat.SeatClass::valueOf, FlightSeat::setSeat_class);
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT * FROM seats";
+    /** Query of the inventory of every flight read by getAllFlightSeats and streamAllFlightSeats */
+    private static final String SELECT_ALL_FLIGHT_SEATS = "SELECT fs.flight_FK, fs.seat_FK, fs.reservation_FK, s.seat_class " +
+            "FROM flight_seats fs JOIN seats s ON s.id_PK = fs.seat_FK " +
+            "ORDER BY fs.flight_FK, fs.seat_FK";
 
     /**
      * Default constructor for SeatDAO class.
-     * Initializes the SeatDAO with a new database connection.
+     * Initializes the SeatDAO so that each operation borrows a connection from the pool.
      *
      * @throws SQLException if a database access error occurs
      */
     public SeatDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -34,7 +55,7 @@ public class SeatDAO implements DAOMethods<Seat> {
      * @param connection the connection to be used by the DAO
      */
     public SeatDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -45,15 +66,28 @@ public class SeatDAO implements DAOMethods<Seat> {
      */
     @Override
     public ArrayList<Seat> getAll() throws SQLException {
-        String query = "SELECT * FROM seats";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
+            ArrayList<Seat> seats = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList<Seat> seats = transformResultsToClassArray(resultSet);
-        statement.close();
+            return seats;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return seats;
+    /**
+     * Streams all seats from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all Seat objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<Seat> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -67,18 +101,22 @@ public class SeatDAO implements DAOMethods<Seat> {
     public Seat getById(int id) throws SQLException {
         String query = "SELECT * FROM seats WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        Seat seat = transformResultsToClass(resultSet);
-        statement.close();
-        return seat;
+            Seat seat = ROW_MAPPER.mapOne(resultSet);
+            return seat;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
      * Inserts a new seat into the database.
+     * The seat is also added, as available, to the inventory of every existing flight of its airplane.
      *
      * @param object the Seat object to be created in the database
      * @throws SQLException if a database access error occurs
@@ -87,22 +125,36 @@ public class SeatDAO implements DAOMethods<Seat> {
     public void create(Seat object) throws SQLException {
         String query = "INSERT INTO seats (airplane_FK, reservation_FK, seat_number, seat_class, is_window) " +
                 "VALUES (?, ?, ?, ?, ?)";
+        String inventoryQuery = "INSERT INTO flight_seats (flight_FK, seat_FK) " +
+                "SELECT f.id_PK, ? FROM flights f WHERE f.airplane_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, object.getAirplane_FK());
-        
-        if (object.getReservation_FK() != null) {
-            statement.setInt(2, object.getReservation_FK());
-        } else {
-            statement.setNull(2, Types.INTEGER);
-        }
-        
-        statement.setString(3, object.getSeat_number());
-        statement.setString(4, object.getSeat_class().toString());
-        statement.setBoolean(5, object.getIs_window());
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement inventoryStatement = connection.prepareStatement(inventoryQuery)) {
+            statement.setInt(1, object.getAirplane_FK());
+
+            if (object.getReservation_FK() != null) {
+                statement.setInt(2, object.getReservation_FK());
+            } else {
+                statement.setNull(2, Types.INTEGER);
+            }
+
+            statement.setString(3, object.getSeat_number());
+            statement.setString(4, object.getSeat_class().toString());
+            statement.setBoolean(5, object.getIs_window());
 
-        statement.executeUpdate();
-        statement.close();
+            statement.executeUpdate();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    inventoryStatement.setInt(1, generatedKeys.getInt(1));
+                    inventoryStatement.setInt(2, object.getAirplane_FK());
+                    inventoryStatement.executeUpdate();
+                }
+            }
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -117,22 +169,25 @@ public class SeatDAO implements DAOMethods<Seat> {
         String query = "UPDATE seats SET airplane_FK = ?, reservation_FK = ?, seat_number = ?, seat_class = ?, is_window = ? " +
                 "WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, toUpdate.getAirplane_FK());
-        
-        if (toUpdate.getReservation_FK() != null) {
-            statement.setInt(2, toUpdate.getReservation_FK());
-        } else {
-            statement.setNull(2, Types.INTEGER);
-        }
-        
-        statement.setString(3, toUpdate.getSeat_number());
-        statement.setString(4, toUpdate.getSeat_class().toString());
-        statement.setBoolean(5, toUpdate.getIs_window());
-        statement.setInt(6, id);
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, toUpdate.getAirplane_FK());
 
-        statement.executeUpdate();
-        statement.close();
+            if (toUpdate.getReservation_FK() != null) {
+                statement.setInt(2, toUpdate.getReservation_FK());
+            } else {
+                statement.setNull(2, Types.INTEGER);
+            }
+
+            statement.setString(3, toUpdate.getSeat_number());
+            statement.setString(4, toUpdate.getSeat_class().toString());
+            statement.setBoolean(5, toUpdate.getIs_window());
+            statement.setInt(6, id);
+
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -145,71 +200,14 @@ public class SeatDAO implements DAOMethods<Seat> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM seats WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
-
-        statement.executeUpdate();
-        statement.close();
-    }
-
-    /**
-     * Transforms the results from a ResultSet into a Seat object.
-     *
-     * @param resultSet the ResultSet containing seat data
-     * @return a Seat object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private Seat transformResultsToClass(ResultSet resultSet) throws SQLException {
-        Seat seat = new Seat();
-
-        if (resultSet.next()) {
-            seat.setId(resultSet.getInt("id_PK"));
-            seat.setAirplane_FK(resultSet.getInt("airplane_FK"));
-            
-            int reservationFK = resultSet.getInt("reservation_FK");
-            if (!resultSet.wasNull()) {
-                seat.setReservation_FK(reservationFK);
-            } else {
-                seat.setReservation_FK(null);
-            }
-            
-            seat.setSeat_number(resultSet.getString("seat_number"));
-            seat.setSeat_class(Seat.SeatClass.valueOf(resultSet.getString("seat_class")));
-            seat.setIs_window(resultSet.getBoolean("is_window"));
-        }
-
-        return seat;
-    }
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-    /**
-     * Transforms the results from a ResultSet into an ArrayList of Seat objects.
-     *
-     * @param resultSet the ResultSet containing seat data
-     * @return an ArrayList of Seat objects populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private ArrayList<Seat> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<Seat> seats = new ArrayList<>();
-
-        while (resultSet.next()) {
-            Seat seat = new Seat();
-            seat.setId(resultSet.getInt("id_PK"));
-            seat.setAirplane_FK(resultSet.getInt("airplane_FK"));
-            
-            int reservationFK = resultSet.getInt("reservation_FK");
-            if (!resultSet.wasNull()) {
-                seat.setReservation_FK(reservationFK);
-            } else {
-                seat.setReservation_FK(null);
-            }
-            
-            seat.setSeat_number(resultSet.getString("seat_number"));
-            seat.setSeat_class(Seat.SeatClass.valueOf(resultSet.getString("seat_class")));
-            seat.setIs_window(resultSet.getBoolean("is_window"));
-            seats.add(seat);
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
         }
-
-        return seats;
     }
 
     /**
@@ -222,14 +220,17 @@ public class SeatDAO implements DAOMethods<Seat> {
     public ArrayList<Seat> getByAirplaneId(int airplaneId) throws SQLException {
         String query = "SELECT * FROM seats WHERE airplane_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, airplaneId);
+        Connection connection = acquireConnection("getByAirplaneId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, airplaneId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Seat> seats = transformResultsToClassArray(resultSet);
-        statement.close();
-        return seats;
+            ArrayList<Seat> seats = ROW_MAPPER.mapAll(resultSet);
+            return seats;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -240,58 +241,75 @@ public class SeatDAO implements DAOMethods<Seat> {
      * @throws SQLException if a database access error occurs
      */
     public ArrayList<Seat> getByReservationId(int reservationId) throws SQLException {
-        String query = "SELECT * FROM seats WHERE reservation_FK = ?";
+        String query = "SELECT s.id_PK, s.airplane_FK, fs.reservation_FK, s.seat_number, s.seat_class, s.is_window " +
+                "FROM flight_seats fs JOIN seats s ON s.id_PK = fs.seat_FK " +
+                "WHERE fs.reservation_FK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, reservationId);
+        Connection connection = acquireConnection("getByReservationId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, reservationId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Seat> seats = transformResultsToClassArray(resultSet);
-        statement.close();
-        return seats;
+            ArrayList<Seat> seats = ROW_MAPPER.mapAll(resultSet);
+            return seats;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
      * Returns available seats (not reserved) for a specific airplane.
-     *
+     * This reads the airplane-wide reservation_FK column, which no longer reflects bookings;
+     * seat availability is flight-scoped, see {@link #getAvailableSeatsByFlightId(int)}.
      *
      * @param airplaneId the ID of the airplane
      * @return an ArrayList of available Seat objects for the specified airplane
      * @throws SQLException if a database access error occurs
+     * @deprecated use {@link #getAvailableSeatsByFlightId(int)}
      */
+    @Deprecated
     public ArrayList<Seat> getAvailableSeatsByAirplaneId(int airplaneId) throws SQLException {
         String query = "SELECT * FROM seats WHERE airplane_FK = ? AND reservation_FK IS NULL";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, airplaneId);
+        Connection connection = acquireConnection("getAvailableSeatsByAirplaneId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, airplaneId);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        ArrayList<Seat> seats = transformResultsToClassArray(resultSet);
-        statement.close();
-        return seats;
+            ArrayList<Seat> seats = ROW_MAPPER.mapAll(resultSet);
+            return seats;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
      * Returns available seats (not reserved) for a specific airplane and class and if needed window seat.
+     * Like {@link #getAvailableSeatsByAirplaneId(int)} this is airplane-scoped and ignores per-flight bookings.
      * @param airplaneId the ID of the airplane
      * @param Class the class of the seat to be returned.
      * @param Window boolean that indicates if the seat is a window seat or not.
      * @return an ArrayList of available Seat objects for the specified airplane and class and if needed window seat.
      * @throws SQLException if a database access error occurs
+     * @deprecated seat availability is flight-scoped, use {@link #getAvailableSeatsByFlightId(int)}
      */
+    @Deprecated
     public ArrayList<Seat> getByavailableSeatsByAirplaneIdClassAndWindow(int airplaneId, String Class ,
                                                                          boolean Window) throws SQLException {
         String query = "SELECT * FROM seats WHERE airplane_FK = ? AND reservation_FK IS NULL AND seat_class = ? AND is_window = ?";
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, airplaneId);
-        statement.setString(2, Class);
-        statement.setBoolean(3, Window);
-        ResultSet resultSet = statement.executeQuery();
-        ArrayList<Seat> seats = transformResultsToClassArray(resultSet);
-        statement.close();
-        return seats;
+        Connection connection = acquireConnection("getByavailableSeatsByAirplaneIdClassAndWindow");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, airplaneId);
+            statement.setString(2, Class);
+            statement.setBoolean(3, Window);
+            ResultSet resultSet = statement.executeQuery();
+            ArrayList<Seat> seats = ROW_MAPPER.mapAll(resultSet);
+            return seats;
+        } finally {
+            releaseConnection(connection);
+        }
     }
     
     /**
@@ -306,22 +324,278 @@ public class SeatDAO implements DAOMethods<Seat> {
         String query = "SELECT id_PK, airplane_FK, reservation_FK, seat_number, seat_class, is_window " +
                        "FROM seats WHERE airplane_FK = ? AND seat_number = ?";
         
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, airplaneId);
-        statement.setString(2, seatNumber);
-
-        ResultSet resultSet = statement.executeQuery();
-        Seat seat = transformResultsToClass(resultSet); 
-        statement.close();
-        return seat;
+        Connection connection = acquireConnection("getByAirplaneIdSeatNumber");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, airplaneId);
+            statement.setString(2, seatNumber);
+
+            ResultSet resultSet = statement.executeQuery();
+            Seat seat = ROW_MAPPER.mapOne(resultSet); 
+            return seat;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
-    // Getters and Setters
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Returns the seats of a flight, with the reservation holding each seat on that flight.
+     *
+     * @param flightId the ID of the flight
+     * @return an ArrayList of Seat objects whose reservation_FK is the flight-scoped reservation
+     * @throws SQLException if a database access error occurs
+     */
+    public ArrayList<Seat> getByFlightId(int flightId) throws SQLException {
+        String query = "SELECT s.id_PK, s.airplane_FK, fs.reservation_FK, s.seat_number, s.seat_class, s.is_window " +
+                "FROM flight_seats fs JOIN seats s ON s.id_PK = fs.seat_FK " +
+                "WHERE fs.flight_FK = ?";
+
+        Connection connection = acquireConnection("getByFlightId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            ResultSet resultSet = statement.executeQuery();
+            return ROW_MAPPER.mapAll(resultSet);
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
-    public void setConnection(Connection connection) {
-        this.connection = connection;
+    /**
+     * Returns the seats that are not reserved on a specific flight.
+     *
+     * @param flightId the ID of the flight
+     * @return an ArrayList of available Seat objects for the specified flight
+     * @throws SQLException if a database access error occurs
+     */
+    public ArrayList<Seat> getAvailableSeatsByFlightId(int flightId) throws SQLException {
+        String query = "SELECT s.id_PK, s.airplane_FK, fs.reservation_FK, s.seat_number, s.seat_class, s.is_window " +
+                "FROM flight_seats fs JOIN seats s ON s.id_PK = fs.seat_FK " +
+                "WHERE fs.flight_FK = ? AND fs.reservation_FK IS NULL";
+
+        Connection connection = acquireConnection("getAvailableSeatsByFlightId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            ResultSet resultSet = statement.executeQuery();
+            return ROW_MAPPER.mapAll(resultSet);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Sets or clears the reservation holding a seat on a specific flight.
+     *
+     * @param flightId      the ID of the flight
+     * @param seatId        the ID of the seat
+     * @param reservationId the reservation ID to associate with the seat, or null to free it
+     * @return the number of rows updated (0 if the seat is not part of the flight)
+     * @throws SQLException if a database access error occurs
+     */
+    public int updateFlightSeatReservation(int flightId, int seatId, Integer reservationId) throws SQLException {
+        String query = "UPDATE flight_seats SET reservation_FK = ? WHERE flight_FK = ? AND seat_FK = ?";
+
+        Connection connection = acquireConnection("updateFlightSeatReservation");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            if (reservationId != null) {
+                statement.setInt(1, reservationId);
+            } else {
+                statement.setNull(1, Types.INTEGER);
+            }
+            statement.setInt(2, flightId);
+            statement.setInt(3, seatId);
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Reserves several seats of a flight for a reservation with a single conditional UPDATE.
+     * Only seats that are still free are updated, so the caller must compare the returned
+     * count with the number of seats requested and roll back if they differ.
+     *
+     * @param flightId      the ID of the flight
+     * @param seatIds       the IDs of the seats to reserve
+     * @param reservationId the reservation ID to associate with the seats
+     * @return the number of seats that were free and are now reserved
+     * @throws SQLException if a database access error occurs
+     */
+    public int claimFlightSeats(int flightId, int[] seatIds, int reservationId) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        String query = "UPDATE flight_seats SET reservation_FK = ? " +
+                "WHERE flight_FK = ? AND reservation_FK IS NULL AND seat_FK IN (" + placeholders(seatIds.length) + ")";
+
+        Connection connection = acquireConnection("claimFlightSeats");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, reservationId);
+            statement.setInt(2, flightId);
+            for (int i = 0; i < seatIds.length; i++) {
+                statement.setInt(3 + i, seatIds[i]);
+            }
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Reserves seats of a flight for several reservations, each seat for its own reservation, with a single
+     * conditional UPDATE. Only seats that are still free are updated, so the caller must compare the returned
+     * count with the number of seats requested and roll back if they differ.
+     *
+     * @param flightId       the ID of the flight
+     * @param seatIds        the IDs of the seats to reserve, without repeats
+     * @param reservationIds the reservation of each seat, in the same order
+     * @return the number of seats that were free and are now reserved
+     * @throws SQLException if a database access error occurs
+     */
+    public int claimFlightSeats(int flightId, int[] seatIds, int[] reservationIds) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        StringBuilder query = new StringBuilder(64 + seatIds.length * 18);
+        query.append("UPDATE flight_seats SET reservation_FK = CASE seat_FK");
+        for (int i = 0; i < seatIds.length; i++) {
+            query.append(" WHEN ? THEN ?");
+        }
+        query.append(" END WHERE flight_FK = ? AND reservation_FK IS NULL AND seat_FK IN (")
+                .append(placeholders(seatIds.length)).append(')');
+
+        Connection connection = acquireConnection("claimFlightSeats");
+        try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+            int parameter = 1;
+            for (int i = 0; i < seatIds.length; i++) {
+                statement.setInt(parameter++, seatIds[i]);
+                statement.setInt(parameter++, reservationIds[i]);
+            }
+            statement.setInt(parameter++, flightId);
+            for (int seatId : seatIds) {
+                statement.setInt(parameter++, seatId);
+            }
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Frees several seats of a flight with a single UPDATE.
+     *
+     * @param flightId the ID of the flight
+     * @param seatIds  the IDs of the seats to free
+     * @return the number of seats that were reserved and are now free
+     * @throws SQLException if a database access error occurs
+     */
+    public int releaseFlightSeats(int flightId, int[] seatIds) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        String query = "UPDATE flight_seats SET reservation_FK = NULL " +
+                "WHERE flight_FK = ? AND reservation_FK IS NOT NULL AND seat_FK IN (" + placeholders(seatIds.length) + ")";
+
+        Connection connection = acquireConnection("releaseFlightSeats");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            for (int i = 0; i < seatIds.length; i++) {
+                statement.setInt(2 + i, seatIds[i]);
+            }
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Frees several seats of a flight only where they are held by the given reservation.
+     * Used to undo a partially applied claim without touching seats of other reservations.
+     *
+     * @param flightId      the ID of the flight
+     * @param seatIds       the IDs of the seats to free
+     * @param reservationId the reservation that must hold the seats
+     * @return the number of seats freed
+     * @throws SQLException if a database access error occurs
+     */
+    public int releaseFlightSeats(int flightId, int[] seatIds, int reservationId) throws SQLException {
+        if (seatIds.length == 0) {
+            return 0;
+        }
+        String query = "UPDATE flight_seats SET reservation_FK = NULL " +
+                "WHERE flight_FK = ? AND reservation_FK = ? AND seat_FK IN (" + placeholders(seatIds.length) + ")";
+
+        Connection connection = acquireConnection("releaseFlightSeats");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            statement.setInt(2, reservationId);
+            for (int i = 0; i < seatIds.length; i++) {
+                statement.setInt(3 + i, seatIds[i]);
+            }
+            return statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Builds a comma-separated list of JDBC parameter placeholders.
+     *
+     * @param count the number of placeholders
+     * @return a string such as "?, ?, ?"
+     */
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ", ?");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the seat inventory of one flight, ordered by seat ID.
+     *
+     * @param flightId the ID of the flight
+     * @return an ArrayList of FlightSeat objects for the specified flight
+     * @throws SQLException if a database access error occurs
+     */
+    public ArrayList<FlightSeat> getFlightSeatsByFlightId(int flightId) throws SQLException {
+        String query = "SELECT fs.flight_FK, fs.seat_FK, fs.reservation_FK, s.seat_class " +
+                "FROM flight_seats fs JOIN seats s ON s.id_PK = fs.seat_FK " +
+                "WHERE fs.flight_FK = ? ORDER BY fs.seat_FK";
+
+        Connection connection = acquireConnection("getFlightSeatsByFlightId");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, flightId);
+            ResultSet resultSet = statement.executeQuery();
+            return FLIGHT_SEAT_MAPPER.mapAll(resultSet);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Returns the seat inventory of every flight, ordered by flight ID and seat ID.
+     *
+     * @return an ArrayList of all FlightSeat objects
+     * @throws SQLException if a database access error occurs
+     */
+    public ArrayList<FlightSeat> getAllFlightSeats() throws SQLException {
+        Connection connection = acquireConnection("getAllFlightSeats");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL_FLIGHT_SEATS);
+            return FLIGHT_SEAT_MAPPER.mapAll(resultSet);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Streams the inventory entries of every flight from a server-side cursor, ordered by flight and seat.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of FlightSeat objects
+     * @throws SQLException if a database access error occurs
+     */
+    public Stream<FlightSeat> streamAllFlightSeats() throws SQLException {
+        return streamQuery(SELECT_ALL_FLIGHT_SEATS, FLIGHT_SEAT_MAPPER);
     }
 }
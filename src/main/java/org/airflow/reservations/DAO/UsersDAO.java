@@ -1,10 +1,10 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.User;
-import org.airflow.reservations.utils.ConnectionDB;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  *
@@ -14,15 +14,26 @@ Data Access Object (DAO) class for managing User entities.
  *
  * @see DAOMethods
  * @see User */
-public class UsersDAO implements DAOMethods<User> {
-    private Connection connection;
+public class UsersDAO extends BaseDAO implements DAOMethods<User> {
+    /** Maps the rows of the users table */
+    static final RowMapper<User> ROW_MAPPER = RowMapper.of(User::new)
+            .intColumn("id_PK", User::setId)
+            .stringColumn("name", User::setName)
+            .stringColumn("last_name", User::setLast_name)
+            .stringColumn("email", User::setEmail)
+            .stringColumn("password", User::setPassword)
+            .booleanColumn("isSuperUser", User::setSuperUser)
+            .dateTimeColumn("created_at", User::setCreated_at);
+
+    /** Query of every row read by getAll and stream */
+    private static final String SELECT_ALL = "SELECT * FROM users";
 
     /**
      * Default constructor for UsersDAO class.
-     * Initializes the UsersDAO with default values.
+     * Initializes the UsersDAO so that each operation borrows a connection from the pool.
      */
     public UsersDAO() throws SQLException {
-        connection = ConnectionDB.getConnection();
+        super();
     }
 
     /**
@@ -32,7 +43,7 @@ public class UsersDAO implements DAOMethods<User> {
      * @param connection the connection to be used by the DAO
      */
     public UsersDAO(Connection connection) {
-        this.connection = connection;
+        super(connection);
     }
 
     /**
@@ -43,16 +54,29 @@ public class UsersDAO implements DAOMethods<User> {
     */
     @Override
     public ArrayList<User> getAll() throws SQLException{
-        String query = "SELECT * FROM users";
+        Connection connection = acquireConnection("getAll");
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(SELECT_ALL);
 
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query);
 
+            ArrayList <User> users = ROW_MAPPER.mapAll(resultSet);
 
-        ArrayList <User> users = transformResultsToClassArray(resultSet);
-        statement.close();
+            return users;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
 
-        return users;
+    /**
+     * Streams all users from a server-side cursor instead of loading them all in memory.
+     * The stream holds a database connection until it is closed.
+     *
+     * @return a stream of all User objects
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Stream<User> stream() throws SQLException {
+        return streamQuery(SELECT_ALL, ROW_MAPPER);
     }
 
     /**
@@ -67,14 +91,17 @@ public class UsersDAO implements DAOMethods<User> {
     public User getById(int id) throws SQLException {
         String query = "SELECT * FROM users WHERE id_PK = (?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("getById");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        User user = transformResultsToClass(resultSet);
-        statement.close();
-        return user;
+            User user = lastRow(resultSet);
+            return user;
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
     /**
@@ -89,18 +116,19 @@ public class UsersDAO implements DAOMethods<User> {
         String query = "INSERT INTO users (name, last_name, email, password, isSuperUser, created_at) " +
                 "VALUES (?,?,?,?,?,?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, object.getName());
-        statement.setString(2, object.getLast_name());
-        statement.setString(3, object.getEmail());
-        statement.setString(4, object.getPassword());
-        statement.setBoolean(5, object.getSuperUser());
-        statement.setTimestamp(6, Timestamp.valueOf(object.getCreated_at()));
-
-        statement.executeUpdate();
-
-        statement.close();
-
+        Connection connection = acquireConnection("create");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, object.getName());
+            statement.setString(2, object.getLast_name());
+            statement.setString(3, object.getEmail());
+            statement.setString(4, object.getPassword());
+            statement.setBoolean(5, object.getSuperUser());
+            statement.setTimestamp(6, Timestamp.valueOf(object.getCreated_at()));
+
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
 
@@ -118,18 +146,20 @@ public class UsersDAO implements DAOMethods<User> {
                 "SET name = ?, last_name = ?, email = ?, password = ?, isSuperUser = ?, created_at = ? " +
                 "WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, toUpdate.getName());
-        statement.setString(2, toUpdate.getLast_name());
-        statement.setString(3, toUpdate.getEmail());
-        statement.setString(4, toUpdate.getPassword());
-        statement.setBoolean(5, toUpdate.getSuperUser());
-        statement.setTimestamp(6, Timestamp.valueOf(toUpdate.getCreated_at()));
-        statement.setInt(7, id);
-
-        statement.executeUpdate();
-
-        statement.close();
+        Connection connection = acquireConnection("update");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, toUpdate.getName());
+            statement.setString(2, toUpdate.getLast_name());
+            statement.setString(3, toUpdate.getEmail());
+            statement.setString(4, toUpdate.getPassword());
+            statement.setBoolean(5, toUpdate.getSuperUser());
+            statement.setTimestamp(6, Timestamp.valueOf(toUpdate.getCreated_at()));
+            statement.setInt(7, id);
+
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
 
@@ -143,84 +173,42 @@ public class UsersDAO implements DAOMethods<User> {
     public void delete(int id) throws SQLException {
         String query = "DELETE FROM users WHERE id_PK = ?";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setInt(1, id);
+        Connection connection = acquireConnection("delete");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, id);
 
-        statement.executeUpdate();
-
-        statement.close();
+            statement.executeUpdate();
+        } finally {
+            releaseConnection(connection);
+        }
     }
 
 
     public User getByEmail(String email) throws SQLException {
         String query = "SELECT * FROM users WHERE email LIKE (?)";
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setString(1, email);
+        Connection connection = acquireConnection("getByEmail");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, email);
 
-        ResultSet resultSet = statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
 
-        User user = transformResultsToClass(resultSet);
-        statement.close();
-        return user;
-    }
-
-    /**
-     * Transforms the results from a ResultSet into a User object.
-     *
-     * @param resultSet the ResultSet containing user data
-     * @return a User object populated with data from the ResultSet
-     * @throws SQLException if a database access error occurs
-     */
-    private User transformResultsToClass(ResultSet resultSet) throws SQLException {
-        User user = new User();
-
-        while (resultSet.next()) {
-            user.setId(resultSet.getInt("id_PK"));
-            user.setName(resultSet.getString("name"));
-            user.setLast_name(resultSet.getString("last_name"));
-            user.setEmail(resultSet.getString("email"));
-            user.setPassword(resultSet.getString("password"));
-            user.setSuperUser(resultSet.getBoolean("isSuperUser"));
-            user.setCreated_at(resultSet.getTimestamp("created_at").toLocalDateTime());
+            User user = lastRow(resultSet);
+            return user;
+        } finally {
+            releaseConnection(connection);
         }
-
-        return user;
     }
 
-
     /**
-     * Transforms the results from a ResultSet into an ArrayList of User objects.
+     * Maps the last row of a ResultSet, as the lookups of this DAO have always returned.
      *
      * @param resultSet the ResultSet containing user data
-     * @return an ArrayList of User objects populated with data from the ResultSet
+     * @return the User of the last row, or an empty User if there are no rows
      * @throws SQLException if a database access error occurs
      */
-    private ArrayList<User> transformResultsToClassArray(ResultSet resultSet) throws SQLException {
-        ArrayList<User> users = new ArrayList<>();
-
-        while (resultSet.next()) {
-            User user = new User();
-            user.setId(resultSet.getInt("id_PK"));
-            user.setName(resultSet.getString("name"));
-            user.setLast_name(resultSet.getString("last_name"));
-            user.setEmail(resultSet.getString("email"));
-            user.setPassword(resultSet.getString("password"));
-            user.setSuperUser(resultSet.getBoolean("isSuperUser"));
-            user.setCreated_at(resultSet.getTimestamp("created_at").toLocalDateTime());
-            users.add(user);
-        }
-
-        return users;
-    }
-
-
-    //Getters and Setters
-    public Connection getConnection() {
-        return connection;
-    }
-
-    public void setConnection(Connection connection) {
-        this.connection = connection;
+    private User lastRow(ResultSet resultSet) throws SQLException {
+        ArrayList<User> users = ROW_MAPPER.mapAll(resultSet);
+        return users.isEmpty() ? new User() : users.get(users.size() - 1);
     }
 }
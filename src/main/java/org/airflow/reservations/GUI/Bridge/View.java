@@ -3,6 +3,7 @@ package org.airflow.reservations.GUI.Bridge;
 import org.airflow.reservations.model.Airplane;
 import org.airflow.reservations.model.City;
 import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
 import org.airflow.reservations.model.Seat;
 
 import javax.swing.*;
@@ -20,6 +21,8 @@ public interface View {
 
     /** Command for searching for a flight. */
     String SEARCH_FLIGHT_CMD = "SEARCH_FLIGHT";
+    /** Command for showing the next page of flight search results. */
+    String MORE_FLIGHTS_CMD = "MORE_FLIGHTS";
     /** Command for viewing the details of a flight. */
     String DETAILS_FLIGHT_CMD = "DETAILS_FLIGHT";
     /** Command for booking a seat on a flight. */
@@ -104,6 +107,14 @@ public interface View {
      */
     ArrayList<Seat> getSelectedSeats();
 
+    /**
+     * Gets a seat shown in the book seats panel by its seat number.
+     *
+     * @param seatNumber The seat number, e.g. "12A".
+     * @return The seat, or null if the panel does not show it.
+     */
+    Seat getSeatByNumber(String seatNumber);
+
     /**
      * Sets the flight details to be displayed in the details panel.
      *
@@ -149,11 +160,27 @@ public interface View {
     /**
      * Displays a list of flights in the search results panel.
      *
-     * @param flights     The list of flights to display.
-     * @param origin      The origin city of the flights.
-     * @param destination The destination city of the flights.
+     * @param flights        The list of flights to display.
+     * @param origin         The origin city of the flights.
+     * @param destination    The destination city of the flights.
+     * @param hasMoreFlights true to offer a button that shows the next page of flights.
+     */
+    void displayFlights(ArrayList<Flight> flights, City origin, City destination, boolean hasMoreFlights);
+
+    /**
+     * Displays connecting itineraries below the flights in the search results panel.
+     *
+     * @param itineraries The itineraries to display.
+     * @param cities      The cities by ID, used to show the stops of each itinerary.
+     */
+    void displayItineraries(ArrayList<Itinerary> itineraries, Map<Integer, City> cities);
+
+    /**
+     * Shows or hides the busy indicator while service calls run in the background.
+     *
+     * @param busy true while at least one service call is running.
      */
-    void displayFlights(ArrayList<Flight> flights, City origin, City destination);
+    void setBusy(boolean busy);
 
     void toggleSeatSelection(String seatNumber);
 
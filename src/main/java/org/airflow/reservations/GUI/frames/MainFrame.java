@@ -7,6 +7,7 @@ import org.airflow.reservations.GUI.panels.*;
 import org.airflow.reservations.model.Airplane;
 import org.airflow.reservations.model.City;
 import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
 import org.airflow.reservations.model.Seat;
 
 import javax.swing.*;
@@ -53,6 +54,10 @@ public class MainFrame extends JFrame implements View {
     private SearchFlightPanel searchFlightPanel;
     /** The action listener for the view's components. */
     private ActionListener actionListener;
+    /** The status bar shown while service calls run in the background. */
+    private JPanel statusPanel;
+    /** The progress bar of the status bar. */
+    private JProgressBar progressBar;
 
 
     /**
@@ -76,6 +81,7 @@ public class MainFrame extends JFrame implements View {
 
         createHorizontalMenu();
         createContentPanel();
+        createStatusPanel();
 
         searchFlightPanel.setVisible(true);
         setVisible(true);
@@ -166,6 +172,27 @@ public class MainFrame extends JFrame implements View {
         add(scrollPane, BorderLayout.CENTER);
     }
 
+    /**
+     * Creates the status bar at the bottom of the main frame.
+     * It holds an indeterminate progress bar and is only visible while the application is busy.
+     */
+    private void createStatusPanel() {
+        statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusPanel.setBackground(Color.WHITE);
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(5, 20, 5, 20));
+
+        JLabel statusLabel = new JLabel("Loading...");
+        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        statusPanel.add(progressBar, BorderLayout.CENTER);
+
+        statusPanel.setVisible(false);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+
     @Override
     public void addActionListener(ActionListener listener) {
         this.actionListener = listener;
@@ -221,6 +248,11 @@ public class MainFrame extends JFrame implements View {
         return bookSeatsPanel.getSelectedSeats();
     }
 
+    @Override
+    public Seat getSeatByNumber(String seatNumber) {
+        return bookSeatsPanel.getSeatByNumber(seatNumber);
+    }
+
     @Override
     public void setCitiesData(ArrayList<City> cities) {
         searchFlightPanel.setCitiesData(cities);
@@ -247,8 +279,20 @@ public class MainFrame extends JFrame implements View {
     }
 
     @Override
-    public void displayFlights(ArrayList<Flight> flights, City origin, City destination) {
-        searchFlightPanel.displayFlights(flights, origin, destination, this.actionListener);
+    public void displayFlights(ArrayList<Flight> flights, City origin, City destination, boolean hasMoreFlights) {
+        searchFlightPanel.displayFlights(flights, origin, destination, hasMoreFlights, this.actionListener);
+    }
+
+    @Override
+    public void displayItineraries(ArrayList<Itinerary> itineraries, Map<Integer, City> cities) {
+        searchFlightPanel.displayItineraries(itineraries, cities, this.actionListener);
+    }
+
+    @Override
+    public void setBusy(boolean busy) {
+        statusPanel.setVisible(busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+        revalidate();
     }
 
     @Override
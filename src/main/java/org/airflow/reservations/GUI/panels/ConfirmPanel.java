@@ -11,6 +11,7 @@ import java.awt.*;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,6 +26,8 @@ public class ConfirmPanel extends JPanel {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
     /** Formatter for displaying dates. */
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+    /** Taxes and fees charged on the subtotal. */
+    public static final double TAX_RATE = 0.12;
 
     // Main components
     /** The panel for the header section. */
@@ -176,11 +179,25 @@ public class ConfirmPanel extends JPanel {
      * Calculates the total price based on selected seats and class multipliers.
      */
     private void calculateTotalPrice() {
-        totalPrice = 0.0;
-        for (Seat seat : selectedSeats) {
+        totalPrice = calculateSubtotal(selectedSeats, classMultipliers, basePrice);
+    }
+
+    /**
+     * Calculates the price of a set of seats before taxes.
+     * Each seat costs the base price times the multiplier of its class; classes without a multiplier cost the base price.
+     *
+     * @param seats            the seats
+     * @param classMultipliers the pricing multipliers for seat classes
+     * @param basePrice        the base price for the flight
+     * @return the subtotal
+     */
+    public static double calculateSubtotal(List<Seat> seats, Map<Seat.SeatClass, Double> classMultipliers, double basePrice) {
+        double subtotal = 0.0;
+        for (Seat seat : seats) {
             double multiplier = classMultipliers.getOrDefault(seat.getSeat_class(), 1.0);
-            totalPrice += basePrice * multiplier;
+            subtotal += basePrice * multiplier;
         }
+        return subtotal;
     }
 
     /**
@@ -451,7 +468,7 @@ public class ConfirmPanel extends JPanel {
         detailsPanel.add(subtotalLabel, gbc);
 
         // Taxes and fees
-        double taxes = totalPrice * 0.12; // 12% tax rate
+        double taxes = totalPrice * TAX_RATE;
         gbc.gridx = 0;
         gbc.gridy = 1;
         detailsPanel.add(new JLabel("Taxes & Fees:"), gbc);
@@ -517,7 +534,7 @@ public class ConfirmPanel extends JPanel {
      * @return total price with taxes
      */
     public double getTotalPriceWithTaxes() {
-        return totalPrice + (totalPrice * 0.12);
+        return totalPrice + (totalPrice * TAX_RATE);
     }
 
     /**
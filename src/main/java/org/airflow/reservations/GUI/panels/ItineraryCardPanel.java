@@ -0,0 +1,148 @@
+package org.airflow.reservations.GUI.panels;
+
+import org.airflow.reservations.GUI.Bridge.View;
+import org.airflow.reservations.model.City;
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * A panel that displays a summary of a connecting itinerary as a card.
+ * It includes the cities of every leg, the times, the total duration, the number of stops,
+ * the total price, and a button to view the details of the first flight.
+ */
+public class ItineraryCardPanel extends JPanel {
+    /**
+     * Formatter for displaying time in HH:mm a format.
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
+
+    /**
+     * The itinerary associated with this card.
+     */
+    private Itinerary itinerary;
+
+    /**
+     * The button to trigger viewing the detailed information of the first flight.
+     */
+    private JButton viewDetailsButton;
+
+    /**
+     * Constructs a new ItineraryCardPanel.
+     *
+     * @param itinerary The itinerary to display.
+     * @param cities    The cities by ID, used to show the code of every stop.
+     */
+    public ItineraryCardPanel(Itinerary itinerary, Map<Integer, City> cities) {
+        this.itinerary = itinerary;
+
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(220, 220, 220), 1, true),
+                BorderFactory.createEmptyBorder(15, 15, 15, 15)
+        ));
+        setBackground(Color.WHITE);
+        setMaximumSize(new Dimension(Integer.MAX_VALUE, 140));
+
+        // Panel for itinerary info
+        JPanel infoPanel = new JPanel(new GridBagLayout());
+        infoPanel.setBackground(Color.WHITE);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(2, 5, 2, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        // Route through every stop
+        StringBuilder route = new StringBuilder(cityCode(cities, itinerary.getLegs().get(0).getOrigin_city_FK()));
+        for (Flight leg : itinerary.getLegs()) {
+            route.append(" → ").append(cityCode(cities, leg.getDestination_city_FK()));
+        }
+        JLabel routeLabel = new JLabel(route.toString());
+        routeLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        infoPanel.add(routeLabel, gbc);
+
+        JLabel timeLabel = new JLabel(String.format("%s - %s",
+                itinerary.getDepartureTime().format(TIME_FORMATTER),
+                itinerary.getArrivalTime().format(TIME_FORMATTER)));
+        timeLabel.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        gbc.gridy = 1;
+        infoPanel.add(timeLabel, gbc);
+
+        // Duration and stops
+        Duration duration = itinerary.getTotalDuration();
+        JLabel durationLabel = new JLabel(String.format("Duration: %dh %dm · %d %s",
+                duration.toHours(), duration.toMinutesPart(),
+                itinerary.getStops(), itinerary.getStops() == 1 ? "stop" : "stops"));
+        durationLabel.setFont(new Font("SansSerif", Font.ITALIC, 12));
+        gbc.gridy = 2;
+        infoPanel.add(durationLabel, gbc);
+
+        // Panel for price and button
+        JPanel actionPanel = new JPanel(new BorderLayout(10, 5));
+        actionPanel.setBackground(Color.WHITE);
+
+        // Total price
+        JLabel priceLabel = new JLabel(String.format("$%.2f", itinerary.getTotalPrice()));
+        priceLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
+        priceLabel.setForeground(new Color(0, 102, 204));
+        priceLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+        actionPanel.add(priceLabel, BorderLayout.NORTH);
+
+        // View Details Button, opens the first flight
+        viewDetailsButton = new JButton("View First Flight");
+        viewDetailsButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+        viewDetailsButton.setBackground(new Color(0, 122, 255));
+        viewDetailsButton.setForeground(Color.WHITE);
+        viewDetailsButton.setFocusPainted(false);
+        viewDetailsButton.setActionCommand(View.DETAILS_FLIGHT_CMD + ":" + itinerary.getLegs().get(0).getId());
+        actionPanel.add(viewDetailsButton, BorderLayout.SOUTH);
+
+        add(infoPanel, BorderLayout.CENTER);
+        add(actionPanel, BorderLayout.EAST);
+    }
+
+    /**
+     * Returns the code of a city, or its ID if the city is unknown.
+     *
+     * @param cities The cities by ID.
+     * @param cityId The ID of the city.
+     * @return The city code.
+     */
+    private static String cityCode(Map<Integer, City> cities, int cityId) {
+        City city = cities.get(cityId);
+        return (city != null) ? city.getCode() : String.valueOf(cityId);
+    }
+
+    /**
+     * Returns the button used to view the first flight.
+     *
+     * @return The "View First Flight" button.
+     */
+    public JButton getViewDetailsButton() {
+        return viewDetailsButton;
+    }
+
+    /**
+     * Returns the itinerary associated with this card.
+     *
+     * @return The itinerary data object.
+     */
+    public Itinerary getItinerary() {
+        return itinerary;
+    }
+
+    /**
+     * Sets the itinerary associated with this card.
+     *
+     * @param itinerary The itinerary data object to associate with this card.
+     */
+    public void setItinerary(Itinerary itinerary) {
+        this.itinerary = itinerary;
+    }
+}
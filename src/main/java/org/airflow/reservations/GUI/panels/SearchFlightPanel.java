@@ -5,11 +5,13 @@ import com.github.lgooddatepicker.components.DatePicker;
 import org.airflow.reservations.GUI.Bridge.View;
 import org.airflow.reservations.model.City;
 import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * SearchFlightPanel class provides a panel for searching flights.
@@ -195,12 +197,14 @@ public class SearchFlightPanel extends JPanel {
     /**
      * Displays the list of flights as cards in the results panel.
      *
-     * @param flights     The list of flights to display.
-     * @param origin      The origin city.
-     * @param destination The destination city.
-     * @param listener    The action listener for the "View Details" buttons.
+     * @param flights        The list of flights to display.
+     * @param origin         The origin city.
+     * @param destination    The destination city.
+     * @param hasMoreFlights true to add a "Show More Flights" button after the cards.
+     * @param listener       The action listener for the "View Details" and "Show More Flights" buttons.
      */
-    public void displayFlights(ArrayList<Flight> flights, City origin, City destination, ActionListener listener) {
+    public void displayFlights(ArrayList<Flight> flights, City origin, City destination, boolean hasMoreFlights,
+                               ActionListener listener) {
         cardsPanel.removeAll();
         if (flights == null || flights.isEmpty()) {
             JLabel noResultsLabel = new JLabel("No flights found for the selected criteria.");
@@ -214,6 +218,42 @@ public class SearchFlightPanel extends JPanel {
                 cardsPanel.add(card);
                 cardsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
             }
+            if (hasMoreFlights) {
+                JButton moreFlightsButton = new JButton("Show More Flights");
+                moreFlightsButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+                moreFlightsButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+                moreFlightsButton.setActionCommand(View.MORE_FLIGHTS_CMD);
+                moreFlightsButton.addActionListener(listener);
+                cardsPanel.add(moreFlightsButton);
+                cardsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            }
+        }
+        cardsPanel.revalidate();
+        cardsPanel.repaint();
+    }
+
+    /**
+     * Displays connecting itineraries as cards below the flights already shown.
+     * Nothing is added if there are no itineraries.
+     *
+     * @param itineraries The itineraries to display.
+     * @param cities      The cities by ID, used to show the stops.
+     * @param listener    The action listener for the "View First Flight" buttons.
+     */
+    public void displayItineraries(ArrayList<Itinerary> itineraries, Map<Integer, City> cities, ActionListener listener) {
+        if (itineraries == null || itineraries.isEmpty()) {
+            return;
+        }
+        JLabel connectionsLabel = new JLabel("Connecting flights");
+        connectionsLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+        connectionsLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+        cardsPanel.add(connectionsLabel);
+
+        for (Itinerary itinerary : itineraries) {
+            ItineraryCardPanel card = new ItineraryCardPanel(itinerary, cities);
+            card.getViewDetailsButton().addActionListener(listener);
+            cardsPanel.add(card);
+            cardsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         }
         cardsPanel.revalidate();
         cardsPanel.repaint();
@@ -265,7 +305,7 @@ public class SearchFlightPanel extends JPanel {
         };
 
         // Display the flights
-        searchFlightPanel.displayFlights(flights, origin, destination, listener);
+        searchFlightPanel.displayFlights(flights, origin, destination, false, listener);
 
         frame.setVisible(true);
         frame.setLocationRelativeTo(null); // Center the frame on the screen
@@ -0,0 +1,71 @@
+package org.airflow.reservations.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the outcome of a bulk close-out of completed flights.
+ * Contains the departure window that was covered, the number of chunks it was split into,
+ * the number of reservations moved to COMPLETED and how long it took.
+ */
+public class CloseOutReport {
+    /** The earliest departure time covered */
+    private final LocalDateTime from;
+    /** The end of the departure window, exclusive */
+    private final LocalDateTime to;
+    /** The number of chunks the window was split into */
+    private final int chunks;
+    /** The number of reservations moved from CHECKED_IN to COMPLETED */
+    private final int reservationsCompleted;
+    /** How long the close-out took */
+    private final Duration duration;
+
+    /**
+     * Constructor for CloseOutReport class.
+     *
+     * @param from                  the earliest departure time covered
+     * @param to                    the end of the departure window, exclusive
+     * @param chunks                the number of chunks the window was split into
+     * @param reservationsCompleted the number of reservations moved to COMPLETED
+     * @param duration              how long the close-out took
+     */
+    public CloseOutReport(LocalDateTime from, LocalDateTime to, int chunks, int reservationsCompleted, Duration duration) {
+        this.from = from;
+        this.to = to;
+        this.chunks = chunks;
+        this.reservationsCompleted = reservationsCompleted;
+        this.duration = duration;
+    }
+
+    // Getters
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getReservationsCompleted() {
+        return reservationsCompleted;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "CloseOutReport{" +
+                "from=" + from +
+                ", to=" + to +
+                ", chunks=" + chunks +
+                ", reservationsCompleted=" + reservationsCompleted +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -9,6 +9,9 @@ import java.time.LocalDateTime;
  * flight code, departure and arrival times, and ticket price.
  */
 public class Flight {
+    /** ID of the CANCELLED flight status; cancelled flights are left out of searches */
+    public static final int CANCELLED_STATUS = 3;
+
     /** The unique identifier for the flight */
     private int id;
     /** Foreign key reference to the airplane assigned to this flight */
@@ -0,0 +1,73 @@
+package org.airflow.reservations.model;
+
+import java.util.ArrayList;
+
+/**
+ * Represents one page of a flight search.
+ * Contains the flights of the page and the token to request the next page.
+ * Pages use keyset pagination: the token encodes the sort key and ID of the last flight
+ * of the page, so fetching a later page costs the same as fetching the first one.
+ */
+public class FlightPage {
+    /**
+     * Enum representing the orders in which search results can be sorted.
+     * Ties are always broken by flight ID so that pages are stable.
+     */
+    public enum Sort {
+        /** Earliest departure first */
+        DEPARTURE_TIME,
+        /** Cheapest base price first */
+        PRICE
+    }
+
+    /** The flights of this page */
+    private ArrayList<Flight> flights;
+    /** Token of the next page, or null if this is the last page */
+    private String nextPageToken;
+
+    /**
+     * Constructor for FlightPage class.
+     *
+     * @param flights       the flights of the page
+     * @param nextPageToken the token of the next page, or null if this is the last page
+     */
+    public FlightPage(ArrayList<Flight> flights, String nextPageToken) {
+        this.flights = flights;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Default constructor for FlightPage class.
+     * Initializes an empty last page.
+     */
+    public FlightPage() {
+        this.flights = new ArrayList<>();
+        this.nextPageToken = null;
+    }
+
+    /**
+     * Checks if there are more results after this page.
+     *
+     * @return true if a next page exists
+     */
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+
+    // Getters and Setters
+    public ArrayList<Flight> getFlights() {
+        return flights;
+    }
+
+    public void setFlights(ArrayList<Flight> flights) {
+        this.flights = flights;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -0,0 +1,79 @@
+package org.airflow.reservations.model;
+
+/**
+ * Represents the state of one seat on one flight.
+ * Contains the flight FK, seat FK, the reservation holding the seat and the seat class.
+ * Flight seats make seat availability flight-scoped: the same physical seat of an airplane
+ * can be reserved independently on each flight that airplane operates.
+ */
+public class FlightSeat {
+    /** Foreign key reference to the flight */
+    private int flight_FK;
+    /** Foreign key reference to the physical seat of the flight's airplane */
+    private int seat_FK;
+    /** Foreign key reference to the reservation holding the seat (null if the seat is available) */
+    private Integer reservation_FK; // Can be null
+    /** The class/category of the seat, copied from the seat for inventory counts */
+    private Seat.SeatClass seat_class;
+
+    /**
+     * Constructor for FlightSeat class.
+     * Initializes the flight seat with specified values.
+     *
+     * @param flight_FK      foreign key to the flight
+     * @param seat_FK        foreign key to the seat
+     * @param reservation_FK foreign key to the reservation holding the seat (can be null)
+     * @param seat_class     the class of the seat
+     */
+    public FlightSeat(int flight_FK, int seat_FK, Integer reservation_FK, Seat.SeatClass seat_class) {
+        this.flight_FK = flight_FK;
+        this.seat_FK = seat_FK;
+        this.reservation_FK = reservation_FK;
+        this.seat_class = seat_class;
+    }
+
+    /**
+     * Default constructor for FlightSeat class.
+     * Initializes the flight seat with default values.
+     * flight_FK = 0, seat_FK = 0, reservation_FK = null, seat_class = ECONOMY.
+     */
+    public FlightSeat() {
+        this.flight_FK = 0;
+        this.seat_FK = 0;
+        this.reservation_FK = null;
+        this.seat_class = Seat.SeatClass.ECONOMY;
+    }
+
+    // Getters and Setters
+    public int getFlight_FK() {
+        return flight_FK;
+    }
+
+    public void setFlight_FK(int flight_FK) {
+        this.flight_FK = flight_FK;
+    }
+
+    public int getSeat_FK() {
+        return seat_FK;
+    }
+
+    public void setSeat_FK(int seat_FK) {
+        this.seat_FK = seat_FK;
+    }
+
+    public Integer getReservation_FK() {
+        return reservation_FK;
+    }
+
+    public void setReservation_FK(Integer reservation_FK) {
+        this.reservation_FK = reservation_FK;
+    }
+
+    public Seat.SeatClass getSeat_class() {
+        return seat_class;
+    }
+
+    public void setSeat_class(Seat.SeatClass seat_class) {
+        this.seat_class = seat_class;
+    }
+}
@@ -0,0 +1,102 @@
+package org.airflow.reservations.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * Represents a trip from an origin city to a destination city made of one or more flights.
+ * Consecutive legs connect in the same city; an itinerary with one leg is a direct flight.
+ */
+public class Itinerary {
+    /** The flights of the itinerary, in travel order */
+    private ArrayList<Flight> legs;
+
+    /**
+     * Constructor for Itinerary class.
+     *
+     * @param legs the flights of the itinerary, in travel order
+     */
+    public Itinerary(ArrayList<Flight> legs) {
+        this.legs = legs;
+    }
+
+    /**
+     * Default constructor for Itinerary class.
+     * Initializes an itinerary without legs.
+     */
+    public Itinerary() {
+        this.legs = new ArrayList<>();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder route = new StringBuilder("Itinerary{");
+        for (int i = 0; i < legs.size(); i++) {
+            if (i > 0) {
+                route.append(" -> ");
+            }
+            route.append(legs.get(i).getCode());
+        }
+        return route.append(", stops=").append(getStops())
+                .append(", totalPrice=").append(getTotalPrice()).append('}').toString();
+    }
+
+    /**
+     * Returns the number of intermediate stops.
+     *
+     * @return the number of legs minus one
+     */
+    public int getStops() {
+        return Math.max(0, legs.size() - 1);
+    }
+
+    /**
+     * Returns the departure time of the first leg.
+     *
+     * @return the departure time of the itinerary
+     */
+    public LocalDateTime getDepartureTime() {
+        return legs.get(0).getDeparture_time();
+    }
+
+    /**
+     * Returns the scheduled arrival time of the last leg.
+     *
+     * @return the arrival time of the itinerary
+     */
+    public LocalDateTime getArrivalTime() {
+        return legs.get(legs.size() - 1).getScheduled_arrival_time();
+    }
+
+    /**
+     * Returns the time from the first departure to the last arrival.
+     *
+     * @return the total duration of the itinerary
+     */
+    public Duration getTotalDuration() {
+        return Duration.between(getDepartureTime(), getArrivalTime());
+    }
+
+    /**
+     * Returns the sum of the base prices of the legs.
+     *
+     * @return the total price of the itinerary
+     */
+    public float getTotalPrice() {
+        float total = 0;
+        for (Flight leg : legs) {
+            total += leg.getPrice_base();
+        }
+        return total;
+    }
+
+    // Getters and Setters
+    public ArrayList<Flight> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(ArrayList<Flight> legs) {
+        this.legs = legs;
+    }
+}
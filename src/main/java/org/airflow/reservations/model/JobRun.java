@@ -0,0 +1,80 @@
+package org.airflow.reservations.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Represents one run of a background job.
+ * Contains when the run started, how long it took, how many rows it touched and,
+ * if it failed, the error message.
+ */
+public class JobRun {
+    /** The name of the job */
+    private final String jobName;
+    /** When the run started */
+    private final LocalDateTime startedAt;
+    /** How long the run took */
+    private final Duration duration;
+    /** The number of rows the run inserted, updated or deleted */
+    private final int rowsTouched;
+    /** The error message, or null if the run succeeded */
+    private final String error;
+
+    /**
+     * Constructor for JobRun class.
+     *
+     * @param jobName     the name of the job
+     * @param startedAt   when the run started
+     * @param duration    how long the run took
+     * @param rowsTouched the number of rows the run inserted, updated or deleted
+     * @param error       the error message, or null if the run succeeded
+     */
+    public JobRun(String jobName, LocalDateTime startedAt, Duration duration, int rowsTouched, String error) {
+        this.jobName = jobName;
+        this.startedAt = startedAt;
+        this.duration = duration;
+        this.rowsTouched = rowsTouched;
+        this.error = error;
+    }
+
+    /**
+     * Checks if the run completed without an error.
+     *
+     * @return true if the run succeeded
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    // Getters
+    public String getJobName() {
+        return jobName;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getRowsTouched() {
+        return rowsTouched;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "JobRun{" +
+                "jobName='" + jobName + '\'' +
+                ", startedAt=" + startedAt +
+                ", duration=" + duration +
+                ", rowsTouched=" + rowsTouched +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
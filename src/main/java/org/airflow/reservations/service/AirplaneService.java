@@ -1,7 +1,9 @@
 package org.airflow.reservations.service;
 
 import org.airflow.reservations.DAO.AirplaneDAO;
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.model.Airplane;
+import org.airflow.reservations.utils.ReferenceDataCache;
 
 import java.sql.SQLException;
 
@@ -13,14 +15,27 @@ import java.sql.SQLException;
 public class AirplaneService {
     /** Data Access Object for airplane operations */
     private final AirplaneDAO airplaneDAO;
+    /** Cache that answers lookups once it is preloaded */
+    private final ReferenceDataCache referenceDataCache;
 
     /**
-     * Constructor that initializes the AirplaneService with a new AirplaneDAO.
+     * Constructor that initializes the AirplaneService with a new AirplaneDAO and the shared cache.
      *
      * @throws SQLException if there's an error connecting to the database
      */
     public AirplaneService() throws SQLException {
-        this.airplaneDAO = new AirplaneDAO();
+        this(DAOFactory.airplaneDAO(), ReferenceDataCache.getShared());
+    }
+
+    /**
+     * Constructor for AirplaneService with dependency injection.
+     *
+     * @param airplaneDAO        the AirplaneDAO instance to use
+     * @param referenceDataCache the cache to read from once it is preloaded
+     */
+    public AirplaneService(AirplaneDAO airplaneDAO, ReferenceDataCache referenceDataCache) {
+        this.airplaneDAO = airplaneDAO;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -31,6 +46,9 @@ public class AirplaneService {
      * @throws SQLException if there's an error executing the database query
      */
     public Airplane getAirplaneById(int id) throws SQLException {
+        if (referenceDataCache.isEnabled()) {
+            return referenceDataCache.getAirplaneById(id);
+        }
         return airplaneDAO.getById(id);
     }
 }
@@ -0,0 +1,721 @@
+package org.airflow.reservations.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.airflow.reservations.DAO.DAOFactory;
+import org.airflow.reservations.DAO.UsersDAO;
+import org.airflow.reservations.model.*;
+import org.airflow.reservations.utils.Json;
+import org.airflow.reservations.utils.LatencyHistogram;
+import org.airflow.reservations.utils.MetricsRegistry;
+import org.airflow.reservations.utils.PasswordUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Headless server that exposes flight search, seat availability and bookings as a JSON API
+ * on the JDK built-in HTTP server, so the reservation engine can serve many users without Swing.
+ * <p>
+ * Clients log in with {@code POST /api/login} and send the returned token as
+ * {@code Authorization: Bearer <token>}. Every session has its own user and its own
+ * {@link ReservationService}, so concurrent users never share the single current user of the
+ * desktop {@link Controller}. Sessions expire after a period without requests.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code POST /api/login}, {@code POST /api/logout}</li>
+ *     <li>{@code GET /api/flights?origin=&destination=&date=} (or {@code from=&to=}), with optional
+ *     {@code sort}, {@code pageSize} and {@code pageToken}</li>
+ *     <li>{@code GET /api/flights/{id}}, {@code GET /api/flights/{id}/seats}</li>
+ *     <li>{@code GET|POST /api/reservations}, {@code POST /api/reservations/group},
+ *     {@code GET|DELETE /api/reservations/{id}},
+ *     {@code POST /api/reservations/{id}/confirm}, {@code POST /api/reservations/{id}/check-in}</li>
+ *     <li>{@code GET /health}, {@code GET /metrics} (Prometheus text format)</li>
+ * </ul>
+ * Requests run on a pluggable executor; {@link #newExecutor(String, int)} creates one thread per
+ * request on virtual threads where the JDK has them, or a fixed pool of platform threads.
+ * <p>
+ * The seat inventory is loaded when the server starts and reloaded every
+ * {@link SeatService#INVENTORY_REFRESH_INTERVAL}, so seats freed by the desktop clients become available here too.
+ */
+public class ApiServer implements AutoCloseable {
+    /** Largest request body accepted, in bytes */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final SecureRandom TOKENS = new SecureRandom();
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's algorithm every response waits for
+        // the client's delayed ACK, about 40 ms. Must be set before the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final FlightService flightService;
+    private final SeatService seatService;
+    private final UsersDAO usersDAO;
+    /** Creates the reservation service of a session for its user */
+    private final Function<User, ReservationService> reservationServices;
+    /** Time after which a session without requests expires, in milliseconds */
+    private final long sessionTtlMillis;
+    /** Open sessions by token */
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    /** Runs the reload of the seat inventory */
+    private final JobScheduler jobScheduler = new JobScheduler();
+    /** Request latency by route */
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a server over the services of the configured storage backend.
+     *
+     * @param address          the address and port to listen on; port 0 picks a free port
+     * @param executor         runs the requests; closed with the server
+     * @param sessionTtlMillis time after which a session without requests expires
+     * @throws IOException  if the server cannot listen on the address
+     * @throws SQLException if the services cannot be created
+     */
+    public ApiServer(InetSocketAddress address, ExecutorService executor, long sessionTtlMillis)
+            throws IOException, SQLException {
+        this(address, executor, new FlightService(), new SeatService(), DAOFactory.usersDAO(), user -> {
+            try {
+                return new ReservationService(user);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot create the reservation service: " + e.getMessage(), e);
+            }
+        }, sessionTtlMillis);
+    }
+
+    /**
+     * Creates a server with dependency injection.
+     *
+     * @param address             the address and port to listen on; port 0 picks a free port
+     * @param executor            runs the requests; closed with the server
+     * @param flightService       the FlightService instance to use
+     * @param seatService         the SeatService instance to use
+     * @param usersDAO            the UsersDAO used to log users in
+     * @param reservationServices creates the ReservationService of a session for its user
+     * @param sessionTtlMillis    time after which a session without requests expires
+     * @throws IOException if the server cannot listen on the address
+     */
+    public ApiServer(InetSocketAddress address, ExecutorService executor, FlightService flightService,
+                     SeatService seatService, UsersDAO usersDAO, Function<User, ReservationService> reservationServices,
+                     long sessionTtlMillis) throws IOException {
+        this.executor = executor;
+        this.flightService = flightService;
+        this.seatService = seatService;
+        this.usersDAO = usersDAO;
+        this.reservationServices = reservationServices;
+        this.sessionTtlMillis = sessionTtlMillis;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Creates an executor for the requests.
+     *
+     * @param kind    {@code virtual} for one virtual thread per request, falling back to {@code fixed} on JDKs
+     *                without virtual threads, or {@code fixed} for a pool of platform threads
+     * @param threads the size of the fixed pool
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String kind, int threads) {
+        if ("virtual".equalsIgnoreCase(kind)) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("⚠ Virtual threads need Java 21 or later, using " + threads + " platform threads");
+            }
+        } else if (!"fixed".equalsIgnoreCase(kind)) {
+            throw new IllegalArgumentException("Unknown executor '" + kind + "', expected virtual or fixed");
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "airflow-api-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the seat inventory, schedules its reload and starts serving requests.
+     */
+    public void start() {
+        try {
+            int flights = seatService.rebuildInventory();
+            System.out.println("✓ Seat inventory loaded for " + flights + " flights");
+        } catch (Exception e) {
+            System.err.println("⚠ Error loading seat inventory, flights will be loaded on demand: " + e.getMessage());
+        }
+        jobScheduler.schedule("seat_inventory", () -> {
+            seatService.rebuildInventory();
+            return 0;
+        }, SeatService.INVENTORY_REFRESH_INTERVAL, SeatService.INVENTORY_REFRESH_INTERVAL);
+        server.start();
+        System.out.println("✓ API server listening on port " + getPort());
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of open sessions, including expired ones not purged yet.
+     *
+     * @return the session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the server, waiting up to a second for the requests in progress, and closes the executor.
+     */
+    @Override
+    public void close() {
+        jobScheduler.shutdown();
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.clear();
+    }
+
+    // Routing
+
+    /**
+     * Handles every request: routes it, writes the JSON response and maps errors to status codes.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        String route = "unknown";
+        try {
+            String[] path = segments(exchange.getRequestURI().getRawPath());
+            route = route(path);
+            Response response = dispatch(exchange, path);
+            send(exchange, response.status, response.body);
+        } catch (ApiException e) {
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (SQLException e) {
+            System.err.println("⚠ Database error in " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + e.getMessage());
+            send(exchange, 503, error("The database is not available"));
+        } catch (RuntimeException e) {
+            System.err.println("⚠ Error in " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                    + ": " + e);
+            send(exchange, 500, error("Internal error"));
+        } finally {
+            exchange.close();
+            timer(route).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Runs the handler of a request.
+     */
+    private Response dispatch(HttpExchange exchange, String[] path) throws IOException, SQLException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && path[0].equals("health")) {
+            return new Response(200, Map.of("status", "UP"));
+        }
+        if (path.length == 1 && path[0].equals("metrics")) {
+            requireMethod(method, "GET");
+            byte[] text = MetricsRegistry.global().toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, text.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(text);
+            }
+            return Response.SENT;
+        }
+        if (path.length < 2 || !path[0].equals("api")) {
+            throw new ApiException(404, "Not found");
+        }
+        switch (path[1]) {
+            case "login":
+                requireMethod(method, "POST");
+                return login(readBody(exchange));
+            case "logout":
+                requireMethod(method, "POST");
+                sessions.remove(token(exchange));
+                return new Response(204, null);
+            case "flights":
+                requireMethod(method, "GET");
+                session(exchange);
+                if (path.length == 2) {
+                    return searchFlights(query(exchange));
+                }
+                int flightId = id(path[2]);
+                if (path.length == 3) {
+                    return new Response(200, flight(flight(flightId)));
+                }
+                if (path.length == 4 && path[3].equals("seats")) {
+                    return seats(flight(flightId));
+                }
+                break;
+            case "reservations":
+                Session session = session(exchange);
+                if (path.length == 2) {
+                    if (method.equals("GET")) {
+                        return new Response(200, reservations(session.reservations.FindReservation_byUserId()));
+                    }
+                    requireMethod(method, "POST");
+                    return book(session, readBody(exchange));
+                }
+                if (path.length == 3 && path[2].equals("group")) {
+                    requireMethod(method, "POST");
+                    return bookGroup(session, readBody(exchange));
+                }
+                int reservationId = id(path[2]);
+                Reservation reservation = ownedReservation(session, reservationId);
+                if (path.length == 3) {
+                    if (method.equals("GET")) {
+                        return new Response(200, reservation(reservation));
+                    }
+                    requireMethod(method, "DELETE");
+                    session.reservations.cancelReservation(reservationId);
+                    return new Response(200, Map.of("id", reservationId, "cancelled", true));
+                }
+                if (path.length == 4) {
+                    requireMethod(method, "POST");
+                    switch (path[3]) {
+                        case "confirm" -> session.reservations.confirmReservation(reservationId);
+                        case "check-in" -> session.reservations.check_inReservation(reservationId);
+                        default -> throw new ApiException(404, "Not found");
+                    }
+                    return new Response(200, reservation(ownedReservation(session, reservationId)));
+                }
+                break;
+            default:
+        }
+        throw new ApiException(404, "Not found");
+    }
+
+    /**
+     * Names the route of a path for the latency metrics, with IDs replaced by {id}.
+     */
+    private static String route(String[] path) {
+        StringBuilder route = new StringBuilder();
+        for (String segment : path) {
+            route.append('/').append(!segment.isEmpty() && Character.isDigit(segment.charAt(0)) ? "{id}" : segment);
+        }
+        return route.length() == 0 ? "/" : route.toString();
+    }
+
+    private LatencyHistogram timer(String route) {
+        LatencyHistogram timer = timers.get(route);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(route, name -> MetricsRegistry.global().histogram(
+                    "airflow_api_latency_seconds", "Time taken by the requests of the HTTP API.", "route", name));
+        }
+        return timer;
+    }
+
+    // Handlers
+
+    /**
+     * Logs a user in with email and password and opens a session.
+     */
+    private Response login(Map<String, Object> body) throws SQLException {
+        String email = string(body, "email");
+        String password = string(body, "password");
+        User user = usersDAO.getByEmail(email);
+        // getByEmail matches with LIKE, so the address must be compared exactly
+        if (user == null || user.getId() == 0 || !email.equalsIgnoreCase(user.getEmail())
+                || user.getPassword() == null || !PasswordUtils.checkPassword(password, user.getPassword())) {
+            throw new ApiException(401, "Invalid email or password");
+        }
+        purgeExpiredSessions();
+        byte[] random = new byte[32];
+        TOKENS.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        sessions.put(token, new Session(user, reservationServices.apply(user)));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", token);
+        response.put("userId", user.getId());
+        response.put("name", user.getName());
+        response.put("expiresInSeconds", sessionTtlMillis / 1000);
+        return new Response(200, response);
+    }
+
+    /**
+     * Searches the flights of a route on a day or within a time range.
+     */
+    private Response searchFlights(Map<String, String> query) throws SQLException {
+        int origin = id(required(query, "origin"));
+        int destination = id(required(query, "destination"));
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            if (query.containsKey("date")) {
+                from = LocalDate.parse(query.get("date")).atStartOfDay();
+                to = from.plusDays(1);
+            } else {
+                from = LocalDateTime.parse(required(query, "from"));
+                to = LocalDateTime.parse(required(query, "to"));
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be ISO-8601, such as 2025-03-01 or 2025-03-01T08:00");
+        }
+        FlightPage.Sort sort = null;
+        if (query.containsKey("sort")) {
+            try {
+                sort = FlightPage.Sort.valueOf(query.get("sort").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Sort must be DEPARTURE_TIME or PRICE");
+            }
+        }
+        int pageSize = query.containsKey("pageSize") ? id(query.get("pageSize")) : FlightService.DEFAULT_PAGE_SIZE;
+        FlightPage page = flightService.searchFlights(origin, destination, from, to, null, sort,
+                query.get("pageToken"), pageSize);
+
+        List<Object> flights = new ArrayList<>(page.getFlights().size());
+        for (Flight flight : page.getFlights()) {
+            flights.add(flight(flight));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("flights", flights);
+        response.put("nextPageToken", page.getNextPageToken());
+        return new Response(200, response);
+    }
+
+    /**
+     * Lists the seats of a flight that are still available.
+     */
+    private Response seats(Flight flight) throws SQLException {
+        ArrayList<Seat> available = seatService.getAvailableSeatsByFlightId(flight.getId());
+        List<Object> seats = new ArrayList<>(available.size());
+        for (Seat seat : available) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", seat.getId());
+            json.put("number", seat.getSeat_number());
+            json.put("class", seat.getSeat_class());
+            json.put("window", seat.getIs_window());
+            seats.add(json);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("flightId", flight.getId());
+        response.put("available", seats.size());
+        response.put("seats", seats);
+        return new Response(200, response);
+    }
+
+    /**
+     * Books seats of a flight for the user of the session.
+     */
+    private Response book(Session session, Map<String, Object> body) throws SQLException {
+        int flightId = number(body.get("flightId"), "flightId");
+        if (!(body.get("seatIds") instanceof List<?> seatList) || seatList.isEmpty()) {
+            throw new IllegalArgumentException("seatIds must be a non-empty list of seat IDs");
+        }
+        int[] seatIds = new int[seatList.size()];
+        for (int i = 0; i < seatIds.length; i++) {
+            seatIds[i] = number(seatList.get(i), "seatIds");
+        }
+        Reservation reservation = session.reservations.createReservation(flightId, seatIds);
+        Map<String, Object> response = reservation(reservation);
+        response.put("seatIds", seatIds);
+        return new Response(201, response);
+    }
+
+    /**
+     * Books one seat for each passenger of a group in a single transaction.
+     * Only super users, such as agency accounts, may book for users other than themselves.
+     */
+    private Response bookGroup(Session session, Map<String, Object> body) throws SQLException {
+        int flightId = number(body.get("flightId"), "flightId");
+        if (!(body.get("passengers") instanceof List<?> passengers) || passengers.isEmpty()) {
+            throw new IllegalArgumentException("passengers must be a non-empty list of {userId, seatId} objects");
+        }
+        if (passengers.size() > ReservationService.MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("A group has at most " + ReservationService.MAX_GROUP_SIZE + " passengers");
+        }
+        boolean agency = Boolean.TRUE.equals(session.user.getSuperUser());
+        int[] passengerIds = new int[passengers.size()];
+        int[] seatIds = new int[passengers.size()];
+        for (int i = 0; i < passengerIds.length; i++) {
+            if (!(passengers.get(i) instanceof Map<?, ?> passenger)) {
+                throw new IllegalArgumentException("passengers must be a non-empty list of {userId, seatId} objects");
+            }
+            passengerIds[i] = number(passenger.get("userId"), "userId");
+            seatIds[i] = number(passenger.get("seatId"), "seatId");
+            if (!agency && passengerIds[i] != session.user.getId()) {
+                throw new ApiException(403, "Only agency accounts can book for other users");
+            }
+        }
+        ArrayList<Reservation> reservations = session.reservations.createGroupReservation(flightId, passengerIds, seatIds);
+
+        List<Object> json = new ArrayList<>(reservations.size());
+        for (int i = 0; i < reservations.size(); i++) {
+            Map<String, Object> reservation = reservation(reservations.get(i));
+            reservation.put("seatId", seatIds[i]);
+            json.add(reservation);
+        }
+        return new Response(201, Map.of("reservations", json));
+    }
+
+    // Sessions and lookups
+
+    /**
+     * Returns the session of the request, refreshing its expiry.
+     */
+    private Session session(HttpExchange exchange) {
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session == null || now - session.lastUsed > sessionTtlMillis) {
+            if (session != null) {
+                sessions.remove(token, session);
+            }
+            throw new ApiException(401, "Log in with POST /api/login and send the token as a Bearer token");
+        }
+        session.lastUsed = now;
+        return session;
+    }
+
+    private static String token(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return authorization.substring(7).trim();
+    }
+
+    private void purgeExpiredSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> now - session.lastUsed > sessionTtlMillis);
+    }
+
+    private Flight flight(int flightId) throws SQLException {
+        Flight flight = flightService.getFlightById(flightId);
+        if (flight == null || flight.getId() == 0) {
+            throw new ApiException(404, "Flight not found");
+        }
+        return flight;
+    }
+
+    /**
+     * Returns a reservation of the user of the session; the reservations of other users are not found.
+     */
+    private static Reservation ownedReservation(Session session, int reservationId) throws SQLException {
+        Reservation reservation = session.reservations.FindByReservationId(reservationId);
+        if (reservation == null || reservation.getId() == 0 || reservation.getUser_FK() != session.user.getId()) {
+            throw new ApiException(404, "Reservation not found");
+        }
+        return reservation;
+    }
+
+    // JSON views of the model
+
+    private static Map<String, Object> flight(Flight flight) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", flight.getId());
+        json.put("code", flight.getCode());
+        json.put("airplaneId", flight.getAirplane_FK());
+        json.put("originCityId", flight.getOrigin_city_FK());
+        json.put("destinationCityId", flight.getDestination_city_FK());
+        json.put("departureTime", flight.getDeparture_time());
+        json.put("scheduledArrivalTime", flight.getScheduled_arrival_time());
+        json.put("arrivalTime", flight.getArrival_time());
+        json.put("basePrice", flight.getPrice_base());
+        json.put("statusId", flight.getStatus_FK());
+        json.put("status", flight.getStatus_name());
+        return json;
+    }
+
+    private static Map<String, Object> reservation(Reservation reservation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", reservation.getId());
+        json.put("flightId", reservation.getFlight_FK());
+        json.put("userId", reservation.getUser_FK());
+        json.put("statusId", reservation.getStatus_FK());
+        json.put("status", reservation.getStatus_name());
+        json.put("reservedAt", reservation.getReserved_at());
+        return json;
+    }
+
+    private static List<Object> reservations(List<Reservation> reservations) {
+        List<Object> json = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            json.add(reservation(reservation));
+        }
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message == null ? "Invalid request" : message);
+    }
+
+    // Request parsing
+
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Reads a JSON object from the request body.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream body = exchange.getRequestBody()) {
+            bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "The request body is too large");
+        }
+        Object json = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(json instanceof Map)) {
+            throw new IllegalArgumentException("The request body must be a JSON object");
+        }
+        return (Map<String, Object>) json;
+    }
+
+    private static void requireMethod(String method, String allowed) {
+        if (!method.equals(allowed)) {
+            throw new ApiException(405, "Method " + method + " is not allowed here");
+        }
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof String value) || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+
+    private static int number(Object value, String name) {
+        if (!(value instanceof Long number) || number < 0 || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " must contain positive integers");
+        }
+        return number.intValue();
+    }
+
+    private static int id(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "'" + text + "' is not a valid number");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (status == Response.SENT.status) {
+            return;
+        }
+        if (body == null) {
+            // The JDK server closes the connection after a response without body, so the client must not reuse it
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] json = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    /**
+     * A logged-in user with the reservation service bound to it.
+     */
+    private static final class Session {
+        private final User user;
+        private final ReservationService reservations;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private Session(User user, ReservationService reservations) {
+            this.user = user;
+            this.reservations = reservations;
+        }
+    }
+
+    /**
+     * The status and JSON body of a response.
+     */
+    private record Response(int status, Object body) {
+        /** Marks a response the handler already wrote */
+        private static final Response SENT = new Response(-1, null);
+    }
+
+    /**
+     * An error with the HTTP status it is answered with.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
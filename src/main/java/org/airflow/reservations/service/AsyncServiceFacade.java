@@ -0,0 +1,272 @@
+package org.airflow.reservations.service;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs service calls away from the Swing event dispatch thread.
+ * The Controller submits the service work of a screen as a task and gets the result back on the
+ * UI thread, so a slow query never freezes the window.
+ * <p>
+ * Tasks run on virtual threads when the JVM supports them (Java 21+), otherwise on a small bounded
+ * pool of daemon threads. In both cases at most {@link #DEFAULT_MAX_CONCURRENCY} tasks run at the
+ * same time, so the background work never takes more connections than the pool can spare.
+ * <p>
+ * A task can be submitted under a key, such as "search". Submitting a new task under the same key
+ * supersedes the previous one: if it has not started it is skipped, and if it is already running its
+ * result is dropped instead of being delivered. Running tasks are not interrupted, since interrupting
+ * a thread inside a JDBC call can leave its connection unusable; a superseded task that is still running
+ * keeps its permit and stays in the in-flight count until it actually finishes.
+ */
+public class AsyncServiceFacade {
+    /** Maximum number of tasks that run at the same time */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+    /** Maximum number of tasks waiting for a thread of the fallback pool */
+    private static final int QUEUE_CAPACITY = 100;
+
+    /** Executor that runs the tasks */
+    private final Executor executor;
+    /** Executor that delivers results to the UI */
+    private final Executor uiExecutor;
+    /** Limits the number of tasks that run at the same time */
+    private final Semaphore permits = new Semaphore(DEFAULT_MAX_CONCURRENCY);
+    /** Latest task submitted under each key */
+    private final Map<String, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+    /** Number of submitted tasks whose work has not finished yet, including superseded tasks still running */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Listener notified on the UI thread when the number of tasks in flight changes */
+    private volatile IntConsumer progressListener;
+
+    /**
+     * Constructor for AsyncServiceFacade.
+     * Tasks run on virtual threads or a bounded pool, and results are delivered on the Swing event dispatch thread.
+     */
+    public AsyncServiceFacade() {
+        this(createDefaultExecutor(), SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Constructor for AsyncServiceFacade.
+     *
+     * @param executor   the executor that runs the tasks
+     * @param uiExecutor the executor that delivers results to the UI
+     */
+    public AsyncServiceFacade(Executor executor, Executor uiExecutor) {
+        this.executor = executor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Creates the executor used by default: one virtual thread per task on Java 21 and newer,
+     * otherwise a bounded pool of daemon threads.
+     *
+     * @return the executor
+     */
+    static ExecutorService createDefaultExecutor() {
+        try {
+            // Looked up by reflection because the project is compiled for Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY,
+                    30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                        Thread thread = new Thread(runnable, "airflow-service-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Sets the listener notified on the UI thread with the number of tasks in flight
+     * every time a task is submitted or completes.
+     *
+     * @param progressListener the listener, or null to remove it
+     */
+    public void setProgressListener(IntConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param key  the key of the task, or null if it never supersedes other tasks
+     * @param task the task to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result of the task, or cancelled if the task was superseded
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (key != null) {
+            CompletableFuture<?> previous = latest.put(key, future);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        inFlight.incrementAndGet();
+        fireProgress();
+        try {
+            executor.execute(() -> {
+                try {
+                    run(task, future);
+                } finally {
+                    finished();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            finished();
+        }
+        return future;
+    }
+
+    /**
+     * Submits a task and delivers its outcome on the UI thread.
+     * Nothing is delivered if another task was submitted under the same key in the meantime.
+     *
+     * @param key       the key of the task, or null if it never supersedes other tasks
+     * @param task      the task to run
+     * @param onSuccess called on the UI thread with the result
+     * @param onFailure called on the UI thread with the error thrown by the task
+     * @param <T>       the type of the result
+     * @return a future completed with the result of the task, or cancelled if the task was superseded
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        CompletableFuture<T> future = submit(key, task);
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+            uiExecutor.execute(() -> {
+                if (key != null && latest.get(key) != future) {
+                    return;
+                }
+                if (error == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onFailure.accept(unwrap(error));
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Cancels the latest task submitted under a key, so that its result is never delivered.
+     *
+     * @param key the key of the task
+     */
+    public void cancel(String key) {
+        CompletableFuture<?> future = latest.remove(key);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Checks if the latest task submitted under a key has not completed yet.
+     *
+     * @param key the key of the task
+     * @return true if the task is still queued or running
+     */
+    public boolean isPending(String key) {
+        CompletableFuture<?> future = latest.get(key);
+        return future != null && !future.isDone();
+    }
+
+    /**
+     * Returns the number of submitted tasks whose work has not finished yet.
+     * A superseded task is counted until it is skipped or, if it was already running, until it returns.
+     *
+     * @return the number of tasks in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Stops accepting tasks if the executor can be shut down. Tasks already submitted still run.
+     */
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * Runs a task unless it was superseded before it started, and completes its future.
+     *
+     * @param task   the task to run
+     * @param future the future of the task
+     * @param <T>    the type of the result
+     */
+    private <T> void run(Callable<T> task, CompletableFuture<T> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (!future.isDone()) {
+                future.complete(task.call());
+            }
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Records that the work of a task has finished, whether it ran, was skipped or was rejected.
+     */
+    private void finished() {
+        inFlight.decrementAndGet();
+        fireProgress();
+    }
+
+    /**
+     * Notifies the progress listener on the UI thread.
+     * The count is read when the notification runs, so notifications delivered late never show a stale count.
+     */
+    private void fireProgress() {
+        IntConsumer listener = progressListener;
+        if (listener != null) {
+            uiExecutor.execute(() -> listener.accept(inFlight.get()));
+        }
+    }
+
+    /**
+     * Returns the error thrown by a task, without the CompletionException that may wrap it.
+     *
+     * @param error the error the future completed with
+     * @return the error thrown by the task
+     */
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+}
@@ -1,7 +1,9 @@
 package org.airflow.reservations.service;
 
 import org.airflow.reservations.DAO.CityDAO;
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.model.City;
+import org.airflow.reservations.utils.ReferenceDataCache;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -14,14 +16,27 @@ import java.util.ArrayList;
 public class CityService {
     /** Data Access Object for city operations */
     private final CityDAO cityDAO;
+    /** Cache that answers lookups once it is preloaded */
+    private final ReferenceDataCache referenceDataCache;
 
     /**
-     * Constructor that initializes the CityService with a new CityDAO.
+     * Constructor that initializes the CityService with a new CityDAO and the shared cache.
      *
      * @throws SQLException if there's an error connecting to the database
      */
     public CityService() throws SQLException {
-        this.cityDAO = new CityDAO();
+        this(DAOFactory.cityDAO(), ReferenceDataCache.getShared());
+    }
+
+    /**
+     * Constructor for CityService with dependency injection.
+     *
+     * @param cityDAO            the CityDAO instance to use
+     * @param referenceDataCache the cache to read from once it is preloaded
+     */
+    public CityService(CityDAO cityDAO, ReferenceDataCache referenceDataCache) {
+        this.cityDAO = cityDAO;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -32,6 +47,9 @@ public class CityService {
      * @throws SQLException if there's an error executing the database query
      */
     public City getCityByName(String name) throws SQLException {
+        if (referenceDataCache.isEnabled()) {
+            return referenceDataCache.getCityByName(name);
+        }
         return cityDAO.getByName(name);
     }
 
@@ -42,6 +60,9 @@ public class CityService {
      * @throws SQLException if there's an error executing the database query
      */
     public ArrayList<City> getAllCities() throws SQLException {
+        if (referenceDataCache.isEnabled()) {
+            return referenceDataCache.getAllCities();
+        }
         return cityDAO.getAll();
     }
 
@@ -53,6 +74,9 @@ public class CityService {
      * @throws SQLException if there's an error executing the database query
      */
     public City getCityById(int id) throws SQLException {
+        if (referenceDataCache.isEnabled()) {
+            return referenceDataCache.getCityById(id);
+        }
         return cityDAO.getById(id);
     }
 }
@@ -0,0 +1,401 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service class that finds itineraries with up to two stops between two cities.
+ * It runs a Connection Scan: the departures of the flight timetable are scanned once in departure
+ * order, and every flight that leaves a city already reached in time for a connection extends the
+ * partial trips that reached it. Connections must leave at least the minimum connection time, and at
+ * most the maximum connection time, after the previous leg arrives.
+ * <p>
+ * The results keep only the itineraries that no other itinerary beats on departure, arrival, price
+ * and stops at once, ranked by arrival time and then by total price.
+ */
+public class ConnectionSearchService {
+    /** Largest number of stops supported */
+    public static final int MAX_STOPS = 2;
+    /** Default minimum time between the arrival of a leg and the departure of the next one */
+    public static final Duration DEFAULT_MIN_CONNECTION = Duration.ofMinutes(45);
+    /** Default maximum time between the arrival of a leg and the departure of the next one */
+    public static final Duration DEFAULT_MAX_CONNECTION = Duration.ofHours(12);
+    /** Default maximum number of itineraries returned */
+    public static final int DEFAULT_MAX_RESULTS = 20;
+
+    /** Timetable whose departures are scanned */
+    private final FlightTimetable flightTimetable;
+    /** Minimum connection time in seconds */
+    private final long minConnectionSeconds;
+    /** Maximum connection time in seconds */
+    private final long maxConnectionSeconds;
+
+    /**
+     * Constructor for ConnectionSearchService.
+     * Uses the shared timetable and the connection times of the system properties
+     * {@code airflow.search.minConnectionMinutes} and {@code airflow.search.maxConnectionMinutes}.
+     *
+     * @throws SQLException if the shared timetable cannot be created
+     */
+    public ConnectionSearchService() throws SQLException {
+        this(FlightTimetable.getShared(),
+                Duration.ofMinutes(Long.getLong("airflow.search.minConnectionMinutes", DEFAULT_MIN_CONNECTION.toMinutes())),
+                Duration.ofMinutes(Long.getLong("airflow.search.maxConnectionMinutes", DEFAULT_MAX_CONNECTION.toMinutes())));
+    }
+
+    /**
+     * Constructor for ConnectionSearchService with dependency injection.
+     *
+     * @param flightTimetable the timetable to search
+     * @param minConnection   the minimum time between the arrival of a leg and the departure of the next one
+     * @param maxConnection   the maximum time between the arrival of a leg and the departure of the next one
+     * @throws IllegalArgumentException if the connection times are negative or inverted
+     */
+    public ConnectionSearchService(FlightTimetable flightTimetable, Duration minConnection, Duration maxConnection) {
+        if (minConnection.isNegative() || maxConnection.compareTo(minConnection) < 0) {
+            throw new IllegalArgumentException("Invalid connection times: " + minConnection + " to " + maxConnection);
+        }
+        this.flightTimetable = flightTimetable;
+        this.minConnectionSeconds = minConnection.getSeconds();
+        this.maxConnectionSeconds = maxConnection.getSeconds();
+    }
+
+    /**
+     * Finds the itineraries between two cities whose first flight departs on a given day.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param date              the departure day
+     * @return the itineraries with up to two stops, best first
+     * @throws SQLException if the timetable has to be loaded and a database access error occurs
+     */
+    public ArrayList<Itinerary> searchItineraries(int originCityId, int destinationCityId, LocalDate date) throws SQLException {
+        return searchItineraries(originCityId, destinationCityId, date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                MAX_STOPS, DEFAULT_MAX_RESULTS);
+    }
+
+    /**
+     * Finds the itineraries between two cities whose first flight departs within a time window.
+     * Later legs may depart after the window ends.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time of the first flight
+     * @param to                the time at which the departure window of the first flight ends (exclusive)
+     * @param maxStops          the maximum number of stops, between 0 and MAX_STOPS
+     * @param maxResults        the maximum number of itineraries returned
+     * @return the itineraries, best first
+     * @throws SQLException if the timetable has to be loaded and a database access error occurs
+     * @throws IllegalArgumentException if the cities are the same or the window or limits are invalid
+     */
+    public ArrayList<Itinerary> searchItineraries(int originCityId, int destinationCityId, LocalDateTime from,
+                                                  LocalDateTime to, int maxStops, int maxResults) throws SQLException {
+        if (originCityId == destinationCityId) {
+            throw new IllegalArgumentException("Origin and destination must be different cities.");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("The search range must start before it ends.");
+        }
+        if (maxStops < 0 || maxStops > MAX_STOPS || maxResults < 1) {
+            throw new IllegalArgumentException("Stops must be between 0 and " + MAX_STOPS + " and results at least 1.");
+        }
+        if (!flightTimetable.isLoaded()) {
+            flightTimetable.load();
+        }
+
+        FlightTimetable.Departures departures = flightTimetable.departures();
+        ArrayList<Label> arrivals = scan(departures, originCityId, destinationCityId,
+                FlightTimetable.toEpochSecond(from), FlightTimetable.toEpochSecond(to), maxStops + 1);
+        return rank(departures, arrivals, maxResults);
+    }
+
+    /**
+     * Scans the departures in time order and returns every partial trip that reaches the destination.
+     *
+     * @param departures        the departures of the timetable
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the start of the departure window of the first flight, in epoch seconds
+     * @param to                the end of the departure window of the first flight, in epoch seconds
+     * @param maxLegs           the maximum number of flights per itinerary
+     * @return the trips that end at the destination
+     */
+    private ArrayList<Label> scan(FlightTimetable.Departures departures, int originCityId, int destinationCityId,
+                                  long from, long to, int maxLegs) {
+        if (originCityId < 0 || destinationCityId < 0
+                || originCityId > departures.maxCityId || destinationCityId > departures.maxCityId) {
+            return new ArrayList<>();
+        }
+        int first = departures.lowerBound(from);
+        Scan scan = new Scan(departures, destinationCityId, maxLegs, to);
+        for (int i = first; i < departures.size(); i++) {
+            if (departures.destinationCityIds[i] == destinationCityId) {
+                scan.feedsDestination[departures.originCityIds[i]] = true;
+            }
+        }
+
+        for (int i = first; i < departures.size(); i++) {
+            long departure = departures.departureTimes[i];
+            if (departure >= to && departure > scan.latestUsefulDeparture) {
+                break;
+            }
+            int origin = departures.originCityIds[i];
+            int destination = departures.destinationCityIds[i];
+            if (destination == originCityId) {
+                continue;
+            }
+
+            if (origin == originCityId) {
+                if (departure < to) {
+                    scan.add(new Label(i, null, 1, departures.prices[i], departures.arrivalTimes[i]), destination);
+                }
+                continue;
+            }
+            scan.extend(scan.open.get(origin), i);
+            if (destination == destinationCityId) {
+                scan.extend(scan.lastLeg.get(origin), i);
+            }
+        }
+        return scan.arrivals;
+    }
+
+    /**
+     * State of one connection scan.
+     * Partial trips at each intermediate city are kept in two lists: trips that can take any
+     * next flight, and trips whose next flight must be the last one and so can only go to the
+     * destination. Flights to other cities never look at the second list.
+     */
+    private final class Scan {
+        /** The departures of the timetable */
+        private final FlightTimetable.Departures departures;
+        /** The ID of the destination city */
+        private final int destinationCityId;
+        /** The maximum number of flights per itinerary */
+        private final int maxLegs;
+        /** Whether each city has a flight to the destination; only those cities can be the last stop */
+        private final boolean[] feedsDestination;
+        /** Partial trips that can take any next flight, by city ID */
+        private final List<ArrayList<Label>> open;
+        /** Partial trips whose next flight must reach the destination, by city ID */
+        private final List<ArrayList<Label>> lastLeg;
+        /** Trips that reached the destination */
+        private final ArrayList<Label> arrivals = new ArrayList<>();
+        /** Departures after this time cannot extend any trip found so far */
+        private long latestUsefulDeparture;
+
+        /**
+         * Constructor for Scan.
+         *
+         * @param departures        the departures of the timetable
+         * @param destinationCityId the ID of the destination city
+         * @param maxLegs           the maximum number of flights per itinerary
+         * @param to                the end of the departure window of the first flight, in epoch seconds
+         */
+        private Scan(FlightTimetable.Departures departures, int destinationCityId, int maxLegs, long to) {
+            this.departures = departures;
+            this.destinationCityId = destinationCityId;
+            this.maxLegs = maxLegs;
+            this.feedsDestination = new boolean[departures.maxCityId + 1];
+            this.open = newCityLists(departures.maxCityId);
+            this.lastLeg = newCityLists(departures.maxCityId);
+            this.latestUsefulDeparture = to;
+        }
+
+        /**
+         * Extends the partial trips at the origin of a flight with that flight.
+         *
+         * @param labels the partial trips at the origin of the flight, or null
+         * @param i      the index of the flight in the departures
+         */
+        void extend(ArrayList<Label> labels, int i) {
+            if (labels == null) {
+                return;
+            }
+            long departure = departures.departureTimes[i];
+            int destination = departures.destinationCityIds[i];
+            for (int j = 0, size = labels.size(); j < size; j++) {
+                Label previous = labels.get(j);
+                long wait = departure - previous.arrival;
+                if (wait < minConnectionSeconds || wait > maxConnectionSeconds || previous.visits(departures, destination)) {
+                    continue;
+                }
+                add(new Label(i, previous, previous.legs + 1, previous.price + departures.prices[i],
+                        departures.arrivalTimes[i]), destination);
+            }
+        }
+
+        /**
+         * Records a partial trip at the city it reaches.
+         * A trip is dropped if another trip reached the same city at the same time with no more
+         * legs and no higher price; an earlier arrival alone does not make a trip better, since the
+         * maximum connection time may keep it from catching the same flights.
+         *
+         * @param label the partial trip
+         * @param city  the city it reaches
+         */
+        void add(Label label, int city) {
+            if (city == destinationCityId) {
+                arrivals.add(label);
+                return;
+            }
+            List<ArrayList<Label>> lists;
+            if (label.legs + 1 < maxLegs) {
+                lists = open;
+            } else if (label.legs + 1 == maxLegs && feedsDestination[city]) {
+                lists = lastLeg;
+            } else {
+                return;
+            }
+            ArrayList<Label> labels = lists.get(city);
+            if (labels == null) {
+                labels = new ArrayList<>();
+                lists.set(city, labels);
+            }
+            for (Label other : labels) {
+                if (other.arrival == label.arrival && other.legs <= label.legs && other.price <= label.price) {
+                    return;
+                }
+            }
+            labels.add(label);
+            latestUsefulDeparture = Math.max(latestUsefulDeparture, label.arrival + maxConnectionSeconds);
+        }
+    }
+
+    /**
+     * Creates the partial trip lists of every city, indexed by city ID.
+     * Each entry stays null until a trip reaches that city.
+     *
+     * @param maxCityId the largest city ID
+     * @return the list of maxCityId + 1 null entries
+     */
+    private static List<ArrayList<Label>> newCityLists(int maxCityId) {
+        return new ArrayList<>(Collections.nCopies(maxCityId + 1, null));
+    }
+
+    /**
+     * Drops the dominated trips to the destination and sorts the rest.
+     *
+     * @param departures the departures of the timetable
+     * @param arrivals   the trips that reached the destination
+     * @param maxResults the maximum number of itineraries returned
+     * @return the best itineraries
+     */
+    private ArrayList<Itinerary> rank(FlightTimetable.Departures departures, ArrayList<Label> arrivals, int maxResults) {
+        arrivals.sort(Comparator.<Label>comparingLong(label -> label.arrival)
+                .thenComparingDouble(label -> label.price)
+                .thenComparingInt(label -> label.legs));
+
+        ArrayList<Label> kept = new ArrayList<>();
+        for (Label candidate : arrivals) {
+            long candidateDeparture = departures.departureTimes[candidate.first().connection];
+            boolean dominated = false;
+            // Every kept trip arrives no later than the candidate, since they are sorted by arrival
+            for (Label best : kept) {
+                if (departures.departureTimes[best.first().connection] >= candidateDeparture
+                        && best.price <= candidate.price && best.legs <= candidate.legs) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                kept.add(candidate);
+                if (kept.size() == maxResults) {
+                    break;
+                }
+            }
+        }
+
+        ArrayList<Itinerary> itineraries = new ArrayList<>();
+        for (Label label : kept) {
+            itineraries.add(label.toItinerary(departures));
+        }
+        return itineraries;
+    }
+
+    /**
+     * A partial trip: the last flight taken and the trip that led to it.
+     */
+    private static final class Label {
+        /** Index of the last flight in the departures */
+        private final int connection;
+        /** The trip before the last flight, or null for the first flight */
+        private final Label previous;
+        /** Number of flights */
+        private final int legs;
+        /** Sum of the base prices */
+        private final float price;
+        /** Arrival time of the last flight, in epoch seconds */
+        private final long arrival;
+
+        /**
+         * Constructor for Label.
+         *
+         * @param connection the index of the last flight in the departures
+         * @param previous   the trip before the last flight, or null
+         * @param legs       the number of flights
+         * @param price      the sum of the base prices
+         * @param arrival    the arrival time of the last flight, in epoch seconds
+         */
+        private Label(int connection, Label previous, int legs, float price, long arrival) {
+            this.connection = connection;
+            this.previous = previous;
+            this.legs = legs;
+            this.price = price;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Checks if the trip already passed through a city.
+         *
+         * @param departures the departures of the timetable
+         * @param city       the ID of the city
+         * @return true if a flight of the trip departs from or arrives at the city
+         */
+        boolean visits(FlightTimetable.Departures departures, int city) {
+            for (Label label = this; label != null; label = label.previous) {
+                if (departures.originCityIds[label.connection] == city
+                        || departures.destinationCityIds[label.connection] == city) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the first flight of the trip.
+         *
+         * @return the label of the first flight
+         */
+        Label first() {
+            Label label = this;
+            while (label.previous != null) {
+                label = label.previous;
+            }
+            return label;
+        }
+
+        /**
+         * Builds the itinerary of the trip with copies of its flights.
+         *
+         * @param departures the departures of the timetable
+         * @return the itinerary
+         */
+        Itinerary toItinerary(FlightTimetable.Departures departures) {
+            ArrayList<Flight> legs = new ArrayList<>();
+            for (Label label = this; label != null; label = label.previous) {
+                Flight flight = departures.flights[label.connection];
+                legs.add(0, FlightTimetable.copyOf(flight.getId(), flight));
+            }
+            return new Itinerary(legs);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package org.airflow.reservations.service;
 
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.GUI.Bridge.View;
 import org.airflow.reservations.GUI.frames.MainFrame;
 import org.airflow.reservations.model.*;
+import org.airflow.reservations.utils.ConnectionDB;
+import org.airflow.reservations.utils.EdtStallMonitor;
+import org.airflow.reservations.utils.MigrationRunner;
+import org.airflow.reservations.utils.ReferenceDataCache;
+import org.airflow.reservations.utils.UiActionEvent;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -19,6 +27,13 @@ import java.util.Map;
  * and manages the application lifecycle.
  */
 public class Controller implements ActionListener {
+    /** Key of the background flight searches; a new search supersedes the previous one */
+    private static final String SEARCH_TASK = "search";
+    /** Key of the background loads of the flight details and seat screens */
+    private static final String FLIGHT_TASK = "flight";
+    /** Key of the background reservation creation */
+    private static final String RESERVATION_TASK = "reservation";
+
     /** Singleton instance of the controller */
     private static volatile Controller instance;
     /** The view interface for MVC communication */
@@ -33,8 +48,18 @@ public class Controller implements ActionListener {
     private SeatService seatService;
     /** Service for reservation-related operations */
     private ReservationService reservationService;
+    /** Service for temporary seat holds while the user selects seats */
+    private SeatHoldService seatHoldService;
+    /** Service for itineraries with stops */
+    private ConnectionSearchService connectionSearchService;
+    /** Runs the service calls away from the event dispatch thread */
+    private AsyncServiceFacade asyncServices;
+    /** Runs the periodic background jobs */
+    private JobScheduler jobScheduler;
     /** Currently selected flight in the application */
     private Flight selectedFlight;
+    /** Flight search shown in the search panel, used to show its next page */
+    private SearchResult lastSearch;
     /** Current logged-in user */
     private User currentUser;
 
@@ -60,6 +85,10 @@ public class Controller implements ActionListener {
             this.airplaneService = new AirplaneService();
             this.seatService = new SeatService();
             this.reservationService = new ReservationService(currentUser);
+            this.seatHoldService = SeatHoldService.getShared();
+            this.connectionSearchService = new ConnectionSearchService();
+            this.asyncServices = new AsyncServiceFacade();
+            this.jobScheduler = new JobScheduler();
         } catch (SQLException e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(null, "Error initializing services: " + e.getMessage(), "Fatal Error", JOptionPane.ERROR_MESSAGE);
@@ -77,13 +106,22 @@ public class Controller implements ActionListener {
             // Initialize UI Look and Feel
             initializeLookAndFeel();
 
+            // Measure how long the UI freezes, when requested with -Dairflow.edt.monitor=true
+            startEdtStallMonitor();
+
             // Start the application in the Event Dispatch Thread
             SwingUtilities.invokeLater(() -> {
                 try {
                     view = new MainFrame();
                     view.addActionListener(this);
+                    asyncServices.setProgressListener(inFlight -> view.setBusy(inFlight > 0));
                     System.out.println("AirFlow Reservation System started successfully!");
-                    performStartupTasks();
+
+                    // Load the data in the background so the window stays responsive
+                    asyncServices.submit(null, () -> {
+                        performStartupTasks();
+                        return null;
+                    }, ignored -> { }, error -> handleApplicationError("Failed to start application", toException(error)));
 
                 } catch (Exception e) {
                     handleApplicationError("Failed to start application", e);
@@ -113,8 +151,22 @@ public class Controller implements ActionListener {
         }
     }
 
+    /**
+     * Starts the EDT stall monitor if it was enabled with a system property,
+     * and prints its summary when the application exits.
+     */
+    private void startEdtStallMonitor() {
+        if (EdtStallMonitor.isEnabledBySystemProperty()) {
+            EdtStallMonitor monitor = new EdtStallMonitor();
+            monitor.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(monitor.getSummary())));
+            System.out.println("✓ EDT stall monitor started");
+        }
+    }
+
     /**
      * Performs any necessary startup tasks after the UI is initialized.
+     * Runs in the background; the results are handed to the view on the event dispatch thread.
      */
     private void performStartupTasks() {
         // This method can be used for:
@@ -128,9 +180,24 @@ public class Controller implements ActionListener {
         // Test database connectivity
         validateDatabaseConnectivity();
 
+        // Bring the schema up to date before anything queries it
+        applySchemaMigrations();
+
+        // Keep cities and airplanes in memory for the lookups of every screen
+        preloadReferenceData();
+
         // Load and set cities data for the search panel
         loadAndSetCitiesData();
 
+        // Rebuild the per-flight seat inventory from the database
+        loadSeatInventory();
+
+        // Index the flights of every route for in-memory searches
+        loadFlightTimetable();
+
+        // Start the periodic maintenance jobs
+        scheduleBackgroundJobs();
+
         System.out.println("Startup tasks completed successfully!");
     }
 
@@ -144,16 +211,20 @@ public class Controller implements ActionListener {
                 ArrayList<City> cities = cityService.getAllCities();
 
                 if (cities != null && !cities.isEmpty()) {
-                    // Use the Bridge pattern to set cities data in the UI
-                    view.setCitiesData(cities);
                     ArrayList<Flight> arrayList = new ArrayList<>();
                     arrayList.add(flightService.getFlightById(50));
-                    view.displayFlights(arrayList, cityService.getCityById(14), cityService.getCityById(24));
+                    City origin = cityService.getCityById(14);
+                    City destination = cityService.getCityById(24);
+                    // Use the Bridge pattern to set cities data in the UI
+                    SwingUtilities.invokeLater(() -> {
+                        view.setCitiesData(cities);
+                        view.displayFlights(arrayList, origin, destination, false);
+                    });
                     System.out.println("✓ Successfully loaded " + cities.size() + " cities to search panel");
                 } else {
                     System.out.println("⚠ No cities found in database");
                     // Set empty list - the UI will handle fallback
-                    view.setCitiesData(new ArrayList<>());
+                    SwingUtilities.invokeLater(() -> view.setCitiesData(new ArrayList<>()));
                 }
             } else {
                 System.err.println("⚠ CityService is null, cannot load cities");
@@ -162,7 +233,92 @@ public class Controller implements ActionListener {
             System.err.println("⚠ Error loading cities for search panel: " + e.getMessage());
             e.printStackTrace();
             // Set empty list as fallback
-            view.setCitiesData(new ArrayList<>());
+            SwingUtilities.invokeLater(() -> view.setCitiesData(new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Applies the pending schema migrations.
+     */
+    private void applySchemaMigrations() {
+        try {
+            if (DAOFactory.isInMemory()) {
+                System.out.println("✓ In-memory storage, no schema migrations to apply");
+                return;
+            }
+            List<MigrationRunner.Migration> applied = new MigrationRunner(ConnectionDB.getDataSource()).migrate();
+            for (MigrationRunner.Migration migration : applied) {
+                System.out.println("✓ Applied migration V" + migration.getVersion() + " - " + migration.getDescription());
+            }
+            System.out.println("✓ Schema is up to date (" + applied.size() + " migrations applied)");
+        } catch (Exception e) {
+            System.err.println("⚠ Error applying schema migrations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Preloads the cities and airplanes into the reference data cache.
+     */
+    private void preloadReferenceData() {
+        try {
+            ReferenceDataCache cache = ReferenceDataCache.getShared();
+            cache.preload();
+            System.out.println("✓ Reference data cached (" + cache.getAllCities().size() + " cities)");
+        } catch (Exception e) {
+            System.err.println("⚠ Error preloading reference data, lookups will use the database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory seat inventory of every flight from the database.
+     */
+    private void loadSeatInventory() {
+        try {
+            if (seatService != null) {
+                int flights = seatService.rebuildInventory();
+                System.out.println("✓ Seat inventory loaded for " + flights + " flights");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠ Error loading seat inventory, flights will be loaded on demand: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the in-memory flight timetable from the database.
+     */
+    private void loadFlightTimetable() {
+        try {
+            if (flightService != null) {
+                int flights = flightService.loadTimetable();
+                System.out.println("✓ Flight timetable loaded with " + flights + " flights");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠ Error loading flight timetable, route searches will use the database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules the periodic background jobs.
+     * The reservation control cancels the unconfirmed reservations of flights about to depart every 15 minutes,
+     * the close-out completes the checked-in reservations of the flights completed in the last two days every hour,
+     * and the seat inventory is reloaded every {@link SeatService#INVENTORY_REFRESH_INTERVAL} to pick up seats
+     * freed by other processes.
+     */
+    private void scheduleBackgroundJobs() {
+        try {
+            jobScheduler.schedule("reservations_control", reservationService::reservations_control,
+                    Duration.ofMinutes(1), Duration.ofMinutes(15));
+            jobScheduler.schedule("completed_reservations", () -> {
+                LocalDateTime now = LocalDateTime.now();
+                return reservationService.closeOutCompletedFlights(now.minusDays(2), now).getReservationsCompleted();
+            }, Duration.ofMinutes(5), Duration.ofHours(1));
+            jobScheduler.schedule("seat_inventory", () -> {
+                seatService.rebuildInventory();
+                return 0;
+            }, SeatService.INVENTORY_REFRESH_INTERVAL, SeatService.INVENTORY_REFRESH_INTERVAL);
+            System.out.println("✓ Background jobs scheduled");
+        } catch (Exception e) {
+            System.err.println("⚠ Error scheduling background jobs: " + e.getMessage());
         }
     }
 
@@ -221,6 +377,27 @@ public class Controller implements ActionListener {
         System.exit(1);
     }
 
+    /**
+     * Shows the error of a background service call to the user.
+     * Must be called on the event dispatch thread.
+     *
+     * @param error The error thrown by the service call
+     */
+    private void showTaskError(Throwable error) {
+        error.printStackTrace();
+        JOptionPane.showMessageDialog(view.getFrame(), error.getMessage(), "Application Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Returns an error as an Exception, wrapping it if it is not one.
+     *
+     * @param error The error
+     * @return The error as an Exception
+     */
+    private static Exception toException(Throwable error) {
+        return (error instanceof Exception) ? (Exception) error : new Exception(error);
+    }
+
     /**
      * Sets the view for the MVC pattern.
      *
@@ -250,6 +427,7 @@ public class Controller implements ActionListener {
     /**
      * Handles all action events from the UI components.
      * Routes different commands to their appropriate handler methods.
+     * Actions that keep the event dispatch thread busy are recorded as {@link UiActionEvent}s.
      *
      * @param e The ActionEvent triggered by UI interaction
      */
@@ -257,6 +435,8 @@ public class Controller implements ActionListener {
     public void actionPerformed(ActionEvent e) {
         String command = e.getActionCommand();
         System.out.println("Action performed: " + command + "from " + e.getSource().getClass().getName());
+        UiActionEvent event = new UiActionEvent();
+        event.begin();
 
         try {
             if (command.startsWith(View.SELECT_SEAT)) {
@@ -272,13 +452,18 @@ public class Controller implements ActionListener {
                 case View.SEARCH_FLIGHT_CMD:
                     handleSearchFlight();
                     break;
+                case View.MORE_FLIGHTS_CMD:
+                    handleMoreFlights();
+                    break;
                 case View.BOOK_SEAT_CMD:
                     handleBookSeat();
                     break;
                 case View.CLEAR_SEATS_CMD:
-                    view.clearSeatSelections();
+                    handleClearSeats();
                     break;
                 case View.BACK_TO_FLIGHTS_CMD:
+                    asyncServices.cancel(FLIGHT_TASK);
+                    handleClearSeats();
                     view.showPanel("SearchFlightPanel");
                     break;
                 case View.CONFIRM_RESERVATION_CMD:
@@ -297,17 +482,22 @@ public class Controller implements ActionListener {
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(view.getFrame(), ex.getMessage(), "Application Error", JOptionPane.ERROR_MESSAGE);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = command;
+                event.source = e.getSource().getClass().getName();
+                event.commit();
+            }
         }
     }
 
     /**
      * Handles the flight search functionality.
-     * Validates user input, queries the database for matching flights,
-     * and displays the results in the UI.
-     *
-     * @throws SQLException if database query fails
+     * Validates user input on the event dispatch thread, queries the database in the background,
+     * and displays the results in the UI. A new search supersedes a search that is still running.
      */
-    private void handleSearchFlight() throws SQLException {
+    private void handleSearchFlight() {
         String originName = view.getOrigin();
         String destinationName = view.getDestination();
         LocalDate departureDate = view.getDepartureDate();
@@ -317,77 +507,190 @@ public class Controller implements ActionListener {
             return;
         }
 
+        asyncServices.submit(SEARCH_TASK, () -> searchFlights(originName, destinationName, departureDate),
+                this::showSearchResult, this::showTaskError);
+    }
+
+    /**
+     * Handles the request for the next page of the flights shown.
+     * The page is queried in the background and added after the flights already shown.
+     */
+    private void handleMoreFlights() {
+        SearchResult previous = lastSearch;
+        if (previous == null || previous.nextPageToken == null) {
+            return;
+        }
+        asyncServices.submit(SEARCH_TASK, () -> nextFlightPage(previous), this::showSearchResult, this::showTaskError);
+    }
+
+    /**
+     * Queries the flights and the connecting itineraries between two cities.
+     * Runs in the background.
+     *
+     * @param originName      The name of the origin city
+     * @param destinationName The name of the destination city
+     * @param departureDate   The departure date
+     * @return The search result, or null if a city does not exist
+     * @throws SQLException if database query fails
+     */
+    private SearchResult searchFlights(String originName, String destinationName, LocalDate departureDate) throws SQLException {
         City origin = cityService.getCityByName(originName);
         City destination = cityService.getCityByName(destinationName);
 
         if (origin == null || destination == null) {
+            return null;
+        }
+
+        FlightPage page = flightService.searchFlights(origin.getId(), destination.getId(),
+                departureDate.atStartOfDay(), departureDate.plusDays(1).atStartOfDay(),
+                null, FlightPage.Sort.DEPARTURE_TIME, null);
+
+        // Itineraries with stops, for routes with little or no direct service
+        ArrayList<Itinerary> connections = new ArrayList<>();
+        Map<Integer, City> cities = new HashMap<>();
+        if (origin.getId() != destination.getId()) {
+            for (Itinerary itinerary : connectionSearchService.searchItineraries(origin.getId(), destination.getId(), departureDate)) {
+                if (itinerary.getStops() > 0) {
+                    connections.add(itinerary);
+                }
+            }
+            if (!connections.isEmpty()) {
+                for (City city : cityService.getAllCities()) {
+                    cities.put(city.getId(), city);
+                }
+            }
+        }
+        return new SearchResult(origin, destination, departureDate, page.getFlights(), page.getNextPageToken(),
+                connections, cities);
+    }
+
+    /**
+     * Queries the page of flights that follows a search result.
+     * Runs in the background.
+     *
+     * @param previous The search result shown so far
+     * @return The search result with the flights of the next page added
+     * @throws SQLException if database query fails
+     */
+    private SearchResult nextFlightPage(SearchResult previous) throws SQLException {
+        FlightPage page = flightService.searchFlights(previous.origin.getId(), previous.destination.getId(),
+                previous.departureDate.atStartOfDay(), previous.departureDate.plusDays(1).atStartOfDay(),
+                null, FlightPage.Sort.DEPARTURE_TIME, previous.nextPageToken);
+        ArrayList<Flight> flights = new ArrayList<>(previous.flights);
+        flights.addAll(page.getFlights());
+        return new SearchResult(previous.origin, previous.destination, previous.departureDate, flights,
+                page.getNextPageToken(), previous.connections, previous.cities);
+    }
+
+    /**
+     * Displays the result of a flight search.
+     *
+     * @param result The search result, or null if a city does not exist
+     */
+    private void showSearchResult(SearchResult result) {
+        if (result == null) {
             JOptionPane.showMessageDialog(view.getFrame(), "Invalid origin or destination city.", "Input Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        ArrayList<Flight> flights = flightService.getBydepartureTimeRange(departureDate.atStartOfDay(), departureDate.atTime(23, 59, 59));
-        List<Flight> filteredFlights = flights.stream()
-                .filter(f -> f.getOrigin_city_FK() == origin.getId() && f.getDestination_city_FK() == destination.getId())
-                .toList();
-
-        view.displayFlights(new ArrayList<>(filteredFlights), origin, destination);
+        lastSearch = result;
+        view.displayFlights(result.flights, result.origin, result.destination, result.nextPageToken != null);
+        if (!result.connections.isEmpty()) {
+            view.displayItineraries(result.connections, result.cities);
+        }
     }
 
     /**
      * Handles displaying flight details when a flight is selected.
+     * The flight is loaded in the background and becomes the selected flight once it is shown.
      *
      * @param command The action command containing the flight ID
-     * @throws SQLException if database query fails
      */
-    private void handleFlightDetails(String command) throws SQLException {
+    private void handleFlightDetails(String command) {
         int flightId = Integer.parseInt(command.split(":")[1]);
-        selectedFlight = flightService.getFlightById(flightId);
-        if (selectedFlight != null) {
-            City origin = cityService.getCityById(selectedFlight.getOrigin_city_FK());
-            City destination = cityService.getCityById(selectedFlight.getDestination_city_FK());
-            Airplane airplane = airplaneService.getAirplaneById(selectedFlight.getAirplane_FK());
-            view.setFlightDetails(selectedFlight, origin, destination, airplane);
-            view.showPanel("DetailsFlightPanel");
-        }
+        asyncServices.submit(FLIGHT_TASK, () -> {
+            Flight flight = flightService.getFlightById(flightId);
+            return (flight != null) ? loadFlightData(flight, false) : null;
+        }, data -> {
+            if (data != null) {
+                selectedFlight = data.flight;
+                view.setFlightDetails(data.flight, data.origin, data.destination, data.airplane);
+                view.showPanel("DetailsFlightPanel");
+            }
+        }, this::showTaskError);
     }
 
     /**
      * Handles the seat booking process for the selected flight.
-     * Loads available seats and displays the seat selection interface.
-     *
-     * @throws SQLException if database query fails
+     * Loads available seats in the background and displays the seat selection interface.
      */
-    private void handleBookSeat() throws SQLException {
+    private void handleBookSeat() {
         if (selectedFlight == null) {
             JOptionPane.showMessageDialog(view.getFrame(), "Please select a flight first.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        Airplane airplane = airplaneService.getAirplaneById(selectedFlight.getAirplane_FK());
-        ArrayList<Seat> seats = seatService.getSeatsByAirplaneId(airplane.getId());
-        
-        // Get city information for proper display
-        City originCity = cityService.getCityById(selectedFlight.getOrigin_city_FK());
-        City destinationCity = cityService.getCityById(selectedFlight.getDestination_city_FK());
-        
-        view.setBookSeatsData(selectedFlight, airplane, seats, originCity, destinationCity);
-        view.showPanel("BookSeatsPanel");
+        Flight flight = selectedFlight;
+        asyncServices.submit(FLIGHT_TASK, () -> loadFlightData(flight, true), data -> {
+            view.setBookSeatsData(data.flight, data.airplane, data.seats, data.origin, data.destination);
+            view.showPanel("BookSeatsPanel");
+        }, this::showTaskError);
+    }
+
+    /**
+     * Loads the cities and the airplane of a flight, and optionally its seats.
+     * Runs in the background.
+     *
+     * @param flight    The flight
+     * @param withSeats Whether to load the seats of the flight
+     * @return The data of the flight
+     * @throws SQLException if database query fails
+     */
+    private FlightData loadFlightData(Flight flight, boolean withSeats) throws SQLException {
+        City origin = cityService.getCityById(flight.getOrigin_city_FK());
+        City destination = cityService.getCityById(flight.getDestination_city_FK());
+        Airplane airplane = airplaneService.getAirplaneById(flight.getAirplane_FK());
+        ArrayList<Seat> seats = withSeats ? seatService.getSeatsByFlightId(flight.getId()) : null;
+        return new FlightData(flight, origin, destination, airplane, seats);
     }
 
     /**
      * Handles individual seat selection/deselection.
+     * Selecting a seat places a temporary hold on it so other users cannot select it;
+     * deselecting releases the hold.
      *
      * @param command The action command containing the seat number
+     * @throws SQLException if the seat inventory of the flight has to be loaded and the query fails
      */
-    private void handleSeatSelection(String command) {
+    private void handleSeatSelection(String command) throws SQLException {
         String seatNumber = command.split(":")[1];
+        Seat seat = view.getSeatByNumber(seatNumber);
+        if (seat == null || selectedFlight == null) {
+            return;
+        }
+
+        boolean selected = view.getSelectedSeats().stream().anyMatch(s -> s.getId() == seat.getId());
+        if (selected) {
+            seatHoldService.release(selectedFlight.getId(), seat.getId(), currentUser.getId());
+        } else if (!seatService.isSeatAvailable(selectedFlight.getId(), seat.getId())
+                || !seatHoldService.hold(selectedFlight.getId(), seat.getId(), currentUser.getId())) {
+            JOptionPane.showMessageDialog(view.getFrame(), "Seat " + seatNumber + " is no longer available.",
+                    "Seat Unavailable", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
         view.toggleSeatSelection(seatNumber);
         view.updateSeatSummary();
     }
 
     /**
-     * Handles clearing all selected seats.
+     * Handles clearing all selected seats and releases their holds.
      */
     private void handleClearSeats() {
+        if (selectedFlight != null) {
+            for (Seat seat : view.getSelectedSeats()) {
+                seatHoldService.release(selectedFlight.getId(), seat.getId(), currentUser.getId());
+            }
+        }
         view.clearSeatSelections();
     }
 
@@ -419,11 +722,14 @@ public class Controller implements ActionListener {
 
     /**
      * Handles the final confirmation and creation of the reservation.
-     * Creates the reservation in the database and shows success message.
-     *
-     * @throws SQLException if database operation fails
+     * Creates the reservation in the background and shows success message.
+     * Clicks made while the reservation is being created are ignored.
      */
-    private void handleFinalConfirmReservation() throws SQLException {
+    private void handleFinalConfirmReservation() {
+        if (asyncServices.isPending(RESERVATION_TASK)) {
+            return;
+        }
+
         ArrayList<Seat> selectedSeats = view.getSelectedSeats();
         if (selectedSeats.isEmpty()) {
             // This should not happen if the logic is correct, but as a safeguard:
@@ -432,10 +738,87 @@ public class Controller implements ActionListener {
             return;
         }
 
+        int flightId = selectedFlight.getId();
         int[] seatIds = selectedSeats.stream().mapToInt(Seat::getId).toArray();
-        Reservation reservation = reservationService.createReservation(selectedFlight.getId(), seatIds);
+        asyncServices.submit(RESERVATION_TASK, () -> reservationService.createReservation(flightId, seatIds), reservation -> {
+            JOptionPane.showMessageDialog(view.getFrame(), "Reservation created successfully! Reservation ID: " + reservation.getId(), "Success", JOptionPane.INFORMATION_MESSAGE);
+            view.showPanel("SearchFlightPanel"); // Go back to the start after success
+        }, this::showTaskError);
+    }
 
-        JOptionPane.showMessageDialog(view.getFrame(), "Reservation created successfully! Reservation ID: " + reservation.getId(), "Success", JOptionPane.INFORMATION_MESSAGE);
-        view.showPanel("SearchFlightPanel"); // Go back to the start after success
+    /**
+     * Result of a flight search, handed from the background task to the event dispatch thread.
+     */
+    private static final class SearchResult {
+        /** The origin city */
+        private final City origin;
+        /** The destination city */
+        private final City destination;
+        /** The departure date searched */
+        private final LocalDate departureDate;
+        /** The direct flights shown so far */
+        private final ArrayList<Flight> flights;
+        /** The token of the next page of direct flights, or null if every flight is shown */
+        private final String nextPageToken;
+        /** The itineraries with stops */
+        private final ArrayList<Itinerary> connections;
+        /** The cities by ID, used to show the stops of the itineraries */
+        private final Map<Integer, City> cities;
+
+        /**
+         * Constructor for SearchResult.
+         *
+         * @param origin        The origin city
+         * @param destination   The destination city
+         * @param departureDate The departure date searched
+         * @param flights       The direct flights shown so far
+         * @param nextPageToken The token of the next page of direct flights, or null
+         * @param connections   The itineraries with stops
+         * @param cities        The cities by ID
+         */
+        private SearchResult(City origin, City destination, LocalDate departureDate, ArrayList<Flight> flights,
+                             String nextPageToken, ArrayList<Itinerary> connections, Map<Integer, City> cities) {
+            this.origin = origin;
+            this.destination = destination;
+            this.departureDate = departureDate;
+            this.flights = flights;
+            this.nextPageToken = nextPageToken;
+            this.connections = connections;
+            this.cities = cities;
+        }
+    }
+
+    /**
+     * Data shown by the flight details and seat selection screens,
+     * handed from the background task to the event dispatch thread.
+     */
+    private static final class FlightData {
+        /** The flight */
+        private final Flight flight;
+        /** The origin city */
+        private final City origin;
+        /** The destination city */
+        private final City destination;
+        /** The airplane of the flight */
+        private final Airplane airplane;
+        /** The seats of the flight, or null if they were not loaded */
+        private final ArrayList<Seat> seats;
+
+        /**
+         * Constructor for FlightData.
+         *
+         * @param flight      The flight
+         * @param origin      The origin city
+         * @param destination The destination city
+         * @param airplane    The airplane of the flight
+         * @param seats       The seats of the flight, or null if they were not loaded
+         */
+        private FlightData(Flight flight, City origin, City destination, Airplane airplane, ArrayList<Seat> seats) {
+            this.flight = flight;
+            this.origin = origin;
+            this.destination = destination;
+            this.airplane = airplane;
+            this.seats = seats;
+        }
     }
 }
@@ -1,7 +1,9 @@
 package org.airflow.reservations.service;
 
 import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.FlightPage;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
@@ -12,7 +14,16 @@ import java.util.ArrayList;
  * Provides methods to perform business logic and validations before interacting with the DAO.
  */
 public class FlightService {
+    /** Number of flights per page returned by searchFlights when no page size is given */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Largest page size accepted by searchFlights */
+    public static final int MAX_PAGE_SIZE = 500;
+    /** Latency of the operations of this service */
+    private static final OperationTimer TIMER = new OperationTimer("FlightService");
+
     private final FlightDAO flightDAO;
+    /** Timetable kept in sync with the flight changes, or null to use the shared one */
+    private final FlightTimetable flightTimetable;
 
     /**
      * Constructor for FlightService.
@@ -21,7 +32,8 @@ public class FlightService {
      * @throws SQLException if an error occurs while connecting to the database
      */
     public FlightService() throws SQLException {
-        this.flightDAO = new FlightDAO();
+        this.flightDAO = DAOFactory.flightDAO();
+        this.flightTimetable = null;
     }
 
     /**
@@ -32,6 +44,18 @@ public class FlightService {
      */
     public FlightService(FlightDAO flightDAO) {
         this.flightDAO = flightDAO;
+        this.flightTimetable = null;
+    }
+
+    /**
+     * Constructor for FlightService with dependency injection of the timetable.
+     *
+     * @param flightDAO       the FlightDAO instance to use
+     * @param flightTimetable the FlightTimetable to keep in sync with the flight changes
+     */
+    public FlightService(FlightDAO flightDAO, FlightTimetable flightTimetable) {
+        this.flightDAO = flightDAO;
+        this.flightTimetable = flightTimetable;
     }
 
     /**
@@ -43,13 +67,19 @@ public class FlightService {
      * @throws IllegalArgumentException if the flight code already exists or if the time logic is invalid
      */
     public void registerFlight(Flight flight) throws SQLException {
-        if (existsFlightWithCode(flight.getCode())) {
-            throw new IllegalArgumentException("A flight with this code already exists.");
-        }
-        if (!flight.getDeparture_time().isBefore(flight.getArrival_time())) {
-            throw new IllegalArgumentException("Departure time must be before arrival time.");
+        long startNanos = System.nanoTime();
+        try {
+            if (existsFlightWithCode(flight.getCode())) {
+                throw new IllegalArgumentException("A flight with this code already exists.");
+            }
+            if (!flight.getDeparture_time().isBefore(flight.getArrival_time())) {
+                throw new IllegalArgumentException("Departure time must be before arrival time.");
+            }
+            flightDAO.create(flight);
+            timetable().upsert(flight.getId(), flight);
+        } finally {
+            TIMER.record("registerFlight", startNanos);
         }
-        flightDAO.create(flight);
     }
 
     /**
@@ -60,8 +90,13 @@ public class FlightService {
      * @throws SQLException if a database access error occurs
      */
     public boolean existsFlightWithCode(String code) throws SQLException {
-        ArrayList<Flight> flights = flightDAO.getByCode(code);
-        return !flights.isEmpty();
+        long startNanos = System.nanoTime();
+        try {
+            ArrayList<Flight> flights = flightDAO.getByCode(code);
+            return !flights.isEmpty();
+        } finally {
+            TIMER.record("existsFlightWithCode", startNanos);
+        }
     }
 
     /**
@@ -71,7 +106,12 @@ public class FlightService {
      * @throws SQLException if a database access error occurs
      */
     public ArrayList<Flight> getAllFlights() throws SQLException {
-        return flightDAO.getAll();
+        long startNanos = System.nanoTime();
+        try {
+            return flightDAO.getAll();
+        } finally {
+            TIMER.record("getAllFlights", startNanos);
+        }
     }
 
     /**
@@ -82,7 +122,12 @@ public class FlightService {
      * @throws SQLException if a database access error occurs
      */
     public Flight getFlightById(int id) throws SQLException {
-        return flightDAO.getById(id);
+        long startNanos = System.nanoTime();
+        try {
+            return flightDAO.getById(id);
+        } finally {
+            TIMER.record("getFlightById", startNanos);
+        }
     }
 
     /**
@@ -93,7 +138,12 @@ public class FlightService {
      * @throws SQLException if a database access error occurs
      */
     public ArrayList<Flight> getFlightsByOrigin(int cityId) throws SQLException {
-        return flightDAO.getByOriginCity(cityId);
+        long startNanos = System.nanoTime();
+        try {
+            return flightDAO.getByOriginCity(cityId);
+        } finally {
+            TIMER.record("getFlightsByOrigin", startNanos);
+        }
     }
 
     /**
@@ -104,28 +154,49 @@ public class FlightService {
      * @throws SQLException if a database access error occurs
      */
     public ArrayList<Flight> getFlightsByDestination(int cityId) throws SQLException {
-        return flightDAO.getByDestinationCity(cityId);
+        long startNanos = System.nanoTime();
+        try {
+            return flightDAO.getByDestinationCity(cityId);
+        } finally {
+            TIMER.record("getFlightsByDestination", startNanos);
+        }
     }
 
     /**
      * Updates an existing flight with the given ID.
+     * The flight's seat inventory is reloaded on next access, since the airplane may have changed,
+     * and the flight is moved to its new position in the timetable.
      *
      * @param id the ID of the flight to update
      * @param flight the new flight data
      * @throws SQLException if a database access error occurs
      */
     public void updateFlight(int id, Flight flight) throws SQLException {
-        flightDAO.update(id, flight);
+        long startNanos = System.nanoTime();
+        try {
+            flightDAO.update(id, flight);
+            SeatInventory.getShared().invalidate(id);
+            timetable().upsert(id, flight);
+        } finally {
+            TIMER.record("updateFlight", startNanos);
+        }
     }
 
     /**
-     * Deletes the flight with the given ID.
+     * Deletes the flight with the given ID and drops its seat inventory and timetable entry.
      *
      * @param id the ID of the flight to delete
      * @throws SQLException if a database access error occurs
      */
     public void deleteFlight(int id) throws SQLException {
-        flightDAO.delete(id);
+        long startNanos = System.nanoTime();
+        try {
+            flightDAO.delete(id);
+            SeatInventory.getShared().invalidate(id);
+            timetable().remove(id);
+        } finally {
+            TIMER.record("deleteFlight", startNanos);
+        }
     }
 
     /**
@@ -151,7 +222,135 @@ public class FlightService {
     }
 
     public ArrayList<Flight> getBydepartureTimeRange(LocalDateTime bottomRange , LocalDateTime TopRange) throws SQLException{
-        return flightDAO.getByDepartureTimeRange(bottomRange,TopRange);
+        long startNanos = System.nanoTime();
+        try {
+            return flightDAO.getByDepartureTimeRange(bottomRange,TopRange);
+        } finally {
+            TIMER.record("getBydepartureTimeRange", startNanos);
+        }
+    }
+
+    /**
+     * Searches the flights of a route departing within a time range, returning the first page
+     * or the page that follows the given token, with the default page size.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the range ends (exclusive)
+     * @param statusFilter      the status IDs to include, or null to include every status except CANCELLED
+     * @param sort              the order of the results, or null to sort by departure time
+     * @param pageToken         the token returned with the previous page, or null for the first page
+     * @return the page of flights
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if the time range or the page token is invalid
+     */
+    public FlightPage searchFlights(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to,
+                                    int[] statusFilter, FlightPage.Sort sort, String pageToken) throws SQLException {
+        return searchFlights(originCityId, destinationCityId, from, to, statusFilter, sort, pageToken, DEFAULT_PAGE_SIZE);
+    }
 
+    /**
+     * Searches the flights of a route departing within a time range, one page at a time.
+     * Searches that include every status except CANCELLED are answered from the flight timetable,
+     * through {@link #getFlightsOnRoute}, once it is loaded. Until then, and for other status filters,
+     * filtering, sorting and paging are done by the database, so a busy day does not load
+     * every flight of the day into memory. Page tokens are the same either way.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the range ends (exclusive)
+     * @param statusFilter      the status IDs to include, or null to include every status except CANCELLED
+     * @param sort              the order of the results, or null to sort by departure time
+     * @param pageToken         the token returned with the previous page, or null for the first page
+     * @param pageSize          the maximum number of flights in the page, between 1 and MAX_PAGE_SIZE
+     * @return the page of flights
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if the time range, the page size or the page token is invalid
+     */
+    public FlightPage searchFlights(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to,
+                                    int[] statusFilter, FlightPage.Sort sort, String pageToken, int pageSize) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (from == null || to == null || !from.isBefore(to)) {
+                throw new IllegalArgumentException("The search range must start before it ends.");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            if (statusFilter == null && timetable().isLoaded()) {
+                return FlightDAO.page(getFlightsOnRoute(originCityId, destinationCityId, from, to),
+                        sort, pageToken, pageSize);
+            }
+            return flightDAO.search(originCityId, destinationCityId, from, to, statusFilter,
+                    (sort != null) ? sort : FlightPage.Sort.DEPARTURE_TIME, pageToken, pageSize);
+        } finally {
+            TIMER.record("searchFlights", startNanos);
+        }
+    }
+
+    /**
+     * Returns the flights of a route departing within a time range, by departure time.
+     * Cancelled flights are not included. The in-memory timetable answers the query once it
+     * is loaded; until then the flights are read from the database.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the range ends (exclusive)
+     * @return the flights of the route in the range
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if the time range is invalid
+     */
+    public ArrayList<Flight> getFlightsOnRoute(int originCityId, int destinationCityId, LocalDateTime from,
+                                               LocalDateTime to) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (from == null || to == null || !from.isBefore(to)) {
+                throw new IllegalArgumentException("The search range must start before it ends.");
+            }
+            FlightTimetable timetable = timetable();
+            if (timetable.isLoaded()) {
+                return timetable.findFlights(originCityId, destinationCityId, from, to);
+            }
+
+            ArrayList<Flight> flights = new ArrayList<>();
+            String pageToken = null;
+            do {
+                FlightPage page = flightDAO.search(originCityId, destinationCityId, from, to, null,
+                        FlightPage.Sort.DEPARTURE_TIME, pageToken, MAX_PAGE_SIZE);
+                flights.addAll(page.getFlights());
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+            return flights;
+        } finally {
+            TIMER.record("getFlightsOnRoute", startNanos);
+        }
+    }
+
+    /**
+     * Loads the flight timetable from the database.
+     *
+     * @return the number of flights indexed
+     * @throws SQLException if a database access error occurs
+     */
+    public int loadTimetable() throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return timetable().load();
+        } finally {
+            TIMER.record("loadTimetable", startNanos);
+        }
+    }
+
+    /**
+     * Returns the timetable this service keeps in sync.
+     *
+     * @return the injected timetable, or the shared one
+     * @throws SQLException if the shared timetable cannot be created
+     */
+    private FlightTimetable timetable() throws SQLException {
+        return (flightTimetable != null) ? flightTimetable : FlightTimetable.getShared();
     }
 }
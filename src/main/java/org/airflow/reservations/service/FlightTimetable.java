@@ -0,0 +1,543 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.DAO.DAOFactory;
+import org.airflow.reservations.model.Flight;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory timetable of the flights of every route, used to answer route and date searches
+ * without querying the database.
+ * For each (origin city, destination city) pair the departures are kept sorted as epoch seconds
+ * in a primitive array, with the flight IDs in a parallel array, so a date window is found with
+ * two binary searches. Cancelled flights are not indexed.
+ * <p>
+ * Readers work on an immutable snapshot and never block. Writers are serialized and publish a new
+ * snapshot in which only the routes they changed are copied. Each snapshot also provides, on first
+ * request, every departure of every route in one departure-sorted sequence for connection searches.
+ */
+public class FlightTimetable {
+    /** Order of the flights in the timetable: by departure time, then by ID */
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator
+            .comparing(Flight::getDeparture_time)
+            .thenComparingInt(Flight::getId);
+
+    /** The timetable shared by the services created without an explicit timetable */
+    private static volatile FlightTimetable shared;
+
+    /** Data Access Object used to load the flights */
+    private final FlightDAO flightDAO;
+    /** Current snapshot of the routes; replaced, never modified */
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+    /** Whether the timetable has been loaded from the database */
+    private volatile boolean loaded;
+    /** Route key of every indexed flight, by flight ID; only used by writers */
+    private final HashMap<Integer, Long> routeOfFlight = new HashMap<>();
+
+    /**
+     * Constructor for FlightTimetable.
+     *
+     * @param flightDAO the FlightDAO used to load the flights from the database
+     */
+    public FlightTimetable(FlightDAO flightDAO) {
+        this.flightDAO = flightDAO;
+    }
+
+    /**
+     * Returns the application-wide timetable, creating it on first use.
+     * The shared timetable is empty until {@link #load()} is called.
+     *
+     * @return the shared FlightTimetable
+     * @throws SQLException if the FlightDAO cannot be created
+     */
+    public static FlightTimetable getShared() throws SQLException {
+        FlightTimetable current = shared;
+        if (current == null) {
+            synchronized (FlightTimetable.class) {
+                current = shared;
+                if (current == null) {
+                    current = new FlightTimetable(DAOFactory.flightDAO());
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the timetable with every flight in the database.
+     * Changes applied while the flights are being read wait until the load is published.
+     *
+     * @return the number of flights indexed
+     * @throws SQLException if a database access error occurs
+     */
+    public synchronized int load() throws SQLException {
+        ArrayList<Flight> flights = flightDAO.getAll();
+
+        HashMap<Long, ArrayList<Flight>> byRoute = new HashMap<>();
+        routeOfFlight.clear();
+        for (Flight flight : flights) {
+            if (flight.getStatus_FK() == Flight.CANCELLED_STATUS || flight.getDeparture_time() == null) {
+                continue;
+            }
+            long key = routeKey(flight.getOrigin_city_FK(), flight.getDestination_city_FK());
+            byRoute.computeIfAbsent(key, k -> new ArrayList<>()).add(copyOf(flight.getId(), flight));
+            routeOfFlight.put(flight.getId(), key);
+        }
+
+        HashMap<Long, Route> loadedRoutes = new HashMap<>();
+        for (Map.Entry<Long, ArrayList<Flight>> entry : byRoute.entrySet()) {
+            loadedRoutes.put(entry.getKey(), Route.of(entry.getValue()));
+        }
+        snapshot = new Snapshot(loadedRoutes);
+        loaded = true;
+        return routeOfFlight.size();
+    }
+
+    /**
+     * Adds a flight to the timetable or replaces its previous version.
+     * A flight that is now cancelled, or has moved to another route, is removed from its old route.
+     * Does nothing until the timetable has been loaded, since the load will read the flight.
+     *
+     * @param id     the ID of the flight
+     * @param flight the current flight data
+     */
+    public synchronized void upsert(int id, Flight flight) {
+        if (!loaded) {
+            return;
+        }
+        HashMap<Long, Route> next = new HashMap<>(snapshot.routes);
+        removeFrom(next, id);
+
+        if (flight.getStatus_FK() != Flight.CANCELLED_STATUS && flight.getDeparture_time() != null) {
+            long key = routeKey(flight.getOrigin_city_FK(), flight.getDestination_city_FK());
+            Route route = next.get(key);
+            Flight copy = copyOf(id, flight);
+            next.put(key, (route == null) ? Route.of(new ArrayList<>(Arrays.asList(copy))) : route.with(copy));
+            routeOfFlight.put(id, key);
+        }
+        snapshot = new Snapshot(next);
+    }
+
+    /**
+     * Removes a flight from the timetable.
+     *
+     * @param id the ID of the flight
+     */
+    public synchronized void remove(int id) {
+        if (!loaded || !routeOfFlight.containsKey(id)) {
+            return;
+        }
+        HashMap<Long, Route> next = new HashMap<>(snapshot.routes);
+        removeFrom(next, id);
+        snapshot = new Snapshot(next);
+    }
+
+    /**
+     * Returns the IDs of the flights of a route departing within a time window, by departure time.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the window ends (exclusive)
+     * @return the flight IDs, empty if there are none
+     */
+    public int[] findFlightIds(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to) {
+        Route route = snapshot.routes.get(routeKey(originCityId, destinationCityId));
+        if (route == null) {
+            return new int[0];
+        }
+        int start = route.lowerBound(toEpochSecond(from));
+        int end = route.lowerBound(toEpochSecond(to));
+        return (start < end) ? Arrays.copyOfRange(route.flightIds, start, end) : new int[0];
+    }
+
+    /**
+     * Returns the flights of a route departing within a time window, by departure time.
+     * The flights returned are copies and can be modified freely.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @param from              the earliest departure time to include
+     * @param to                the departure time at which the window ends (exclusive)
+     * @return the flights, empty if there are none
+     */
+    public ArrayList<Flight> findFlights(int originCityId, int destinationCityId, LocalDateTime from, LocalDateTime to) {
+        ArrayList<Flight> result = new ArrayList<>();
+        Route route = snapshot.routes.get(routeKey(originCityId, destinationCityId));
+        if (route == null) {
+            return result;
+        }
+        int end = route.lowerBound(toEpochSecond(to));
+        for (int i = route.lowerBound(toEpochSecond(from)); i < end; i++) {
+            result.add(copyOf(route.flightIds[i], route.flights[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the timetable has been loaded from the database.
+     *
+     * @return true if the timetable can answer searches
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the number of flights in the timetable.
+     *
+     * @return the number of indexed flights
+     */
+    public int size() {
+        int size = 0;
+        for (Route route : snapshot.routes.values()) {
+            size += route.flightIds.length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of routes with at least one flight.
+     *
+     * @return the number of routes
+     */
+    public int getRouteCount() {
+        return snapshot.routes.size();
+    }
+
+    /**
+     * Returns every indexed departure sorted by departure time, for connection searches.
+     * The arrays are built once per snapshot and shared by all readers, which must not modify them.
+     *
+     * @return the departures of the current snapshot
+     */
+    Departures departures() {
+        return snapshot.departures();
+    }
+
+    /**
+     * Removes a flight from its route in a snapshot being built.
+     *
+     * @param next the snapshot being built
+     * @param id   the ID of the flight
+     */
+    private void removeFrom(HashMap<Long, Route> next, int id) {
+        Long key = routeOfFlight.remove(id);
+        if (key == null) {
+            return;
+        }
+        Route route = next.get(key);
+        if (route != null) {
+            Route without = route.without(id);
+            if (without.flightIds.length == 0) {
+                next.remove(key);
+            } else {
+                next.put(key, without);
+            }
+        }
+    }
+
+    /**
+     * Packs an origin and destination city ID into one route key.
+     *
+     * @param originCityId      the ID of the origin city
+     * @param destinationCityId the ID of the destination city
+     * @return the route key
+     */
+    private static long routeKey(int originCityId, int destinationCityId) {
+        return ((long) originCityId << 32) | (destinationCityId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Converts a departure time to the epoch seconds stored in the timetable.
+     * The offset only has to be consistent, since the values are only compared with each other.
+     *
+     * @param time the time to convert
+     * @return the epoch seconds
+     */
+    static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Copies a flight so that the timetable never shares mutable objects with its callers.
+     *
+     * @param id     the ID of the flight
+     * @param flight the flight to copy
+     * @return the copy
+     */
+    static Flight copyOf(int id, Flight flight) {
+        Flight copy = new Flight(id, flight.getAirplane_FK(), flight.getStatus_FK(), flight.getOrigin_city_FK(),
+                flight.getDestination_city_FK(), flight.getCode(), flight.getDeparture_time(),
+                flight.getScheduled_arrival_time(), flight.getArrival_time(), flight.getPrice_base());
+        copy.setStatus_name(flight.getStatus_name());
+        copy.setStatus_description(flight.getStatus_description());
+        return copy;
+    }
+
+    /**
+     * Immutable set of routes published to readers.
+     */
+    private static final class Snapshot {
+        /** Routes by route key */
+        private final Map<Long, Route> routes;
+        /** Departures of all routes, built on first request */
+        private volatile Departures departures;
+
+        /**
+         * Constructor for Snapshot.
+         *
+         * @param routes the routes, which the snapshot takes ownership of
+         */
+        private Snapshot(Map<Long, Route> routes) {
+            this.routes = Collections.unmodifiableMap(routes);
+        }
+
+        /**
+         * Returns the departures of all routes, building them on first use.
+         * Concurrent first calls may each build the arrays; the results are identical.
+         *
+         * @return the departures of the snapshot
+         */
+        Departures departures() {
+            Departures current = departures;
+            if (current == null) {
+                current = Departures.of(routes.values());
+                departures = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Every departure of a snapshot in parallel primitive arrays, sorted by departure time.
+     * Arrival times are the scheduled arrival times.
+     */
+    static final class Departures {
+        /** Departure times as epoch seconds */
+        final long[] departureTimes;
+        /** Scheduled arrival times as epoch seconds */
+        final long[] arrivalTimes;
+        /** Origin city IDs */
+        final int[] originCityIds;
+        /** Destination city IDs */
+        final int[] destinationCityIds;
+        /** Base prices */
+        final float[] prices;
+        /** Flights, shared with the snapshot */
+        final Flight[] flights;
+        /** Largest city ID of any departure */
+        int maxCityId;
+
+        /**
+         * Constructor for Departures.
+         *
+         * @param size the number of departures
+         */
+        private Departures(int size) {
+            departureTimes = new long[size];
+            arrivalTimes = new long[size];
+            originCityIds = new int[size];
+            destinationCityIds = new int[size];
+            prices = new float[size];
+            flights = new Flight[size];
+        }
+
+        /**
+         * Merges the departures of several routes.
+         *
+         * @param routes the routes to merge
+         * @return the departures sorted by time and then by flight ID
+         */
+        static Departures of(Collection<Route> routes) {
+            ArrayList<Flight> all = new ArrayList<>();
+            for (Route route : routes) {
+                all.addAll(Arrays.asList(route.flights));
+            }
+            all.sort(BY_DEPARTURE);
+
+            Departures departures = new Departures(all.size());
+            for (int i = 0; i < all.size(); i++) {
+                Flight flight = all.get(i);
+                LocalDateTime arrival = (flight.getScheduled_arrival_time() != null)
+                        ? flight.getScheduled_arrival_time() : flight.getArrival_time();
+                departures.departureTimes[i] = toEpochSecond(flight.getDeparture_time());
+                departures.arrivalTimes[i] = (arrival != null) ? toEpochSecond(arrival) : departures.departureTimes[i];
+                departures.originCityIds[i] = flight.getOrigin_city_FK();
+                departures.destinationCityIds[i] = flight.getDestination_city_FK();
+                departures.prices[i] = flight.getPrice_base();
+                departures.flights[i] = flight;
+                departures.maxCityId = Math.max(departures.maxCityId,
+                        Math.max(flight.getOrigin_city_FK(), flight.getDestination_city_FK()));
+            }
+            return departures;
+        }
+
+        /**
+         * Returns the number of departures.
+         *
+         * @return the number of departures
+         */
+        int size() {
+            return flights.length;
+        }
+
+        /**
+         * Returns the index of the first departure at or after a time.
+         *
+         * @param epochSecond the time as epoch seconds
+         * @return the index, or the number of departures if all are earlier
+         */
+        int lowerBound(long epochSecond) {
+            return FlightTimetable.lowerBound(departureTimes, epochSecond);
+        }
+    }
+
+    /**
+     * Returns the index of the first value at or after a key in a sorted array.
+     *
+     * @param sorted the sorted array
+     * @param key    the key to search
+     * @return the index, or the array length if all values are smaller
+     */
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Immutable departures of one route, sorted by departure time and then by flight ID.
+     */
+    private static final class Route {
+        /** Departure times as epoch seconds */
+        private final long[] departures;
+        /** Flight IDs, parallel to the departures */
+        private final int[] flightIds;
+        /** Flights, parallel to the departures */
+        private final Flight[] flights;
+
+        /**
+         * Constructor for Route.
+         *
+         * @param departures the sorted departure times
+         * @param flightIds  the parallel flight IDs
+         * @param flights    the parallel flights
+         */
+        private Route(long[] departures, int[] flightIds, Flight[] flights) {
+            this.departures = departures;
+            this.flightIds = flightIds;
+            this.flights = flights;
+        }
+
+        /**
+         * Builds a route from its flights, in any order.
+         *
+         * @param routeFlights the flights of the route
+         * @return the route
+         */
+        static Route of(ArrayList<Flight> routeFlights) {
+            routeFlights.sort(BY_DEPARTURE);
+            int size = routeFlights.size();
+            long[] departures = new long[size];
+            int[] flightIds = new int[size];
+            Flight[] flights = new Flight[size];
+            for (int i = 0; i < size; i++) {
+                Flight flight = routeFlights.get(i);
+                departures[i] = toEpochSecond(flight.getDeparture_time());
+                flightIds[i] = flight.getId();
+                flights[i] = flight;
+            }
+            return new Route(departures, flightIds, flights);
+        }
+
+        /**
+         * Returns the index of the first departure at or after a time.
+         *
+         * @param epochSecond the time as epoch seconds
+         * @return the index, or the number of departures if all are earlier
+         */
+        int lowerBound(long epochSecond) {
+            return FlightTimetable.lowerBound(departures, epochSecond);
+        }
+
+        /**
+         * Returns a copy of the route with a flight inserted at its position.
+         *
+         * @param flight the flight to insert
+         * @return the new route
+         */
+        Route with(Flight flight) {
+            long departure = toEpochSecond(flight.getDeparture_time());
+            int index = lowerBound(departure);
+            while (index < departures.length && departures[index] == departure && flightIds[index] < flight.getId()) {
+                index++;
+            }
+            int size = departures.length;
+            long[] newDepartures = new long[size + 1];
+            int[] newFlightIds = new int[size + 1];
+            Flight[] newFlights = new Flight[size + 1];
+
+            System.arraycopy(departures, 0, newDepartures, 0, index);
+            System.arraycopy(flightIds, 0, newFlightIds, 0, index);
+            System.arraycopy(flights, 0, newFlights, 0, index);
+            newDepartures[index] = departure;
+            newFlightIds[index] = flight.getId();
+            newFlights[index] = flight;
+            System.arraycopy(departures, index, newDepartures, index + 1, size - index);
+            System.arraycopy(flightIds, index, newFlightIds, index + 1, size - index);
+            System.arraycopy(flights, index, newFlights, index + 1, size - index);
+            return new Route(newDepartures, newFlightIds, newFlights);
+        }
+
+        /**
+         * Returns a copy of the route without a flight.
+         *
+         * @param flightId the ID of the flight to remove
+         * @return the new route, or this route if the flight is not on it
+         */
+        Route without(int flightId) {
+            int index = -1;
+            for (int i = 0; i < flightIds.length; i++) {
+                if (flightIds[i] == flightId) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return this;
+            }
+            int size = departures.length;
+            long[] newDepartures = new long[size - 1];
+            int[] newFlightIds = new int[size - 1];
+            Flight[] newFlights = new Flight[size - 1];
+
+            System.arraycopy(departures, 0, newDepartures, 0, index);
+            System.arraycopy(flightIds, 0, newFlightIds, 0, index);
+            System.arraycopy(flights, 0, newFlights, 0, index);
+            System.arraycopy(departures, index + 1, newDepartures, index, size - index - 1);
+            System.arraycopy(flightIds, index + 1, newFlightIds, index, size - index - 1);
+            System.arraycopy(flights, index + 1, newFlights, index, size - index - 1);
+            return new Route(newDepartures, newFlightIds, newFlights);
+        }
+    }
+}
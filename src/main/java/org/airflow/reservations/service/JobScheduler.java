@@ -0,0 +1,226 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.model.JobRun;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs background jobs, such as the reservation control, at fixed intervals.
+ * Jobs run on a single daemon thread, and a job never overlaps with itself: a run that starts while
+ * the previous one is still going, for example one triggered with {@link #runNow(String)}, is skipped.
+ * A failed run is logged and recorded, and the job keeps its schedule.
+ * <p>
+ * The outcome of every run is kept as a {@link JobRun}, with the rows it touched and its duration.
+ */
+public class JobScheduler {
+    /** Executor that runs the jobs */
+    private final ScheduledExecutorService executor;
+    /** Registered jobs by name */
+    private final Map<String, RegisteredJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for JobScheduler.
+     * Jobs run on a single daemon thread, so they never keep the application alive.
+     */
+    public JobScheduler() {
+        this(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "airflow-jobs");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Constructor for JobScheduler.
+     *
+     * @param executor the executor that runs the jobs
+     */
+    public JobScheduler(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a job and schedules it. The interval is measured from the end of one run to the start of the next.
+     *
+     * @param name         the unique name of the job
+     * @param job          the job
+     * @param initialDelay the delay before the first run
+     * @param interval     the delay between two runs
+     * @throws IllegalArgumentException if a job with that name is already registered or the interval is not positive
+     */
+    public void schedule(String name, Job job, Duration initialDelay, Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("The interval of job " + name + " must be positive");
+        }
+        RegisteredJob registered = new RegisteredJob(name, job);
+        if (jobs.putIfAbsent(name, registered) != null) {
+            throw new IllegalArgumentException("Job " + name + " is already registered");
+        }
+        executor.scheduleWithFixedDelay(() -> run(registered),
+                initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a registered job on the calling thread, outside its schedule.
+     *
+     * @param name the name of the job
+     * @return the outcome of the run, or null if the job was already running and the run was skipped
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    public JobRun runNow(String name) {
+        return run(getJob(name));
+    }
+
+    /**
+     * Returns the outcome of the latest run of a job.
+     *
+     * @param name the name of the job
+     * @return the latest run, or null if the job has not run yet
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    public JobRun getLastRun(String name) {
+        return getJob(name).lastRun;
+    }
+
+    /**
+     * Returns the number of completed runs of a job, successful or not.
+     *
+     * @param name the name of the job
+     * @return the run count
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    public long getRunCount(String name) {
+        return getJob(name).runs.get();
+    }
+
+    /**
+     * Returns the number of runs of a job skipped because the previous run had not finished.
+     *
+     * @param name the name of the job
+     * @return the skipped run count
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    public long getSkippedCount(String name) {
+        return getJob(name).skipped.get();
+    }
+
+    /**
+     * Returns the rows touched by all the runs of a job.
+     *
+     * @param name the name of the job
+     * @return the total number of rows touched
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    public long getTotalRowsTouched(String name) {
+        return getJob(name).totalRows.get();
+    }
+
+    /**
+     * Stops scheduling runs. A run in progress is allowed to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns a registered job.
+     *
+     * @param name the name of the job
+     * @return the job
+     * @throws IllegalArgumentException if no job with that name is registered
+     */
+    private RegisteredJob getJob(String name) {
+        RegisteredJob job = jobs.get(name);
+        if (job == null) {
+            throw new IllegalArgumentException("Job " + name + " is not registered");
+        }
+        return job;
+    }
+
+    /**
+     * Runs a job unless it is already running, and records the outcome.
+     *
+     * @param job the job to run
+     * @return the outcome of the run, or null if the run was skipped
+     */
+    private JobRun run(RegisteredJob job) {
+        if (!job.running.compareAndSet(false, true)) {
+            job.skipped.incrementAndGet();
+            System.err.println("⚠ Job " + job.name + " is still running, skipping this run");
+            return null;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        JobRun run;
+        try {
+            int rows = job.job.run();
+            run = new JobRun(job.name, startedAt, Duration.ofNanos(System.nanoTime() - start), rows, null);
+            job.totalRows.addAndGet(rows);
+            if (rows > 0) {
+                System.out.println("✓ Job " + job.name + " touched " + rows + " rows in "
+                        + run.getDuration().toMillis() + " ms");
+            }
+        } catch (Exception e) {
+            run = new JobRun(job.name, startedAt, Duration.ofNanos(System.nanoTime() - start), 0, e.getMessage());
+            System.err.println("⚠ Job " + job.name + " failed: " + e.getMessage());
+        } finally {
+            job.running.set(false);
+        }
+        job.lastRun = run;
+        job.runs.incrementAndGet();
+        return run;
+    }
+
+    /**
+     * A background job.
+     */
+    @FunctionalInterface
+    public interface Job {
+        /**
+         * Runs the job once. Runs must be idempotent: a run repeated after a failure must not apply a change twice.
+         *
+         * @return the number of rows inserted, updated or deleted
+         * @throws Exception if the run fails
+         */
+        int run() throws Exception;
+    }
+
+    /**
+     * A registered job with its run state and metrics.
+     */
+    private static final class RegisteredJob {
+        /** The name of the job */
+        private final String name;
+        /** The job */
+        private final Job job;
+        /** Whether a run is in progress */
+        private final AtomicBoolean running = new AtomicBoolean();
+        /** Completed runs */
+        private final AtomicLong runs = new AtomicLong();
+        /** Runs skipped because the previous one had not finished */
+        private final AtomicLong skipped = new AtomicLong();
+        /** Rows touched by all the runs */
+        private final AtomicLong totalRows = new AtomicLong();
+        /** The latest run, or null if the job has not run yet */
+        private volatile JobRun lastRun;
+
+        /**
+         * Constructor for RegisteredJob.
+         *
+         * @param name the name of the job
+         * @param job  the job
+         */
+        private RegisteredJob(String name, Job job) {
+            this.name = name;
+            this.job = job;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.utils.LatencyHistogram;
+import org.airflow.reservations.utils.MetricsRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long the operations of a service take.
+ * Every operation gets its own series of the airflow_service_latency_seconds histogram
+ * in the global MetricsRegistry, labelled with the service and the operation.
+ */
+final class OperationTimer {
+    private final String service;
+    private final ConcurrentHashMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the timer of a service.
+     *
+     * @param service the name of the service, used as the service label
+     */
+    OperationTimer(String service) {
+        this.service = service;
+    }
+
+    /**
+     * Records an operation that started at the given time and ends now.
+     *
+     * @param operation  the name of the operation, used as the operation label
+     * @param startNanos the value of System.nanoTime() when the operation started
+     */
+    void record(String operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        LatencyHistogram timer = timers.get(operation);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(operation, name -> MetricsRegistry.global().histogram(
+                    "airflow_service_latency_seconds", "Time taken by the operations of the services.",
+                    "service", service, "operation", name));
+        }
+        timer.record(elapsed);
+    }
+}
@@ -2,11 +2,16 @@ package org.airflow.reservations.service;
 
 import org.airflow.reservations.DAO.*;
 import org.airflow.reservations.model.*;
+import org.airflow.reservations.utils.ReservationTransitionEvent;
+import org.airflow.reservations.utils.SeatClaimEvent;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Service class for managing reservation-related operations.
@@ -14,6 +19,15 @@ import java.util.ArrayList;
  * flight reservations, including seat assignments and validation.
  */
 public class ReservationService {
+    /** Maximum number of reservations cancelled by one statement of the reservation control */
+    public static final int CONTROL_CHUNK_SIZE = 500;
+    /** Length of the departure window closed by one statement of the bulk close-out */
+    public static final Duration CLOSE_OUT_CHUNK = Duration.ofHours(6);
+    /** Maximum number of passengers of one group reservation */
+    public static final int MAX_GROUP_SIZE = 500;
+    /** Latency of the operations of this service */
+    private static final OperationTimer TIMER = new OperationTimer("ReservationService");
+
     /** Data Access Object for reservation operations */
     private final ReservationDAO reservationDAO;
     /** Data Access Object for flight operations */
@@ -26,6 +40,8 @@ public class ReservationService {
     private final User User;
     /** Service for seat-related operations */
     private final SeatService seatService;
+    /** Service for temporary seat holds placed during seat selection */
+    private final SeatHoldService seatHoldService;
 
     /**
      * Default constructor that initializes the ReservationService with necessary DAOs.
@@ -34,11 +50,12 @@ public class ReservationService {
      * @throws SQLException if there's an error connecting to the database
      */
     public ReservationService(User User) throws SQLException {
-        this.flightDAO = new FlightDAO();
-        this.reservationDAO = new ReservationDAO();
-        this.seatDAO = new SeatDAO();
-        this.cityDAO = new CityDAO();
-        this.seatService = new SeatService(this.seatDAO);
+        this.flightDAO = DAOFactory.flightDAO();
+        this.reservationDAO = DAOFactory.reservationDAO();
+        this.seatDAO = DAOFactory.seatDAO();
+        this.cityDAO = DAOFactory.cityDAO();
+        this.seatService = new SeatService();
+        this.seatHoldService = SeatHoldService.getShared();
         this.User = User;
     }
 
@@ -54,40 +71,65 @@ public class ReservationService {
      * @param seatService The SeatService instance to use
      */
     public ReservationService(User User, ReservationDAO reservationDAO, FlightDAO flightDAO, SeatDAO SeatDAO, CityDAO cityDAO, SeatService seatService) {
+        this(User, reservationDAO, flightDAO, SeatDAO, cityDAO, seatService, SeatHoldService.getShared());
+    }
+
+    /**
+     * Constructor for ReservationService with dependency injection, including the seat hold service.
+     *
+     * @param User The user who will be making reservations
+     * @param reservationDAO The ReservationDAO instance to use
+     * @param flightDAO The FlightDAO instance to use
+     * @param SeatDAO The seatDAO instance to use
+     * @param cityDAO The CityDAO instance to use
+     * @param seatService The SeatService instance to use
+     * @param seatHoldService The SeatHoldService instance to use
+     */
+    public ReservationService(User User, ReservationDAO reservationDAO, FlightDAO flightDAO, SeatDAO SeatDAO, CityDAO cityDAO,
+                              SeatService seatService, SeatHoldService seatHoldService) {
         this.reservationDAO = reservationDAO;
         this.flightDAO = flightDAO;
         this.seatDAO = SeatDAO;
         this.cityDAO = cityDAO;
         this.seatService = seatService;
+        this.seatHoldService = seatHoldService;
         this.User = User;
     }
 
     /**
      * Function to check if the seat and flight given are able for reservation.
-     * Validates that the flight exists, seat is available, departure time allows reservation,
-     * and flight status permits bookings.
+     * Validates that the flight exists, seat is available on that flight, departure time allows reservation,
+     * and flight status permits bookings. Seat availability is read from the flight-scoped seat inventory.
      *
-     * @param selectedFlight The flight ID to be reserved
+     * @param flight The flight to be reserved, already loaded
      * @param selectedSeat The seat ID to be reserved
      * @return true if the reservation can be created, false otherwise
      * @throws SQLException if a database access error occurs
      * @throws IllegalArgumentException if the flight or seat doesn't exist
      */
 
-    private boolean ableForReservation(int selectedFlight, int selectedSeat) throws SQLException{
-        Flight flight= flightDAO.getById(selectedFlight);
+    private boolean ableForReservation(Flight flight, int selectedSeat) throws SQLException{
         if (flight.getId() == 0) throw new IllegalArgumentException("El vuelo no existe");
-        Seat seat = seatDAO.getById(selectedSeat);
-        if (seat.getId() == 0) throw new IllegalArgumentException("El asiento no existe");
+        int selectedFlight = flight.getId();
+        boolean seatOnFlight = seatService.isSeatOnFlight(selectedFlight, selectedSeat);
+        if (!seatOnFlight && seatDAO.getById(selectedSeat).getId() == 0) {
+            throw new IllegalArgumentException("El asiento no existe");
+        }
         long differenceHours = ChronoUnit.HOURS.between(LocalDateTime.now(),flight.getDeparture_time());
         if (differenceHours < 3) return false;
-        if (flight.getStatus_FK() == 7 || flight.getStatus_FK() == 3) return false;
-        if ( seat.getAirplane_FK() != flight.getAirplane_FK()) return false;
-        return seat.getReservation_FK() == null;
+        if (flight.getStatus_FK() == 7 || flight.getStatus_FK() == Flight.CANCELLED_STATUS) return false;
+        if (!seatOnFlight) return false;
+        return seatService.isSeatAvailable(selectedFlight, selectedSeat);
     }
 
     /**
      * Function to create a reservation.
+     * The flight is read once and the seats are checked against the in-memory inventory. The reservation
+     * and its seats are then written in a single transaction: the reservation ID comes from the generated
+     * keys and all seats are claimed with one conditional UPDATE. If any seat was taken by a concurrent
+     * booking, the transaction is rolled back and nothing is reserved.
+     * Seats held by another user during seat selection are rejected up front; the user's own holds
+     * are released once the reservation is committed.
      *
      * @param selectedFlightID : the flight Id to be reserved.
      * @param selectedSeatIDs  : the seats Ids to be reserved.
@@ -97,31 +139,170 @@ public class ReservationService {
      */
 
     public Reservation createReservation(int selectedFlightID, int[] selectedSeatIDs) throws SQLException{
-        //try {
+        long startNanos = System.nanoTime();
+        try {
             if (selectedFlightID == 0) throw new IllegalArgumentException("No hay vuelo seleccionado");
             if (selectedSeatIDs.length == 0) throw new IllegalArgumentException("No hay asientos seleccionados");
+            Flight flight = flightDAO.getById(selectedFlightID);
             for (int seatId : selectedSeatIDs) {
-                if (!ableForReservation(selectedFlightID,seatId)) {
+                if (!ableForReservation(flight, seatId)) {
                     throw new IllegalArgumentException("No se puede reservar este asiento  " + seatId);
                 }
+                if (seatHoldService.isHeldByOther(selectedFlightID, seatId, User.getId())) {
+                    throw new IllegalArgumentException("El asiento " + seatId + " está retenido por otro usuario");
+                }
             }
+            ReservationTransitionEvent transition = new ReservationTransitionEvent();
+            transition.begin();
+            SeatClaimEvent claim = new SeatClaimEvent();
+            claim.begin();
+            if (!seatService.claimInInventory(selectedFlightID, selectedSeatIDs)) {
+                claim.commit(selectedFlightID, 0, selectedSeatIDs.length, false);
+                throw new IllegalArgumentException("Los asientos seleccionados ya no están disponibles");
+            }
+
             Reservation reservation = new Reservation();
             reservation.setFlight_FK(selectedFlightID);
             reservation.setUser_FK(User.getId());
             reservation.setStatus_FK(3);
-            reservationDAO.create(reservation);
-            ArrayList<Reservation> reservations = reservationDAO.getByFlightIdAndUserId(selectedFlightID,User.getId());
-            reservation = reservations.get(reservations.size()-1);
-            int reservationID = reservation.getId();
+
+            boolean committed = false;
+            boolean seatsTaken = false;
+            Connection connection = DAOFactory.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                DAOFactory.reservationDAO(connection).create(reservation);
+                int claimed = DAOFactory.seatDAO(connection).claimFlightSeats(selectedFlightID, selectedSeatIDs, reservation.getId());
+                if (claimed != selectedSeatIDs.length) {
+                    seatsTaken = true;
+                    connection.rollback();
+                    throw new IllegalArgumentException("Los asientos seleccionados ya no están disponibles");
+                }
+                connection.commit();
+                committed = true;
+                seatHoldService.releaseAll(selectedFlightID, selectedSeatIDs, User.getId());
+                transition.commit("create", reservation.getId(), 0, reservation.getStatus_FK());
+                return reservation;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            } finally {
+                if (!committed) {
+                    seatService.releaseInInventory(selectedFlightID, selectedSeatIDs, seatsTaken);
+                }
+                claim.commit(selectedFlightID, reservation.getId(), selectedSeatIDs.length, committed);
+                connection.close();
+            }
+        } finally {
+            TIMER.record("createReservation", startNanos);
+        }
+    }
+
+    /**
+     * Function to create the reservations of a group, such as a tour or a corporate trip, in one round trip.
+     * Every passenger gets their own reservation for one seat, booked by the current user. The flight is read
+     * once and all seats are checked against the flight's seat inventory, which is loaded with a single query.
+     * The reservations are then inserted with one batched INSERT and their seats claimed with one conditional
+     * UPDATE, all in a single transaction: if any seat was taken by a concurrent booking, the transaction is
+     * rolled back and nobody in the group is booked.
+     *
+     * @param selectedFlightID : the flight Id to be reserved.
+     * @param passengerIDs     : the user Ids of the passengers.
+     * @param selectedSeatIDs  : the seat Id of each passenger, in the same order.
+     * @return the reservations created, in the order of the passengers
+     * @throws SQLException             : if a database access error occurs.
+     * @throws IllegalArgumentException if the group is empty, too large or repeats a seat, or any seat is not able for reserve.
+     */
+
+    public ArrayList<Reservation> createGroupReservation(int selectedFlightID, int[] passengerIDs, int[] selectedSeatIDs)
+            throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (selectedFlightID == 0) throw new IllegalArgumentException("No hay vuelo seleccionado");
+            if (passengerIDs.length == 0) throw new IllegalArgumentException("No hay pasajeros seleccionados");
+            if (passengerIDs.length != selectedSeatIDs.length) {
+                throw new IllegalArgumentException("Cada pasajero debe tener un asiento");
+            }
+            if (passengerIDs.length > MAX_GROUP_SIZE) {
+                throw new IllegalArgumentException("Un grupo admite máximo " + MAX_GROUP_SIZE + " pasajeros");
+            }
+            int[] sortedSeats = selectedSeatIDs.clone();
+            Arrays.sort(sortedSeats);
+            for (int i = 1; i < sortedSeats.length; i++) {
+                if (sortedSeats[i] == sortedSeats[i - 1]) {
+                    throw new IllegalArgumentException("El asiento " + sortedSeats[i] + " está repetido");
+                }
+            }
+            Flight flight = flightDAO.getById(selectedFlightID);
             for (int seatId : selectedSeatIDs) {
-                seatService.updateSeatStatus(seatId,reservationID);
+                if (!ableForReservation(flight, seatId)) {
+                    throw new IllegalArgumentException("No se puede reservar este asiento  " + seatId);
+                }
+                if (seatHoldService.isHeldByOther(selectedFlightID, seatId, User.getId())) {
+                    throw new IllegalArgumentException("El asiento " + seatId + " está retenido por otro usuario");
+                }
+            }
+            SeatClaimEvent claim = new SeatClaimEvent();
+            claim.begin();
+            if (!seatService.claimInInventory(selectedFlightID, selectedSeatIDs)) {
+                claim.commit(selectedFlightID, 0, selectedSeatIDs.length, false);
+                throw new IllegalArgumentException("Los asientos seleccionados ya no están disponibles");
+            }
+
+            ArrayList<Reservation> reservations = new ArrayList<>(passengerIDs.length);
+            for (int passengerId : passengerIDs) {
+                Reservation reservation = new Reservation();
+                reservation.setFlight_FK(selectedFlightID);
+                reservation.setUser_FK(passengerId);
+                reservation.setStatus_FK(3);
+                reservations.add(reservation);
+            }
+
+            boolean committed = false;
+            boolean seatsTaken = false;
+            Connection connection = DAOFactory.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                DAOFactory.reservationDAO(connection).createAll(reservations);
+                int[] reservationIDs = new int[reservations.size()];
+                for (int i = 0; i < reservationIDs.length; i++) {
+                    reservationIDs[i] = reservations.get(i).getId();
+                }
+                int claimed = DAOFactory.seatDAO(connection).claimFlightSeats(selectedFlightID, selectedSeatIDs, reservationIDs);
+                if (claimed != selectedSeatIDs.length) {
+                    seatsTaken = true;
+                    connection.rollback();
+                    throw new IllegalArgumentException("Los asientos seleccionados ya no están disponibles");
+                }
+                connection.commit();
+                committed = true;
+                seatHoldService.releaseAll(selectedFlightID, selectedSeatIDs, User.getId());
+                for (Reservation reservation : reservations) {
+                    ReservationTransitionEvent transition = new ReservationTransitionEvent();
+                    transition.commit("createGroup", reservation.getId(), 0, reservation.getStatus_FK());
+                }
+                return reservations;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            } finally {
+                if (!committed) {
+                    seatService.releaseInInventory(selectedFlightID, selectedSeatIDs, seatsTaken);
+                }
+                claim.commit(selectedFlightID, reservations.get(0).getId(), selectedSeatIDs.length, committed);
+                connection.close();
             }
-            return reservation;
-        //}
-        //catch (Exception e){
-            //if (e instanceof IllegalArgumentException){throw e;}
-          //  else{throw new IllegalArgumentException("Datos no válidos");}
-        //}
+        } finally {
+            TIMER.record("createGroupReservation", startNanos);
+        }
     }
 
     /**
@@ -132,7 +313,12 @@ public class ReservationService {
      */
 
     public ArrayList<Reservation> FindReservation_byUserId() throws SQLException{
-        return reservationDAO.getByUserId(User.getId());
+        long startNanos = System.nanoTime();
+        try {
+            return reservationDAO.getByUserId(User.getId());
+        } finally {
+            TIMER.record("FindReservation_byUserId", startNanos);
+        }
     }
 
     /**
@@ -143,7 +329,12 @@ public class ReservationService {
      */
 
     public ArrayList<Reservation> FindReservation_byUserAndFlight(int flightId) throws SQLException{
-        return reservationDAO.getByFlightIdAndUserId(User.getId(),flightId);
+        long startNanos = System.nanoTime();
+        try {
+            return reservationDAO.getByFlightIdAndUserId(User.getId(),flightId);
+        } finally {
+            TIMER.record("FindReservation_byUserAndFlight", startNanos);
+        }
     }
 
     /**
@@ -154,7 +345,12 @@ public class ReservationService {
      * @throws SQLException if a database access error occurs
      */
     public Reservation FindByReservationId(int reservationId) throws SQLException {
-        return reservationDAO.getById(reservationId);
+        long startNanos = System.nanoTime();
+        try {
+            return reservationDAO.getById(reservationId);
+        } finally {
+            TIMER.record("FindByReservationId", startNanos);
+        }
     }
 
     /**
@@ -185,21 +381,27 @@ public class ReservationService {
      */
 
     public void cancelReservation(int selectedReservation) throws SQLException{
+        long startNanos = System.nanoTime();
         try {
-            if (ableForCancelation(selectedReservation)) {
-                Reservation reservation = reservationDAO.getById(selectedReservation);
-                ArrayList<Seat> seat = seatDAO.getByReservationId(selectedReservation);
-                for (Seat s : seat) {
-                    seatService.updateSeatStatus(s.getId(), null);
+            try {
+                if (ableForCancelation(selectedReservation)) {
+                    ReservationTransitionEvent transition = new ReservationTransitionEvent();
+                    transition.begin();
+                    Reservation reservation = reservationDAO.getById(selectedReservation);
+                    ArrayList<Seat> seat = seatDAO.getByReservationId(selectedReservation);
+                    seatService.releaseSeats(reservation.getFlight_FK(), toSeatIds(seat));
+                    reservationDAO.delete(selectedReservation);
+                    transition.commit("cancel", selectedReservation, reservation.getStatus_FK(), 0);
+                } else {
+                    throw new IllegalArgumentException("No se puede cancelar la reserva porque la hora de salida es menor a 12 horas");
                 }
-                reservationDAO.delete(selectedReservation);
-            } else {
-                throw new IllegalArgumentException("No se puede cancelar la reserva porque la hora de salida es menor a 12 horas");
             }
-        }
-        catch (Exception e){
-            if (e instanceof IllegalArgumentException){throw e;}
-            else{throw new IllegalArgumentException("Datos no válidos");}
+            catch (Exception e){
+                if (e instanceof IllegalArgumentException){throw e;}
+                else{throw new IllegalArgumentException("Datos no válidos");}
+            }
+        } finally {
+            TIMER.record("cancelReservation", startNanos);
         }
     }
 
@@ -212,36 +414,41 @@ public class ReservationService {
      */
 
     public void deleteSeatsfromReservation (int selectedReservation, ArrayList<Integer> seatsIdtoCancel) throws SQLException{
-        try{
-            if (reservationDAO.getById(selectedReservation) == null) throw new IllegalArgumentException("La reserva no existe");
-            if (ableForCancelation(selectedReservation)) {
-                ArrayList<Seat> seats = seatDAO.getByReservationId(selectedReservation);
-                if (seatsIdtoCancel.isEmpty()) {
-                    throw new IllegalArgumentException("No hay asientos seleccionados");
-                }
+        long startNanos = System.nanoTime();
+        try {
+            try{
+                Reservation reservation = reservationDAO.getById(selectedReservation);
+                if (reservation == null) throw new IllegalArgumentException("La reserva no existe");
+                if (ableForCancelation(selectedReservation)) {
+                    ArrayList<Seat> seats = seatDAO.getByReservationId(selectedReservation);
+                    if (seatsIdtoCancel.isEmpty()) {
+                        throw new IllegalArgumentException("No hay asientos seleccionados");
+                    }
 
-                for (Seat s : seats) {
-                    if (seatsIdtoCancel.contains(s.getId())) {
-                        seatService.updateSeatStatus(s.getId(), null);
-                        seatsIdtoCancel.remove(Integer.valueOf(s.getId()));
+                    for (Seat s : seats) {
+                        if (seatsIdtoCancel.contains(s.getId())) {
+                            seatService.releaseSeats(reservation.getFlight_FK(), s.getId());
+                            seatsIdtoCancel.remove(Integer.valueOf(s.getId()));
+                        }
+                    }
+                    if (!seatsIdtoCancel.isEmpty()) {
+                        throw new IllegalArgumentException("Hay asientos que no pertenecen a la reserva");
+                    }
+                    if (seatDAO.getByReservationId(selectedReservation).isEmpty()) {
+                        cancelReservation(selectedReservation);
                     }
                 }
-                if (!seatsIdtoCancel.isEmpty()) {
-                    throw new IllegalArgumentException("Hay asientos que no pertenecen a la reserva");
-                }
-                if (seatDAO.getByReservationId(selectedReservation).isEmpty()) {
-                    cancelReservation(selectedReservation);
+                else{
+                    throw new IllegalArgumentException("Error al cancelar asientos");
                 }
             }
-            else{
-                throw new IllegalArgumentException("Error al cancelar asientos");
+            catch(Exception e){
+                if (e instanceof IllegalArgumentException){throw e;}
+                else{throw new IllegalArgumentException("Datos no válidos");}
             }
+        } finally {
+            TIMER.record("deleteSeatsfromReservation", startNanos);
         }
-        catch(Exception e){
-            if (e instanceof IllegalArgumentException){throw e;}
-            else{throw new IllegalArgumentException("Datos no válidos");}
-        }
-
     }
 
     /**
@@ -252,21 +459,29 @@ public class ReservationService {
      */
 
     public void confirmReservation(int reservationId)throws SQLException{
-        try{
-            if (reservationDAO.getById(reservationId) == null) throw new IllegalArgumentException("La reserva no existe");
-
-            if (reservationDAO.getById(reservationId).getStatus_FK() == 3) {
-                Reservation reservation = reservationDAO.getById(reservationId);
-                reservation.setStatus_FK(1);
-                reservationDAO.update(reservationId, reservation);
+        long startNanos = System.nanoTime();
+        try {
+            try{
+                if (reservationDAO.getById(reservationId) == null) throw new IllegalArgumentException("La reserva no existe");
+
+                if (reservationDAO.getById(reservationId).getStatus_FK() == 3) {
+                    ReservationTransitionEvent transition = new ReservationTransitionEvent();
+                    transition.begin();
+                    Reservation reservation = reservationDAO.getById(reservationId);
+                    reservation.setStatus_FK(1);
+                    reservationDAO.update(reservationId, reservation);
+                    transition.commit("confirm", reservationId, 3, 1);
+                }
+                else{
+                    throw new IllegalArgumentException("No es posible confirmar la reserva");
+                }
             }
-            else{
-                throw new IllegalArgumentException("No es posible confirmar la reserva");
+            catch(Exception e){
+                if (e instanceof IllegalArgumentException){throw e;}
+                else{throw new IllegalArgumentException("Datos no válidos");}
             }
-        }
-        catch(Exception e){
-            if (e instanceof IllegalArgumentException){throw e;}
-            else{throw new IllegalArgumentException("Datos no válidos");}
+        } finally {
+            TIMER.record("confirmReservation", startNanos);
         }
     }
 
@@ -295,24 +510,33 @@ public class ReservationService {
      */
 
     public void check_inReservation(int ReservationId)throws SQLException{
+        long startNanos = System.nanoTime();
         try {
-            if (ableForCheckIn(ReservationId)) {
-                Reservation reservation = reservationDAO.getById(ReservationId);
-                if (reservation.getStatus_FK() == 2) {
-                    throw new IllegalArgumentException("El vuelo ya ha partido");
-                }
+            try {
+                if (ableForCheckIn(ReservationId)) {
+                    ReservationTransitionEvent transition = new ReservationTransitionEvent();
+                    transition.begin();
+                    Reservation reservation = reservationDAO.getById(ReservationId);
+                    if (reservation.getStatus_FK() == 2) {
+                        throw new IllegalArgumentException("El vuelo ya ha partido");
+                    }
 
-                reservation.setStatus_FK(4);
-                reservationDAO.update(ReservationId, reservation);
+                    int fromStatus = reservation.getStatus_FK();
+                    reservation.setStatus_FK(4);
+                    reservationDAO.update(ReservationId, reservation);
+                    transition.commit("checkIn", ReservationId, fromStatus, 4);
+                }
+                else{
+                    throw new IllegalArgumentException("No se puede confirmar el check in porque la hora de salida es " +
+                            "menor a 2 horas o la reserva no ha sido confirmada");
+                }
             }
-            else{
-                throw new IllegalArgumentException("No se puede confirmar el check in porque la hora de salida es " +
-                        "menor a 2 horas o la reserva no ha sido confirmada");
+            catch(Exception e){
+                if (e instanceof IllegalArgumentException){throw e;}
+                else{throw new IllegalArgumentException("Datos no válidos");}
             }
-        }
-        catch(Exception e){
-            if (e instanceof IllegalArgumentException){throw e;}
-            else{throw new IllegalArgumentException("Datos no válidos");}
+        } finally {
+            TIMER.record("check_inReservation", startNanos);
         }
     }
 
@@ -323,84 +547,89 @@ public class ReservationService {
      * @throws IllegalArgumentException : if the flight do not exist or if the flight is not completed.
      */
     public void completed_reservations(int FlightId)throws SQLException{
-        try{
-            if (flightDAO.getById(FlightId) == null) throw new IllegalArgumentException("El vuelo no existe");
-            if (flightDAO.getById(FlightId).getStatus_FK() == 7) {
-                ArrayList<Reservation> reservations = reservationDAO.getByFlightId(FlightId);
-
-                for (Reservation reservation : reservations) {
-                    if (reservation.getStatus_FK() == 4) {
-                        reservation.setStatus_FK(5);
-                        reservationDAO.update(reservation.getId(), reservation);
-                    }
+        long startNanos = System.nanoTime();
+        try {
+            try{
+                Flight flight = flightDAO.getById(FlightId);
+                if (flight == null) throw new IllegalArgumentException("El vuelo no existe");
+                if (flight.getStatus_FK() == 7) {
+                    reservationDAO.completeCheckedInByFlightId(FlightId);
                 }
             }
+            catch(Exception e){
+                if (e instanceof IllegalArgumentException){throw e;}
+                else{throw new IllegalArgumentException("Datos no válidos");}
+            }
+        } finally {
+            TIMER.record("completed_reservations", startNanos);
         }
-        catch(Exception e){
-            if (e instanceof IllegalArgumentException){throw e;}
-            else{throw new IllegalArgumentException("Datos no válidos");}
-        }
-
-
-    }
-
-    /**
-     * Function to check if a reservation can be canceled if the user are not checked in
-     * @param reservationId : the reservation to be canceled.
-     * @return boolean: true if the reservation can be canceled, false otherwise.
-     * @throws SQLException : if a database access error occurs.
-     * @throws IllegalArgumentException : if the reservation do not exist.
-     */
-    private boolean ableToCanelAutomatically(int reservationId)throws SQLException{
-        Reservation reservation = reservationDAO.getById(reservationId);
-        if (reservation.getId() == 0) throw new IllegalArgumentException("La reserva no existe");
-        return reservation.getStatus_FK() != 4 && reservation.getStatus_FK() != 5;
     }
 
     /**
-     * Automatically cancels a reservation when flight departure conditions are met.
-     * This method should be called by system processes to handle automatic cancellations.
+     * End-of-day close-out: moves the checked-in reservations of every completed flight departing
+     * within a time window to completed. The window is split into chunks of {@link #CLOSE_OUT_CHUNK},
+     * and each chunk is closed with one joined UPDATE, so no statement holds the locks of the whole window.
+     * Reservations already completed are not touched, so running it again over the same window is cheap.
      *
-     * @param ReservationId The reservation ID to be canceled
+     * @param from the earliest departure time to close out
+     * @param to   the end of the window, exclusive
+     * @return the report of the close-out
      * @throws SQLException if a database access error occurs
-     * @throws IllegalArgumentException if the reservation doesn't exist
+     * @throws IllegalArgumentException if the window is empty or reversed
      */
-    private void cancel_reservation(int ReservationId) throws SQLException{
-
-        if (ableToCanelAutomatically(ReservationId)){
-            Reservation reservation = reservationDAO.getById(ReservationId);
-            reservation.setStatus_FK(2);
-            reservationDAO.update(ReservationId,reservation);
+    public CloseOutReport closeOutCompletedFlights(LocalDateTime from, LocalDateTime to) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            if (from == null || to == null || !from.isBefore(to)) {
+                throw new IllegalArgumentException("El rango de fechas no es válido");
+            }
+            long start = System.nanoTime();
+            int chunks = 0;
+            int completed = 0;
+            for (LocalDateTime chunkStart = from; chunkStart.isBefore(to); chunkStart = chunkStart.plus(CLOSE_OUT_CHUNK)) {
+                LocalDateTime chunkEnd = chunkStart.plus(CLOSE_OUT_CHUNK);
+                if (chunkEnd.isAfter(to)) {
+                    chunkEnd = to;
+                }
+                completed += reservationDAO.completeCheckedInByDepartureRange(chunkStart, chunkEnd);
+                chunks++;
+            }
+            return new CloseOutReport(from, to, chunks, completed, Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            TIMER.record("closeOutCompletedFlights", startNanos);
         }
-
-}
+    }
 
     /**
      * System control method to automatically cancel reservations for flights near departure.
-     * This method should be run by a system scheduler every 15 minutes to maintain
-     * reservation integrity for flights departing soon.
+     * Every reservation of a flight departing between 15 minutes ago and 2 hours from now that is
+     * not checked in or completed is cancelled. The update is done by the database in chunks of
+     * {@link #CONTROL_CHUNK_SIZE} reservations, so a run never holds many row locks at once, and
+     * running it again only touches reservations that were not cancelled yet.
+     * It is run by the {@link JobScheduler} every 15 minutes.
      *
+     * @return the number of reservations cancelled
      * @throws SQLException if a database access error occurs
-     * @throws IllegalArgumentException if there are validation errors
+     * @throws IllegalArgumentException if the update fails, with the SQLException as its cause
      */
-    public void reservations_control()throws SQLException{
-    try {
-        LocalDateTime topRange = LocalDateTime.now().plusHours(2);
-        LocalDateTime bottomRange = LocalDateTime.now().minusMinutes(15);
-        ArrayList<Flight> flights_near_departure = flightDAO.getByDepartureTimeRange(bottomRange,topRange);
-        for (Flight flight : flights_near_departure) {
-            ArrayList<Reservation> reservations = reservationDAO.getByFlightId(flight.getId());
-            for (Reservation reservation : reservations) {
-                cancel_reservation(reservation.getId());
-            }
+    public int reservations_control()throws SQLException{
+        long startNanos = System.nanoTime();
+        try {
+            LocalDateTime topRange = LocalDateTime.now().plusHours(2);
+            LocalDateTime bottomRange = LocalDateTime.now().minusMinutes(15);
+            int cancelled = 0;
+            int chunk;
+            do {
+                chunk = reservationDAO.cancelUnconfirmedByDepartureRange(bottomRange, topRange, CONTROL_CHUNK_SIZE);
+                cancelled += chunk;
+            } while (chunk == CONTROL_CHUNK_SIZE);
+            return cancelled;
+        } catch (SQLException e) {
+            throw new IllegalArgumentException("Datos no válidos", e);
+        } finally {
+            TIMER.record("reservations_control", startNanos);
         }
     }
-    catch (Exception e){
-        if (e instanceof IllegalArgumentException){throw e;}
-        else{throw new IllegalArgumentException("Datos no válidos");}
-    }
-
-}
 
 /**
      * Reassigns a passenger's reservation from a cancelled flight to a new alternative flight.
@@ -413,7 +642,10 @@ public class ReservationService {
      * or if no available seat can be assigned in the new flight.
      */
     public void reassignPassenger(int reservationId, int newFlightId) throws SQLException {
-
+        long startNanos = System.nanoTime();
+        try {
+            ReservationTransitionEvent transition = new ReservationTransitionEvent();
+            transition.begin();
             Reservation reservation = reservationDAO.getById(reservationId);
             if (reservation == null || reservation.getId() == 0) {
                 throw new IllegalArgumentException("Reservation not found.");
@@ -426,24 +658,40 @@ public class ReservationService {
 
             // 1. Release the seat(s) from the original flight
             ArrayList<Seat> currentSeats = seatDAO.getByReservationId(reservationId);
-            for (Seat seat : currentSeats) {
-                seatService.updateSeatStatus(seat.getId(), null); // null indicates free seat
-            }
+            seatService.releaseSeats(reservation.getFlight_FK(), toSeatIds(currentSeats));
 
             // 2. Update the reservation to the new flight and set status
+            int fromStatus = reservation.getStatus_FK();
             reservation.setFlight_FK(newFlightId);
             reservation.setStatus_FK(1); // Set to "Confirmed" or "Reassigned" status
             reservationDAO.update(reservation.getId(), reservation);
 
-            // 3. Assign a new seat on the new flight
-            int newFlightAirplaneId = newFlight.getAirplane_FK();
-            ArrayList<Seat> availableSeats = seatDAO.getByavailableSeatsByAirplaneIdClassAndWindow(newFlightAirplaneId, "ECONOMY", false);
-
-            if (availableSeats != null && !availableSeats.isEmpty()) {
-                Seat assignedNewSeat = availableSeats.get(0);
-                seatService.updateSeatStatus(assignedNewSeat.getId(), reservation.getId());
-            } else {
-                throw new IllegalArgumentException("No available seats on the new flight.");
+            // 3. Assign a new economy, non-window seat on the new flight
+            ArrayList<Seat> availableSeats = seatService.getAvailableSeatsByFlightId(newFlightId);
+            for (Seat seat : availableSeats) {
+                if (seat.getSeat_class() == Seat.SeatClass.ECONOMY && !Boolean.TRUE.equals(seat.getIs_window())
+                        && seatService.claimSeats(newFlightId, new int[]{seat.getId()}, reservation.getId())) {
+                    transition.commit("reassign", reservationId, fromStatus, 1);
+                    return;
+                }
             }
+            throw new IllegalArgumentException("No available seats on the new flight.");
+        } finally {
+            TIMER.record("reassignPassenger", startNanos);
+        }
+    }
+
+    /**
+     * Extracts the IDs of a list of seats.
+     *
+     * @param seats the seats
+     * @return an array with the ID of each seat
+     */
+    private int[] toSeatIds(ArrayList<Seat> seats) {
+        int[] seatIds = new int[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            seatIds[i] = seats.get(i).getId();
+        }
+        return seatIds;
     }
 }
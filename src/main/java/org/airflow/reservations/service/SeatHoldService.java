@@ -0,0 +1,329 @@
+package org.airflow.reservations.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Service that keeps short-lived holds on seats while a user is selecting them.
+ * A seat held by one user cannot be selected or booked by another until the hold is released
+ * or its time-to-live expires, so conflicting selections are rejected before any booking work is done.
+ * <p>
+ * Holds live in a {@link ConcurrentHashMap} keyed by flight and seat and are only changed with
+ * atomic compare-and-swap operations ({@code putIfAbsent}, {@code replace}, {@code remove}).
+ * Expired holds are removed by a hashed timer wheel that a single daemon thread advances every tick;
+ * expiry is also checked on every read, so a late tick never extends a hold.
+ * <p>
+ * The shared instance can be tuned with the system properties {@code airflow.seat.holdTtlMs}
+ * and {@code airflow.seat.holdTickMs}.
+ */
+public class SeatHoldService {
+    /** Number of slots in the timer wheel, must be a power of two */
+    private static final int WHEEL_SIZE = 512;
+
+    /** The hold service shared by the controller and the reservation service */
+    private static volatile SeatHoldService shared;
+
+    /** Current hold of each flight seat, keyed by {@link #key(int, int)} */
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+    /** Timer wheel slots, each holding the holds whose deadline falls on that slot */
+    private final List<ConcurrentLinkedQueue<Hold>> wheel;
+    /** Time-to-live of a hold in milliseconds */
+    private final long ttlMillis;
+    /** Duration of one wheel tick in milliseconds */
+    private final long tickMillis;
+    /** Monotonic clock in milliseconds */
+    private final LongSupplier clock;
+    /** Thread that advances the wheel, or null if the wheel is advanced manually */
+    private final ScheduledExecutorService ticker;
+    /** Last wheel tick that has been processed */
+    private long processedTick;
+
+    /** Number of holds granted */
+    private final AtomicLong grantedCount = new AtomicLong();
+    /** Number of hold requests rejected because another user held the seat */
+    private final AtomicLong rejectedCount = new AtomicLong();
+    /** Number of holds that expired */
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    /**
+     * Creates a hold service whose wheel is advanced by a background daemon thread.
+     *
+     * @param ttlMillis  time-to-live of a hold in milliseconds
+     * @param tickMillis duration of one wheel tick in milliseconds
+     */
+    public SeatHoldService(long ttlMillis, long tickMillis) {
+        this(ttlMillis, tickMillis, () -> System.nanoTime() / 1_000_000, true);
+    }
+
+    /**
+     * Creates a hold service with an explicit clock.
+     * Without the background thread, the wheel only advances when {@link #expireHolds()} is called,
+     * which is useful for testing.
+     *
+     * @param ttlMillis   time-to-live of a hold in milliseconds
+     * @param tickMillis  duration of one wheel tick in milliseconds
+     * @param clock       monotonic clock in milliseconds
+     * @param startTicker true to advance the wheel from a background daemon thread
+     * @throws IllegalArgumentException if the TTL or the tick are not positive
+     */
+    SeatHoldService(long ttlMillis, long tickMillis, LongSupplier clock, boolean startTicker) {
+        if (ttlMillis <= 0 || tickMillis <= 0) {
+            throw new IllegalArgumentException("TTL and tick must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.processedTick = clock.getAsLong() / tickMillis;
+
+        if (startTicker) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "airflow-seat-hold-wheel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::expireHolds, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+    /**
+     * Returns the application-wide hold service, creating it on first use.
+     *
+     * @return the shared SeatHoldService
+     */
+    public static SeatHoldService getShared() {
+        SeatHoldService current = shared;
+        if (current == null) {
+            synchronized (SeatHoldService.class) {
+                current = shared;
+                if (current == null) {
+                    current = new SeatHoldService(
+                            Long.getLong("airflow.seat.holdTtlMs", 300_000),
+                            Long.getLong("airflow.seat.holdTickMs", 100));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Places or renews a hold on a seat.
+     * The hold is granted if the seat is not held, its hold has expired, or it is already held by the same holder.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @param holderId the ID of the user holding the seat
+     * @return true if the seat is now held by the holder, false if another user holds it
+     */
+    public boolean hold(int flightId, int seatId, int holderId) {
+        long key = key(flightId, seatId);
+        long now = clock.getAsLong();
+        Hold fresh = new Hold(key, holderId, now + ttlMillis);
+
+        while (true) {
+            Hold current = holds.putIfAbsent(key, fresh);
+            if (current == null) {
+                break;
+            }
+            boolean expired = current.expiresAt <= now;
+            if (current.holderId != holderId && !expired) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (holds.replace(key, current, fresh)) {
+                if (expired && current.holderId != holderId) {
+                    expiredCount.incrementAndGet();
+                }
+                break;
+            }
+        }
+        grantedCount.incrementAndGet();
+        schedule(fresh);
+        return true;
+    }
+
+    /**
+     * Places holds on several seats of a flight. Either every seat is held or none is.
+     *
+     * @param flightId the ID of the flight
+     * @param seatIds  the IDs of the seats
+     * @param holderId the ID of the user holding the seats
+     * @return true if every seat is now held by the holder
+     */
+    public boolean holdAll(int flightId, int[] seatIds, int holderId) {
+        for (int i = 0; i < seatIds.length; i++) {
+            if (!hold(flightId, seatIds[i], holderId)) {
+                for (int j = 0; j < i; j++) {
+                    release(flightId, seatIds[j], holderId);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Releases a hold placed by a holder. Holds of other users are left untouched.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @param holderId the ID of the user holding the seat
+     * @return true if a hold of the holder was removed
+     */
+    public boolean release(int flightId, int seatId, int holderId) {
+        long key = key(flightId, seatId);
+        Hold current = holds.get(key);
+        return current != null && current.holderId == holderId && holds.remove(key, current);
+    }
+
+    /**
+     * Releases the holds of a holder on several seats of a flight.
+     *
+     * @param flightId the ID of the flight
+     * @param seatIds  the IDs of the seats
+     * @param holderId the ID of the user holding the seats
+     */
+    public void releaseAll(int flightId, int[] seatIds, int holderId) {
+        for (int seatId : seatIds) {
+            release(flightId, seatId, holderId);
+        }
+    }
+
+    /**
+     * Checks if a seat is held by a user other than the given one.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @param holderId the ID of the user asking
+     * @return true if another user holds the seat and the hold has not expired
+     */
+    public boolean isHeldByOther(int flightId, int seatId, int holderId) {
+        Hold current = holds.get(key(flightId, seatId));
+        return current != null && current.holderId != holderId && current.expiresAt > clock.getAsLong();
+    }
+
+    /**
+     * Advances the timer wheel up to the current time and removes the holds that expired.
+     * Called every tick by the background thread; only one thread advances the wheel at a time.
+     *
+     * @return the number of holds removed
+     */
+    public synchronized int expireHolds() {
+        long now = clock.getAsLong();
+        long nowTick = now / tickMillis;
+        long from = Math.max(processedTick + 1, nowTick - WHEEL_SIZE + 1);
+        int removed = 0;
+
+        for (long tick = from; tick <= nowTick; tick++) {
+            ConcurrentLinkedQueue<Hold> slot = wheel.get((int) (tick & (WHEEL_SIZE - 1)));
+            ArrayList<Hold> later = new ArrayList<>();
+            Hold hold;
+            while ((hold = slot.poll()) != null) {
+                if (holds.get(hold.key) != hold) {
+                    continue; // released or renewed
+                }
+                if (hold.expiresAt <= now) {
+                    if (holds.remove(hold.key, hold)) {
+                        expiredCount.incrementAndGet();
+                        removed++;
+                    }
+                } else {
+                    later.add(hold); // deadline is on a later turn of the wheel
+                }
+            }
+            slot.addAll(later);
+        }
+        processedTick = nowTick;
+        return removed;
+    }
+
+    /**
+     * Puts a hold in the wheel slot of its deadline.
+     *
+     * @param hold the hold to schedule
+     */
+    private void schedule(Hold hold) {
+        long deadlineTick = (hold.expiresAt + tickMillis - 1) / tickMillis;
+        wheel.get((int) (deadlineTick & (WHEEL_SIZE - 1))).add(hold);
+    }
+
+    /**
+     * Combines a flight ID and a seat ID into one map key.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @return the key
+     */
+    private static long key(int flightId, int seatId) {
+        return ((long) flightId << 32) | (seatId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Stops the background thread that advances the wheel.
+     */
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    // Getters
+    public int getHoldCount() {
+        return holds.size();
+    }
+
+    public long getGrantedCount() {
+        return grantedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * A hold on one flight seat. Instances are immutable so they can be compared by identity
+     * in the map's compare-and-swap operations.
+     */
+    private static final class Hold {
+        /** Map key of the flight seat */
+        private final long key;
+        /** ID of the user holding the seat */
+        private final int holderId;
+        /** Clock time at which the hold expires */
+        private final long expiresAt;
+
+        /**
+         * Constructor for Hold.
+         *
+         * @param key       map key of the flight seat
+         * @param holderId  ID of the user holding the seat
+         * @param expiresAt clock time at which the hold expires
+         */
+        Hold(long key, int holderId, long expiresAt) {
+            this.key = key;
+            this.holderId = holderId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.SeatDAO;
+import org.airflow.reservations.DAO.DAOFactory;
+import org.airflow.reservations.model.FlightSeat;
+import org.airflow.reservations.model.Seat;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory, flight-scoped seat inventory backed by the flight_seats table.
+ * Each flight keeps one occupancy bit per seat and a free-seat counter per seat class, so
+ * availability checks and "seats left" counts never hit the database. Seats are claimed and
+ * released with compare-and-set on the bitset, which makes a claim atomic across threads.
+ * <p>
+ * The inventory is rebuilt from the database on startup; flights that are not loaded yet
+ * are read lazily the first time they are accessed.
+ */
+public class SeatInventory {
+    /** The inventory shared by the services created without an explicit DAO */
+    private static volatile SeatInventory shared;
+
+    /** Data Access Object used to load the flight seats */
+    private final SeatDAO seatDAO;
+    /** Inventories of the flights loaded so far, by flight ID; replaced as a whole by {@link #rebuild()} */
+    private volatile ConcurrentHashMap<Integer, FlightInventory> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SeatInventory.
+     *
+     * @param seatDAO the SeatDAO used to load flight seats from the database
+     */
+    public SeatInventory(SeatDAO seatDAO) {
+        this.seatDAO = seatDAO;
+    }
+
+    /**
+     * Returns the application-wide inventory, creating it on first use.
+     *
+     * @return the shared SeatInventory
+     * @throws SQLException if the SeatDAO cannot be created
+     */
+    public static SeatInventory getShared() throws SQLException {
+        SeatInventory current = shared;
+        if (current == null) {
+            synchronized (SeatInventory.class) {
+                current = shared;
+                if (current == null) {
+                    current = new SeatInventory(DAOFactory.seatDAO());
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reloads the whole inventory from the database.
+     * The rows are streamed from a server-side cursor into a new map, which then replaces the current one
+     * in a single write, so readers and claims keep using the previous state until the new one is complete
+     * and never see an empty inventory. Claims made on the previous state while the rows are read are
+     * already in the database or will be reconciled by the next rebuild.
+     *
+     * @return the number of flights loaded
+     * @throws SQLException if a database access error occurs
+     */
+    public int rebuild() throws SQLException {
+        ConcurrentHashMap<Integer, FlightInventory> loaded = new ConcurrentHashMap<>();
+        try (Stream<FlightSeat> rows = seatDAO.streamAllFlightSeats()) {
+            List<FlightSeat> flightSeats = new ArrayList<>();
+            Iterator<FlightSeat> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                FlightSeat row = iterator.next();
+                if (!flightSeats.isEmpty() && flightSeats.get(0).getFlight_FK() != row.getFlight_FK()) {
+                    loaded.put(flightSeats.get(0).getFlight_FK(), new FlightInventory(flightSeats));
+                    flightSeats.clear();
+                }
+                flightSeats.add(row);
+            }
+            if (!flightSeats.isEmpty()) {
+                loaded.put(flightSeats.get(0).getFlight_FK(), new FlightInventory(flightSeats));
+            }
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        flights = loaded;
+        return loaded.size();
+    }
+
+    /**
+     * Drops the in-memory state of a flight so that it is reloaded on next access.
+     *
+     * @param flightId the ID of the flight
+     */
+    public void invalidate(int flightId) {
+        flights.remove(flightId);
+    }
+
+    /**
+     * Atomically claims a set of seats on a flight.
+     * Either every seat is claimed or none is.
+     *
+     * @param flightId the ID of the flight
+     * @param seatIds  the IDs of the seats to claim
+     * @return true if all seats were free and are now claimed, false otherwise
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public boolean claim(int flightId, int... seatIds) throws SQLException {
+        FlightInventory inventory = getFlight(flightId);
+        int[] indexes = new int[seatIds.length];
+        for (int i = 0; i < seatIds.length; i++) {
+            indexes[i] = inventory.indexOf(seatIds[i]);
+            if (indexes[i] < 0) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < indexes.length; i++) {
+            if (!inventory.set(indexes[i])) {
+                for (int j = 0; j < i; j++) {
+                    inventory.clear(indexes[j]);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Releases seats on a flight. Seats that are already free or not part of the flight are ignored.
+     *
+     * @param flightId the ID of the flight
+     * @param seatIds  the IDs of the seats to release
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public void release(int flightId, int... seatIds) throws SQLException {
+        FlightInventory inventory = getFlight(flightId);
+        for (int seatId : seatIds) {
+            int index = inventory.indexOf(seatId);
+            if (index >= 0) {
+                inventory.clear(index);
+            }
+        }
+    }
+
+    /**
+     * Checks if a seat is part of a flight's inventory.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @return true if the seat belongs to the flight
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public boolean contains(int flightId, int seatId) throws SQLException {
+        return getFlight(flightId).indexOf(seatId) >= 0;
+    }
+
+    /**
+     * Checks if a seat is free on a flight.
+     *
+     * @param flightId the ID of the flight
+     * @param seatId   the ID of the seat
+     * @return true if the seat belongs to the flight and is not claimed
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public boolean isAvailable(int flightId, int seatId) throws SQLException {
+        FlightInventory inventory = getFlight(flightId);
+        int index = inventory.indexOf(seatId);
+        return index >= 0 && !inventory.isSet(index);
+    }
+
+    /**
+     * Returns the number of free seats of a class on a flight.
+     *
+     * @param flightId  the ID of the flight
+     * @param seatClass the seat class to count
+     * @return the number of free seats of that class
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public int seatsLeft(int flightId, Seat.SeatClass seatClass) throws SQLException {
+        return getFlight(flightId).freeByClass.get(seatClass.ordinal());
+    }
+
+    /**
+     * Returns the number of free seats on a flight.
+     *
+     * @param flightId the ID of the flight
+     * @return the number of free seats of any class
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public int seatsLeft(int flightId) throws SQLException {
+        FlightInventory inventory = getFlight(flightId);
+        int total = 0;
+        for (int i = 0; i < inventory.freeByClass.length(); i++) {
+            total += inventory.freeByClass.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the inventory of a flight, loading it from the database if needed.
+     *
+     * @param flightId the ID of the flight
+     * @return the flight inventory
+     * @throws SQLException if a database access error occurs
+     */
+    private FlightInventory getFlight(int flightId) throws SQLException {
+        ConcurrentHashMap<Integer, FlightInventory> current = flights;
+        FlightInventory inventory = current.get(flightId);
+        if (inventory == null) {
+            FlightInventory loaded = new FlightInventory(seatDAO.getFlightSeatsByFlightId(flightId));
+            inventory = current.putIfAbsent(flightId, loaded);
+            if (inventory == null) {
+                inventory = loaded;
+            }
+        }
+        return inventory;
+    }
+
+    /**
+     * Occupancy state of one flight.
+     * Seat IDs are kept sorted so a seat's bit position is found with a binary search.
+     */
+    private static final class FlightInventory {
+        /** IDs of the seats of the flight, sorted ascending */
+        private final int[] seatIds;
+        /** Seat class ordinal of each seat, aligned with seatIds */
+        private final byte[] seatClasses;
+        /** One bit per seat, set when the seat is reserved */
+        private final AtomicLongArray occupied;
+        /** Number of free seats per seat class ordinal */
+        private final AtomicIntegerArray freeByClass;
+
+        /**
+         * Builds the occupancy state from the flight seats of one flight.
+         *
+         * @param flightSeats the flight seats, ordered by seat ID
+         */
+        FlightInventory(List<FlightSeat> flightSeats) {
+            int size = flightSeats.size();
+            this.seatIds = new int[size];
+            this.seatClasses = new byte[size];
+            this.occupied = new AtomicLongArray((size + 63) >>> 6);
+            this.freeByClass = new AtomicIntegerArray(Seat.SeatClass.values().length);
+
+            for (int i = 0; i < size; i++) {
+                FlightSeat flightSeat = flightSeats.get(i);
+                seatIds[i] = flightSeat.getSeat_FK();
+                seatClasses[i] = (byte) flightSeat.getSeat_class().ordinal();
+                if (flightSeat.getReservation_FK() != null) {
+                    occupied.set(i >>> 6, occupied.get(i >>> 6) | (1L << i));
+                } else {
+                    freeByClass.incrementAndGet(seatClasses[i]);
+                }
+            }
+
+            if (!isSorted(seatIds)) {
+                throw new IllegalArgumentException("Flight seats must be ordered by seat ID");
+            }
+        }
+
+        /**
+         * Returns the bit position of a seat.
+         *
+         * @param seatId the ID of the seat
+         * @return the position, or a negative value if the seat is not part of the flight
+         */
+        int indexOf(int seatId) {
+            return Arrays.binarySearch(seatIds, seatId);
+        }
+
+        /**
+         * Checks if the seat at a position is reserved.
+         *
+         * @param index the bit position
+         * @return true if the seat is reserved
+         */
+        boolean isSet(int index) {
+            return (occupied.get(index >>> 6) & (1L << index)) != 0;
+        }
+
+        /**
+         * Marks the seat at a position as reserved.
+         *
+         * @param index the bit position
+         * @return true if the seat was free and is now reserved, false if it was already reserved
+         */
+        boolean set(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            long current;
+            do {
+                current = occupied.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+            } while (!occupied.compareAndSet(word, current, current | mask));
+            freeByClass.decrementAndGet(seatClasses[index]);
+            return true;
+        }
+
+        /**
+         * Marks the seat at a position as free.
+         *
+         * @param index the bit position
+         */
+        void clear(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            long current;
+            do {
+                current = occupied.get(word);
+                if ((current & mask) == 0) {
+                    return;
+                }
+            } while (!occupied.compareAndSet(word, current, current & ~mask));
+            freeByClass.incrementAndGet(seatClasses[index]);
+        }
+
+        /**
+         * Checks if an array is sorted ascending without duplicates.
+         *
+         * @param values the array to check
+         * @return true if sorted
+         */
+        private static boolean isSorted(int[] values) {
+            for (int i = 1; i < values.length; i++) {
+                if (values[i - 1] >= values[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
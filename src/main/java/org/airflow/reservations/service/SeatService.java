@@ -1,9 +1,12 @@
 package org.airflow.reservations.service;
 
 import org.airflow.reservations.DAO.SeatDAO;
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.model.Seat;
+import org.airflow.reservations.utils.SeatClaimEvent;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 
 /**
@@ -12,26 +15,48 @@ import java.util.ArrayList;
  * seat retrieval, status updates, and reservation handling.
  */
 public class SeatService {
+    /**
+     * Interval of the background job that reloads the seat inventory, so seats freed by other
+     * processes, such as another desktop client or the API server, become available here too
+     */
+    public static final Duration INVENTORY_REFRESH_INTERVAL = Duration.ofMinutes(5);
+
     /** Data Access Object for seat operations */
     private final SeatDAO seatDAO;
+    /** Flight-scoped seat inventory used for availability checks */
+    private final SeatInventory inventory;
 
     /**
-     * Default constructor that initializes the SeatService with a new SeatDAO.
+     * Default constructor that initializes the SeatService with a new SeatDAO
+     * and the shared seat inventory.
      *
      * @throws SQLException if there's an error connecting to the database
      */
     public SeatService() throws SQLException {
-        this.seatDAO = new SeatDAO();
+        this.seatDAO = DAOFactory.seatDAO();
+        this.inventory = SeatInventory.getShared();
     }
 
     /**
      * Constructor for SeatService with dependency injection.
      * Allows injecting a specific SeatDAO instance, useful for testing.
+     * The service gets its own seat inventory loaded through the given DAO.
      *
      * @param seatDAO the SeatDAO instance to use
      */
     public SeatService(SeatDAO seatDAO) {
+        this(seatDAO, new SeatInventory(seatDAO));
+    }
+
+    /**
+     * Constructor for SeatService with dependency injection of both the DAO and the inventory.
+     *
+     * @param seatDAO   the SeatDAO instance to use
+     * @param inventory the SeatInventory instance to use
+     */
+    public SeatService(SeatDAO seatDAO, SeatInventory inventory) {
         this.seatDAO = seatDAO;
+        this.inventory = inventory;
     }
 
     /**
@@ -59,6 +84,148 @@ public class SeatService {
         return seatDAO.getByAirplaneId(airplaneId);
     }
 
+    /**
+     * Retrieves all seats of a specific flight, with the reservation holding each seat on that flight.
+     *
+     * @param flightId The unique identifier of the flight
+     * @return ArrayList containing all Seat objects for the specified flight
+     * @throws SQLException if there's an error executing the database query
+     */
+    public ArrayList<Seat> getSeatsByFlightId(int flightId) throws SQLException {
+        return seatDAO.getByFlightId(flightId);
+    }
+
+    /**
+     * Retrieves all available seats for a specific flight.
+     * Availability is read from the in-memory inventory, so seats claimed after the
+     * database read are filtered out.
+     *
+     * @param flightId The unique identifier of the flight
+     * @return ArrayList containing all available Seat objects for the specified flight
+     * @throws SQLException if there's an error executing the database query
+     */
+    public ArrayList<Seat> getAvailableSeatsByFlightId(int flightId) throws SQLException {
+        ArrayList<Seat> availableSeats = new ArrayList<>();
+        for (Seat seat : getSeatsByFlightId(flightId)) {
+            if (inventory.isAvailable(flightId, seat.getId())) {
+                seat.setReservation_FK(null);
+                availableSeats.add(seat);
+            }
+        }
+        return availableSeats;
+    }
+
+    /**
+     * Returns the number of available seats of a class on a flight.
+     *
+     * @param flightId  The unique identifier of the flight
+     * @param seatClass The seat class to count
+     * @return the number of available seats of that class
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public int countAvailableSeats(int flightId, Seat.SeatClass seatClass) throws SQLException {
+        return inventory.seatsLeft(flightId, seatClass);
+    }
+
+    /**
+     * Returns the number of available seats on a flight.
+     *
+     * @param flightId The unique identifier of the flight
+     * @return the number of available seats of any class
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public int countAvailableSeats(int flightId) throws SQLException {
+        return inventory.seatsLeft(flightId);
+    }
+
+    /**
+     * Reserves seats on a flight for a reservation.
+     * The seats are claimed atomically in the inventory first and then written to the database
+     * with one conditional UPDATE. If the database does not reserve every seat, the partial
+     * update is undone, the inventory of the flight is reloaded and false is returned.
+     *
+     * @param flightId      The unique identifier of the flight
+     * @param seatIds       The unique identifiers of the seats
+     * @param reservationId The reservation that holds the seats
+     * @return true if every seat was available and is now reserved, false if any seat was taken
+     * @throws SQLException if there's an error executing the database query
+     */
+    public boolean claimSeats(int flightId, int[] seatIds, int reservationId) throws SQLException {
+        SeatClaimEvent event = new SeatClaimEvent();
+        event.begin();
+        if (!inventory.claim(flightId, seatIds)) {
+            event.commit(flightId, reservationId, seatIds.length, false);
+            return false;
+        }
+        boolean claimed = false;
+        try {
+            claimed = seatDAO.claimFlightSeats(flightId, seatIds, reservationId) == seatIds.length;
+            if (!claimed) {
+                seatDAO.releaseFlightSeats(flightId, seatIds, reservationId);
+            }
+        } finally {
+            if (!claimed) {
+                inventory.release(flightId, seatIds);
+                inventory.invalidate(flightId);
+            }
+            event.commit(flightId, reservationId, seatIds.length, claimed);
+        }
+        return claimed;
+    }
+
+    /**
+     * Claims seats in the in-memory inventory only.
+     * Used by callers that write the seats to the database inside their own transaction;
+     * if that transaction fails, the claim must be undone with {@link #releaseInInventory(int, int[], boolean)}.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatIds  The unique identifiers of the seats
+     * @return true if every seat was available and is now claimed in memory
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public boolean claimInInventory(int flightId, int[] seatIds) throws SQLException {
+        return inventory.claim(flightId, seatIds);
+    }
+
+    /**
+     * Undoes an in-memory claim made with {@link #claimInInventory(int, int[])}.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatIds  The unique identifiers of the seats
+     * @param reload   true if the inventory disagreed with the database and the flight must be reloaded
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public void releaseInInventory(int flightId, int[] seatIds, boolean reload) throws SQLException {
+        inventory.release(flightId, seatIds);
+        if (reload) {
+            inventory.invalidate(flightId);
+        }
+    }
+
+    /**
+     * Frees seats on a flight, both in the database and in the inventory.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatIds  The unique identifiers of the seats
+     * @throws SQLException if there's an error executing the database query
+     */
+    public void releaseSeats(int flightId, int... seatIds) throws SQLException {
+        seatDAO.releaseFlightSeats(flightId, seatIds);
+        inventory.release(flightId, seatIds);
+    }
+
+    /**
+     * Reloads the seat inventory of every flight from the database.
+     * Each process keeps its own inventory, so this is how it learns about seats claimed or freed by other
+     * processes; it runs on startup and every {@link #INVENTORY_REFRESH_INTERVAL}.
+     *
+     * @return the number of flights loaded
+     * @throws SQLException if there's an error executing the database query
+     */
+    public int rebuildInventory() throws SQLException {
+        return inventory.rebuild();
+    }
+
     /**
      * Converts a list of Seat objects to a list of seat number strings.
      * This method is used internally to extract seat numbers from seat objects.
@@ -89,7 +256,9 @@ public class SeatService {
      * @param reservationId The reservation ID to associate with the seat, or null to clear
      * @throws SQLException if there's an error executing the database query
      * @throws IllegalArgumentException if the seat with the given ID is not found
-     */    
+     * @deprecated seat reservations are flight-scoped, use {@link #updateSeatStatus(int, int, Integer)}
+     */
+    @Deprecated
     public void updateSeatStatus(int seatId, Integer reservationId) throws SQLException {
         Seat seat = seatDAO.getById(seatId);
         if (seat == null) {
@@ -99,6 +268,27 @@ public class SeatService {
         seatDAO.update(seatId, seat);
     }
 
+    /**
+     * Updates the reservation status of a seat on a specific flight.
+     * Associates the seat with a reservation or clears the association, keeping the inventory in sync.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatId The unique identifier of the seat
+     * @param reservationId The reservation ID to associate with the seat, or null to clear
+     * @throws SQLException if there's an error executing the database query
+     * @throws IllegalArgumentException if the seat is not part of the flight or is already reserved
+     */
+    public void updateSeatStatus(int flightId, int seatId, Integer reservationId) throws SQLException {
+        if (!inventory.contains(flightId, seatId)) {
+            throw new IllegalArgumentException("Seat " + seatId + " not found on flight " + flightId);
+        }
+        if (reservationId == null) {
+            releaseSeats(flightId, seatId);
+        } else if (!claimSeats(flightId, new int[]{seatId}, reservationId)) {
+            throw new IllegalArgumentException("Seat already reserved: " + seatId);
+        }
+    }
+
     /**
      * Retrieves all seats associated with a specific reservation.
      *
@@ -123,12 +313,16 @@ public class SeatService {
 
     /**
      * Retrieves all available seats for a specific airplane.
-     * Available seats are those that are not currently reserved.
+     * This reads the airplane-wide reservation_FK column, so a seat booked on one flight would block it
+     * on every flight of the airplane; seat availability is flight-scoped, see
+     * {@link #getAvailableSeatsByFlightId(int)}.
      *
      * @param airplaneId The unique identifier of the airplane
      * @return ArrayList containing all available Seat objects for the specified airplane
      * @throws SQLException if there's an error executing the database query
+     * @deprecated use {@link #getAvailableSeatsByFlightId(int)}
      */
+    @Deprecated
     public ArrayList<Seat> getAvailableSeatsByAirplaneId(int airplaneId) throws SQLException {
         ArrayList<Seat> allSeats = getSeatsByAirplaneId(airplaneId);
         ArrayList<Seat> availableSeats = new ArrayList<>();
@@ -142,14 +336,45 @@ public class SeatService {
         return availableSeats;
     }
 
+    /**
+     * Checks if a seat is part of a flight, i.e. belongs to the airplane operating it.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatId The unique identifier of the seat
+     * @return true if the seat is part of the flight's seat inventory
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     */
+    public boolean isSeatOnFlight(int flightId, int seatId) throws SQLException {
+        return inventory.contains(flightId, seatId);
+    }
+
+    /**
+     * Checks if a specific seat is available for reservation on a flight.
+     *
+     * @param flightId The unique identifier of the flight
+     * @param seatId The unique identifier of the seat
+     * @return true if the seat is available on the flight, false if it's already reserved
+     * @throws SQLException if the flight has to be loaded and a database access error occurs
+     * @throws IllegalArgumentException if the seat is not part of the flight
+     */
+    public boolean isSeatAvailable(int flightId, int seatId) throws SQLException {
+        if (!inventory.contains(flightId, seatId)) {
+            throw new IllegalArgumentException("Seat " + seatId + " not found on flight " + flightId);
+        }
+        return inventory.isAvailable(flightId, seatId);
+    }
+
     /**
      * Checks if a specific seat is available for reservation.
+     * Like {@link #getAvailableSeatsByAirplaneId(int)} this is airplane-scoped and ignores per-flight bookings.
      *
      * @param seatId The unique identifier of the seat
      * @return true if the seat is available, false if it's already reserved
      * @throws SQLException if there's an error executing the database query
      * @throws IllegalArgumentException if the seat with the given ID is not found
+     * @deprecated seat availability is flight-scoped, use {@link #isSeatAvailable(int, int)}
      */
+    @Deprecated
     public boolean isSeatAvailable(int seatId) throws SQLException {
         Seat seat = getSeatById(seatId);
         if (seat == null) {
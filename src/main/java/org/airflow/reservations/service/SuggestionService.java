@@ -5,11 +5,11 @@ import org.airflow.reservations.DAO.ReservationDAO;
 import org.airflow.reservations.DAO.SeatDAO;
 import org.airflow.reservations.DAO.UsersDAO;
 import org.airflow.reservations.DAO.CityDAO;
+import org.airflow.reservations.DAO.DAOFactory;
 import org.airflow.reservations.model.Flight;
 import org.airflow.reservations.model.Reservation;
 import org.airflow.reservations.model.Seat;
 import org.airflow.reservations.model.User;
-import org.airflow.reservations.utils.ConnectionDB;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -37,24 +37,23 @@ public class SuggestionService {
 
     /**
      * Default constructor for SuggestionService.
-     * Initializes DAO and service dependencies with new instances using a shared database connection.
+     * Initializes DAO and service dependencies with new instances that borrow pooled connections per operation.
      *
      * @throws SQLException if a database access error occurs during DAO initialization.
      * @throws Exception if an error occurs during ReservationService or SeatService initialization.
      */
     public SuggestionService() throws SQLException, Exception {
-        Connection connection = ConnectionDB.getConnection();
-        this.flightDAO = new FlightDAO(connection);
-        this.reservationDAO = new ReservationDAO(connection);
-        this.seatDAO = new SeatDAO(connection);
-        this.userDAO = new UsersDAO(connection);
-        this.cityDAO = new CityDAO(connection);
+        this.flightDAO = DAOFactory.flightDAO();
+        this.reservationDAO = DAOFactory.reservationDAO();
+        this.seatDAO = DAOFactory.seatDAO();
+        this.userDAO = DAOFactory.usersDAO();
+        this.cityDAO = DAOFactory.cityDAO();
         this.flightService = new FlightService(this.flightDAO); // Use the initialized flightDAO
 
         // For the default constructor, assume a default user or null,
         // or that the current user will be obtained by the caller.
         this.currentUser = new User(); // Or null, depending on how the current user is handled.
-        this.seatService = new SeatService(this.seatDAO); // Initialize SeatService
+        this.seatService = new SeatService(); // Shares the application-wide seat inventory
         this.reservationService = new ReservationService(this.currentUser, this.reservationDAO, this.flightDAO, this.seatDAO, this.cityDAO, this.seatService);
     }
 
@@ -158,7 +157,7 @@ public class SuggestionService {
     public void processSuggestionAcceptance(int reservationId, int newFlightId) throws SQLException {
         Connection connection = null;
         try {
-            connection = ConnectionDB.getConnection();
+            connection = DAOFactory.getConnection();
             connection.setAutoCommit(false); // Begin transaction
 
             Reservation reservation = reservationDAO.getById(reservationId);
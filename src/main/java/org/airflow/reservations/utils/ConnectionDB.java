@@ -1,13 +1,18 @@
 package org.airflow.reservations.utils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Utility class for establishing a connection to a MySQL database.
- * This class provides a static method to get a connection object
- * to the specified database using JDBC.
+ * Utility class for obtaining connections to the MySQL database.
+ * Connections come from a single application-wide {@link ConnectionPool}; closing a connection
+ * obtained here returns it to the pool instead of closing the underlying socket.
+ * <p>
+ * The pool can be tuned with the system properties {@code airflow.db.pool.maxSize},
+ * {@code airflow.db.pool.minIdle}, {@code airflow.db.pool.acquireTimeoutMs},
+ * {@code airflow.db.pool.idleTimeoutMs}, {@code airflow.db.pool.leakDetectionMs} and
+ * {@code airflow.db.pool.statementCacheSize} (prepared statements kept per connection, 0 disables the cache).
+ * The state of the pool is published as airflow_pool_* gauges of the global {@link MetricsRegistry}.
  */
 public class ConnectionDB {
     /** The base URL for the MySQL database connection */
@@ -18,16 +23,92 @@ public class ConnectionDB {
     private final static String USER = "root";
     /** The password for database authentication */
     private final static String PASSWORD = "root";
-    /** Additional connection parameters for MySQL configuration */
-    private final static String PARAMS = "?useUnicode=true&characterEncoding=UTF-8&useSSL=false&allowPublicKeyRetrieval=true";
+    /**
+     * Additional connection parameters for MySQL configuration.
+     * rewriteBatchedStatements lets the driver send a JDBC batch as multi-row statements instead of one round trip per row.
+     * useCursorFetch makes a statement with a fetch size read its rows from a server-side cursor in chunks of that size,
+     * which the streaming reads of the DAOs rely on; statements without a fetch size still read the whole result at once.
+     * useServerPrepStmts has the server parse every query once per connection, and cachePrepStmts keeps those server-side
+     * statements open in the driver when they are closed, so a query prepared again skips the parse.
+     */
+    private final static String PARAMS = "?useUnicode=true&characterEncoding=UTF-8&useSSL=false&allowPublicKeyRetrieval=true" +
+            "&rewriteBatchedStatements=true&useCursorFetch=true" +
+            "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
+
+    /** The shared connection pool, created on first use */
+    private static volatile ConnectionPool pool;
 
     /**
-     * Establishes a connection to the MySQL database.
+     * Borrows a connection from the shared pool.
      *
-     * @return a Connection object to the database
-     * @throws SQLException if a database access error occurs
+     * @return a pooled Connection object to the database; close it to return it to the pool
+     * @throws SQLException if a database access error occurs or no connection is available in time
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL + DATABASE + PARAMS, USER, PASSWORD);
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Returns the shared connection pool, creating it on first use.
+     *
+     * @return the application-wide connection pool
+     */
+    public static ConnectionPool getDataSource() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (ConnectionDB.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(URL + DATABASE + PARAMS, USER, PASSWORD,
+                            Integer.getInteger("airflow.db.pool.maxSize", 10),
+                            Integer.getInteger("airflow.db.pool.minIdle", 2),
+                            Long.getLong("airflow.db.pool.acquireTimeoutMs", 5_000),
+                            Long.getLong("airflow.db.pool.idleTimeoutMs", 300_000),
+                            Long.getLong("airflow.db.pool.leakDetectionMs", 60_000),
+                            Integer.getInteger("airflow.db.pool.statementCacheSize", 64));
+                    registerMetrics(current);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Publishes the state of a pool as gauges of the global MetricsRegistry.
+     * A pool created after a shutdown replaces the gauges of the previous one.
+     *
+     * @param pool the pool to publish
+     */
+    private static void registerMetrics(ConnectionPool pool) {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        metrics.gauge("airflow_pool_active_connections", "Connections currently lent to callers.",
+                pool::getActiveConnections);
+        metrics.gauge("airflow_pool_idle_connections", "Idle connections.", pool::getIdleConnections);
+        metrics.gauge("airflow_pool_total_connections", "Open physical connections.", pool::getTotalConnections);
+        metrics.gauge("airflow_pool_pending_threads", "Threads waiting for a connection.", pool::getPendingThreads);
+        metrics.gauge("airflow_pool_acquire_total", "Successful acquisitions.", pool::getAcquireCount);
+        metrics.gauge("airflow_pool_acquire_average_seconds", "Mean acquisition latency.",
+                () -> pool.getAverageAcquireMicros() / 1_000_000.0);
+        metrics.gauge("airflow_pool_acquire_timeouts_total", "Acquisitions that timed out.", pool::getTimeoutCount);
+        metrics.gauge("airflow_pool_statement_cache_hits_total", "Prepared statements served from the cache.",
+                pool::getStatementCacheHits);
+        metrics.gauge("airflow_pool_statement_cache_misses_total", "Cacheable prepared statements not in the cache.",
+                pool::getStatementCacheMisses);
+        metrics.gauge("airflow_pool_statement_cache_evictions_total", "Cached statements closed because the cache was full.",
+                pool::getStatementCacheEvictions);
+        metrics.gauge("airflow_pool_statement_cache_hit_ratio", "Share of cacheable statements served from the cache.",
+                pool::getStatementCacheHitRatio);
+    }
+
+    /**
+     * Closes the shared pool and all its idle connections.
+     * A new pool is created if a connection is requested afterwards.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 }
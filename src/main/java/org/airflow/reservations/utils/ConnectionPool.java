@@ -0,0 +1,788 @@
+package org.airflow.reservations.utils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool exposed as a {@link DataSource}.
+ * Connections handed out by {@link #getConnection()} are proxies: calling {@code close()} on them
+ * returns the physical connection to the pool instead of closing the socket.
+ * <p>
+ * The pool validates connections that have been idle for a while before lending them, evicts idle
+ * connections above the minimum idle count, warns about connections that are held longer than the
+ * leak detection threshold and keeps acquire-latency statistics.
+ * <p>
+ * Each pooled connection can also keep a cache of its prepared statements, keyed by SQL, so a DAO that
+ * prepares the same query again on the same physical connection reuses the statement instead of having
+ * it parsed again. Closing a cached statement clears its parameters and keeps it for the next caller;
+ * the least recently used statements are closed when the cache is full. Statements whose properties
+ * were changed (fetch size, timeout, maximum rows...) are closed instead of being kept, and statements
+ * still open when the connection is returned are closed then.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+    /** Idle time after which a connection is revalidated before being lent, in milliseconds */
+    private static final long VALIDATION_INTERVAL_MILLIS = 500;
+    /** Longest SQL kept in the statement cache, as prepStmtCacheSqlLimit does in the driver */
+    private static final int MAX_CACHED_SQL_LENGTH = 2048;
+    /** Statement methods that change a property the next user of a cached statement would inherit */
+    private static final Set<String> STATEMENT_PROPERTY_SETTERS = Set.of("setFetchSize", "setFetchDirection",
+            "setMaxRows", "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing",
+            "setCursorName", "setPoolable", "closeOnCompletion");
+
+    /**
+     * Creates the physical connections managed by the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        /**
+         * Opens a new physical connection.
+         *
+         * @return a new open connection
+         * @throws SQLException if the connection cannot be established
+         */
+        Connection create() throws SQLException;
+    }
+
+    /** Maximum number of physical connections (idle + borrowed) */
+    private final int maxSize;
+    /** Number of idle connections kept open by the eviction task */
+    private final int minIdle;
+    /** Maximum time a caller waits for a connection, in milliseconds */
+    private final long acquireTimeoutMillis;
+    /** Idle time after which a connection above {@link #minIdle} is closed, in milliseconds */
+    private final long idleTimeoutMillis;
+    /** Borrow time after which a connection is reported as a possible leak, in milliseconds (0 disables) */
+    private final long leakDetectionThresholdMillis;
+    /** Prepared statements cached per connection (0 disables the cache) */
+    private final int statementCacheSize;
+    /** Factory for the physical connections */
+    private final ConnectionFactory factory;
+
+    /** Permits bounding the total number of physical connections */
+    private final Semaphore permits;
+    /** Idle connections, most recently used first */
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    /** Connections currently lent to callers */
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    /** Background task for idle eviction and leak detection */
+    private final ScheduledExecutorService housekeeper;
+
+    /** Number of physical connections currently open */
+    private final AtomicLong totalConnections = new AtomicLong();
+    /** Number of successful acquisitions */
+    private final LongAdder acquireCount = new LongAdder();
+    /** Sum of acquisition latencies, in nanoseconds */
+    private final LongAdder acquireNanosTotal = new LongAdder();
+    /** Worst acquisition latency seen, in nanoseconds */
+    private final AtomicLong acquireNanosMax = new AtomicLong();
+    /** Number of acquisitions that timed out */
+    private final LongAdder timeoutCount = new LongAdder();
+    /** Number of physical connections created */
+    private final LongAdder createdCount = new LongAdder();
+    /** Number of connections discarded because validation failed */
+    private final LongAdder validationFailures = new LongAdder();
+    /** Number of connections reported as leaked */
+    private final LongAdder leakCount = new LongAdder();
+    /** Number of prepared statements served from the statement cache */
+    private final LongAdder statementCacheHits = new LongAdder();
+    /** Number of cacheable prepared statements that had to be prepared */
+    private final LongAdder statementCacheMisses = new LongAdder();
+    /** Number of cached statements closed to make room for others */
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    private volatile boolean closed;
+    private volatile PrintWriter logWriter;
+
+    /**
+     * Creates a pool that opens connections through {@link DriverManager}.
+     *
+     * @param url                          JDBC URL of the database
+     * @param user                         database user
+     * @param password                     database password
+     * @param maxSize                      maximum number of physical connections
+     * @param minIdle                      idle connections kept open by the eviction task
+     * @param acquireTimeoutMillis         maximum wait for a free connection
+     * @param idleTimeoutMillis            idle time after which extra connections are closed
+     * @param leakDetectionThresholdMillis borrow time after which a leak warning is logged (0 disables)
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long leakDetectionThresholdMillis) {
+        this(url, user, password, maxSize, minIdle, acquireTimeoutMillis, idleTimeoutMillis,
+                leakDetectionThresholdMillis, 0);
+    }
+
+    /**
+     * Creates a pool that opens connections through {@link DriverManager} and caches prepared statements.
+     *
+     * @param url                          JDBC URL of the database
+     * @param user                         database user
+     * @param password                     database password
+     * @param maxSize                      maximum number of physical connections
+     * @param minIdle                      idle connections kept open by the eviction task
+     * @param acquireTimeoutMillis         maximum wait for a free connection
+     * @param idleTimeoutMillis            idle time after which extra connections are closed
+     * @param leakDetectionThresholdMillis borrow time after which a leak warning is logged (0 disables)
+     * @param statementCacheSize           prepared statements cached per connection (0 disables the cache)
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long leakDetectionThresholdMillis,
+                          int statementCacheSize) {
+        this(() -> DriverManager.getConnection(url, user, password), maxSize, minIdle,
+                acquireTimeoutMillis, idleTimeoutMillis, leakDetectionThresholdMillis, statementCacheSize);
+    }
+
+    /**
+     * Creates a pool over a custom connection factory.
+     *
+     * @param factory                      factory for the physical connections
+     * @param maxSize                      maximum number of physical connections
+     * @param minIdle                      idle connections kept open by the eviction task
+     * @param acquireTimeoutMillis         maximum wait for a free connection
+     * @param idleTimeoutMillis            idle time after which extra connections are closed
+     * @param leakDetectionThresholdMillis borrow time after which a leak warning is logged (0 disables)
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long acquireTimeoutMillis,
+                          long idleTimeoutMillis, long leakDetectionThresholdMillis) {
+        this(factory, maxSize, minIdle, acquireTimeoutMillis, idleTimeoutMillis, leakDetectionThresholdMillis, 0);
+    }
+
+    /**
+     * Creates a pool over a custom connection factory that caches prepared statements.
+     *
+     * @param factory                      factory for the physical connections
+     * @param maxSize                      maximum number of physical connections
+     * @param minIdle                      idle connections kept open by the eviction task
+     * @param acquireTimeoutMillis         maximum wait for a free connection
+     * @param idleTimeoutMillis            idle time after which extra connections are closed
+     * @param leakDetectionThresholdMillis borrow time after which a leak warning is logged (0 disables)
+     * @param statementCacheSize           prepared statements cached per connection (0 disables the cache)
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long acquireTimeoutMillis,
+                          long idleTimeoutMillis, long leakDetectionThresholdMillis, int statementCacheSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+        if (minIdle < 0 || minIdle > maxSize) throw new IllegalArgumentException("minIdle must be between 0 and maxSize");
+        if (statementCacheSize < 0) throw new IllegalArgumentException("statementCacheSize must not be negative");
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "airflow-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle connection is available
+     * and the pool is below its maximum size.
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLTransientConnectionException if no connection becomes available within the acquire timeout
+     * @throws SQLException                    if a new connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMillis +
+                        " ms waiting for a database connection (active=" + getActiveConnections() +
+                        ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleValidConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create());
+                totalConnections.incrementAndGet();
+                createdCount.increment();
+            }
+            pooled.lend();
+            borrowed.add(pooled);
+            recordAcquire(System.nanoTime() - start);
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Not supported: the pool always uses the credentials it was configured with.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ConnectionPool uses its configured credentials");
+    }
+
+    /**
+     * Pops idle connections until one passes validation.
+     *
+     * @return a valid idle connection, or null if there is none
+     */
+    private PooledConnection takeIdleValidConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_INTERVAL_MILLIS || isValid(pooled)) {
+                return pooled;
+            }
+            validationFailures.increment();
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordAcquire(long nanos) {
+        acquireCount.increment();
+        acquireNanosTotal.add(nanos);
+        acquireNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns a connection to the idle list after resetting any per-session state the borrower changed.
+     * Connections that cannot be reset are closed.
+     */
+    private void giveBack(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed) {
+                destroy(pooled);
+                return;
+            }
+            try {
+                pooled.resetState();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } catch (SQLException e) {
+                destroy(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded anyway
+        }
+    }
+
+    /**
+     * Periodic maintenance: closes idle connections that exceeded the idle timeout while keeping
+     * {@link #minIdle} of them open, and reports borrowed connections held past the leak threshold.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        int keep = minIdle;
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext() && idle.size() > keep) {
+            PooledConnection pooled = iterator.next();
+            if (now - pooled.lastReturnedAt > idleTimeoutMillis && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        if (leakDetectionThresholdMillis > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMillis) {
+                    pooled.leakReported = true;
+                    leakCount.increment();
+                    report(leakReport(pooled, now - pooled.borrowedAt));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a warning of the pool to its log writer, as set with {@link #setLogWriter(PrintWriter)},
+     * or to the standard error stream when there is none.
+     */
+    private void report(String message) {
+        PrintWriter writer = logWriter;
+        if (writer != null) {
+            writer.println(message);
+            writer.flush();
+        } else {
+            System.err.println(message);
+        }
+    }
+
+    /**
+     * Describes a possible leak: how long the connection has been held, by which thread, and the stack of
+     * that thread when it borrowed the connection, without the frames of the pool itself.
+     */
+    private static String leakReport(PooledConnection pooled, long heldMillis) {
+        StringBuilder report = new StringBuilder("⚠ Possible connection leak: connection held for ")
+                .append(heldMillis).append(" ms by thread ").append(pooled.borrowerThread);
+        Throwable borrowSite = pooled.borrowSite;
+        if (borrowSite != null) {
+            report.append(", borrowed at:");
+            for (StackTraceElement frame : borrowSite.getStackTrace()) {
+                String className = frame.getClassName();
+                if (!className.equals(ConnectionPool.class.getName())
+                        && !className.startsWith(ConnectionPool.class.getName() + "$")) {
+                    report.append(System.lineSeparator()).append("\tat ").append(frame);
+                }
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping task.
+     * Borrowed connections are closed when their borrowers return them.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    // Metrics
+
+    /** @return the configured maximum number of connections */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of connections currently lent to callers */
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    /** @return the number of idle connections */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /** @return the number of open physical connections */
+    public long getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /** @return the number of threads waiting for a connection */
+    public int getPendingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /** @return the number of successful acquisitions */
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /** @return the mean acquisition latency in microseconds */
+    public double getAverageAcquireMicros() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0 : acquireNanosTotal.sum() / 1000.0 / count;
+    }
+
+    /** @return the worst acquisition latency in microseconds */
+    public double getMaxAcquireMicros() {
+        return acquireNanosMax.get() / 1000.0;
+    }
+
+    /** @return the number of acquisitions that timed out */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /** @return the number of physical connections created over the pool lifetime */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /** @return the number of idle connections discarded because they failed validation */
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    /** @return the number of borrowed connections reported as leaked */
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    /** @return the number of prepared statements cached per connection, 0 if the cache is disabled */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /** @return the number of prepared statements served from the statement cache */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /** @return the number of cacheable prepared statements that were not in the cache */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /** @return the number of cached statements closed because the cache was full */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.sum();
+    }
+
+    /** @return the fraction of cacheable prepared statements served from the cache, between 0 and 1 */
+    public double getStatementCacheHitRatio() {
+        long hits = statementCacheHits.sum();
+        long total = hits + statementCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, total=%d, max=%d, waiting=%d, " +
+                        "acquired=%d, avgAcquire=%.1fus, maxAcquire=%.1fus, timeouts=%d, leaks=%d, " +
+                        "statementHits=%.1f%%]",
+                getActiveConnections(), getIdleConnections(), getTotalConnections(), maxSize,
+                getPendingThreads(), getAcquireCount(), getAverageAcquireMicros(), getMaxAcquireMicros(),
+                getTimeoutCount(), getLeakCount(), getStatementCacheHitRatio() * 100);
+    }
+
+    // DataSource boilerplate
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection together with its borrow bookkeeping and the proxy handed to callers.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final AtomicBoolean lent = new AtomicBoolean();
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile String borrowerThread;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        /** Number of times the connection was lent; statements of an earlier loan can no longer be used */
+        private volatile int loan;
+        /** Idle cached statements by key, least recently used first */
+        private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        /** Cached statements handed out and not closed yet */
+        private final List<CachedStatement> openStatements = new ArrayList<>();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        private void lend() {
+            loan++;
+            lent.set(true);
+            leakReported = false;
+            borrowedAt = System.currentTimeMillis();
+            borrowerThread = Thread.currentThread().getName();
+            borrowSite = leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+        }
+
+        private void resetState() throws SQLException {
+            closeOpenStatements();
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) physical.setReadOnly(false);
+            physical.clearWarnings();
+        }
+
+        /**
+         * Whether a prepareStatement call can be served from the cache: only prepareStatement(sql) and
+         * prepareStatement(sql, autoGeneratedKeys) with a short enough SQL are.
+         */
+        private boolean isCacheable(Object[] args) {
+            return statementCacheSize > 0
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))
+                    && ((String) args[0]).length() <= MAX_CACHED_SQL_LENGTH;
+        }
+
+        /**
+         * Hands out the cached statement for a query, preparing it on the physical connection if it is not cached.
+         *
+         * @param sql               the query
+         * @param autoGeneratedKeys the generated keys flag, or null if it was not given
+         */
+        private PreparedStatement prepareCached(String sql, Integer autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + ":" + sql;
+            PreparedStatement statement;
+            synchronized (statements) {
+                statement = statements.remove(key);
+            }
+            if (statement != null) {
+                statementCacheHits.increment();
+            } else {
+                statementCacheMisses.increment();
+                statement = autoGeneratedKeys == null ? physical.prepareStatement(sql)
+                        : physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            CachedStatement cached = new CachedStatement(this, key, statement, loan);
+            synchronized (statements) {
+                openStatements.add(cached);
+            }
+            return cached.proxy;
+        }
+
+        /**
+         * Takes back a statement closed by its user, keeping it for the next caller unless its
+         * properties were changed or it cannot be reset. Evicts the least recently used statement
+         * when the cache is full.
+         */
+        private void recycle(CachedStatement cached) {
+            synchronized (statements) {
+                openStatements.remove(cached);
+            }
+            PreparedStatement statement = cached.statement;
+            if (cached.dirty || cached.loan != loan || !lent.get()) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                // Warnings are cleared by the next execution; the last result set is closed here as close() would
+                if (cached.resultSet != null) cached.resultSet.close();
+                statement.clearParameters();
+            } catch (SQLException e) {
+                closeQuietly(statement);
+                return;
+            }
+            PreparedStatement replaced;
+            PreparedStatement evicted = null;
+            synchronized (statements) {
+                replaced = statements.put(cached.key, statement);
+                if (statements.size() > statementCacheSize) {
+                    Iterator<PreparedStatement> eldest = statements.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+            if (replaced != null) closeQuietly(replaced);
+            if (evicted != null) {
+                statementCacheEvictions.increment();
+                closeQuietly(evicted);
+            }
+        }
+
+        /**
+         * Closes the cached statements the borrower left open, so the next borrower starts clean.
+         */
+        private void closeOpenStatements() {
+            List<CachedStatement> open;
+            synchronized (statements) {
+                if (openStatements.isEmpty()) return;
+                open = new ArrayList<>(openStatements);
+                openStatements.clear();
+            }
+            for (CachedStatement cached : open) {
+                cached.closed = true;
+                closeQuietly(cached.statement);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (lent.compareAndSet(true, false)) {
+                        giveBack(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !lent.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                case "unwrap":
+                case "isWrapperFor":
+                    break;
+                case "prepareStatement":
+                    if (!lent.get()) throw new SQLException("Connection has been returned to the pool");
+                    if (isCacheable(args)) {
+                        return prepareCached((String) args[0], args.length == 1 ? null : (Integer) args[1]);
+                    }
+                    break;
+                default:
+                    if (!lent.get()) throw new SQLException("Connection has been returned to the pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A prepared statement handed out from a connection's statement cache.
+     * Closing it gives it back to the cache instead of closing it on the server.
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        /** Constructor of the proxy class, looked up once instead of on every checkout */
+        private static final Constructor<?> STATEMENT_PROXY;
+
+        static {
+            try {
+                STATEMENT_PROXY = Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> null)
+                        .getClass().getConstructor(InvocationHandler.class);
+            } catch (NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final PooledConnection owner;
+        private final String key;
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        /** Loan of the connection the statement was handed out in */
+        private final int loan;
+        private volatile boolean closed;
+        /** Whether a property of the statement was changed, so it must not be reused */
+        private boolean dirty;
+        /** Last result set returned by the statement */
+        private ResultSet resultSet;
+
+        private CachedStatement(PooledConnection owner, String key, PreparedStatement statement, int loan) {
+            this.owner = owner;
+            this.key = key;
+            this.statement = statement;
+            this.loan = loan;
+            try {
+                this.proxy = (PreparedStatement) STATEMENT_PROXY.newInstance(this);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create a statement proxy", e);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        owner.recycle(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return owner.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + "]";
+                default:
+                    if (closed) throw new SQLException("Statement is closed");
+                    if (STATEMENT_PROPERTY_SETTERS.contains(name)) dirty = true;
+            }
+            try {
+                Object result = method.invoke(statement, args);
+                if (result instanceof ResultSet returned) resultSet = returned;
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is being discarded anyway
+        }
+    }
+}
@@ -1,62 +1,139 @@
 package org.airflow.reservations.utils;
 
-import org.airflow.reservations.DAO.*;
-import org.airflow.reservations.model.*;
-
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Year;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class for generating and inserting fake data into the database.
  * This class populates all tables with realistic test data to facilitate
  * development and testing of the AirFlow reservation system.
+ * <p>
+ * Rows are inserted with JDBC batches and explicit IDs, so no generated key has to be read back.
+ * Each table is split into partitions of consecutive IDs that are inserted in parallel on a pool of
+ * workers, each with its own connection. Every partition draws from its own Random, seeded from the
+ * configured seed and the partition number, so the same configuration always produces the same data
+ * whatever the number of threads.
+ * <p>
+ * The sizes, the seed and the parallelism are set on the command line, for example:
+ * {@code --users=100000 --flights=1000000 --reservations=5000000 --threads=8 --seed=7}.
+ * Run with {@code --help} for the full list.
+ * <p>
+ * With {@code --profile=NAME} the data follows a {@link ScaleProfile} instead: flights come from the
+ * rotations of every airplane over a hub-and-spoke network and reservations from booking curves, as
+ * described in {@link NetworkModel}. With {@code --csv=DIR} the rows are written to CSV files and a
+ * load script instead of the database.
  */
 public class DataGenerator {
-    /** Random number generator for creating varied test data */
-    private final Random random = new Random();
-    /** Database connection for data insertion operations */
-    private final Connection connection;
-
-    // DAOs
-    /** Data Access Object for user operations */
-    private final UsersDAO usersDAO;
-    /** Data Access Object for airplane operations */
-    private final AirplaneDAO airplaneDAO;
-    /** Data Access Object for city operations */
-    private final CityDAO cityDAO;
-    /** Data Access Object for flight operations */
-    private final FlightDAO flightDAO;
-    /** Data Access Object for reservation operations */
-    private final ReservationDAO reservationDAO;
-    /** Data Access Object for seat operations */
-    private final SeatDAO seatDAO;
-
-    // Lists to store generated entities for relationships
-    /** List of generated users for reference in other data generation */
-    private final ArrayList<User> users = new ArrayList<>();
-    /** List of generated airplanes for reference in flight generation */
-    private final ArrayList<Airplane> airplanes = new ArrayList<>();
-    /** List of generated cities for reference in flight generation */
-    private final ArrayList<City> cities = new ArrayList<>();
-    /** List of generated flights for reference in reservation generation */
-    private final ArrayList<Flight> flights = new ArrayList<>();
+    /** Rows per partition for the users, cities, flights and reservations */
+    static final int ROWS_PER_PARTITION = 10_000;
+    /** Airplanes per partition; each airplane inserts a few hundred seats */
+    static final int AIRPLANES_PER_PARTITION = 50;
+
+    /** Partitioned tables, used to derive the seed of each partition */
+    private static final int USERS = 1;
+    private static final int AIRPLANES = 2;
+    private static final int CITIES = 3;
+    private static final int FLIGHTS = 4;
+    private static final int RESERVATIONS = 5;
+
+    /** Columns written for every flight and reservation */
+    private static final String[] FLIGHT_COLUMNS = {"id_PK", "airplane_FK", "status_FK", "origin_city_FK",
+            "destination_city_FK", "code", "departure_time", "scheduled_arrival_time", "arrival_time", "price_base"};
+    private static final String[] RESERVATION_COLUMNS = {"id_PK", "user_FK", "status_FK", "flight_FK", "reserved_at"};
+
+    /** Names used for the users */
+    private static final String[] FIRST_NAMES = {"Juan", "María", "Carlos", "Ana", "Luis", "Sofia", "Miguel", "Laura", "Pedro", "Elena"};
+    private static final String[] LAST_NAMES = {"García", "Rodríguez", "López", "Martínez", "González", "Pérez", "Sánchez", "Fernández"};
+    /** Airlines and models used for the airplanes */
+    private static final String[] AIRLINES = {"Aeroméxico", "Volaris", "Interjet", "Viva Aerobus", "American Airlines", "Delta", "United", "Iberia"};
+    private static final String[] MODELS = {"Boeing 737", "Airbus A320", "Boeing 787", "Airbus A350", "Embraer E190", "Boeing 777"};
+    /** Real cities used first; further cities get generated names */
+    private static final String[][] CITY_DATA = {
+        {"Ciudad de México", "México", "MEX"},
+        {"Guadalajara", "México", "GDL"},
+        {"Monterrey", "México", "MTY"},
+        {"Cancún", "México", "CUN"},
+        {"Los Ángeles", "Estados Unidos", "LAX"},
+        {"Nueva York", "Estados Unidos", "JFK"},
+        {"Miami", "Estados Unidos", "MIA"},
+        {"Chicago", "Estados Unidos", "ORD"},
+        {"Toronto", "Canadá", "YYZ"},
+        {"Vancouver", "Canadá", "YVR"},
+        {"Madrid", "España", "MAD"},
+        {"Barcelona", "España", "BCN"},
+        {"París", "Francia", "CDG"},
+        {"Londres", "Reino Unido", "LHR"},
+        {"Roma", "Italia", "FCO"},
+        {"Amsterdam", "Países Bajos", "AMS"},
+        {"Berlín", "Alemania", "BER"},
+        {"Tokio", "Japón", "NRT"},
+        {"Sídney", "Australia", "SYD"},
+        {"Río de Janeiro", "Brasil", "GIG"},
+        {"Buenos Aires", "Argentina", "EZE"},
+        {"Lima", "Perú", "LIM"},
+        {"Bogotá", "Colombia", "BOG"},
+        {"Santiago", "Chile", "SCL"},
+        {"Dubai", "Emiratos Árabes Unidos", "DXB"},
+        {"Singapur", "Singapur", "SIN"},
+        {"Hong Kong", "China", "HKG"},
+        {"Johannesburgo", "Sudáfrica", "JNB"},
+        {"El Cairo", "Egipto", "CAI"},
+        {"Moscú", "Rusia", "SVO"}
+    };
+
+    /** The sizes and settings of the generated data */
+    private final Config config;
+    /** Progress and throughput of the table being generated */
+    private final Progress progress = new Progress();
+    /** Destination of the rows: the database or CSV files */
+    private RowOutput output;
+
+    // Generated data needed by later tables, indexed by ID - 1
+    /** Capacity of every airplane */
+    private int[] airplaneCapacities;
+    /** ID of the first seat of every airplane; the seats of an airplane have consecutive IDs */
+    private int[] airplaneFirstSeatIds;
+    /** Number of flights */
+    private int flightCount;
+    /** Airplane of every flight, when the flights are drawn at random */
+    private int[] flightAirplaneIds;
+    /** Departure of every flight, in minutes after the start of the schedule, when the flights are drawn at random */
+    private int[] flightDepartureMinutes;
+    /** Flights and demand of the profile, or null when the sizes are given directly */
+    private NetworkModel network;
 
     /**
-     * Constructor initializes connection and all required DAOs.
+     * Constructor that generates the default dataset: 20 users, 10 airplanes, 30 cities, 50 flights and 100 reservations.
+     */
+    public DataGenerator() {
+        this(new Config());
+    }
+
+    /**
+     * Constructor that generates the dataset described by a configuration.
      *
-     * @throws SQLException if there's an error connecting to the database or initializing DAOs
+     * @param config the sizes and settings of the generated data
      */
-    public DataGenerator() throws SQLException {
-        connection = ConnectionDB.getConnection();
-        usersDAO = new UsersDAO();
-        airplaneDAO = new AirplaneDAO();
-        cityDAO = new CityDAO();
-        flightDAO = new FlightDAO();
-        reservationDAO = new ReservationDAO();
-        seatDAO = new SeatDAO();
+    public DataGenerator(Config config) {
+        this.config = config;
     }
 
     /**
@@ -65,25 +142,55 @@ public class DataGenerator {
      * cleanup, reference data initialization, and main entity generation.
      */
     public void generateAllData() {
+        config.validate();
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(config.getThreads(), new DaemonThreadFactory("airflow-datagen-"));
         try {
-            // Clean up existing data if needed
-            cleanupDatabase();
+            output = config.getCsvDirectory() == null
+                    ? RowOutput.database(config.getBatchSize())
+                    : RowOutput.csv(config.getCsvDirectory(), config.getBatchSize());
+            if (output.isDatabase()) {
+                // Clean up existing data so the explicit IDs start at 1
+                cleanupDatabase();
+            }
 
             // Initialize reference data
-            initializeFlightStatus();
-            initializeReservationStatus();
+            initializeFlightStatus(workers);
+            initializeReservationStatus(workers);
 
             // Generate and insert main data
-            generateUsers(20);
-            generateAirplanes(10);
-            generateCities(30);
-            generateFlights(50);
-            generateReservationsAndSeats(100);
-
-            System.out.println("Data generation completed successfully!");
-        } catch (SQLException e) {
+            generateUsers(workers);
+            generateAirplanes(workers);
+            generateSeats(workers);
+            generateCities(workers);
+            if (config.getProfile() != null) {
+                planNetwork();
+                generateScheduledFlights(workers);
+            } else {
+                generateFlights(workers);
+            }
+            if (output.isDatabase()) {
+                // CSV files get the seat inventory with the reservations, see SeatAssigner
+                generateFlightSeats(workers);
+            }
+            if (config.getProfile() != null) {
+                generateScheduledReservations(workers);
+            } else {
+                generateReservationsAndSeats(workers);
+            }
+            output.complete();
+
+            System.out.printf("Data generation completed successfully! %,d rows in %.1f s%n",
+                    progress.getTotalRows(), (System.nanoTime() - start) / 1e9);
+            if (!output.isDatabase()) {
+                System.out.println("Load the files with " + config.getCsvDirectory().resolve(RowOutput.Csv.LOAD_SCRIPT));
+            }
+        } catch (SQLException | IOException e) {
             System.err.println("Error generating data: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            workers.shutdownNow();
+            progress.close();
         }
     }
 
@@ -91,11 +198,13 @@ public class DataGenerator {
      * Clean all tables in the database
      */
     private void cleanupDatabase() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = ConnectionDB.getConnection();
+             Statement stmt = connection.createStatement()) {
             // Disable foreign key checks to allow deletion
             stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
 
             // Delete data from all tables
+            stmt.execute("TRUNCATE TABLE flight_seats");
             stmt.execute("TRUNCATE TABLE seats");
             stmt.execute("TRUNCATE TABLE reservations");
             stmt.execute("TRUNCATE TABLE flights");
@@ -113,7 +222,7 @@ public class DataGenerator {
     /**
      * Initialize flight status reference data
      */
-    private void initializeFlightStatus() throws SQLException {
+    private void initializeFlightStatus(ExecutorService workers) throws SQLException, IOException {
         String[] statusNames = {"SCHEDULED", "DELAYED", "CANCELLED", "BOARDING", "IN_FLIGHT", "LANDED", "COMPLETED"};
         String[] descriptions = {
             "Flight is scheduled as planned",
@@ -125,22 +234,13 @@ public class DataGenerator {
             "Flight has completed all processes"
         };
 
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO flight_status (id_PK, name, description) VALUES (?, ?, ?)")) {
-
-            for (int i = 0; i < statusNames.length; i++) {
-                pstmt.setInt(1, i + 1);
-                pstmt.setString(2, statusNames[i]);
-                pstmt.setString(3, descriptions[i]);
-                pstmt.executeUpdate();
-            }
-        }
+        insertStatuses(workers, "flight_status", statusNames, descriptions);
     }
 
     /**
      * Initialize reservation status reference data
      */
-    private void initializeReservationStatus() throws SQLException {
+    private void initializeReservationStatus(ExecutorService workers) throws SQLException, IOException {
         String[] statusNames = {"CONFIRMED", "CANCELLED", "PENDING", "CHECKED_IN", "COMPLETED"};
         String[] descriptions = {
             "Reservation is confirmed",
@@ -150,368 +250,923 @@ public class DataGenerator {
             "Travel has been completed"
         };
 
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO reservations_status (id_PK, name, description) VALUES (?, ?, ?)")) {
+        insertStatuses(workers, "reservations_status", statusNames, descriptions);
+    }
 
+    /**
+     * Inserts the rows of a status table, with IDs starting at 1.
+     */
+    private void insertStatuses(ExecutorService workers, String table, String[] statusNames, String[] descriptions)
+            throws SQLException, IOException {
+        runPartitions(workers, table, 1, 1, statusNames.length, (out, partition, firstId, lastId) -> {
+            RowOutput.Table statuses = out.insert(table, "id_PK", "name", "description");
             for (int i = 0; i < statusNames.length; i++) {
-                pstmt.setInt(1, i + 1);
-                pstmt.setString(2, statusNames[i]);
-                pstmt.setString(3, descriptions[i]);
-                pstmt.executeUpdate();
+                statuses.row(i + 1, statusNames[i], descriptions[i]);
+                out.endRow();
             }
-        }
+        });
     }
 
     /**
-     * Generate fake users
+     * Generate fake users.
+     * All users share the password "password123"; it is hashed once, since BCrypt is deliberately slow.
      */
-    private void generateUsers(int count) throws SQLException {
-        String[] firstNames = {"Juan", "María", "Carlos", "Ana", "Luis", "Sofia", "Miguel", "Laura", "Pedro", "Elena"};
-        String[] lastNames = {"García", "Rodríguez", "López", "Martínez", "González", "Pérez", "Sánchez", "Fernández"};
-
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO users (name, last_name, email, password, isSuperUser, created_at) VALUES (?, ?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS)) {
-
-            for (int i = 0; i < count; i++) {
-                String firstName = firstNames[random.nextInt(firstNames.length)];
-                String lastName = lastNames[random.nextInt(lastNames.length)];
-                String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + random.nextInt(100) + "@example.com";
-
-                pstmt.setString(1, firstName);
-                pstmt.setString(2, lastName);
-                pstmt.setString(3, email);
-                pstmt.setString(4, PasswordUtils.hashPassword("password123")); // Usando hash para password
-                pstmt.setBoolean(5, random.nextInt(10) < 1); // 10% de probabilidad de ser superuser
-                pstmt.setTimestamp(6, new Timestamp(System.currentTimeMillis()));
-
-                pstmt.executeUpdate();
-
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        User user = new User();
-                        user.setId(generatedKeys.getInt(1));
-                        user.setName(firstName);
-                        user.setLastName(lastName);
-                        user.setEmail(email);
-                        users.add(user);
-                    }
-                }
+    private void generateUsers(ExecutorService workers) throws SQLException, IOException {
+        String password = PasswordUtils.hashPassword("password123");
+
+        runPartitions(workers, "users", config.getUsers(), ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            Random random = randomFor(USERS, partition);
+            RowOutput.Table users = out.insert("users",
+                    "id_PK", "name", "last_name", "email", "password", "isSuperUser", "created_at");
+            for (int id = firstId; id <= lastId; id++) {
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                // The ID keeps the emails unique
+                String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + id + "@example.com";
+
+                users.row(id, firstName, lastName, email, password,
+                        random.nextInt(10) < 1, // 10% de probabilidad de ser superuser
+                        config.getStartDate().atStartOfDay().minusDays(random.nextInt(365)));
+                out.endRow();
             }
+        });
+    }
+
+    /**
+     * Generate fake airplanes.
+     * The capacities are drawn first, so that the seat IDs of every airplane are known before any row is inserted.
+     */
+    private void generateAirplanes(ExecutorService workers) throws SQLException, IOException {
+        int count = config.getAirplanes();
+        airplaneCapacities = new int[count];
+        airplaneFirstSeatIds = new int[count];
+        Random capacities = randomFor(AIRPLANES, -1);
+        int nextSeatId = 1;
+        for (int i = 0; i < count; i++) {
+            airplaneCapacities[i] = 150 + capacities.nextInt(250);
+            airplaneFirstSeatIds[i] = nextSeatId;
+            nextSeatId += airplaneCapacities[i];
         }
 
-        System.out.println("Generated " + users.size() + " users");
+        runPartitions(workers, "airplanes", count, ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            Random random = randomFor(AIRPLANES, partition);
+            RowOutput.Table airplanes = out.insert("airplanes", "id_PK", "airline", "model", "code", "capacity", "year");
+            for (int id = firstId; id <= lastId; id++) {
+                airplanes.row(id,
+                        AIRLINES[random.nextInt(AIRLINES.length)],
+                        MODELS[random.nextInt(MODELS.length)],
+                        "AC" + id,
+                        airplaneCapacities[id - 1],
+                        2000 + random.nextInt(23)); // Entre 2000 y 2022
+                out.endRow();
+            }
+        });
     }
 
     /**
-     * Generate fake airplanes
+     * Generate the seats of every airplane: a tenth in first class, a fifth in business and the rest in economy.
      */
-    private void generateAirplanes(int count) throws SQLException {
-        String[] airlines = {"Aeroméxico", "Volaris", "Interjet", "Viva Aerobus", "American Airlines", "Delta", "United", "Iberia"};
-        String[] models = {"Boeing 737", "Airbus A320", "Boeing 787", "Airbus A350", "Embraer E190", "Boeing 777"};
-
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO airplanes (airline, model, code, capacity, year) VALUES (?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS)) {
-
-            for (int i = 0; i < count; i++) {
-                String airline = airlines[random.nextInt(airlines.length)];
-                String model = models[random.nextInt(models.length)];
-                String code = "AC" + (1000 + random.nextInt(9000));
-                int capacity = 150 + random.nextInt(250);
-                int year = 2000 + random.nextInt(23); // Entre 2000 y 2022
-
-                pstmt.setString(1, airline);
-                pstmt.setString(2, model);
-                pstmt.setString(3, code);
-                pstmt.setInt(4, capacity);
-                pstmt.setInt(5, year);
+    private void generateSeats(ExecutorService workers) throws SQLException, IOException {
+        long seatCount = 0;
+        for (int capacity : airplaneCapacities) {
+            seatCount += capacity;
+        }
 
-                pstmt.executeUpdate();
+        runPartitions(workers, "seats", config.getAirplanes(), AIRPLANES_PER_PARTITION, seatCount, (out, partition, firstId, lastId) -> {
+            RowOutput.Table seats = out.insert("seats", "id_PK", "airplane_FK", "seat_number", "seat_class", "is_window");
+            for (int airplaneId = firstId; airplaneId <= lastId; airplaneId++) {
+                int capacity = airplaneCapacities[airplaneId - 1];
+                int seatId = airplaneFirstSeatIds[airplaneId - 1];
+                int firstClassSeats = capacity / 10;
+                int businessSeats = capacity / 5;
+                int economySeats = capacity - firstClassSeats - businessSeats;
+
+                // First class seats
+                for (int i = 1; i <= firstClassSeats; i++) {
+                    seats.row(seatId++, airplaneId, "F" + i, "FIRST", i % 2 == 0);
+                    out.endRow();
+                }
 
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        Airplane airplane = new Airplane();
-                        airplane.setId(generatedKeys.getInt(1));
-                        airplane.setAirline(airline);
-                        airplane.setModel(model);
-                        airplane.setCode(code);
-                        airplane.setCapacity(capacity);
-                        airplane.setYear(Year.of(year));
-                        airplanes.add(airplane);
-
-                        // Generate seats for this airplane
-                        generateSeatsForAirplane(airplane);
-                    }
+                // Business class seats
+                for (int i = 1; i <= businessSeats; i++) {
+                    seats.row(seatId++, airplaneId, "B" + i, "BUSINESS", i % 3 == 0);
+                    out.endRow();
+                }
+
+                // Economy class seats
+                for (int i = 1; i <= economySeats; i++) {
+                    seats.row(seatId++, airplaneId, "E" + i, "ECONOMY", i % 6 == 0 || i % 6 == 5);
+                    out.endRow();
+                }
+            }
+        });
+    }
+
+    /**
+     * Generate fake cities.
+     * The first cities are real ones; the rest get generated names and codes.
+     */
+    private void generateCities(ExecutorService workers) throws SQLException, IOException {
+        runPartitions(workers, "cities", config.getCities(), ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            Random random = randomFor(CITIES, partition);
+            RowOutput.Table cities = out.insert("cities", "id_PK", "name", "country", "code");
+            for (int id = firstId; id <= lastId; id++) {
+                if (id <= CITY_DATA.length) {
+                    cities.row(id, CITY_DATA[id - 1][0], CITY_DATA[id - 1][1], cityCode(id));
+                } else {
+                    cities.row(id, "Ciudad " + id, CITY_DATA[random.nextInt(CITY_DATA.length)][1], cityCode(id));
                 }
+                out.endRow();
             }
+        });
+    }
+
+    /**
+     * Returns the three-letter code of a city.
+     *
+     * @param cityId the ID of the city
+     * @return the code of a real city, or a code derived from the ID for a generated one
+     */
+    static String cityCode(int cityId) {
+        if (cityId <= CITY_DATA.length) {
+            return CITY_DATA[cityId - 1][2];
         }
+        int n = cityId % (26 * 26 * 26);
+        return "" + (char) ('A' + n / (26 * 26)) + (char) ('A' + n / 26 % 26) + (char) ('A' + n % 26);
+    }
 
-        System.out.println("Generated " + airplanes.size() + " airplanes with seats");
+    /**
+     * Returns the code of a flight: the codes of its cities followed by its four-digit number on the route,
+     * such as MEXSVO0001. Codes fit the ten characters of the code column and differ for every flight
+     * of a route.
+     *
+     * @param originId      the ID of the origin city
+     * @param destinationId the ID of the destination city
+     * @param flightNumber  the number of the flight on its route, between 1 and 9999
+     * @return the flight code
+     * @throws IllegalArgumentException if the flight number does not fit in four digits
+     */
+    static String flightCode(int originId, int destinationId, int flightNumber) {
+        if (flightNumber < 1 || flightNumber > 9999) {
+            throw new IllegalArgumentException("Flight number " + flightNumber + " of route "
+                    + cityCode(originId) + "-" + cityCode(destinationId) + " does not fit in four digits");
+        }
+        return cityCode(originId) + cityCode(destinationId) + Integer.toString(10_000 + flightNumber).substring(1);
     }
 
     /**
-     * Generate seats for an airplane
+     * Generate fake flights departing between the start date and the end of the configured number of days.
      */
-    private void generateSeatsForAirplane(Airplane airplane) throws SQLException {
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO seats (airplane_FK, seat_number, seat_class, is_window) VALUES (?, ?, ?, ?)")) {
-
-            int firstClassSeats = airplane.getCapacity() / 10;
-            int businessSeats = airplane.getCapacity() / 5;
-            int economySeats = airplane.getCapacity() - firstClassSeats - businessSeats;
-
-            // First class seats
-            for (int i = 1; i <= firstClassSeats; i++) {
-                String seatNumber = "F" + i;
-                pstmt.setInt(1, airplane.getId());
-                pstmt.setString(2, seatNumber);
-                pstmt.setString(3, "FIRST");
-                pstmt.setBoolean(4, i % 2 == 0);
-                pstmt.executeUpdate();
+    private void generateFlights(ExecutorService workers) throws SQLException, IOException {
+        flightCount = config.getFlights();
+        flightAirplaneIds = new int[flightCount];
+        flightDepartureMinutes = new int[flightCount];
+        LocalDateTime scheduleStart = config.getStartDate().atStartOfDay();
+        int scheduleMinutes = config.getDays() * 24 * 60;
+
+        runPartitions(workers, "flights", flightCount, ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            Random random = randomFor(FLIGHTS, partition);
+            RowOutput.Table flights = out.insert("flights", FLIGHT_COLUMNS);
+            for (int id = firstId; id <= lastId; id++) {
+                int airplaneId = 1 + random.nextInt(config.getAirplanes());
+
+                // Ensure origin and destination are different
+                int originId = 1 + random.nextInt(config.getCities());
+                int destinationId = 1 + random.nextInt(config.getCities() - 1);
+                if (destinationId >= originId) {
+                    destinationId++;
+                }
+
+                // Generate flight code
+                String flightCode = cityCode(originId) + cityCode(destinationId) + (100 + random.nextInt(900));
+
+                // Generate random flight status (1-7)
+                int statusId = 1 + random.nextInt(7);
+
+                // Departure within the schedule, flight duration between 1 and 13 hours
+                int departureMinute = random.nextInt(scheduleMinutes);
+                LocalDateTime departureTime = scheduleStart.plusMinutes(departureMinute);
+                LocalDateTime scheduledArrivalTime = departureTime.plusMinutes(60 + random.nextInt(12 * 60));
+
+                // For actual arrival time, add some randomness for realism (some flights arrive early, some late)
+                LocalDateTime arrivalTime = scheduledArrivalTime.plusMinutes(random.nextInt(61) - 30);
+
+                flights.row(id, airplaneId, statusId, originId, destinationId, flightCode,
+                        departureTime, scheduledArrivalTime, arrivalTime,
+                        (float) (100 + random.nextInt(900))); // Base price between $100 and $1000
+                out.endRow();
+
+                flightAirplaneIds[id - 1] = airplaneId;
+                flightDepartureMinutes[id - 1] = departureMinute;
             }
+        });
+    }
 
-            // Business class seats
-            for (int i = 1; i <= businessSeats; i++) {
-                String seatNumber = "B" + i;
-                pstmt.setInt(1, airplane.getId());
-                pstmt.setString(2, seatNumber);
-                pstmt.setString(3, "BUSINESS");
-                pstmt.setBoolean(4, i % 3 == 0);
-                pstmt.executeUpdate();
+    /**
+     * Plans the flights and the demand of the profile.
+     */
+    private void planNetwork() {
+        long start = System.nanoTime();
+        network = new NetworkModel(config.getProfile(), config.getSeed(), config.getCities(), airplaneCapacities,
+                config.getDays(), config.getStartDate().getDayOfWeek());
+        flightCount = network.getFlightCount();
+        System.out.printf("Planned %,d flights between %d hubs and %d spokes, with %,d reservations, in %.1f s%n",
+                flightCount, network.getHubCount(), config.getCities() - network.getHubCount(),
+                network.getTotalReservations(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Generate the flights planned by the network model.
+     * Delayed flights arrive well after their scheduled arrival, the rest within a few minutes of it.
+     */
+    private void generateScheduledFlights(ExecutorService workers) throws SQLException, IOException {
+        LocalDateTime scheduleStart = config.getStartDate().atStartOfDay();
+
+        runPartitions(workers, "flights", flightCount, ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            Random random = randomFor(FLIGHTS, partition);
+            RowOutput.Table flights = out.insert("flights", FLIGHT_COLUMNS);
+            for (int id = firstId; id <= lastId; id++) {
+                int statusId = network.getStatusId(id);
+                LocalDateTime departureTime = scheduleStart.plusMinutes(network.getDepartureMinute(id));
+                LocalDateTime scheduledArrivalTime = departureTime.plusMinutes(network.getDurationMinutes(id));
+                LocalDateTime arrivalTime = scheduledArrivalTime.plusMinutes(statusId == NetworkModel.FLIGHT_DELAYED
+                        ? 30 + random.nextInt(120)
+                        : random.nextInt(31) - 10);
+
+                flights.row(id, network.getAirplaneId(id), statusId, network.getOriginId(id), network.getDestinationId(id),
+                        flightCode(network.getOriginId(id), network.getDestinationId(id), network.getFlightNumber(id)),
+                        departureTime, scheduledArrivalTime, arrivalTime, (float) network.getPrice(id));
+                out.endRow();
             }
+        });
+    }
 
-            // Economy class seats
-            for (int i = 1; i <= economySeats; i++) {
-                String seatNumber = "E" + i;
-                pstmt.setInt(1, airplane.getId());
-                pstmt.setString(2, seatNumber);
-                pstmt.setString(3, "ECONOMY");
-                pstmt.setBoolean(4, i % 6 == 0 || i % 6 == 5);
+    /**
+     * Generate the seat inventory of every flight from the seats of its airplane.
+     * The rows are copied by the database, one range of flights at a time.
+     */
+    private void generateFlightSeats(ExecutorService workers) throws SQLException, IOException {
+        runPartitions(workers, "flight seat inventories", flightCount, ROWS_PER_PARTITION, (out, partition, firstId, lastId) -> {
+            try (PreparedStatement pstmt = out.getConnection().prepareStatement(
+                    "INSERT INTO flight_seats (flight_FK, seat_FK) " +
+                    "SELECT f.id_PK, s.id_PK FROM flights f JOIN seats s ON s.airplane_FK = f.airplane_FK " +
+                    "WHERE f.id_PK BETWEEN ? AND ?")) {
+                pstmt.setInt(1, firstId);
+                pstmt.setInt(2, lastId);
                 pstmt.executeUpdate();
+                out.getConnection().commit();
+                progress.add(lastId - firstId + 1);
             }
-        }
+        });
     }
 
     /**
-     * Generate fake cities
+     * Generate fake reservations and assign seats on the reserved flight.
+     * Reservations are partitioned by flight, so each partition hands out the free seats of its own flights
+     * from memory, in seat order, without querying the database.
      */
-    private void generateCities(int count) throws SQLException {
-        String[][] cityData = {
-            {"Ciudad de México", "México", "MEX"},
-            {"Guadalajara", "México", "GDL"},
-            {"Monterrey", "México", "MTY"},
-            {"Cancún", "México", "CUN"},
-            {"Los Ángeles", "Estados Unidos", "LAX"},
-            {"Nueva York", "Estados Unidos", "JFK"},
-            {"Miami", "Estados Unidos", "MIA"},
-            {"Chicago", "Estados Unidos", "ORD"},
-            {"Toronto", "Canadá", "YYZ"},
-            {"Vancouver", "Canadá", "YVR"},
-            {"Madrid", "España", "MAD"},
-            {"Barcelona", "España", "BCN"},
-            {"París", "Francia", "CDG"},
-            {"Londres", "Reino Unido", "LHR"},
-            {"Roma", "Italia", "FCO"},
-            {"Amsterdam", "Países Bajos", "AMS"},
-            {"Berlín", "Alemania", "BER"},
-            {"Tokio", "Japón", "NRT"},
-            {"Sídney", "Australia", "SYD"},
-            {"Río de Janeiro", "Brasil", "GIG"},
-            {"Buenos Aires", "Argentina", "EZE"},
-            {"Lima", "Perú", "LIM"},
-            {"Bogotá", "Colombia", "BOG"},
-            {"Santiago", "Chile", "SCL"},
-            {"Dubai", "Emiratos Árabes Unidos", "DXB"},
-            {"Singapur", "Singapur", "SIN"},
-            {"Hong Kong", "China", "HKG"},
-            {"Johannesburgo", "Sudáfrica", "JNB"},
-            {"El Cairo", "Egipto", "CAI"},
-            {"Moscú", "Rusia", "SVO"}
-        };
+    private void generateReservationsAndSeats(ExecutorService workers) throws SQLException, IOException {
+        long count = config.getReservations();
+        LocalDateTime scheduleStart = config.getStartDate().atStartOfDay();
+
+        // Every range of flights gets its share of the reservations and the matching range of reservation IDs
+        runPartitions(workers, "reservations", flightCount, ROWS_PER_PARTITION, count, (out, partition, firstFlightId, lastFlightId) -> {
+            Random random = randomFor(RESERVATIONS, partition);
+            int firstReservationId = (int) (count * (firstFlightId - 1) / flightCount) + 1;
+            int lastReservationId = (int) (count * lastFlightId / flightCount);
+            int flights = lastFlightId - firstFlightId + 1;
+
+            // Reservations are opened first, so they are flushed before the seat assignments that reference them
+            RowOutput.Table reservations = out.insert("reservations", RESERVATION_COLUMNS);
+            SeatAssigner seats = new SeatAssigner(out, firstFlightId, lastFlightId);
+            for (int id = firstReservationId; id <= lastReservationId; id++) {
+                int flightId = firstFlightId + random.nextInt(flights);
+                int userId = 1 + random.nextInt(config.getUsers());
 
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO cities (name, country, code) VALUES (?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS)) {
+                // Random reservation status (1-5)
+                int statusId = 1 + random.nextInt(5);
 
-            for (int i = 0; i < Math.min(count, cityData.length); i++) {
-                pstmt.setString(1, cityData[i][0]);
-                pstmt.setString(2, cityData[i][1]);
-                pstmt.setString(3, cityData[i][2]);
+                // Reservation time (before departure time)
+                LocalDateTime departureTime = scheduleStart.plusMinutes(flightDepartureMinutes[flightId - 1]);
+                LocalDateTime reservationTime = departureTime.minusDays(1 + random.nextInt(30));
 
-                pstmt.executeUpdate();
+                reservations.row(id, userId, statusId, flightId, reservationTime);
+                // Assign the next free seat of the flight, if any is left
+                seats.assign(flightId, id);
+                out.endRow();
+            }
+            out.flush();
+            seats.writeInventory();
+        });
+    }
 
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        City city = new City();
-                        city.setId(generatedKeys.getInt(1));
-                        city.setName(cityData[i][0]);
-                        city.setCountry(cityData[i][1]);
-                        city.setCode(cityData[i][2]);
-                        cities.add(city);
+    /**
+     * Generate the reservations of the flights planned by the network model, with their booking times and seats.
+     * Reservations of a flight have consecutive IDs. Bookings beyond the capacity of a hot flight get no seat:
+     * they stay pending, or are cancelled once the flight has flown.
+     */
+    private void generateScheduledReservations(ExecutorService workers) throws SQLException, IOException {
+        LocalDateTime scheduleStart = config.getStartDate().atStartOfDay();
+
+        runPartitions(workers, "reservations", flightCount, ROWS_PER_PARTITION, network.getTotalReservations(), (out, partition, firstFlightId, lastFlightId) -> {
+            Random random = randomFor(RESERVATIONS, partition);
+            RowOutput.Table reservations = out.insert("reservations", RESERVATION_COLUMNS);
+            SeatAssigner seats = new SeatAssigner(out, firstFlightId, lastFlightId);
+            for (int flightId = firstFlightId; flightId <= lastFlightId; flightId++) {
+                int firstId = network.getFirstReservationId(flightId);
+                int lastId = firstId + network.getReservationCount(flightId) - 1;
+                for (int id = firstId; id <= lastId; id++) {
+                    int statusId = network.drawReservationStatus(flightId, random);
+                    LocalDateTime reservedAt = scheduleStart.plusMinutes(network.drawBookingMinute(flightId, random));
+                    int userId = NetworkModel.drawUser(config.getUsers(), random);
+
+                    // The seat assignment is batched after the reservation, whatever order they are added in
+                    if (statusId != NetworkModel.RESERVATION_CANCELLED && !seats.assign(flightId, id)) {
+                        statusId = statusId == NetworkModel.RESERVATION_COMPLETED
+                                ? NetworkModel.RESERVATION_CANCELLED
+                                : NetworkModel.RESERVATION_PENDING;
                     }
+                    reservations.row(id, userId, statusId, flightId, reservedAt);
+                    out.endRow();
                 }
             }
-        }
+            out.flush();
+            seats.writeInventory();
+        });
+    }
 
-        System.out.println("Generated " + cities.size() + " cities");
+    /**
+     * Returns the airplane of a flight.
+     *
+     * @param flightId the ID of the flight
+     * @return the ID of the airplane
+     */
+    private int airplaneOf(int flightId) {
+        return network != null ? network.getAirplaneId(flightId) : flightAirplaneIds[flightId - 1];
     }
 
     /**
-     * Generate fake flights
+     * Returns the random number generator of one partition of a table.
+     * It only depends on the seed, the table and the partition number.
+     *
+     * @param table     the table
+     * @param partition the partition number
+     * @return the random number generator
      */
-    private void generateFlights(int count) throws SQLException {
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO flights (airplane_FK, status_FK, origin_city_FK, destination_city_FK, code, " +
-                "departure_time, scheduled_arrival_time, arrival_time, price_base) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS)) {
+    private Random randomFor(int table, int partition) {
+        return random(config.getSeed(), table, partition);
+    }
 
-            for (int i = 0; i < count; i++) {
-                Airplane airplane = airplanes.get(random.nextInt(airplanes.size()));
+    /**
+     * Returns the random number generator of one partition of a random stream.
+     *
+     * @param seed      the configured seed
+     * @param stream    the stream, such as a table
+     * @param partition the partition number
+     * @return the random number generator
+     */
+    static Random random(long seed, int stream, int partition) {
+        long mixed = seed * 0x9E3779B97F4A7C15L + stream * 0xC2B2AE3D27D4EB4FL + partition;
+        return new Random(mixed ^ (mixed >>> 31));
+    }
 
-                // Ensure origin and destination are different
-                int originIndex = random.nextInt(cities.size());
-                int destIndex;
-                do {
-                    destIndex = random.nextInt(cities.size());
-                } while (destIndex == originIndex);
+    /**
+     * Inserts the rows of a table in parallel, one partition of consecutive IDs per task.
+     * Each task writes to its own partition of the output: with the database, its own pooled connection
+     * in a transaction committed after every batch.
+     *
+     * @param workers       the pool running the tasks
+     * @param table         the name of the table, for the progress report
+     * @param count         the number of IDs to generate, starting at 1
+     * @param partitionSize the number of IDs per partition
+     * @param task          the task that inserts one partition
+     * @throws SQLException if a partition fails; the other partitions are cancelled
+     * @throws IOException  if a partition cannot write its files; the other partitions are cancelled
+     */
+    private void runPartitions(ExecutorService workers, String table, int count, int partitionSize,
+                               PartitionTask task) throws SQLException, IOException {
+        runPartitions(workers, table, count, partitionSize, count, task);
+    }
 
-                City origin = cities.get(originIndex);
-                City destination = cities.get(destIndex);
+    /**
+     * Inserts the rows of a table in parallel, one partition of consecutive IDs per task,
+     * when the number of rows differs from the number of IDs partitioned.
+     *
+     * @param workers       the pool running the tasks
+     * @param table         the name of the table, for the progress report
+     * @param count         the number of IDs to partition, starting at 1
+     * @param partitionSize the number of IDs per partition
+     * @param expectedRows  the number of rows the partitions insert, for the progress report
+     * @param task          the task that inserts one partition
+     * @throws SQLException if a partition fails; the other partitions are cancelled
+     * @throws IOException  if a partition cannot write its files; the other partitions are cancelled
+     */
+    private void runPartitions(ExecutorService workers, String table, int count, int partitionSize, long expectedRows,
+                               PartitionTask task) throws SQLException, IOException {
+        progress.start(table, expectedRows);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int firstId = 1; firstId <= count; firstId += partitionSize) {
+            int partition = (firstId - 1) / partitionSize;
+            int first = firstId;
+            int last = Math.min(count, firstId + partitionSize - 1);
+            futures.add(workers.submit(() -> {
+                // Rows not flushed when a task fails are discarded on close
+                try (RowOutput.Partition out = output.open(partition, progress::add)) {
+                    task.run(out, partition, first, last);
+                    out.flush();
+                }
+                return null;
+            }));
+        }
 
-                // Generate flight code
-                String flightCode = origin.getCode() + destination.getCode() + (100 + random.nextInt(900));
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException("Error generating " + table + ": " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while generating " + table, e);
+        }
+        progress.finish();
+    }
 
-                // Generate random flight status (1-7)
-                int statusId = 1 + random.nextInt(7);
+    /**
+     * Inserts one partition of a table.
+     */
+    @FunctionalInterface
+    private interface PartitionTask {
+        /**
+         * Inserts the rows with IDs from firstId to lastId.
+         *
+         * @param out       the output of the partition
+         * @param partition the partition number
+         * @param firstId   the first ID of the partition
+         * @param lastId    the last ID of the partition
+         * @throws SQLException if a database access error occurs
+         * @throws IOException  if a file cannot be written
+         */
+        void run(RowOutput.Partition out, int partition, int firstId, int lastId) throws SQLException, IOException;
+    }
 
-                // Generate departure time (between now and 6 months in the future)
-                LocalDateTime now = LocalDateTime.now();
-                LocalDateTime departureTime = now.plusDays(random.nextInt(180));
-                departureTime = departureTime.withHour(random.nextInt(24)).withMinute(random.nextInt(60));
+    /**
+     * Hands out the free seats of the flights of one partition, in seat order, from memory.
+     * With the database every assignment is a batched UPDATE of the inventory copied before; with CSV files
+     * the assignments are kept until {@link #writeInventory()} writes the whole inventory of the flights.
+     */
+    private final class SeatAssigner {
+        /** The output of the partition */
+        private final RowOutput.Partition out;
+        /** The first flight of the partition */
+        private final int firstFlightId;
+        /** Seats taken on every flight of the partition */
+        private final int[] taken;
+        /** Seat assignments, when writing to the database */
+        private final RowOutput.Table updates;
+        /** Reservations holding the taken seats of every flight, in seat order, when writing CSV files */
+        private final int[][] holders;
+
+        /**
+         * Constructor for SeatAssigner. With the database, it must be created after the reservations are opened,
+         * so that the assignments are flushed after the reservations they reference.
+         *
+         * @param out           the output of the partition
+         * @param firstFlightId the first flight of the partition
+         * @param lastFlightId  the last flight of the partition
+         */
+        private SeatAssigner(RowOutput.Partition out, int firstFlightId, int lastFlightId) throws SQLException {
+            this.out = out;
+            this.firstFlightId = firstFlightId;
+            this.taken = new int[lastFlightId - firstFlightId + 1];
+            this.updates = output.isDatabase()
+                    ? out.statement("UPDATE flight_seats SET reservation_FK = ? WHERE flight_FK = ? AND seat_FK = ? AND reservation_FK IS NULL")
+                    : null;
+            this.holders = output.isDatabase() ? null : new int[taken.length][];
+        }
 
-                // Flight duration between 1 and 12 hours
-                int durationHours = 1 + random.nextInt(12);
-                int durationMinutes = random.nextInt(60);
+        /**
+         * Assigns the next free seat of a flight to a reservation.
+         *
+         * @param flightId      the ID of the flight
+         * @param reservationId the ID of the reservation
+         * @return true if a seat was assigned, false if the flight is full
+         */
+        private boolean assign(int flightId, int reservationId) throws SQLException, IOException {
+            int index = flightId - firstFlightId;
+            int airplaneIndex = airplaneOf(flightId) - 1;
+            int capacity = airplaneCapacities[airplaneIndex];
+            int seat = taken[index];
+            if (seat >= capacity) {
+                return false;
+            }
+            taken[index] = seat + 1;
+            if (updates != null) {
+                updates.row(reservationId, flightId, airplaneFirstSeatIds[airplaneIndex] + seat);
+            } else {
+                if (holders[index] == null) {
+                    holders[index] = new int[Math.min(16, capacity)];
+                } else if (seat == holders[index].length) {
+                    holders[index] = Arrays.copyOf(holders[index], Math.min(seat * 2, capacity));
+                }
+                holders[index][seat] = reservationId;
+            }
+            return true;
+        }
 
-                // Calculate scheduled arrival time
-                LocalDateTime scheduledArrivalTime = departureTime.plusHours(durationHours).plusMinutes(durationMinutes);
+        /**
+         * Writes the seat inventory of every flight of the partition, with the reservation holding each seat.
+         * Does nothing with the database, where the inventory was copied before the reservations.
+         */
+        private void writeInventory() throws SQLException, IOException {
+            if (holders == null) {
+                return;
+            }
+            RowOutput.Table inventory = out.insert("flight_seats", "flight_FK", "seat_FK", "reservation_FK");
+            for (int index = 0; index < taken.length; index++) {
+                int flightId = firstFlightId + index;
+                int airplaneIndex = airplaneOf(flightId) - 1;
+                int firstSeatId = airplaneFirstSeatIds[airplaneIndex];
+                for (int seat = 0; seat < airplaneCapacities[airplaneIndex]; seat++) {
+                    inventory.row(flightId, firstSeatId + seat, seat < taken[index] ? holders[index][seat] : null);
+                }
+            }
+        }
+    }
 
-                // For actual arrival time, add some randomness for realism (some flights arrive early, some late)
-                int arrivalOffset = random.nextInt(61) - 30; // Between -30 and +30 minutes
-                LocalDateTime arrivalTime = scheduledArrivalTime.plusMinutes(arrivalOffset);
-
-                // Convert to java.sql.Timestamp
-                Timestamp departureTimestamp = Timestamp.valueOf(departureTime);
-                Timestamp scheduledArrivalTimestamp = Timestamp.valueOf(scheduledArrivalTime);
-                Timestamp arrivalTimestamp = Timestamp.valueOf(arrivalTime);
-
-                // Base price between $100 and $1000
-                float basePrice = (100 + random.nextInt(900));
-
-                pstmt.setInt(1, airplane.getId());
-                pstmt.setInt(2, statusId);
-                pstmt.setInt(3, origin.getId());
-                pstmt.setInt(4, destination.getId());
-                pstmt.setString(5, flightCode);
-                pstmt.setTimestamp(6, departureTimestamp);
-                pstmt.setTimestamp(7, scheduledArrivalTimestamp);
-                pstmt.setTimestamp(8, arrivalTimestamp);
-                pstmt.setFloat(9, basePrice);
+    /**
+     * Progress and throughput report of the table being generated, printed every few seconds.
+     */
+    private static final class Progress {
+        /** Seconds between two progress lines */
+        private static final long REPORT_INTERVAL_SECONDS = 5;
+
+        /** Thread printing the progress lines */
+        private final ScheduledExecutorService reporter =
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("airflow-datagen-progress-"));
+        /** Rows generated for the current table */
+        private final AtomicLong rows = new AtomicLong();
+        /** Rows generated for all the tables */
+        private final AtomicLong totalRows = new AtomicLong();
+        /** Name of the current table */
+        private volatile String table;
+        /** Rows to generate for the current table */
+        private volatile long expected;
+        /** When the current table started, from System.nanoTime() */
+        private volatile long startNanos;
+        /** Scheduled progress lines of the current table */
+        private ScheduledFuture<?> report;
+
+        /**
+         * Starts reporting a table.
+         */
+        private synchronized void start(String table, long expected) {
+            this.table = table;
+            this.expected = expected;
+            this.startNanos = System.nanoTime();
+            rows.set(0);
+            report = reporter.scheduleAtFixedRate(this::print, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
 
-                pstmt.executeUpdate();
+        /**
+         * Counts generated rows.
+         */
+        private void add(long count) {
+            rows.addAndGet(count);
+            totalRows.addAndGet(count);
+        }
 
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        Flight flight = new Flight();
-                        flight.setId(generatedKeys.getInt(1));
-                        flight.setAirplane_FK(airplane.getId());
-                        flight.setStatus_FK(statusId);
-                        flight.setOrigin_city_FK(origin.getId());
-                        flight.setDestination_city_FK(destination.getId());
-                        flight.setCode(flightCode);
-                        flight.setDeparture_time(departureTimestamp.toLocalDateTime());
-                        flight.setScheduled_arrival_time(scheduledArrivalTimestamp.toLocalDateTime());
-                        flight.setArrival_time(arrivalTimestamp.toLocalDateTime());
-                        flight.setPrice_base(basePrice);
-                        flights.add(flight);
-                    }
-                }
-            }
+        /**
+         * Stops reporting the current table and prints its totals.
+         */
+        private synchronized void finish() {
+            report.cancel(false);
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+            System.out.printf("Generated %,d %s in %.1f s (%,.0f rows/s)%n", rows.get(), table, seconds, rows.get() / seconds);
+        }
+
+        /**
+         * Prints the progress of the current table.
+         */
+        private void print() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            System.out.printf("  %s: %,d of %,d (%.0f%%, %,.0f rows/s)%n", table, rows.get(), expected,
+                    expected == 0 ? 100.0 : 100.0 * rows.get() / expected, rows.get() / seconds);
+        }
+
+        /**
+         * Returns the rows generated for all the tables.
+         */
+        private long getTotalRows() {
+            return totalRows.get();
         }
 
-        System.out.println("Generated " + flights.size() + " flights");
+        /**
+         * Stops the reporting thread.
+         */
+        private void close() {
+            reporter.shutdownNow();
+        }
     }
 
     /**
-     * Generate fake reservations and assign seats
+     * Creates named daemon threads, so the workers never keep the JVM alive.
      */
-    private void generateReservationsAndSeats(int count) throws SQLException {
-        try (
-            PreparedStatement reservationStmt = connection.prepareStatement(
-                "INSERT INTO reservations (user_FK, status_FK, flight_FK, reserved_at) VALUES (?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS);
-            PreparedStatement updateSeatStmt = connection.prepareStatement(
-                "UPDATE seats SET reservation_FK = ? WHERE id_PK = ? AND reservation_FK IS NULL")
-        ) {
-            for (int i = 0; i < count && i < flights.size() * users.size(); i++) {
-                User user = users.get(random.nextInt(users.size()));
-                Flight flight = flights.get(random.nextInt(flights.size()));
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        /** Prefix of the thread names */
+        private final String prefix;
+        /** Number of threads created */
+        private final AtomicInteger created = new AtomicInteger();
+
+        /**
+         * Constructor for DaemonThreadFactory.
+         *
+         * @param prefix the prefix of the thread names
+         */
+        private DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
 
-                // Random reservation status (1-5)
-                int statusId = 1 + random.nextInt(5);
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 
-                // Reservation time (before departure time)
-                LocalDateTime departureTime = flight.getDeparture_time();
-                LocalDateTime reservationTime = departureTime.minusDays(1 + random.nextInt(30));
-                Timestamp reservationTimestamp = Timestamp.valueOf(reservationTime);
-
-                reservationStmt.setInt(1, user.getId());
-                reservationStmt.setInt(2, statusId);
-                reservationStmt.setInt(3, flight.getId());
-                reservationStmt.setTimestamp(4, reservationTimestamp);
-
-                reservationStmt.executeUpdate();
-
-                // Get the generated reservation ID
-                try (ResultSet generatedKeys = reservationStmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        int reservationId = generatedKeys.getInt(1);
-
-                        // Find and assign a free seat for this airplane
-                        try (PreparedStatement seatQuery = connection.prepareStatement(
-                                "SELECT id_PK FROM seats WHERE airplane_FK = ? AND reservation_FK IS NULL LIMIT 1")) {
-                            seatQuery.setInt(1, flight.getAirplane_FK());
-
-                            try (ResultSet seatRs = seatQuery.executeQuery()) {
-                                if (seatRs.next()) {
-                                    int seatId = seatRs.getInt("id_PK");
-
-                                    // Update the seat with the reservation ID
-                                    updateSeatStmt.setInt(1, reservationId);
-                                    updateSeatStmt.setInt(2, seatId);
-                                    updateSeatStmt.executeUpdate();
-                                }
-                            }
-                        }
+    /**
+     * Sizes and settings of the generated data.
+     * Every setting can be given on the command line as {@code --name=value}.
+     */
+    public static class Config {
+        /** Number of users */
+        private int users = 20;
+        /** Number of airplanes */
+        private int airplanes = 10;
+        /** Number of cities */
+        private int cities = 30;
+        /** Number of flights */
+        private int flights = 50;
+        /** Number of reservations */
+        private int reservations = 100;
+        /** Seed of the random number generators */
+        private long seed = 42;
+        /** Number of worker threads, each with its own connection */
+        private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        /** Rows per JDBC batch and per commit */
+        private int batchSize = 1000;
+        /** First day of the flight schedule */
+        private LocalDate startDate = LocalDate.now();
+        /** Number of days covered by the flight schedule */
+        private int days = 180;
+        /** Profile the flights and reservations follow, or null to draw them at random */
+        private ScaleProfile profile;
+        /** Directory of the CSV files, or null to insert into the database */
+        private Path csvDirectory;
+
+        /**
+         * Parses the command line arguments, each of the form {@code --name=value}.
+         *
+         * @param args the command line arguments
+         * @return the configuration, with defaults for the settings not given
+         * @throws IllegalArgumentException if an argument is unknown or its value is not valid
+         */
+        public static Config fromArgs(String[] args) {
+            Config config = new Config();
+            // The profile sets the defaults of the other sizes, so it is applied first wherever it appears
+            for (String arg : args) {
+                if (arg.startsWith("--profile=")) {
+                    config.setProfile(ScaleProfile.fromName(arg.substring("--profile=".length())));
+                }
+            }
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                try {
+                    switch (name) {
+                        case "users": config.users = Integer.parseInt(value); break;
+                        case "airplanes": config.airplanes = Integer.parseInt(value); break;
+                        case "cities": config.cities = Integer.parseInt(value); break;
+                        case "flights": requireNoProfile(config, name); config.flights = Integer.parseInt(value); break;
+                        case "reservations": requireNoProfile(config, name); config.reservations = Integer.parseInt(value); break;
+                        case "seed": config.seed = Long.parseLong(value); break;
+                        case "threads": config.threads = Integer.parseInt(value); break;
+                        case "batch": config.batchSize = Integer.parseInt(value); break;
+                        case "start": config.startDate = LocalDate.parse(value); break;
+                        case "days": config.days = Integer.parseInt(value); break;
+                        case "profile": break; // Already applied
+                        case "csv": config.csvDirectory = Paths.get(value); break;
+                        default: throw new IllegalArgumentException("Unknown option --" + name);
                     }
+                } catch (java.time.format.DateTimeParseException | NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for --" + name + ": " + value);
                 }
             }
+            config.validate();
+            return config;
+        }
+
+        /**
+         * Rejects a size that follows from the profile when one is set.
+         */
+        private static void requireNoProfile(Config config, String name) {
+            if (config.profile != null) {
+                throw new IllegalArgumentException("--" + name + " follows from the network and cannot be set with --profile");
+            }
         }
 
-        System.out.println("Generated reservations and assigned seats");
+        /**
+         * Checks that the settings are consistent.
+         *
+         * @throws IllegalArgumentException if a setting is out of range
+         */
+        public void validate() {
+            if (users < 0 || airplanes < 0 || cities < 0 || flights < 0 || reservations < 0) {
+                throw new IllegalArgumentException("Sizes cannot be negative");
+            }
+            if (threads < 1 || batchSize < 1 || days < 1) {
+                throw new IllegalArgumentException("--threads, --batch and --days must be positive");
+            }
+            if (flights > 0 && (airplanes < 1 || cities < 2)) {
+                throw new IllegalArgumentException("Flights need at least one airplane and two cities");
+            }
+            if (reservations > 0 && (flights < 1 || users < 1)) {
+                throw new IllegalArgumentException("Reservations need at least one flight and one user");
+            }
+            if (profile != null && (users < 1 || airplanes < 1 || cities < 2)) {
+                throw new IllegalArgumentException("A profile needs at least one user, one airplane and two cities");
+            }
+        }
+
+        /**
+         * Returns the description of the command line options.
+         *
+         * @return the usage text
+         */
+        public static String usage() {
+            return "Usage: DataGenerator [--name=value ...]\n" +
+                    "  --users=N         users to generate (default 20)\n" +
+                    "  --airplanes=N     airplanes, with their seats (default 10)\n" +
+                    "  --cities=N        cities (default 30)\n" +
+                    "  --flights=N       flights (default 50)\n" +
+                    "  --reservations=N  reservations (default 100)\n" +
+                    "  --seed=N          seed; the same seed gives the same data (default 42)\n" +
+                    "  --threads=N       parallel workers, each with its own connection (default min(4, cores))\n" +
+                    "  --batch=N         rows per JDBC batch and commit (default 1000)\n" +
+                    "  --start=YYYY-MM-DD  first day of the flight schedule (default today)\n" +
+                    "  --days=N          days covered by the flight schedule (default 180)\n" +
+                    "  --profile=NAME    " + ScaleProfile.names() + ": sets the sizes and plans the flights as\n" +
+                    "                    airplane rotations over a hub-and-spoke network, with booking curves\n" +
+                    "                    and hot flights; --flights and --reservations follow from it\n" +
+                    "  --csv=DIR         write CSV files and a load.sql script to DIR instead of the database";
+        }
+
+        // Getters and Setters
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getAirplanes() {
+            return airplanes;
+        }
+
+        public void setAirplanes(int airplanes) {
+            this.airplanes = airplanes;
+        }
+
+        public int getCities() {
+            return cities;
+        }
+
+        public void setCities(int cities) {
+            this.cities = cities;
+        }
+
+        public int getFlights() {
+            return flights;
+        }
+
+        public void setFlights(int flights) {
+            this.flights = flights;
+        }
+
+        public int getReservations() {
+            return reservations;
+        }
+
+        public void setReservations(int reservations) {
+            this.reservations = reservations;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public void setStartDate(LocalDate startDate) {
+            this.startDate = startDate;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public void setDays(int days) {
+            this.days = days;
+        }
+
+        public ScaleProfile getProfile() {
+            return profile;
+        }
+
+        /**
+         * Sets the profile and the sizes it defines. The flights and the reservations follow from the
+         * network of the profile, so their sizes are cleared.
+         *
+         * @param profile the profile
+         */
+        public void setProfile(ScaleProfile profile) {
+            this.profile = profile;
+            this.users = profile.getUsers();
+            this.airplanes = profile.getAirplanes();
+            this.cities = profile.getCities();
+            this.days = profile.getDays();
+            this.flights = 0;
+            this.reservations = 0;
+        }
+
+        public Path getCsvDirectory() {
+            return csvDirectory;
+        }
+
+        public void setCsvDirectory(Path csvDirectory) {
+            this.csvDirectory = csvDirectory;
+        }
     }
 
     /**
      * Main method to run the data generator
+     *
+     * @param args the sizes and settings, as {@code --name=value}; run with {@code --help} to list them
      */
     public static void main(String[] args) {
+        if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(Config.usage());
+            return;
+        }
         try {
-            DataGenerator generator = new DataGenerator();
+            Config config = Config.fromArgs(args);
+            // Every worker holds a connection; make sure the pool has enough unless it was sized explicitly
+            if (System.getProperty("airflow.db.pool.maxSize") == null) {
+                System.setProperty("airflow.db.pool.maxSize", String.valueOf(config.getThreads() + 1));
+            }
+            DataGenerator generator = new DataGenerator(config);
             generator.generateAllData();
-        } catch (SQLException e) {
-            System.err.println("Error in data generation: " + e.getMessage());
-            e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Config.usage());
+            System.exit(1);
         }
     }
 }
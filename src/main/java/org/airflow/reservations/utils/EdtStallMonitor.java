@@ -0,0 +1,154 @@
+package org.airflow.reservations.utils;
+
+import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long the Swing event dispatch thread stays blocked.
+ * A daemon thread posts a probe to the event queue at a fixed interval and records how late the probe runs;
+ * any delay above the threshold counts as a stall. Only one probe is queued at a time, so a long stall is
+ * recorded once with its full length.
+ * <p>
+ * The Controller starts the monitor when the system property {@value #ENABLED_PROPERTY} is true and prints
+ * the summary when the application exits.
+ */
+public class EdtStallMonitor {
+    /** System property that enables the monitor */
+    public static final String ENABLED_PROPERTY = "airflow.edt.monitor";
+    /** Interval between two probes, in milliseconds */
+    private static final long PROBE_INTERVAL_MILLIS = 20;
+    /** Delay above which a probe counts as a stall, in milliseconds */
+    private static final long DEFAULT_THRESHOLD_MILLIS = 50;
+
+    /** Delay above which a probe counts as a stall, in nanoseconds */
+    private final long thresholdNanos;
+    /** Whether a probe is waiting in the event queue */
+    private final AtomicBoolean probePending = new AtomicBoolean();
+    /** Number of stalls */
+    private final AtomicLong stalls = new AtomicLong();
+    /** Sum of the stall lengths, in nanoseconds */
+    private final AtomicLong totalStallNanos = new AtomicLong();
+    /** Longest stall, in nanoseconds */
+    private final AtomicLong maxStallNanos = new AtomicLong();
+    /** Thread that posts the probes, or null if the monitor is stopped */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor for EdtStallMonitor, with a threshold of 50 ms.
+     */
+    public EdtStallMonitor() {
+        this(DEFAULT_THRESHOLD_MILLIS);
+    }
+
+    /**
+     * Constructor for EdtStallMonitor.
+     *
+     * @param thresholdMillis the delay above which a probe counts as a stall, in milliseconds
+     */
+    public EdtStallMonitor(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Checks if the monitor was enabled with the {@value #ENABLED_PROPERTY} system property.
+     *
+     * @return true if the monitor should run
+     */
+    public static boolean isEnabledBySystemProperty() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Starts posting probes. Does nothing if the monitor is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "airflow-edt-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::probe, PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops posting probes.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Posts a probe to the event queue unless the previous one has not run yet.
+     */
+    private void probe() {
+        if (!probePending.compareAndSet(false, true)) {
+            return;
+        }
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            record(System.nanoTime() - posted);
+            probePending.set(false);
+        });
+    }
+
+    /**
+     * Records the delay of a probe.
+     *
+     * @param delayNanos how late the probe ran, in nanoseconds
+     */
+    void record(long delayNanos) {
+        if (delayNanos < thresholdNanos) {
+            return;
+        }
+        stalls.incrementAndGet();
+        totalStallNanos.addAndGet(delayNanos);
+        maxStallNanos.accumulateAndGet(delayNanos, Math::max);
+    }
+
+    /**
+     * Returns the number of stalls.
+     *
+     * @return the stall count
+     */
+    public long getStallCount() {
+        return stalls.get();
+    }
+
+    /**
+     * Returns the sum of the stall lengths.
+     *
+     * @return the total stall time, in milliseconds
+     */
+    public long getTotalStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalStallNanos.get());
+    }
+
+    /**
+     * Returns the longest stall.
+     *
+     * @return the longest stall, in milliseconds
+     */
+    public long getMaxStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxStallNanos.get());
+    }
+
+    /**
+     * Returns a one-line summary of the stalls.
+     *
+     * @return the summary
+     */
+    public String getSummary() {
+        return String.format("EDT stalls over %d ms: %d, total %d ms, longest %d ms",
+                TimeUnit.NANOSECONDS.toMillis(thresholdNanos), getStallCount(), getTotalStallMillis(), getMaxStallMillis());
+    }
+}
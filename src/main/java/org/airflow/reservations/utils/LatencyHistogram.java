@@ -0,0 +1,157 @@
+package org.airflow.reservations.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds, with log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Values below {@value #SUB_BUCKETS} are counted exactly. Above that, every power of two is split into
+ * {@value #HALF_SUB_BUCKETS} equal buckets, so a recorded value is off by less than 1% whatever its size,
+ * and a percentile is read by walking a few thousand counters instead of sorting every sample.
+ * Any number of threads can record at the same time without locking; the count and the sum are striped
+ * so that threads recording together do not contend on a single counter.
+ */
+public final class LatencyHistogram {
+    /** Bits of the values counted exactly */
+    private static final int SUB_BUCKET_BITS = 8;
+    /** Number of values counted exactly */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Buckets per power of two above the exact values */
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    /** Buckets needed to cover every positive long */
+    private static final int BUCKETS = indexOf(Long.MAX_VALUE) + 1;
+
+    /** Number of values recorded in every bucket */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /** Number of values recorded */
+    private final LongAdder totalCount = new LongAdder();
+    /** Sum of the values recorded, for the mean */
+    private final LongAdder totalNanos = new LongAdder();
+    /** Largest value recorded */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency. Negative values are recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the latency below which a percentage of the recorded values fall.
+     * The value returned is the upper end of the bucket holding the percentile, capped at the largest value recorded.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Returns the number of values recorded that are at most a latency, as counted by their buckets:
+     * a value in the bucket holding the latency is counted if the bucket starts at or below it.
+     *
+     * @param nanos the latency in nanoseconds
+     * @return the count
+     */
+    public long getCountAtOrBelow(long nanos) {
+        if (nanos < 0) {
+            return 0;
+        }
+        int last = indexOf(nanos);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     *
+     * @return the total latency in nanoseconds
+     */
+    public long getSum() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return the mean latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    /**
+     * Returns the bucket of a value.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int mantissa = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (mantissa - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     */
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long mantissa = HALF_SUB_BUCKETS + (index - SUB_BUCKETS) % HALF_SUB_BUCKETS;
+        long lowest = mantissa << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,878 @@
+package org.airflow.reservations.utils;
+
+import org.airflow.reservations.DAO.SeatDAO;
+import org.airflow.reservations.model.FlightSeat;
+import org.airflow.reservations.model.Reservation;
+import org.airflow.reservations.model.Seat;
+import org.airflow.reservations.model.User;
+import org.airflow.reservations.service.ReservationService;
+import org.airflow.reservations.service.SeatService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load tool that books, confirms and cancels reservations from many simulated users at once,
+ * to measure the throughput and latency of the ReservationService under contention and to prove
+ * that no seat is ever sold twice.
+ * <p>
+ * Every simulated user runs on its own thread with its own ReservationService, as the users of the
+ * application would. The flights booked follow a Zipf popularity, so a few flights draw most of the
+ * bookings and their seats are fought over. Users arrive either in a closed model, where each one
+ * waits a random think time after every operation, or in an open model, where operations arrive as a
+ * Poisson process at a fixed rate whatever the response time. In the open model the latency of an
+ * operation is measured from the time it was due to start, so a slow response also counts against the
+ * operations queued behind it.
+ * <p>
+ * The latencies of every operation are recorded in a {@link LatencyHistogram}. When the run ends every
+ * reservation still held is checked against the database: each of its seats must belong to it and to
+ * no other reservation.
+ * <p>
+ * The run is configured on the command line, for example:
+ * {@code --users=64 --duration=120 --arrival=open --rate=500 --skew=1.2}. Run with {@code --help}
+ * for the full list. The reservations made are left in the database.
+ */
+public class LoadGenerator {
+    /** Random stream of the simulated users, see {@link DataGenerator#random(long, int, int)} */
+    private static final int USER_STREAM = 21;
+    /** Random stream of the flight popularity */
+    private static final int POPULARITY_STREAM = 22;
+    /** Status of a reservation waiting for confirmation */
+    private static final int PENDING_STATUS = 3;
+    /** Exit status when the integrity check fails */
+    private static final int INTEGRITY_FAILURE_STATUS = 2;
+    /** Percentiles reported for every operation */
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    /**
+     * Operations performed by the simulated users.
+     */
+    public enum Operation {
+        /** Books a few free seats on a flight with createReservation */
+        BOOK,
+        /** Confirms a pending reservation of the user with confirmReservation */
+        CONFIRM,
+        /** Cancels a reservation of the user with cancelReservation */
+        CANCEL
+    }
+
+    /**
+     * How the simulated users arrive.
+     */
+    public enum Arrival {
+        /** Every user waits a random think time after each operation */
+        CLOSED,
+        /** Operations arrive as a Poisson process at a fixed total rate */
+        OPEN
+    }
+
+    /** The settings of the run */
+    private final Config config;
+    /** Source of the users, the flights and the services */
+    private final Backend backend;
+    /** Latencies and outcomes of every operation */
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    /** Reservations created and not cancelled, by ID */
+    private final ConcurrentHashMap<Integer, Booking> liveBookings = new ConcurrentHashMap<>();
+    /** Bookings skipped because the flight drawn had no free seat */
+    private final AtomicLong soldOut = new AtomicLong();
+    /** Operations left before the run stops, when the run is sized by operations */
+    private final AtomicLong operationsLeft = new AtomicLong();
+    /** Duration of the last run, in seconds */
+    private double elapsedSeconds;
+
+    /**
+     * Constructor that runs against the database.
+     *
+     * @param config the settings of the run
+     */
+    public LoadGenerator(Config config) {
+        this(config, new Database());
+    }
+
+    /**
+     * Constructor that runs against a given backend, useful for testing.
+     *
+     * @param config  the settings of the run
+     * @param backend the source of the users, the flights and the services
+     */
+    LoadGenerator(Config config, Backend backend) {
+        this.config = config;
+        this.backend = backend;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    /**
+     * Runs the simulated users until the duration or the number of operations is reached, then checks
+     * that no seat is held by two reservations.
+     *
+     * @return the integrity violations found, empty if every seat has a single owner
+     * @throws SQLException         if the users, the flights or the seat owners cannot be read
+     * @throws InterruptedException if the run is interrupted
+     */
+    public List<String> run() throws SQLException, InterruptedException {
+        List<Integer> userIds = backend.loadUserIds(config.getUsers());
+        List<Integer> flightIds = backend.loadFlightIds(config.getFlights());
+        if (userIds.isEmpty() || flightIds.isEmpty()) {
+            throw new IllegalStateException("The load needs at least one user and one bookable flight; run the DataGenerator first");
+        }
+        if (userIds.size() < config.getUsers()) {
+            System.out.println("Only " + userIds.size() + " users exist; simulated users will share them");
+        }
+        Popularity popularity = new Popularity(flightIds, config.getSkew(), DataGenerator.random(config.getSeed(), POPULARITY_STREAM, 0));
+
+        List<ReservationService> services = new ArrayList<>(config.getUsers());
+        for (int i = 0; i < config.getUsers(); i++) {
+            User user = new User();
+            user.setId(userIds.get(i % userIds.size()));
+            services.add(backend.serviceFor(user));
+        }
+
+        System.out.printf("Running %d %s users against %d flights%n", config.getUsers(),
+                config.getArrival().name().toLowerCase(), flightIds.size());
+        operationsLeft.set(config.getOperations() > 0 ? config.getOperations() : Long.MAX_VALUE);
+        long startNanos = System.nanoTime();
+        long endNanos = config.getOperations() > 0 ? Long.MAX_VALUE : startNanos + config.getDurationSeconds() * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>(config.getUsers());
+        for (int i = 0; i < config.getUsers(); i++) {
+            int index = i;
+            Thread thread = new Thread(() -> runUser(index, services.get(index), popularity, startNanos, endNanos),
+                    "airflow-load-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        elapsedSeconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+
+        return checkIntegrity();
+    }
+
+    /**
+     * Runs the operations of one simulated user.
+     */
+    private void runUser(int index, ReservationService service, Popularity popularity, long startNanos, long endNanos) {
+        Random random = DataGenerator.random(config.getSeed(), USER_STREAM, index);
+        List<Integer> reservations = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+        double meanGapNanos = config.getArrival() == Arrival.OPEN
+                ? 1e9 * config.getUsers() / config.getRate()
+                : config.getThinkMillis() * 1e6;
+        long due = config.getArrival() == Arrival.OPEN ? startNanos : System.nanoTime();
+
+        while (true) {
+            due += (long) exponential(random, meanGapNanos);
+            if (due >= endNanos || operationsLeft.getAndDecrement() <= 0) {
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            // Time the user has been kept waiting by its own earlier operations; only the open model queues
+            long lateNanos = config.getArrival() == Arrival.OPEN ? now - due : 0;
+
+            Operation operation = drawOperation(random, reservations, pending);
+            switch (operation) {
+                case BOOK -> book(service, popularity.next(random), random, lateNanos, reservations, pending);
+                case CONFIRM -> confirm(service, pending.remove(random.nextInt(pending.size())), lateNanos);
+                case CANCEL -> {
+                    Integer reservationId = reservations.remove(random.nextInt(reservations.size()));
+                    pending.remove(reservationId);
+                    cancel(service, reservationId, lateNanos);
+                }
+            }
+            if (config.getArrival() == Arrival.CLOSED) {
+                due = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Draws the next operation from the configured mix. A user without reservations books, and a user
+     * without pending reservations cancels instead of confirming.
+     */
+    private Operation drawOperation(Random random, List<Integer> reservations, List<Integer> pending) {
+        int draw = random.nextInt(100);
+        if (reservations.isEmpty() || draw < config.getBookPercent()) {
+            return Operation.BOOK;
+        }
+        if (draw < config.getBookPercent() + config.getConfirmPercent() && !pending.isEmpty()) {
+            return Operation.CONFIRM;
+        }
+        return Operation.CANCEL;
+    }
+
+    /**
+     * Books a few of the free seats of a flight. The seats are read before the booking, so other users
+     * may take them in between, as in the seat selection screen.
+     */
+    private void book(ReservationService service, int flightId, Random random, long lateNanos,
+                      List<Integer> reservations, List<Integer> pending) {
+        int[] free;
+        try {
+            free = backend.availableSeats(flightId);
+        } catch (SQLException e) {
+            stats.get(Operation.BOOK).fail(e);
+            return;
+        }
+        if (free.length == 0) {
+            soldOut.incrementAndGet();
+            return;
+        }
+        int count = 1 + random.nextInt(Math.min(config.getMaxSeats(), free.length));
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(free.length - i);
+            int swap = free[i];
+            free[i] = free[j];
+            free[j] = swap;
+        }
+        int[] seatIds = Arrays.copyOf(free, count);
+
+        OperationStats bookStats = stats.get(Operation.BOOK);
+        long start = System.nanoTime();
+        try {
+            Reservation reservation = service.createReservation(flightId, seatIds);
+            bookStats.succeed(System.nanoTime() - start + lateNanos);
+            liveBookings.put(reservation.getId(), new Booking(flightId, seatIds));
+            reservations.add(reservation.getId());
+            if (reservation.getStatus_FK() == PENDING_STATUS) {
+                pending.add(reservation.getId());
+            }
+        } catch (IllegalArgumentException e) {
+            bookStats.reject(System.nanoTime() - start + lateNanos);
+        } catch (SQLException | RuntimeException e) {
+            bookStats.fail(e);
+        }
+    }
+
+    /**
+     * Confirms a pending reservation.
+     */
+    private void confirm(ReservationService service, int reservationId, long lateNanos) {
+        OperationStats confirmStats = stats.get(Operation.CONFIRM);
+        long start = System.nanoTime();
+        try {
+            service.confirmReservation(reservationId);
+            confirmStats.succeed(System.nanoTime() - start + lateNanos);
+        } catch (IllegalArgumentException e) {
+            confirmStats.reject(System.nanoTime() - start + lateNanos);
+        } catch (SQLException | RuntimeException e) {
+            confirmStats.fail(e);
+        }
+    }
+
+    /**
+     * Cancels a reservation and forgets its seats.
+     */
+    private void cancel(ReservationService service, int reservationId, long lateNanos) {
+        OperationStats cancelStats = stats.get(Operation.CANCEL);
+        long start = System.nanoTime();
+        try {
+            service.cancelReservation(reservationId);
+            cancelStats.succeed(System.nanoTime() - start + lateNanos);
+            liveBookings.remove(reservationId);
+        } catch (IllegalArgumentException e) {
+            cancelStats.reject(System.nanoTime() - start + lateNanos);
+        } catch (SQLException | RuntimeException e) {
+            cancelStats.fail(e);
+        }
+    }
+
+    /**
+     * Checks that every seat of the reservations still held belongs to that reservation alone:
+     * no two reservations of the run were given the same seat, and the seat inventory in the
+     * database names the reservation as the owner of each of its seats.
+     *
+     * @return the violations found, empty if there are none
+     * @throws SQLException if the seat owners cannot be read
+     */
+    List<String> checkIntegrity() throws SQLException {
+        List<String> violations = new ArrayList<>();
+        Map<Integer, Map<Integer, Integer>> claimsByFlight = new HashMap<>();
+        for (Map.Entry<Integer, Booking> entry : liveBookings.entrySet()) {
+            Booking booking = entry.getValue();
+            Map<Integer, Integer> claims = claimsByFlight.computeIfAbsent(booking.flightId, k -> new HashMap<>());
+            for (int seatId : booking.seatIds) {
+                Integer other = claims.putIfAbsent(seatId, entry.getKey());
+                if (other != null) {
+                    violations.add(String.format("Seat %d on flight %d was given to reservations %d and %d",
+                            seatId, booking.flightId, other, entry.getKey()));
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Map<Integer, Integer>> flight : claimsByFlight.entrySet()) {
+            Map<Integer, Integer> owners = backend.seatOwners(flight.getKey());
+            for (Map.Entry<Integer, Integer> claim : flight.getValue().entrySet()) {
+                Integer owner = owners.get(claim.getKey());
+                if (!claim.getValue().equals(owner)) {
+                    violations.add(String.format("Seat %d on flight %d of reservation %d is held by %s",
+                            claim.getKey(), flight.getKey(), claim.getValue(),
+                            owner == null ? "no reservation" : "reservation " + owner));
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Prints the throughput and the latency percentiles of every operation, and the result of the integrity check.
+     *
+     * @param violations the integrity violations returned by {@link #run()}
+     */
+    public void printReport(List<String> violations) {
+        System.out.printf("%nCompleted in %.1f s, %d bookings skipped on sold-out flights%n", elapsedSeconds, soldOut.get());
+        System.out.printf("%-8s %9s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n", "op", "ok", "rejected", "errors",
+                "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            OperationStats operationStats = stats.get(operation);
+            LatencyHistogram histogram = operationStats.getHistogram();
+            StringBuilder line = new StringBuilder(String.format("%-8s %9d %9d %9d %7.0f %9.2f",
+                    operation.name().toLowerCase(), operationStats.getSucceeded(), operationStats.getRejected(),
+                    operationStats.getFailed(), operationStats.getSucceeded() / elapsedSeconds, histogram.getMean() / 1e6));
+            for (double percentile : PERCENTILES) {
+                line.append(String.format(" %9.2f", histogram.getValueAtPercentile(percentile) / 1e6));
+            }
+            line.append(String.format(" %9.2f", histogram.getMax() / 1e6));
+            System.out.println(line);
+            if (operationStats.getFirstError() != null) {
+                System.err.println("⚠ First " + operation.name().toLowerCase() + " error: " + operationStats.getFirstError());
+            }
+        }
+
+        if (violations.isEmpty()) {
+            System.out.println("✓ Integrity check passed: " + liveBookings.size() + " reservations, every seat has a single owner");
+        } else {
+            System.err.println("⚠ Integrity check failed with " + violations.size() + " violations:");
+            violations.forEach(violation -> System.err.println("  " + violation));
+        }
+    }
+
+    /**
+     * Returns the latencies and outcomes of an operation.
+     *
+     * @param operation the operation
+     * @return the statistics of the operation
+     */
+    public OperationStats getStats(Operation operation) {
+        return stats.get(operation);
+    }
+
+    /**
+     * Returns the number of bookings skipped because the flight drawn had no free seat.
+     *
+     * @return the number of sold-out draws
+     */
+    public long getSoldOut() {
+        return soldOut.get();
+    }
+
+    /**
+     * Returns the number of reservations created by the run and not cancelled.
+     *
+     * @return the number of live reservations
+     */
+    public int getLiveReservations() {
+        return liveBookings.size();
+    }
+
+    /**
+     * Draws an exponentially distributed gap with a given mean.
+     */
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    /**
+     * Main method to run the load against the database.
+     *
+     * @param args the command line arguments, see {@link Config#usage()}
+     * @throws SQLException         if the users, the flights or the seat owners cannot be read
+     * @throws InterruptedException if the run is interrupted
+     */
+    public static void main(String[] args) throws SQLException, InterruptedException {
+        if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(Config.usage());
+            return;
+        }
+        Config config;
+        try {
+            config = Config.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Config.usage());
+            System.exit(1);
+            return;
+        }
+        // Every simulated user may hold a connection; make sure the pool has enough unless it was sized explicitly
+        if (System.getProperty("airflow.db.pool.maxSize") == null) {
+            System.setProperty("airflow.db.pool.maxSize", String.valueOf(config.getUsers() + 2));
+        }
+        LoadGenerator generator = new LoadGenerator(config);
+        List<String> violations = generator.run();
+        generator.printReport(violations);
+        ConnectionDB.shutdown();
+        if (!violations.isEmpty()) {
+            System.exit(INTEGRITY_FAILURE_STATUS);
+        }
+    }
+
+    /**
+     * Source of the users, the flights and the services used by the load.
+     */
+    interface Backend {
+        /**
+         * Returns the IDs of up to a number of users.
+         */
+        List<Integer> loadUserIds(int limit) throws SQLException;
+
+        /**
+         * Returns the IDs of up to a number of flights that can still be booked and cancelled.
+         */
+        List<Integer> loadFlightIds(int limit) throws SQLException;
+
+        /**
+         * Returns the reservation service a user books with.
+         */
+        ReservationService serviceFor(User user) throws SQLException;
+
+        /**
+         * Returns the IDs of the free seats of a flight.
+         */
+        int[] availableSeats(int flightId) throws SQLException;
+
+        /**
+         * Returns the reservation holding every seat of a flight, by seat ID; free seats are left out.
+         */
+        Map<Integer, Integer> seatOwners(int flightId) throws SQLException;
+    }
+
+    /**
+     * Backend on the database and the services of the application.
+     */
+    private static final class Database implements Backend {
+        /** Hours before departure after which a reservation can no longer be cancelled, plus a margin */
+        private static final int BOOKABLE_HOURS = 13;
+
+        /** Seat service shared by the users, as in the application */
+        private SeatService seatService;
+
+        @Override
+        public List<Integer> loadUserIds(int limit) throws SQLException {
+            return queryIds("SELECT id_PK FROM users ORDER BY id_PK LIMIT ?", null, limit);
+        }
+
+        @Override
+        public List<Integer> loadFlightIds(int limit) throws SQLException {
+            return queryIds("SELECT id_PK FROM flights WHERE status_FK IN (1, 2) AND departure_time > ? " +
+                    "ORDER BY departure_time LIMIT ?", Timestamp.valueOf(LocalDateTime.now().plusHours(BOOKABLE_HOURS)), limit);
+        }
+
+        @Override
+        public ReservationService serviceFor(User user) throws SQLException {
+            return new ReservationService(user);
+        }
+
+        @Override
+        public int[] availableSeats(int flightId) throws SQLException {
+            ArrayList<Seat> seats = seatService().getAvailableSeatsByFlightId(flightId);
+            return seats.stream().mapToInt(Seat::getId).toArray();
+        }
+
+        @Override
+        public Map<Integer, Integer> seatOwners(int flightId) throws SQLException {
+            Map<Integer, Integer> owners = new HashMap<>();
+            for (FlightSeat flightSeat : new SeatDAO().getFlightSeatsByFlightId(flightId)) {
+                if (flightSeat.getReservation_FK() != null) {
+                    owners.put(flightSeat.getSeat_FK(), flightSeat.getReservation_FK());
+                }
+            }
+            return owners;
+        }
+
+        /**
+         * Returns the shared seat service, creating it on first use.
+         */
+        private synchronized SeatService seatService() throws SQLException {
+            if (seatService == null) {
+                seatService = new SeatService();
+            }
+            return seatService;
+        }
+
+        /**
+         * Runs a query returning IDs, with an optional timestamp parameter before the limit.
+         */
+        private static List<Integer> queryIds(String query, Timestamp after, int limit) throws SQLException {
+            try (Connection connection = ConnectionDB.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(query)) {
+                int index = 1;
+                if (after != null) {
+                    statement.setTimestamp(index++, after);
+                }
+                statement.setInt(index, limit);
+                List<Integer> ids = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getInt(1));
+                    }
+                }
+                return ids;
+            }
+        }
+    }
+
+    /**
+     * Flights drawn with a Zipf popularity: the flight of rank k is drawn with a weight of 1 / k^skew.
+     * The ranks are shuffled, so the popular flights are spread over the schedule.
+     */
+    static final class Popularity {
+        /** The flights, by rank */
+        private final int[] flightIds;
+        /** Cumulative share of the draws up to every rank */
+        private final double[] cumulative;
+
+        /**
+         * Constructor for Popularity.
+         *
+         * @param flightIds the flights to draw from
+         * @param skew      the Zipf exponent; 0 draws every flight alike
+         * @param random    the random number generator used to rank the flights
+         */
+        Popularity(List<Integer> flightIds, double skew, Random random) {
+            List<Integer> ranked = new ArrayList<>(flightIds);
+            Collections.shuffle(ranked, random);
+            this.flightIds = ranked.stream().mapToInt(Integer::intValue).toArray();
+            this.cumulative = new double[this.flightIds.length];
+            double total = 0;
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                total += 1 / Math.pow(rank + 1, skew);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                cumulative[rank] /= total;
+            }
+        }
+
+        /**
+         * Draws a flight.
+         *
+         * @param random the random number generator of the caller
+         * @return the ID of the flight
+         */
+        int next(Random random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            rank = rank >= 0 ? rank : -rank - 1;
+            return flightIds[Math.min(rank, flightIds.length - 1)];
+        }
+    }
+
+    /**
+     * Seats given to a reservation created by the run.
+     */
+    private static final class Booking {
+        private final int flightId;
+        private final int[] seatIds;
+
+        Booking(int flightId, int[] seatIds) {
+            this.flightId = flightId;
+            this.seatIds = seatIds;
+        }
+    }
+
+    /**
+     * Latencies and outcomes of one operation. Rejections are the business errors of the service,
+     * such as a seat taken by another user, and are timed like successes; failures are database or
+     * unexpected errors and are only counted.
+     */
+    public static final class OperationStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile String firstError;
+
+        private void succeed(long nanos) {
+            histogram.record(nanos);
+            succeeded.incrementAndGet();
+        }
+
+        private void reject(long nanos) {
+            histogram.record(nanos);
+            rejected.incrementAndGet();
+        }
+
+        private void fail(Exception e) {
+            if (failed.getAndIncrement() == 0) {
+                firstError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+        }
+
+        // Getters
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public long getSucceeded() {
+            return succeeded.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public String getFirstError() {
+            return firstError;
+        }
+    }
+
+    /**
+     * Settings of a load run, read from the command line.
+     */
+    public static class Config {
+        /** Number of simulated users, each on its own thread */
+        private int users = 16;
+        /** Number of flights booked, the most imminent ones that can still be cancelled */
+        private int flights = 200;
+        /** Seconds the run lasts, when it is not sized by operations */
+        private int durationSeconds = 60;
+        /** Operations in total before the run stops, or 0 to run for the duration */
+        private long operations = 0;
+        /** How the users arrive */
+        private Arrival arrival = Arrival.CLOSED;
+        /** Operations per second of all the users together, in the open model */
+        private double rate = 200;
+        /** Mean think time of a user between two operations, in milliseconds, in the closed model */
+        private double thinkMillis = 50;
+        /** Zipf exponent of the flight popularity */
+        private double skew = 1.1;
+        /** Largest number of seats in one booking */
+        private int maxSeats = 2;
+        /** Share of the operations that book, in percent */
+        private int bookPercent = 60;
+        /** Share of the operations that confirm, in percent; the rest cancel */
+        private int confirmPercent = 25;
+        /** Seed of the random number generators */
+        private long seed = 42;
+
+        /**
+         * Parses the command line arguments, each of the form {@code --name=value}.
+         *
+         * @param args the command line arguments
+         * @return the configuration, with defaults for the settings not given
+         * @throws IllegalArgumentException if an argument is unknown or its value is not valid
+         */
+        public static Config fromArgs(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                try {
+                    switch (name) {
+                        case "users": config.users = Integer.parseInt(value); break;
+                        case "flights": config.flights = Integer.parseInt(value); break;
+                        case "duration": config.durationSeconds = Integer.parseInt(value); break;
+                        case "operations": config.operations = Long.parseLong(value); break;
+                        case "arrival": config.arrival = parseArrival(value); break;
+                        case "rate": config.rate = Double.parseDouble(value); break;
+                        case "think": config.thinkMillis = Double.parseDouble(value); break;
+                        case "skew": config.skew = Double.parseDouble(value); break;
+                        case "seats": config.maxSeats = Integer.parseInt(value); break;
+                        case "mix": config.setMix(value); break;
+                        case "seed": config.seed = Long.parseLong(value); break;
+                        default: throw new IllegalArgumentException("Unknown option --" + name);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for --" + name + ": " + value);
+                }
+            }
+            config.validate();
+            return config;
+        }
+
+        /**
+         * Returns the arrival model with a given name, ignoring case.
+         */
+        private static Arrival parseArrival(String value) {
+            for (Arrival arrival : Arrival.values()) {
+                if (arrival.name().equalsIgnoreCase(value)) {
+                    return arrival;
+                }
+            }
+            throw new IllegalArgumentException("Invalid value for --arrival: " + value + "; expected closed or open");
+        }
+
+        /**
+         * Sets the operation mix from percentages of the form {@code BOOK,CONFIRM,CANCEL}.
+         */
+        private void setMix(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("--mix expects three percentages: book,confirm,cancel");
+            }
+            int cancelPercent = Integer.parseInt(parts[2].trim());
+            bookPercent = Integer.parseInt(parts[0].trim());
+            confirmPercent = Integer.parseInt(parts[1].trim());
+            if (bookPercent < 0 || confirmPercent < 0 || cancelPercent < 0 || bookPercent + confirmPercent + cancelPercent != 100) {
+                throw new IllegalArgumentException("--mix percentages must be positive and add up to 100");
+            }
+        }
+
+        /**
+         * Checks that the settings are consistent.
+         *
+         * @throws IllegalArgumentException if a setting is out of range
+         */
+        public void validate() {
+            if (users < 1 || flights < 1 || maxSeats < 1) {
+                throw new IllegalArgumentException("--users, --flights and --seats must be positive");
+            }
+            if (operations < 0 || (operations == 0 && durationSeconds < 1)) {
+                throw new IllegalArgumentException("The run needs a positive --duration or --operations");
+            }
+            if (rate <= 0 || thinkMillis < 0 || skew < 0) {
+                throw new IllegalArgumentException("--rate must be positive and --think and --skew cannot be negative");
+            }
+            if (bookPercent < 1) {
+                throw new IllegalArgumentException("--mix must book in some of the operations");
+            }
+        }
+
+        /**
+         * Returns the description of the command line options.
+         *
+         * @return the usage text
+         */
+        public static String usage() {
+            return "Usage: LoadGenerator [--name=value ...]\n" +
+                    "  --users=N         simulated users, each on its own thread (default 16)\n" +
+                    "  --flights=N       flights booked, the soonest that can still be cancelled (default 200)\n" +
+                    "  --duration=S      seconds the run lasts (default 60)\n" +
+                    "  --operations=N    stop after N operations in total instead of after --duration\n" +
+                    "  --arrival=MODEL   closed: each user thinks between operations; open: operations arrive\n" +
+                    "                    at --rate whatever the response time (default closed)\n" +
+                    "  --rate=N          operations per second of all users together, open model (default 200)\n" +
+                    "  --think=MS        mean think time between operations, closed model (default 50)\n" +
+                    "  --skew=X          Zipf exponent of the flight popularity; 0 books every flight alike (default 1.1)\n" +
+                    "  --seats=N         largest number of seats in one booking (default 2)\n" +
+                    "  --mix=B,C,X       percentages of bookings, confirmations and cancellations (default 60,25,15)\n" +
+                    "  --seed=N          seed of the users' choices (default 42)";
+        }
+
+        // Getters and Setters
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getFlights() {
+            return flights;
+        }
+
+        public void setFlights(int flights) {
+            this.flights = flights;
+        }
+
+        public int getDurationSeconds() {
+            return durationSeconds;
+        }
+
+        public void setDurationSeconds(int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public void setOperations(long operations) {
+            this.operations = operations;
+        }
+
+        public Arrival getArrival() {
+            return arrival;
+        }
+
+        public void setArrival(Arrival arrival) {
+            this.arrival = arrival;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public double getThinkMillis() {
+            return thinkMillis;
+        }
+
+        public void setThinkMillis(double thinkMillis) {
+            this.thinkMillis = thinkMillis;
+        }
+
+        public double getSkew() {
+            return skew;
+        }
+
+        public void setSkew(double skew) {
+            this.skew = skew;
+        }
+
+        public int getMaxSeats() {
+            return maxSeats;
+        }
+
+        public void setMaxSeats(int maxSeats) {
+            this.maxSeats = maxSeats;
+        }
+
+        public int getBookPercent() {
+            return bookPercent;
+        }
+
+        public int getConfirmPercent() {
+            return confirmPercent;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
+}
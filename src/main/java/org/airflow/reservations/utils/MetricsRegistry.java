@@ -0,0 +1,536 @@
+package org.airflow.reservations.utils;
+
+import javax.management.*;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the metrics of the application: counters, gauges and latency histograms.
+ * <p>
+ * A metric is identified by its name and a list of label pairs, as in Prometheus, and is created the
+ * first time it is asked for. Callers keep the metric returned and update it directly: counters are
+ * striped {@link LongAdder}s, histograms are {@link LatencyHistogram}s, and gauges are read from a
+ * supplier only when the metrics are published, so recording never takes a lock.
+ * <p>
+ * The metrics are published in two ways. {@link #writePrometheus(Writer)} writes them in the Prometheus
+ * text format, with histograms as cumulative buckets in seconds; and once {@link #enableJmx()} has been
+ * called every metric is also an MBean of the platform server, named
+ * {@code org.airflow.reservations:type=<metric name>,<label>=<value>...}.
+ * <p>
+ * {@link #global()} is the registry the DAOs, services and the connection pool report to. It registers
+ * its MBeans unless the system property {@code airflow.metrics.jmx} is false, and if
+ * {@code airflow.metrics.file} is set it writes the Prometheus text to that file every
+ * {@code airflow.metrics.dumpSeconds} seconds (15 by default) and when the application exits.
+ */
+public final class MetricsRegistry {
+    /** JMX domain of the metric MBeans */
+    public static final String JMX_DOMAIN = "org.airflow.reservations";
+    /** Upper bounds of the buckets of the published histograms, in seconds */
+    private static final double[] BUCKET_SECONDS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01,
+            0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    /** The registry of the application, created on first use */
+    private static volatile MetricsRegistry global;
+
+    /** Metric families by name, sorted so the published text is stable */
+    private final Map<String, Family> families = new TreeMap<>();
+    /** Whether new metrics are registered as MBeans */
+    private volatile boolean jmxEnabled;
+
+    /**
+     * Returns the registry of the application, creating it on first use.
+     *
+     * @return the global registry
+     */
+    public static MetricsRegistry global() {
+        MetricsRegistry current = global;
+        if (current == null) {
+            synchronized (MetricsRegistry.class) {
+                current = global;
+                if (current == null) {
+                    current = new MetricsRegistry();
+                    if (!"false".equalsIgnoreCase(System.getProperty("airflow.metrics.jmx"))) {
+                        current.enableJmx();
+                    }
+                    String file = System.getProperty("airflow.metrics.file");
+                    if (file != null && !file.isBlank()) {
+                        current.dumpPeriodically(Path.of(file), Long.getLong("airflow.metrics.dumpSeconds", 15));
+                    }
+                    global = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns a counter, creating it if it does not exist.
+     *
+     * @param name   the metric name, such as {@code airflow_bookings_total}
+     * @param help   what the metric counts
+     * @param labels label names and values, alternating
+     * @return the counter
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) metric(name, help, "counter", labels, Counter::new);
+    }
+
+    /**
+     * Registers a gauge read from a supplier when the metrics are published.
+     * A gauge already registered with the same name and labels is replaced.
+     *
+     * @param name   the metric name
+     * @param help   what the metric measures
+     * @param value  supplies the current value
+     * @param labels label names and values, alternating
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        Family family = family(name, help, "gauge");
+        Series series = new Series(family, labels, new Gauge(value));
+        Series replaced;
+        synchronized (this) {
+            replaced = family.series.put(series.labelText, series);
+        }
+        if (replaced != null) {
+            unregister(replaced);
+        }
+        register(series);
+    }
+
+    /**
+     * Returns a latency histogram, creating it if it does not exist.
+     * The histogram records nanoseconds and is published in seconds.
+     *
+     * @param name   the metric name, such as {@code airflow_dao_latency_seconds}
+     * @param help   what the metric times
+     * @param labels label names and values, alternating
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) metric(name, help, "histogram", labels, LatencyHistogram::new);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     *
+     * @param out where to write
+     * @throws IOException if the writer fails
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        List<Family> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.values());
+        }
+        StringBuilder text = new StringBuilder();
+        for (Family family : snapshot) {
+            List<Series> series;
+            synchronized (this) {
+                series = new ArrayList<>(family.series.values());
+            }
+            text.append("# HELP ").append(family.name).append(' ').append(family.help.replace("\\", "\\\\")
+                    .replace("\n", "\\n")).append('\n');
+            text.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Series one : series) {
+                appendSamples(text, family.name, one);
+            }
+            out.write(text.toString());
+            text.setLength(0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns every metric in the Prometheus text exposition format.
+     *
+     * @return the text
+     */
+    public String toPrometheus() {
+        StringWriter out = new StringWriter();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringWriter cannot fail", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format to a file, replacing it in one step
+     * so a collector reading the file never sees half of it.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void writePrometheus(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writePrometheus(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Registers every metric as an MBean of the platform server, now and whenever one is created.
+     */
+    public void enableJmx() {
+        List<Series> existing = new ArrayList<>();
+        synchronized (this) {
+            if (jmxEnabled) {
+                return;
+            }
+            jmxEnabled = true;
+            for (Family family : families.values()) {
+                existing.addAll(family.series.values());
+            }
+        }
+        existing.forEach(this::register);
+    }
+
+    /**
+     * Writes the Prometheus text to a file at a fixed rate from a daemon thread, and once more at exit.
+     *
+     * @param file    the file
+     * @param seconds seconds between two writes
+     */
+    public void dumpPeriodically(Path file, long seconds) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "airflow-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable dump = () -> {
+            try {
+                writePrometheus(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠ Could not write the metrics to " + file + ": " + e.getMessage());
+            }
+        };
+        dumper.scheduleAtFixedRate(dump, seconds, seconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(dump, "airflow-metrics-final-dump"));
+    }
+
+    /**
+     * Returns a metric of a family, creating the family and the metric if needed.
+     */
+    private Object metric(String name, String help, String type, String[] labels,
+                          Supplier<Object> factory) {
+        Family family = family(name, help, type);
+        String labelText = labelText(labels);
+        Series series;
+        synchronized (this) {
+            series = family.series.get(labelText);
+            if (series != null) {
+                return series.metric;
+            }
+            series = new Series(family, labels, factory.get());
+            family.series.put(labelText, series);
+        }
+        register(series);
+        return series.metric;
+    }
+
+    /**
+     * Returns a family, creating it if needed; a name is always used with the same type.
+     */
+    private synchronized Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    /**
+     * Appends the sample lines of one series.
+     */
+    private static void appendSamples(StringBuilder text, String name, Series series) {
+        if (series.metric instanceof Counter counter) {
+            sample(text, name, series.labelText, null, counter.get());
+        } else if (series.metric instanceof Gauge gauge) {
+            sample(text, name, series.labelText, null, gauge.value());
+        } else {
+            LatencyHistogram histogram = (LatencyHistogram) series.metric;
+            for (double bound : BUCKET_SECONDS) {
+                sample(text, name + "_bucket", series.labelText, "le=\"" + bound + "\"",
+                        histogram.getCountAtOrBelow((long) (bound * 1e9)));
+            }
+            long count = histogram.getCount();
+            sample(text, name + "_bucket", series.labelText, "le=\"+Inf\"", count);
+            sample(text, name + "_sum", series.labelText, null, histogram.getSum() / 1e9);
+            sample(text, name + "_count", series.labelText, null, count);
+        }
+    }
+
+    /**
+     * Appends one sample line.
+     */
+    private static void sample(StringBuilder text, String name, String labelText, String extraLabel, double value) {
+        text.append(name);
+        if (!labelText.isEmpty() || extraLabel != null) {
+            text.append('{').append(labelText);
+            if (extraLabel != null) {
+                text.append(labelText.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            text.append('}');
+        }
+        text.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Formats label pairs as Prometheus does, such as {@code dao="FlightDAO",method="getById"}.
+     */
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\")
+                    .replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Registers the MBean of a series if JMX is enabled.
+     */
+    private void register(Series series) {
+        if (!jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(series.objectName)) {
+                server.registerMBean(new MetricMBean(series), series.objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("⚠ Could not register the MBean " + series.objectName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the MBean of a replaced series.
+     */
+    private void unregister(Series series) {
+        if (!jmxEnabled) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(series.objectName);
+        } catch (JMException ignored) {
+            // Already gone
+        }
+    }
+
+    /**
+     * A counter that only goes up.
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        /** Adds one. */
+        public void increment() {
+            count.increment();
+        }
+
+        /**
+         * Adds an amount.
+         *
+         * @param amount the amount, not negative
+         */
+        public void add(long amount) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("A counter cannot go down");
+            }
+            count.add(amount);
+        }
+
+        /** @return the current count */
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * A value read when the metrics are published.
+     */
+    private record Gauge(DoubleSupplier supplier) {
+        double value() {
+            try {
+                return supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * The metrics sharing a name.
+     */
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        /** Series by label text, sorted */
+        private final Map<String, Series> series = new TreeMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /**
+     * One metric of a family with its labels.
+     */
+    private static final class Series {
+        private final String labelText;
+        private final Object metric;
+        private final ObjectName objectName;
+        private final String type;
+
+        private Series(Family family, String[] labels, Object metric) {
+            this.labelText = labelText(labels);
+            this.metric = metric;
+            this.type = family.type;
+            Hashtable<String, String> properties = new Hashtable<>();
+            properties.put("type", quoteIfNeeded(family.name));
+            for (int i = 0; i < labels.length; i += 2) {
+                properties.put(labels[i], quoteIfNeeded(labels[i + 1]));
+            }
+            try {
+                this.objectName = new ObjectName(JMX_DOMAIN, properties);
+            } catch (MalformedObjectNameException e) {
+                throw new IllegalArgumentException("Invalid metric name or labels: " + family.name + "{" + labelText + "}", e);
+            }
+        }
+
+        private static String quoteIfNeeded(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (",=:\"*?\n ".indexOf(value.charAt(i)) >= 0) {
+                    return ObjectName.quote(value);
+                }
+            }
+            return value.isEmpty() ? ObjectName.quote(value) : value;
+        }
+    }
+
+    /**
+     * Read-only MBean over one series. Counters expose Count, gauges Value, and histograms
+     * Count, MeanMillis, P50Millis, P95Millis, P99Millis and MaxMillis.
+     */
+    private static final class MetricMBean implements DynamicMBean {
+        private static final String[] HISTOGRAM_ATTRIBUTES = {"Count", "MeanMillis", "P50Millis", "P95Millis",
+                "P99Millis", "MaxMillis"};
+        private final Series series;
+
+        private MetricMBean(Series series) {
+            this.series = series;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            if (series.metric instanceof Counter counter && attribute.equals("Count")) {
+                return counter.get();
+            }
+            if (series.metric instanceof Gauge gauge && attribute.equals("Value")) {
+                return gauge.value();
+            }
+            if (series.metric instanceof LatencyHistogram histogram) {
+                switch (attribute) {
+                    case "Count":
+                        return histogram.getCount();
+                    case "MeanMillis":
+                        return histogram.getMean() / 1e6;
+                    case "P50Millis":
+                        return histogram.getValueAtPercentile(50) / 1e6;
+                    case "P95Millis":
+                        return histogram.getValueAtPercentile(95) / 1e6;
+                    case "P99Millis":
+                        return histogram.getValueAtPercentile(99) / 1e6;
+                    case "MaxMillis":
+                        return histogram.getMax() / 1e6;
+                    default:
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException ignored) {
+                    // Unknown attributes are left out, as the DynamicMBean contract allows
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metric attributes are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            switch (series.type) {
+                case "counter" -> attributes.add(new MBeanAttributeInfo("Count", "long", "Count", true, false, false));
+                case "gauge" -> attributes.add(new MBeanAttributeInfo("Value", "double", "Current value", true, false, false));
+                default -> {
+                    attributes.add(new MBeanAttributeInfo("Count", "long", "Values recorded", true, false, false));
+                    for (int i = 1; i < HISTOGRAM_ATTRIBUTES.length; i++) {
+                        attributes.add(new MBeanAttributeInfo(HISTOGRAM_ATTRIBUTES[i], "double",
+                                HISTOGRAM_ATTRIBUTES[i], true, false, false));
+                    }
+                }
+            }
+            return new MBeanInfo(MetricMBean.class.getName(), series.objectName.toString(),
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
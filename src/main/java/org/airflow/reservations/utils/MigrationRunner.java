@@ -0,0 +1,346 @@
+package org.airflow.reservations.utils;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies versioned schema migrations to the database.
+ * Migrations are SQL scripts on the classpath named {@code V<version>__<description>.sql} and listed,
+ * one per line, in a {@code migrations.list} file in the same location. Each applied version is
+ * recorded in the {@code schema_version} table with a SHA-256 checksum of its script; a script that
+ * changes after it was applied makes the runner fail instead of silently diverging.
+ * <p>
+ * Concurrent application instances are serialized with a MySQL named lock. MySQL commits DDL
+ * implicitly, so a migration that fails halfway must be repaired by hand before it is retried.
+ */
+public class MigrationRunner {
+    /** Default classpath location of the migration scripts */
+    public static final String DEFAULT_LOCATION = "db/migration";
+    /** Name of the file listing the migration scripts */
+    private static final String INDEX_FILE = "migrations.list";
+    /** Name of the MySQL lock held while migrating */
+    private static final String LOCK_NAME = "airflow_schema_migration";
+    /** Seconds to wait for the migration lock */
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    /** Pattern of a migration file name */
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /** Source of the connection used to migrate */
+    private final DataSource dataSource;
+    /** Classpath location of the migration scripts */
+    private final String location;
+
+    /**
+     * Creates a runner for the scripts in the default location.
+     *
+     * @param dataSource the data source of the database to migrate
+     */
+    public MigrationRunner(DataSource dataSource) {
+        this(dataSource, DEFAULT_LOCATION);
+    }
+
+    /**
+     * Creates a runner for the scripts in a given classpath location.
+     *
+     * @param dataSource the data source of the database to migrate
+     * @param location   the classpath location of the migration scripts
+     */
+    public MigrationRunner(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    /**
+     * Applies every migration that has not been applied yet, in version order.
+     *
+     * @return the migrations applied by this run, in the order they were applied
+     * @throws SQLException if a database access error occurs or a migration fails
+     * @throws IllegalStateException if an applied migration's checksum no longer matches its script
+     */
+    public List<Migration> migrate() throws SQLException {
+        List<Migration> migrations = loadMigrations();
+
+        try (Connection connection = dataSource.getConnection()) {
+            acquireLock(connection);
+            try {
+                createVersionTable(connection);
+                Map<Integer, String> applied = getAppliedChecksums(connection);
+
+                List<Migration> appliedNow = new ArrayList<>();
+                for (Migration migration : migrations) {
+                    String checksum = applied.get(migration.getVersion());
+                    if (checksum == null) {
+                        apply(connection, migration);
+                        appliedNow.add(migration);
+                    } else if (!checksum.equals(migration.getChecksum())) {
+                        throw new IllegalStateException("Checksum mismatch for migration V" + migration.getVersion()
+                                + ": the script was modified after it was applied");
+                    }
+                }
+                return appliedNow;
+            } finally {
+                releaseLock(connection);
+            }
+        }
+    }
+
+    /**
+     * Loads the migration scripts listed in the location's index file, ordered by version.
+     *
+     * @return the migrations found
+     * @throws IllegalStateException if the index or a script cannot be read, a file name is invalid
+     *                               or two scripts have the same version
+     */
+    List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String fileName : readResource(location + "/" + INDEX_FILE).split("\n")) {
+            fileName = fileName.trim();
+            if (fileName.isEmpty() || fileName.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = FILE_NAME.matcher(fileName);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration file name: " + fileName);
+            }
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    readResource(location + "/" + fileName)));
+        }
+
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() == migrations.get(i - 1).getVersion()) {
+                throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).getVersion());
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Runs the statements of a migration and records it in the version table.
+     *
+     * @param connection the connection to use
+     * @param migration  the migration to apply
+     * @throws SQLException if a statement fails
+     */
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : splitStatements(migration.getScript())) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration V" + migration.getVersion() + " (" + migration.getDescription()
+                    + ") failed: " + e.getMessage(), e.getSQLState(), e);
+        }
+
+        String query = "INSERT INTO schema_version (version, description, checksum, installed_at, execution_ms) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, migration.getVersion());
+            statement.setString(2, migration.getDescription());
+            statement.setString(3, migration.getChecksum());
+            statement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            statement.setLong(5, System.currentTimeMillis() - start);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Creates the table that records applied migrations, if it does not exist.
+     *
+     * @param connection the connection to use
+     * @throws SQLException if a database access error occurs
+     */
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version int PRIMARY KEY NOT NULL, " +
+                    "description varchar(200) NOT NULL, " +
+                    "checksum char(64) NOT NULL, " +
+                    "installed_at timestamp NOT NULL, " +
+                    "execution_ms bigint NOT NULL)");
+        }
+    }
+
+    /**
+     * Returns the checksum of every applied migration, by version.
+     *
+     * @param connection the connection to use
+     * @return the applied checksums
+     * @throws SQLException if a database access error occurs
+     */
+    private Map<Integer, String> getAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt("version"), resultSet.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Takes the named lock that serializes migrations across application instances.
+     *
+     * @param connection the connection that will hold the lock
+     * @throws SQLException if the lock cannot be obtained in time
+     */
+    private void acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new SQLTransientException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the migration lock.
+     *
+     * @param connection the connection holding the lock
+     * @throws SQLException if a database access error occurs
+     */
+    private void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+
+    /**
+     * Reads a classpath resource as UTF-8 text with normalized line endings.
+     *
+     * @param path the classpath path of the resource
+     * @return the resource content
+     * @throws IllegalStateException if the resource does not exist or cannot be read
+     */
+    private static String readResource(String path) {
+        InputStream input = MigrationRunner.class.getClassLoader().getResourceAsStream(path);
+        if (input == null) {
+            throw new IllegalStateException("Migration resource not found: " + path);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            StringBuilder content = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+            return content.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading migration resource " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Splits a script into statements. Statements end with a semicolon at the end of a line,
+     * and lines starting with {@code --} are comments.
+     *
+     * @param script the SQL script
+     * @return the statements, without the trailing semicolons
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            boolean last = trimmed.endsWith(";");
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(last ? line.substring(0, line.lastIndexOf(';')) : line);
+            if (last) {
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * Computes the SHA-256 checksum of a script.
+     *
+     * @param script the SQL script, with normalized line endings
+     * @return the checksum as 64 lowercase hex characters
+     */
+    static String checksum(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * One versioned migration script.
+     */
+    public static final class Migration {
+        /** Version number, applied in ascending order */
+        private final int version;
+        /** Human-readable description taken from the file name */
+        private final String description;
+        /** SQL script */
+        private final String script;
+        /** SHA-256 checksum of the script */
+        private final String checksum;
+
+        /**
+         * Constructor for Migration.
+         *
+         * @param version     the version number
+         * @param description the description
+         * @param script      the SQL script
+         */
+        Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = MigrationRunner.checksum(script);
+        }
+
+        // Getters
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getScript() {
+            return script;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+}
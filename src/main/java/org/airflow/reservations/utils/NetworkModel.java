@@ -0,0 +1,551 @@
+package org.airflow.reservations.utils;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * The flights and the demand of a {@link ScaleProfile}, computed in memory before any row is written.
+ * <p>
+ * The cities are spread over a square and the first ones are hubs. Every other city, a spoke, is served from
+ * its nearest hub and sometimes from a second one, and flights link a spoke to one of its hubs or two hubs,
+ * never two spokes. Every airplane flies a rotation: each day it leaves early in the morning from the city
+ * where it ended the day before and keeps flying legs, each one departing from the arrival city of the
+ * previous one after a turnaround, until the last departure slot of the day. The legs of an airplane
+ * therefore never overlap.
+ * <p>
+ * The demand of a flight grows with the popularity of its two cities, peaks in the morning, in the evening
+ * and on Fridays and Sundays, and a share of the flights are hot, with a demand above their capacity.
+ * Bookings come with lead times drawn from an exponential distribution, so most of them are made in the
+ * last weeks before departure. The data represents the moment {@link ScaleProfile#getHistoryDays()} days into
+ * the schedule: earlier flights have flown, and later ones only have the bookings made by then.
+ * <p>
+ * Every random draw comes from a stream derived from the seed, so the same inputs always give the same network.
+ */
+final class NetworkModel {
+    /** Minutes in a day */
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** Flight status IDs, as created by the DataGenerator */
+    static final int FLIGHT_SCHEDULED = 1;
+    static final int FLIGHT_DELAYED = 2;
+    static final int FLIGHT_CANCELLED = 3;
+    static final int FLIGHT_COMPLETED = 7;
+    /** Reservation status IDs, as created by the DataGenerator */
+    static final int RESERVATION_CONFIRMED = 1;
+    static final int RESERVATION_CANCELLED = 2;
+    static final int RESERVATION_PENDING = 3;
+    static final int RESERVATION_CHECKED_IN = 4;
+    static final int RESERVATION_COMPLETED = 5;
+
+    /** Earliest first departure of an airplane, in minutes after midnight */
+    private static final int FIRST_DEPARTURE = 5 * 60 + 30;
+    /** Spread of the first departures, in minutes */
+    private static final int FIRST_DEPARTURE_SPREAD = 90;
+    /** Latest departure of a day, in minutes after midnight */
+    private static final int LAST_DEPARTURE = 22 * 60;
+    /** Shortest turnaround between two legs, in minutes */
+    private static final int MIN_TURNAROUND = 35;
+    /** Spread of the turnarounds, in minutes */
+    private static final int TURNAROUND_SPREAD = 26;
+    /** Probability that an airplane stays on the ground for a day */
+    private static final double MAINTENANCE_PROBABILITY = 0.03;
+    /** Probability that a hub sends a flight to another hub rather than to one of its spokes */
+    private static final double HUB_TO_HUB_PROBABILITY = 0.3;
+    /** Probability that a spoke is also served from its second nearest hub */
+    private static final double SECOND_HUB_PROBABILITY = 0.3;
+    /** Cruise speed used for the block times, in km per minute */
+    private static final double KM_PER_MINUTE = 13.5;
+    /** Longest leg, in km */
+    private static final double MAX_LEG_KM = 14_500;
+    /** Taxi, climb and descent time added to every leg, in minutes */
+    private static final int BLOCK_OVERHEAD = 25;
+    /** Highest demand of a flight, as a multiple of its capacity */
+    private static final double MAX_DEMAND = 1.3;
+    /** Longest lead time of a booking, in days */
+    private static final int BOOKING_HORIZON_DAYS = 330;
+
+    /** Random streams of the model; the DataGenerator uses lower numbers for its tables */
+    private static final int CITY_STREAM = 11;
+    private static final int ROTATION_STREAM = 12;
+    private static final int DEMAND_STREAM = 13;
+
+    /** The profile */
+    private final ScaleProfile profile;
+    /** Number of cities */
+    private final int cityCount;
+    /** Number of hubs; the hubs are the cities with the lowest IDs */
+    private final int hubCount;
+    /** Position of every city, indexed by ID - 1, in km */
+    private final double[] cityX;
+    private final double[] cityY;
+    /** Popularity of every city, indexed by ID - 1 */
+    private final double[] cityWeight;
+    /** Cumulative popularity of the hubs */
+    private final double[] hubWeights;
+    /** Spokes served from every hub and their cumulative popularity, indexed by hub ID - 1 */
+    private final int[][] hubSpokes;
+    private final double[][] hubSpokeWeights;
+    /** Hubs serving every spoke, indexed by ID - 1; null for the hubs */
+    private final int[][] spokeHubs;
+    /** Day of the week of the first day of the schedule */
+    private final DayOfWeek firstDay;
+    /** Moment the data represents, in minutes after the start of the schedule */
+    private final int nowMinute;
+
+    // Flights, indexed by ID - 1
+    private final int flightCount;
+    private final int[] flightAirplanes;
+    private final int[] flightOrigins;
+    private final int[] flightDestinations;
+    private final int[] flightDepartures;
+    private final int[] flightDurations;
+    /** Number of every flight on its route, 1 for the earliest departure of the route */
+    private final int[] flightNumbers;
+    private final int[] flightStatuses;
+    private final int[] flightPrices;
+    private final boolean[] hotFlights;
+    /** Reservations made before the first one of every flight; the last entry is the total */
+    private final int[] reservationOffsets;
+
+    /**
+     * Builds the network, the rotations and the demand.
+     *
+     * @param profile            the profile
+     * @param seed               the seed of the random streams
+     * @param cityCount          the number of cities, at least two
+     * @param airplaneCapacities the capacity of every airplane, indexed by ID - 1
+     * @param days               the days covered by the schedule
+     * @param firstDay           the day of the week of the first day of the schedule
+     * @throws IllegalArgumentException if there are fewer than two cities, no airplanes, or more reservations than IDs
+     */
+    NetworkModel(ScaleProfile profile, long seed, int cityCount, int[] airplaneCapacities, int days, DayOfWeek firstDay) {
+        if (cityCount < 2 || airplaneCapacities.length == 0) {
+            throw new IllegalArgumentException("The network needs at least two cities and one airplane");
+        }
+        this.profile = profile;
+        this.cityCount = cityCount;
+        this.hubCount = Math.min(profile.getHubs(), cityCount);
+        this.firstDay = firstDay;
+        this.nowMinute = Math.min(profile.getHistoryDays(), days) * MINUTES_PER_DAY;
+
+        cityX = new double[cityCount];
+        cityY = new double[cityCount];
+        cityWeight = new double[cityCount];
+        hubWeights = new double[hubCount];
+        hubSpokes = new int[hubCount][];
+        hubSpokeWeights = new double[hubCount][];
+        spokeHubs = new int[cityCount][];
+        buildCities(DataGenerator.random(seed, CITY_STREAM, 0));
+
+        Legs legs = new Legs();
+        for (int airplane = 0; airplane < airplaneCapacities.length; airplane++) {
+            flyRotation(legs, airplane + 1, days, DataGenerator.random(seed, ROTATION_STREAM, airplane));
+        }
+        flightCount = legs.size;
+        flightAirplanes = Arrays.copyOf(legs.airplanes, flightCount);
+        flightOrigins = Arrays.copyOf(legs.origins, flightCount);
+        flightDestinations = Arrays.copyOf(legs.destinations, flightCount);
+        flightDepartures = Arrays.copyOf(legs.departures, flightCount);
+        flightDurations = Arrays.copyOf(legs.durations, flightCount);
+        flightNumbers = numberFlights();
+
+        flightStatuses = new int[flightCount];
+        flightPrices = new int[flightCount];
+        hotFlights = new boolean[flightCount];
+        reservationOffsets = new int[flightCount + 1];
+        computeDemand(airplaneCapacities, DataGenerator.random(seed, DEMAND_STREAM, 0));
+    }
+
+    /**
+     * Numbers the flights of every route in departure order, so that the route and the number identify a flight.
+     * Flights are visited by departure through an array of departure and index pairs, which sorts without boxing.
+     */
+    private int[] numberFlights() {
+        long[] byDeparture = new long[flightCount];
+        for (int i = 0; i < flightCount; i++) {
+            byDeparture[i] = ((long) flightDepartures[i] << 32) | i;
+        }
+        Arrays.sort(byDeparture);
+
+        int[] numbers = new int[flightCount];
+        HashMap<Long, Integer> routeFlights = new HashMap<>();
+        for (long entry : byDeparture) {
+            int i = (int) entry;
+            long route = (long) flightOrigins[i] * (cityCount + 1) + flightDestinations[i];
+            numbers[i] = routeFlights.merge(route, 1, Integer::sum);
+        }
+        return numbers;
+    }
+
+    /**
+     * Places the cities, draws their popularity and assigns every spoke to its hubs.
+     * Popularity follows a Pareto distribution, so a few cities draw most of the traffic, and hubs weigh more.
+     */
+    private void buildCities(Random random) {
+        int region = profile.getRegionKm();
+        for (int i = 0; i < cityCount; i++) {
+            cityX[i] = random.nextDouble() * region;
+            cityY[i] = random.nextDouble() * region;
+            double popularity = Math.min(100, 1 / Math.pow(1 - random.nextDouble(), 1 / 1.16));
+            cityWeight[i] = i < hubCount ? 4 * Math.max(5, popularity) : popularity;
+        }
+
+        double total = 0;
+        for (int hub = 0; hub < hubCount; hub++) {
+            total += cityWeight[hub];
+            hubWeights[hub] = total;
+        }
+
+        int[] spokeCount = new int[hubCount];
+        for (int city = hubCount; city < cityCount; city++) {
+            int nearest = -1;
+            int second = -1;
+            for (int hub = 0; hub < hubCount; hub++) {
+                if (nearest < 0 || distance(city, hub) < distance(city, nearest)) {
+                    second = nearest;
+                    nearest = hub;
+                } else if (second < 0 || distance(city, hub) < distance(city, second)) {
+                    second = hub;
+                }
+            }
+            spokeHubs[city] = second >= 0 && random.nextDouble() < SECOND_HUB_PROBABILITY
+                    ? new int[]{nearest + 1, second + 1}
+                    : new int[]{nearest + 1};
+            for (int hub : spokeHubs[city]) {
+                spokeCount[hub - 1]++;
+            }
+        }
+
+        for (int hub = 0; hub < hubCount; hub++) {
+            hubSpokes[hub] = new int[spokeCount[hub]];
+            hubSpokeWeights[hub] = new double[spokeCount[hub]];
+            spokeCount[hub] = 0;
+        }
+        for (int city = hubCount; city < cityCount; city++) {
+            for (int hub : spokeHubs[city]) {
+                int index = spokeCount[hub - 1]++;
+                hubSpokes[hub - 1][index] = city + 1;
+                hubSpokeWeights[hub - 1][index] = (index == 0 ? 0 : hubSpokeWeights[hub - 1][index - 1]) + cityWeight[city];
+            }
+        }
+    }
+
+    /**
+     * Adds the legs flown by one airplane over the schedule.
+     * The airplane starts at a hub and every leg departs from the arrival city of the previous one.
+     */
+    private void flyRotation(Legs legs, int airplaneId, int days, Random random) {
+        int city = 1 + (airplaneId - 1) % hubCount;
+        int time = 0;
+        for (int day = 0; day < days; day++) {
+            if (random.nextDouble() < MAINTENANCE_PROBABILITY) {
+                continue;
+            }
+            int dayStart = day * MINUTES_PER_DAY;
+            time = roundUp(Math.max(time, dayStart + FIRST_DEPARTURE + random.nextInt(FIRST_DEPARTURE_SPREAD)));
+            while (time <= dayStart + LAST_DEPARTURE) {
+                int destination = nextDestination(city, random);
+                int minutes = blockMinutes(city, destination);
+                legs.add(airplaneId, city, destination, time, minutes);
+                time = roundUp(time + minutes + MIN_TURNAROUND + random.nextInt(TURNAROUND_SPREAD));
+                city = destination;
+            }
+        }
+    }
+
+    /**
+     * Chooses where an airplane flies next.
+     * A hub sends it to one of its spokes or to another hub, weighted by popularity; a spoke sends it back to one of its hubs.
+     */
+    private int nextDestination(int city, Random random) {
+        if (city > hubCount) {
+            int[] hubs = spokeHubs[city - 1];
+            return hubs[random.nextInt(hubs.length)];
+        }
+        int[] spokes = hubSpokes[city - 1];
+        if (hubCount > 1 && (spokes.length == 0 || random.nextDouble() < HUB_TO_HUB_PROBABILITY)) {
+            int hub;
+            do {
+                hub = 1 + pick(hubWeights, random);
+            } while (hub == city);
+            return hub;
+        }
+        return spokes[pick(hubSpokeWeights[city - 1], random)];
+    }
+
+    /**
+     * Draws the demand, the status and the price of every flight and counts the bookings made so far.
+     * The demand is normalized so that the average flight sells the profile load factor by departure.
+     */
+    private void computeDemand(int[] airplaneCapacities, Random random) {
+        double[] raw = new double[flightCount];
+        double sum = 0;
+        for (int i = 0; i < flightCount; i++) {
+            raw[i] = Math.pow(cityWeight[flightOrigins[i] - 1] * cityWeight[flightDestinations[i] - 1], 0.25)
+                    * hourFactor(flightDepartures[i]) * dayFactor(flightDepartures[i])
+                    * Math.exp(0.35 * random.nextGaussian());
+            sum += raw[i];
+        }
+        double mean = flightCount == 0 ? 1 : sum / flightCount;
+
+        long reservations = 0;
+        for (int i = 0; i < flightCount; i++) {
+            double multiplier = raw[i] / mean;
+            hotFlights[i] = random.nextDouble() < profile.getHotFlightShare();
+            if (hotFlights[i]) {
+                multiplier = Math.max(multiplier, 1) * (1.6 + random.nextDouble());
+            }
+            int capacity = airplaneCapacities[flightAirplanes[i] - 1];
+            double demand = Math.min(capacity * profile.getLoadFactor() * multiplier, capacity * MAX_DEMAND);
+
+            // Only the bookings made before now are kept; lead times are exponential
+            double daysToDeparture = (flightDepartures[i] - nowMinute) / (double) MINUTES_PER_DAY;
+            double booked = daysToDeparture <= 0 ? demand : demand * Math.exp(-daysToDeparture / profile.getBookingMeanDays());
+            int count = (int) (booked + random.nextDouble());
+
+            flightStatuses[i] = drawFlightStatus(i, random);
+            boolean spoke = !isHub(flightOrigins[i]) || !isHub(flightDestinations[i]);
+            flightPrices[i] = (int) Math.round((35 + 0.9 * flightDurations[i]) * (spoke ? 1.1 : 1.0) * (hotFlights[i] ? 1.25 : 1.0));
+
+            reservations += count;
+            if (reservations > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The profile generates more reservations than there are IDs");
+            }
+            reservationOffsets[i + 1] = (int) reservations;
+        }
+    }
+
+    /**
+     * Draws the status of a flight from its departure relative to now.
+     */
+    private int drawFlightStatus(int index, Random random) {
+        double roll = random.nextDouble();
+        int departure = flightDepartures[index];
+        if (departure + flightDurations[index] <= nowMinute) {
+            return roll < 0.015 ? FLIGHT_CANCELLED : FLIGHT_COMPLETED;
+        }
+        if (departure < nowMinute + MINUTES_PER_DAY) {
+            return roll < 0.01 ? FLIGHT_CANCELLED : roll < 0.09 ? FLIGHT_DELAYED : FLIGHT_SCHEDULED;
+        }
+        return roll < 0.005 ? FLIGHT_CANCELLED : FLIGHT_SCHEDULED;
+    }
+
+    /**
+     * Draws when one booking of a flight was made. Bookings are never made after now.
+     *
+     * @param flightId the ID of the flight
+     * @param random   the random number generator
+     * @return the booking time, in minutes after the start of the schedule; negative if it was made before the schedule starts
+     */
+    int drawBookingMinute(int flightId, Random random) {
+        int departure = flightDepartures[flightId - 1];
+        // The exponential is memoryless: the lead time of a booking made by now is the shortest one plus a fresh draw
+        double lead = Math.max(0, departure - nowMinute)
+                - Math.log(1 - random.nextDouble()) * profile.getBookingMeanDays() * MINUTES_PER_DAY;
+        return departure - (int) Math.min(lead, BOOKING_HORIZON_DAYS * MINUTES_PER_DAY);
+    }
+
+    /**
+     * Draws the status of one reservation of a flight. Reservations of flown flights are completed and
+     * reservations of flights departing within a day are often checked in.
+     *
+     * @param flightId the ID of the flight
+     * @param random   the random number generator
+     * @return the reservation status ID
+     */
+    int drawReservationStatus(int flightId, Random random) {
+        double roll = random.nextDouble();
+        int departure = flightDepartures[flightId - 1];
+        if (flightStatuses[flightId - 1] == FLIGHT_CANCELLED || roll < 0.07) {
+            return RESERVATION_CANCELLED;
+        }
+        if (departure < nowMinute) {
+            return RESERVATION_COMPLETED;
+        }
+        if (departure < nowMinute + MINUTES_PER_DAY) {
+            return random.nextDouble() < 0.6 ? RESERVATION_CHECKED_IN : RESERVATION_CONFIRMED;
+        }
+        return random.nextDouble() < 0.08 ? RESERVATION_PENDING : RESERVATION_CONFIRMED;
+    }
+
+    /**
+     * Draws the user making a booking. Low IDs are drawn more often, so a minority of frequent
+     * flyers hold most of the reservations.
+     *
+     * @param users  the number of users
+     * @param random the random number generator
+     * @return the user ID
+     */
+    static int drawUser(int users, Random random) {
+        double u = random.nextDouble();
+        return 1 + (int) (users * u * u);
+    }
+
+    /**
+     * Returns the share of the average demand for a departure hour, with morning and evening peaks.
+     */
+    private static double hourFactor(int departureMinute) {
+        int hour = departureMinute % MINUTES_PER_DAY / 60;
+        if (hour >= 6 && hour < 10) {
+            return 1.25;
+        }
+        if (hour >= 17 && hour < 21) {
+            return 1.2;
+        }
+        return hour >= 10 && hour < 17 ? 0.95 : 0.7;
+    }
+
+    /**
+     * Returns the share of the average demand for a departure day, with Friday and Sunday peaks.
+     */
+    private double dayFactor(int departureMinute) {
+        switch (firstDay.plus(departureMinute / MINUTES_PER_DAY)) {
+            case FRIDAY: return 1.2;
+            case SUNDAY: return 1.15;
+            case MONDAY: return 1.05;
+            case TUESDAY:
+            case WEDNESDAY: return 0.85;
+            case SATURDAY: return 0.9;
+            default: return 1.0;
+        }
+    }
+
+    /**
+     * Returns the block time of a leg, rounded up to five minutes.
+     */
+    private int blockMinutes(int origin, int destination) {
+        double km = Math.min(distance(origin - 1, destination - 1), MAX_LEG_KM);
+        return roundUp(BLOCK_OVERHEAD + (int) (km / KM_PER_MINUTE));
+    }
+
+    /**
+     * Returns the distance between two cities, given by index, in km.
+     */
+    private double distance(int a, int b) {
+        return Math.hypot(cityX[a] - cityX[b], cityY[a] - cityY[b]);
+    }
+
+    /**
+     * Rounds a number of minutes up to a multiple of five.
+     */
+    private static int roundUp(int minutes) {
+        return (minutes + 4) / 5 * 5;
+    }
+
+    /**
+     * Draws an index with a probability proportional to its weight.
+     *
+     * @param cumulative the cumulative weights
+     * @param random     the random number generator
+     * @return the index
+     */
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    /**
+     * Checks if a city is a hub.
+     *
+     * @param cityId the ID of the city
+     * @return true if the city is a hub
+     */
+    boolean isHub(int cityId) {
+        return cityId <= hubCount;
+    }
+
+    // Getters; the flight getters take the flight ID
+    int getHubCount() {
+        return hubCount;
+    }
+
+    int getNowMinute() {
+        return nowMinute;
+    }
+
+    int getFlightCount() {
+        return flightCount;
+    }
+
+    int getAirplaneId(int flightId) {
+        return flightAirplanes[flightId - 1];
+    }
+
+    int getOriginId(int flightId) {
+        return flightOrigins[flightId - 1];
+    }
+
+    int getDestinationId(int flightId) {
+        return flightDestinations[flightId - 1];
+    }
+
+    int getDepartureMinute(int flightId) {
+        return flightDepartures[flightId - 1];
+    }
+
+    int getFlightNumber(int flightId) {
+        return flightNumbers[flightId - 1];
+    }
+
+    int getDurationMinutes(int flightId) {
+        return flightDurations[flightId - 1];
+    }
+
+    int getStatusId(int flightId) {
+        return flightStatuses[flightId - 1];
+    }
+
+    int getPrice(int flightId) {
+        return flightPrices[flightId - 1];
+    }
+
+    boolean isHot(int flightId) {
+        return hotFlights[flightId - 1];
+    }
+
+    int getReservationCount(int flightId) {
+        return reservationOffsets[flightId] - reservationOffsets[flightId - 1];
+    }
+
+    int getFirstReservationId(int flightId) {
+        return reservationOffsets[flightId - 1] + 1;
+    }
+
+    int getTotalReservations() {
+        return reservationOffsets[flightCount];
+    }
+
+    /**
+     * Growable columns of the legs flown, in the order they are added.
+     */
+    private static final class Legs {
+        private int[] airplanes = new int[1024];
+        private int[] origins = new int[1024];
+        private int[] destinations = new int[1024];
+        private int[] departures = new int[1024];
+        private int[] durations = new int[1024];
+        private int size;
+
+        /**
+         * Adds a leg.
+         */
+        private void add(int airplane, int origin, int destination, int departure, int duration) {
+            if (size == airplanes.length) {
+                int capacity = size * 2;
+                airplanes = Arrays.copyOf(airplanes, capacity);
+                origins = Arrays.copyOf(origins, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+                departures = Arrays.copyOf(departures, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+            }
+            airplanes[size] = airplane;
+            origins[size] = origin;
+            destinations[size] = destination;
+            departures[size] = departure;
+            durations[size] = duration;
+            size++;
+        }
+    }
+}
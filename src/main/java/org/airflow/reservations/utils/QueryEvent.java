@@ -0,0 +1,29 @@
+package org.airflow.reservations.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one DAO operation, from acquiring its connection to releasing it.
+ * Recorded by {@code BaseDAO} when the operation takes at least the threshold; while no recording
+ * has the event enabled it is never allocated.
+ */
+@Name("org.airflow.reservations.Query")
+@Label("DAO Query")
+@Category({"AirFlow", "Database"})
+@Description("A DAO operation and the rows it read")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class QueryEvent extends jdk.jfr.Event {
+    @Label("SQL Id")
+    @Description("The DAO and method that ran the statements, such as FlightDAO.getById")
+    public String sqlId;
+
+    @Label("Rows")
+    @Description("Rows mapped to objects by the operation, 0 for writes")
+    public long rows;
+}
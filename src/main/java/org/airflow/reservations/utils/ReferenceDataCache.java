@@ -0,0 +1,379 @@
+package org.airflow.reservations.utils;
+
+import org.airflow.reservations.DAO.AirplaneDAO;
+import org.airflow.reservations.DAO.CityDAO;
+import org.airflow.reservations.DAO.DAOFactory;
+import org.airflow.reservations.model.Airplane;
+import org.airflow.reservations.model.City;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the reference data that rarely changes: cities and airplanes.
+ * Cities are indexed by ID and name, airplanes by ID and code. Each table is held as an immutable
+ * snapshot; a change made through CityDAO or AirplaneDAO drops the snapshot of its table, which is
+ * read again in full on the next lookup. A lookup that misses the snapshot falls back to the
+ * database, so rows inserted by other processes are still found.
+ * <p>
+ * The cache only serves lookups once it has been preloaded; until then callers read the database.
+ * Lookups return copies, so callers can modify the objects they get.
+ */
+public class ReferenceDataCache {
+    /** The cache shared by the services and invalidated by the DAOs */
+    private static volatile ReferenceDataCache shared;
+
+    /** Data Access Object used to load cities */
+    private final CityDAO cityDAO;
+    /** Data Access Object used to load airplanes */
+    private final AirplaneDAO airplaneDAO;
+
+    /** Snapshot of the cities, or null if it must be reloaded */
+    private volatile Snapshot<City> cities;
+    /** Snapshot of the airplanes, or null if it must be reloaded */
+    private volatile Snapshot<Airplane> airplanes;
+    /** Incremented on every city change, so that a reload racing with a change is not published */
+    private final AtomicLong cityGeneration = new AtomicLong();
+    /** Incremented on every airplane change, so that a reload racing with a change is not published */
+    private final AtomicLong airplaneGeneration = new AtomicLong();
+    /** Whether the cache has been preloaded and serves lookups */
+    private volatile boolean enabled;
+
+    /** Lookups answered from memory */
+    private final MetricsRegistry.Counter hits;
+    /** Lookups that had to read the database */
+    private final MetricsRegistry.Counter misses;
+
+    /**
+     * Constructor for ReferenceDataCache.
+     *
+     * @param cityDAO     the CityDAO used to load cities
+     * @param airplaneDAO the AirplaneDAO used to load airplanes
+     */
+    public ReferenceDataCache(CityDAO cityDAO, AirplaneDAO airplaneDAO) {
+        this(cityDAO, airplaneDAO, new MetricsRegistry.Counter(), new MetricsRegistry.Counter());
+    }
+
+    /**
+     * Constructor for ReferenceDataCache that counts its lookups in given counters.
+     *
+     * @param cityDAO     the CityDAO used to load cities
+     * @param airplaneDAO the AirplaneDAO used to load airplanes
+     * @param hits        counts the lookups answered from memory
+     * @param misses      counts the lookups that read the database
+     */
+    private ReferenceDataCache(CityDAO cityDAO, AirplaneDAO airplaneDAO,
+                               MetricsRegistry.Counter hits, MetricsRegistry.Counter misses) {
+        this.cityDAO = cityDAO;
+        this.airplaneDAO = airplaneDAO;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns the application-wide cache, creating it on first use.
+     *
+     * @return the shared ReferenceDataCache
+     * @throws SQLException if the DAOs cannot be created
+     */
+    public static ReferenceDataCache getShared() throws SQLException {
+        ReferenceDataCache current = shared;
+        if (current == null) {
+            synchronized (ReferenceDataCache.class) {
+                current = shared;
+                if (current == null) {
+                    current = new ReferenceDataCache(DAOFactory.cityDAO(), DAOFactory.airplaneDAO(),
+                            MetricsRegistry.global().counter("airflow_reference_cache_hits_total",
+                                    "Reference data lookups answered from memory."),
+                            MetricsRegistry.global().counter("airflow_reference_cache_misses_total",
+                                    "Reference data lookups that read the database."));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Drops the cached cities of the shared cache, if it exists.
+     * Called by CityDAO after every change to the cities table.
+     */
+    public static void citiesChanged() {
+        ReferenceDataCache current = shared;
+        if (current != null) {
+            current.invalidateCities();
+        }
+    }
+
+    /**
+     * Drops the cached airplanes of the shared cache, if it exists.
+     * Called by AirplaneDAO after every change to the airplanes table.
+     */
+    public static void airplanesChanged() {
+        ReferenceDataCache current = shared;
+        if (current != null) {
+            current.invalidateAirplanes();
+        }
+    }
+
+    /**
+     * Loads every city and airplane and starts serving lookups from memory.
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    public void preload() throws SQLException {
+        invalidateCities();
+        invalidateAirplanes();
+        cities();
+        airplanes();
+        enabled = true;
+    }
+
+    /**
+     * Checks if the cache has been preloaded and serves lookups.
+     *
+     * @return true if lookups are answered from memory
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drops the cached cities; they are read again on the next lookup.
+     */
+    public synchronized void invalidateCities() {
+        cityGeneration.incrementAndGet();
+        cities = null;
+    }
+
+    /**
+     * Drops the cached airplanes; they are read again on the next lookup.
+     */
+    public synchronized void invalidateAirplanes() {
+        airplaneGeneration.incrementAndGet();
+        airplanes = null;
+    }
+
+    /**
+     * Returns a city by its ID.
+     *
+     * @param id the ID of the city
+     * @return the city, or an empty City object if it does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    public City getCityById(int id) throws SQLException {
+        City city = cities().byId.get(id);
+        if (city != null) {
+            hits.increment();
+            return copyOf(city);
+        }
+        misses.increment();
+        return cityDAO.getById(id);
+    }
+
+    /**
+     * Returns a city by its name.
+     *
+     * @param name the name of the city
+     * @return the city, or an empty City object if it does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    public City getCityByName(String name) throws SQLException {
+        City city = cities().byKey.get(name);
+        if (city != null) {
+            hits.increment();
+            return copyOf(city);
+        }
+        misses.increment();
+        return cityDAO.getByName(name);
+    }
+
+    /**
+     * Returns every city.
+     *
+     * @return the cities, in the order the database returned them
+     * @throws SQLException if a database access error occurs
+     */
+    public ArrayList<City> getAllCities() throws SQLException {
+        ArrayList<City> result = new ArrayList<>();
+        for (City city : cities().byId.values()) {
+            result.add(copyOf(city));
+        }
+        return result;
+    }
+
+    /**
+     * Returns an airplane by its ID.
+     *
+     * @param id the ID of the airplane
+     * @return the airplane, or an empty Airplane object if it does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    public Airplane getAirplaneById(int id) throws SQLException {
+        Airplane airplane = airplanes().byId.get(id);
+        if (airplane != null) {
+            hits.increment();
+            return copyOf(airplane);
+        }
+        misses.increment();
+        return airplaneDAO.getById(id);
+    }
+
+    /**
+     * Returns an airplane by its code.
+     *
+     * @param code the code of the airplane
+     * @return the airplane, or an empty Airplane object if it does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    public Airplane getAirplaneByCode(String code) throws SQLException {
+        Airplane airplane = airplanes().byKey.get(code);
+        if (airplane != null) {
+            hits.increment();
+            return copyOf(airplane);
+        }
+        misses.increment();
+        return airplaneDAO.getByCode(code);
+    }
+
+    /**
+     * Returns the number of lookups answered from memory.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that read the database, including snapshot reloads.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the city snapshot, reloading it if it was invalidated.
+     *
+     * @return the city snapshot
+     * @throws SQLException if a database access error occurs
+     */
+    private Snapshot<City> cities() throws SQLException {
+        Snapshot<City> current = cities;
+        if (current == null) {
+            misses.increment();
+            long generation = cityGeneration.get();
+            current = loadCities();
+            synchronized (this) {
+                if (cityGeneration.get() == generation) {
+                    cities = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the airplane snapshot, reloading it if it was invalidated.
+     *
+     * @return the airplane snapshot
+     * @throws SQLException if a database access error occurs
+     */
+    private Snapshot<Airplane> airplanes() throws SQLException {
+        Snapshot<Airplane> current = airplanes;
+        if (current == null) {
+            misses.increment();
+            long generation = airplaneGeneration.get();
+            current = loadAirplanes();
+            synchronized (this) {
+                if (airplaneGeneration.get() == generation) {
+                    airplanes = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reads every city from the database.
+     *
+     * @return the city snapshot
+     * @throws SQLException if a database access error occurs
+     */
+    private Snapshot<City> loadCities() throws SQLException {
+        LinkedHashMap<Integer, City> byId = new LinkedHashMap<>();
+        HashMap<String, City> byName = new HashMap<>();
+        for (City city : cityDAO.getAll()) {
+            byId.put(city.getId(), city);
+            byName.put(city.getName(), city);
+        }
+        return new Snapshot<>(byId, byName);
+    }
+
+    /**
+     * Reads every airplane from the database.
+     *
+     * @return the airplane snapshot
+     * @throws SQLException if a database access error occurs
+     */
+    private Snapshot<Airplane> loadAirplanes() throws SQLException {
+        LinkedHashMap<Integer, Airplane> byId = new LinkedHashMap<>();
+        HashMap<String, Airplane> byCode = new HashMap<>();
+        for (Airplane airplane : airplaneDAO.getAll()) {
+            byId.put(airplane.getId(), airplane);
+            byCode.put(airplane.getCode(), airplane);
+        }
+        return new Snapshot<>(byId, byCode);
+    }
+
+    /**
+     * Copies a city so that callers never modify the cached one.
+     *
+     * @param city the city to copy
+     * @return the copy
+     */
+    private static City copyOf(City city) {
+        return new City(city.getId(), city.getName(), city.getCountry(), city.getCode());
+    }
+
+    /**
+     * Copies an airplane so that callers never modify the cached one.
+     *
+     * @param airplane the airplane to copy
+     * @return the copy
+     */
+    private static Airplane copyOf(Airplane airplane) {
+        return new Airplane(airplane.getId(), airplane.getAirline(), airplane.getModel(), airplane.getCode(),
+                airplane.getCapacity(), airplane.getYear());
+    }
+
+    /**
+     * Immutable contents of one cached table.
+     *
+     * @param <T> the type of the rows
+     */
+    private static final class Snapshot<T> {
+        /** Rows by ID, in load order */
+        private final Map<Integer, T> byId;
+        /** Rows by name or code */
+        private final Map<String, T> byKey;
+
+        /**
+         * Constructor for Snapshot.
+         *
+         * @param byId  the rows by ID
+         * @param byKey the rows by name or code
+         */
+        private Snapshot(Map<Integer, T> byId, Map<String, T> byKey) {
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byKey = Collections.unmodifiableMap(byKey);
+        }
+    }
+}
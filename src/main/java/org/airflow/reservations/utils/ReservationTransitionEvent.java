@@ -0,0 +1,51 @@
+package org.airflow.reservations.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a reservation moving from one status to another.
+ * Every transition is recorded, with the time the service took to make it.
+ */
+@Name("org.airflow.reservations.ReservationTransition")
+@Label("Reservation Transition")
+@Category({"AirFlow", "Booking"})
+@Description("A reservation created, confirmed, checked in, reassigned or cancelled")
+@StackTrace(false)
+public final class ReservationTransitionEvent extends jdk.jfr.Event {
+    @Label("Transition")
+    @Description("The operation, such as create, confirm, checkIn, reassign or cancel")
+    public String transition;
+
+    @Label("Reservation Id")
+    public int reservationId;
+
+    @Label("From Status")
+    @Description("The reservation status before the transition, 0 for a new reservation")
+    public int fromStatus;
+
+    @Label("To Status")
+    @Description("The reservation status after the transition, 0 for a deleted reservation")
+    public int toStatus;
+
+    /**
+     * Commits the event if a recording wants it.
+     *
+     * @param transition    the operation
+     * @param reservationId the reservation
+     * @param fromStatus    the status before, 0 for a new reservation
+     * @param toStatus      the status after, 0 for a deleted reservation
+     */
+    public void commit(String transition, int reservationId, int fromStatus, int toStatus) {
+        if (shouldCommit()) {
+            this.transition = transition;
+            this.reservationId = reservationId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package org.airflow.reservations.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongConsumer;
+
+/**
+ * Destination of the rows written by the DataGenerator: the database, or CSV files to load later.
+ * <p>
+ * Rows are written by partitions, each used by one thread. A partition writes rows to one or more tables
+ * and counts them with {@link Partition#endRow()}; every batch size rows the tables are flushed in the order
+ * they were opened, so a row is always written after the rows it references. A partition must be flushed
+ * before it is closed; rows still pending when it is closed are discarded.
+ */
+abstract class RowOutput {
+    /** Rows per batch */
+    final int batchSize;
+
+    /**
+     * Constructor for RowOutput.
+     *
+     * @param batchSize the rows per batch
+     */
+    RowOutput(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates an output that inserts the rows with JDBC batches, one pooled connection and transaction per partition.
+     *
+     * @param batchSize the rows per batch and per commit
+     * @return the output
+     */
+    static RowOutput database(int batchSize) {
+        return new Database(batchSize);
+    }
+
+    /**
+     * Creates an output that writes one CSV file per table and partition into a directory, and a
+     * {@value Csv#LOAD_SCRIPT} script that loads them with LOAD DATA.
+     *
+     * @param directory the directory, created if needed
+     * @param batchSize the rows between two progress updates
+     * @return the output
+     * @throws IOException if the directory cannot be created
+     */
+    static RowOutput csv(Path directory, int batchSize) throws IOException {
+        Files.createDirectories(directory);
+        return new Csv(directory, batchSize);
+    }
+
+    /**
+     * Checks if the rows go to the database.
+     *
+     * @return true for the database, false for CSV files
+     */
+    abstract boolean isDatabase();
+
+    /**
+     * Opens a partition.
+     *
+     * @param partition the partition number, unique within a table
+     * @param onFlush   called with the number of rows every time the partition is flushed
+     * @return the partition
+     * @throws SQLException if no connection can be obtained
+     */
+    abstract Partition open(int partition, LongConsumer onFlush) throws SQLException;
+
+    /**
+     * Completes the output once every partition has finished.
+     *
+     * @throws IOException if the load script cannot be written
+     */
+    void complete() throws IOException {
+    }
+
+    /**
+     * Rows written to one table, or to one statement, of a partition.
+     */
+    @FunctionalInterface
+    interface Table {
+        /**
+         * Writes a row. Values can be Strings, numbers, Booleans, LocalDateTimes or null.
+         *
+         * @param values the values, in column order
+         * @throws SQLException if the database rejects the row
+         * @throws IOException  if the file cannot be written
+         */
+        void row(Object... values) throws SQLException, IOException;
+    }
+
+    /**
+     * The rows written by one thread.
+     */
+    abstract static class Partition implements AutoCloseable {
+        /** Called with the number of rows every time the partition is flushed */
+        private final LongConsumer onFlush;
+        /** Rows per batch */
+        private final int batchSize;
+        /** Rows counted since the last flush */
+        private int pending;
+
+        /**
+         * Constructor for Partition.
+         *
+         * @param batchSize the rows per batch
+         * @param onFlush   called with the number of rows every time the partition is flushed
+         */
+        Partition(int batchSize, LongConsumer onFlush) {
+            this.batchSize = batchSize;
+            this.onFlush = onFlush;
+        }
+
+        /**
+         * Opens a table for inserts.
+         *
+         * @param table   the name of the table
+         * @param columns the columns written by every row
+         * @return the table
+         * @throws SQLException if the insert cannot be prepared
+         * @throws IOException  if the file cannot be created
+         */
+        abstract Table insert(String table, String... columns) throws SQLException, IOException;
+
+        /**
+         * Counts one row, made of the rows written to every table since the previous one,
+         * and flushes the partition when the batch is full.
+         *
+         * @throws SQLException if the batch fails
+         * @throws IOException  if a file cannot be written
+         */
+        void endRow() throws SQLException, IOException {
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the pending rows of every table, in the order the tables were opened.
+         *
+         * @throws SQLException if the batch fails
+         * @throws IOException  if a file cannot be written
+         */
+        void flush() throws SQLException, IOException {
+            if (pending == 0) {
+                return;
+            }
+            write();
+            onFlush.accept(pending);
+            pending = 0;
+        }
+
+        /**
+         * Writes the pending rows of every table.
+         *
+         * @throws SQLException if the batch fails
+         * @throws IOException  if a file cannot be written
+         */
+        abstract void write() throws SQLException, IOException;
+
+        /**
+         * Opens a statement executed in batches with the inserts, such as an UPDATE of rows inserted before.
+         *
+         * @param sql the statement
+         * @return the statement, as a table whose rows are its parameters
+         * @throws SQLException                  if the statement cannot be prepared
+         * @throws UnsupportedOperationException if the rows do not go to the database
+         */
+        Table statement(String sql) throws SQLException {
+            throw new UnsupportedOperationException("This output does not write to the database");
+        }
+
+        /**
+         * Returns the connection of the partition, with auto-commit disabled.
+         *
+         * @return the connection
+         * @throws UnsupportedOperationException if the rows do not go to the database
+         */
+        Connection getConnection() {
+            throw new UnsupportedOperationException("This output does not write to the database");
+        }
+
+        /**
+         * Releases the partition. Rows not flushed are discarded.
+         *
+         * @throws SQLException if the connection cannot be released
+         * @throws IOException  if a file cannot be closed
+         */
+        @Override
+        public abstract void close() throws SQLException, IOException;
+    }
+
+    /**
+     * Inserts the rows into the database.
+     */
+    private static final class Database extends RowOutput {
+        /**
+         * Constructor for Database.
+         *
+         * @param batchSize the rows per batch and per commit
+         */
+        private Database(int batchSize) {
+            super(batchSize);
+        }
+
+        @Override
+        boolean isDatabase() {
+            return true;
+        }
+
+        @Override
+        Partition open(int partition, LongConsumer onFlush) throws SQLException {
+            Connection connection = ConnectionDB.getConnection();
+            connection.setAutoCommit(false);
+            return new DatabasePartition(connection, batchSize, onFlush);
+        }
+    }
+
+    /**
+     * A partition with its own connection; every flush executes the batches and commits.
+     */
+    private static final class DatabasePartition extends Partition {
+        /** The connection of the partition */
+        private final Connection connection;
+        /** The statements, flushed in this order */
+        private final List<PreparedStatement> statements = new ArrayList<>();
+
+        /**
+         * Constructor for DatabasePartition.
+         *
+         * @param connection the connection, with auto-commit disabled
+         * @param batchSize  the rows per batch
+         * @param onFlush    called with the number of rows every time the partition is flushed
+         */
+        private DatabasePartition(Connection connection, int batchSize, LongConsumer onFlush) {
+            super(batchSize, onFlush);
+            this.connection = connection;
+        }
+
+        @Override
+        Table insert(String table, String... columns) throws SQLException {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+                    .append(String.join(", ", columns)).append(") VALUES (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            return statement(sql.append(')').toString());
+        }
+
+        @Override
+        Table statement(String sql) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statements.add(statement);
+            return values -> {
+                for (int i = 0; i < values.length; i++) {
+                    Object value = values[i];
+                    if (value instanceof LocalDateTime) {
+                        statement.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) value));
+                    } else {
+                        statement.setObject(i + 1, value);
+                    }
+                }
+                statement.addBatch();
+            };
+        }
+
+        @Override
+        void write() throws SQLException {
+            for (PreparedStatement statement : statements) {
+                statement.executeBatch();
+            }
+            connection.commit();
+        }
+
+        @Override
+        Connection getConnection() {
+            return connection;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                // Nothing is left to roll back after the last flush
+                connection.rollback();
+                for (PreparedStatement statement : statements) {
+                    statement.close();
+                }
+                connection.setAutoCommit(true);
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the rows to CSV files, one per table and partition, with a header line.
+     * Nulls are written as {@code \N}, booleans as 1 and 0 and text is quoted, as LOAD DATA expects.
+     */
+    static final class Csv extends RowOutput {
+        /** Name of the script that loads the files */
+        static final String LOAD_SCRIPT = "load.sql";
+        /** Format of the dates and times */
+        private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        /** The directory of the files */
+        private final Path directory;
+        /** Columns of every table, in the order the tables were first written */
+        private final Map<String, String[]> columns = new LinkedHashMap<>();
+        /** Files written for every table */
+        private final Map<String, TreeSet<String>> files = new HashMap<>();
+
+        /**
+         * Constructor for Csv.
+         *
+         * @param directory the directory of the files
+         * @param batchSize the rows between two progress updates
+         */
+        private Csv(Path directory, int batchSize) {
+            super(batchSize);
+            this.directory = directory;
+        }
+
+        @Override
+        boolean isDatabase() {
+            return false;
+        }
+
+        @Override
+        Partition open(int partition, LongConsumer onFlush) {
+            return new CsvPartition(partition, onFlush);
+        }
+
+        /**
+         * Writes the load script: the tables are emptied and every file is loaded, in the order the tables were written.
+         */
+        @Override
+        void complete() throws IOException {
+            List<String> lines = new ArrayList<>();
+            lines.add("-- Loads the files generated by the DataGenerator: mysql --local-infile=1 airflow < " + LOAD_SCRIPT);
+            lines.add("SET FOREIGN_KEY_CHECKS = 0;");
+            synchronized (this) {
+                for (String table : columns.keySet()) {
+                    lines.add("TRUNCATE TABLE " + table + ";");
+                }
+                for (Map.Entry<String, String[]> table : columns.entrySet()) {
+                    for (String file : files.get(table.getKey())) {
+                        String path = directory.resolve(file).toAbsolutePath().toString()
+                                .replace('\\', '/').replace("'", "''");
+                        lines.add("LOAD DATA LOCAL INFILE '" + path + "' INTO TABLE " + table.getKey()
+                                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                                + " LINES TERMINATED BY '\\n' IGNORE 1 LINES (" + String.join(", ", table.getValue()) + ");");
+                    }
+                }
+            }
+            lines.add("SET FOREIGN_KEY_CHECKS = 1;");
+            Files.write(directory.resolve(LOAD_SCRIPT), lines, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Records a file written for a table.
+         */
+        private synchronized void register(String table, String[] tableColumns, String file) {
+            columns.putIfAbsent(table, tableColumns);
+            files.computeIfAbsent(table, key -> new TreeSet<>()).add(file);
+        }
+
+        /**
+         * Formats one value.
+         *
+         * @param value the value
+         * @return the value as it is written in the file
+         */
+        static String format(Object value) {
+            if (value == null) {
+                return "\\N";
+            }
+            if (value instanceof Boolean) {
+                return (Boolean) value ? "1" : "0";
+            }
+            if (value instanceof LocalDateTime) {
+                return DATE_TIME.format((LocalDateTime) value);
+            }
+            if (value instanceof String) {
+                return '"' + ((String) value).replace("\\", "\\\\").replace("\"", "\"\"") + '"';
+            }
+            return value.toString();
+        }
+
+        /**
+         * A partition writing one file per table.
+         */
+        private final class CsvPartition extends Partition {
+            /** The partition number */
+            private final int partition;
+            /** Open files */
+            private final List<BufferedWriter> writers = new ArrayList<>();
+
+            /**
+             * Constructor for CsvPartition.
+             *
+             * @param partition the partition number
+             * @param onFlush   called with the number of rows every time the partition is flushed
+             */
+            private CsvPartition(int partition, LongConsumer onFlush) {
+                super(batchSize, onFlush);
+                this.partition = partition;
+            }
+
+            @Override
+            Table insert(String table, String... tableColumns) throws IOException {
+                String file = String.format("%s-%05d.csv", table, partition);
+                BufferedWriter writer = Files.newBufferedWriter(directory.resolve(file), StandardCharsets.UTF_8);
+                writers.add(writer);
+                writer.write(String.join(",", tableColumns));
+                writer.write('\n');
+                register(table, tableColumns, file);
+                return values -> {
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(format(values[i]));
+                    }
+                    writer.write('\n');
+                };
+            }
+
+            @Override
+            void write() {
+                // The writers are buffered; nothing has to be written at every batch
+            }
+
+            @Override
+            public void close() throws IOException {
+                IOException error = null;
+                for (BufferedWriter writer : writers) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+                if (error != null) {
+                    throw error;
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package org.airflow.reservations.utils;
 
+import org.airflow.reservations.service.ApiServer;
 import org.airflow.reservations.service.Controller;
+import org.airflow.reservations.service.FlightService;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Main application runner class.
  * This class serves as the entry point for the AirFlow Reservation System.
- * It delegates all startup logic to the Controller's runner method for better organization.
+ * It delegates all startup logic to the Controller's runner method for better organization,
+ * or with {@code --headless} starts the {@link ApiServer} instead of the Swing interface.
  */
 public class Runner {
     /**
      * Main method - entry point of the application.
      *
-     * @param args command line arguments (currently not used)
+     * @param args command line arguments: {@code --headless} serves the HTTP API, on the port given by
+     *             {@code --port=N} or the {@code airflow.api.port} property (8080 by default)
      */
     public static void main(String[] args) {
         System.out.println("Initializing AirFlow Reservation System...");
 
         try {
+            if (hasOption(args, "--headless")) {
+                runHeadless(args);
+                return;
+            }
+
             // Get the controller instance and run the application
             Controller controller = Controller.getInstance();
             controller.runner();
@@ -27,4 +39,48 @@ public class Runner {
             System.exit(1);
         }
     }
+
+    /**
+     * Serves the HTTP API until the JVM is stopped.
+     * The flight timetable is loaded first so that flight searches are answered from memory.
+     * The executor is chosen with {@code airflow.api.executor} ({@code virtual} by default, or {@code fixed})
+     * and {@code airflow.api.threads}, and sessions expire after {@code airflow.api.sessionMinutes} idle minutes.
+     *
+     * @param args command line arguments
+     * @throws Exception if the server cannot start
+     */
+    private static void runHeadless(String[] args) throws Exception {
+        int port = Integer.getInteger("airflow.api.port", 8080);
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            }
+        }
+        ApiServer server = new ApiServer(new InetSocketAddress(port),
+                ApiServer.newExecutor(System.getProperty("airflow.api.executor", "virtual"),
+                        Integer.getInteger("airflow.api.threads", 64)),
+                Long.getLong("airflow.api.sessionMinutes", 30) * 60_000);
+        try {
+            int flights = new FlightService().loadTimetable();
+            System.out.println("✓ Flight timetable loaded with " + flights + " flights");
+        } catch (Exception e) {
+            System.err.println("⚠ Error loading flight timetable, route searches will use the database: " + e.getMessage());
+        }
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }, "airflow-api-shutdown"));
+        server.start();
+        stopped.await();
+    }
+
+    private static boolean hasOption(String[] args, String option) {
+        for (String arg : args) {
+            if (arg.equals(option)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
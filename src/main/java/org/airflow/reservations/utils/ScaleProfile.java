@@ -0,0 +1,141 @@
+package org.airflow.reservations.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Named dataset sizes for performance testing, selected with {@code --profile=NAME} in the DataGenerator.
+ * <p>
+ * A profile sets the number of users, airplanes and cities and the days of schedule, and describes the
+ * network flown over them: how many cities are hubs, how far apart the cities are, how full the flights
+ * get and how many flights are in high demand. The flights and the reservations are not sized directly;
+ * they follow from the airplane rotations and the demand of every flight, see {@link NetworkModel}.
+ */
+public enum ScaleProfile {
+    /** A couple of hubs and a few days of schedule, small enough for unit and UI testing */
+    SMALL(500, 12, 12, 2, 14, 2, 1_200, 0.70, 0.05, 14),
+    /** One country region: three hubs and two months of schedule */
+    REGIONAL(20_000, 80, 30, 3, 60, 3, 2_500, 0.75, 0.05, 18),
+    /** A national airline: six hubs and a quarter of schedule */
+    NATIONAL(250_000, 400, 120, 6, 90, 7, 4_500, 0.80, 0.04, 21),
+    /** An intercontinental network: long-haul legs between many hubs */
+    GLOBAL(2_000_000, 2_000, 600, 24, 120, 7, 16_000, 0.82, 0.03, 30);
+
+    /** Number of users */
+    private final int users;
+    /** Number of airplanes */
+    private final int airplanes;
+    /** Number of cities */
+    private final int cities;
+    /** Number of cities that are hubs */
+    private final int hubs;
+    /** Days covered by the flight schedule */
+    private final int days;
+    /** Days of the schedule already flown when the data is generated */
+    private final int historyDays;
+    /** Side of the square the cities are spread over, in kilometres */
+    private final int regionKm;
+    /** Average share of the seats sold by departure */
+    private final double loadFactor;
+    /** Share of the flights with a demand well above their capacity */
+    private final double hotFlightShare;
+    /** Average number of days between a booking and the departure */
+    private final int bookingMeanDays;
+
+    /**
+     * Constructor for ScaleProfile.
+     *
+     * @param users           the number of users
+     * @param airplanes       the number of airplanes
+     * @param cities          the number of cities
+     * @param hubs            the number of cities that are hubs
+     * @param days            the days covered by the flight schedule
+     * @param historyDays     the days of the schedule already flown when the data is generated
+     * @param regionKm        the side of the square the cities are spread over, in kilometres
+     * @param loadFactor      the average share of the seats sold by departure
+     * @param hotFlightShare  the share of the flights with a demand well above their capacity
+     * @param bookingMeanDays the average number of days between a booking and the departure
+     */
+    ScaleProfile(int users, int airplanes, int cities, int hubs, int days, int historyDays, int regionKm,
+                 double loadFactor, double hotFlightShare, int bookingMeanDays) {
+        this.users = users;
+        this.airplanes = airplanes;
+        this.cities = cities;
+        this.hubs = hubs;
+        this.days = days;
+        this.historyDays = historyDays;
+        this.regionKm = regionKm;
+        this.loadFactor = loadFactor;
+        this.hotFlightShare = hotFlightShare;
+        this.bookingMeanDays = bookingMeanDays;
+    }
+
+    /**
+     * Returns the profile with a given name, ignoring case.
+     *
+     * @param name the name of the profile
+     * @return the profile
+     * @throws IllegalArgumentException if there is no profile with that name
+     */
+    public static ScaleProfile fromName(String name) {
+        for (ScaleProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown profile " + name + "; expected one of " + names());
+    }
+
+    /**
+     * Returns the names of the profiles, as accepted on the command line.
+     *
+     * @return the names, separated by commas
+     */
+    public static String names() {
+        return Arrays.stream(values())
+                .map(profile -> profile.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", "));
+    }
+
+    // Getters
+    public int getUsers() {
+        return users;
+    }
+
+    public int getAirplanes() {
+        return airplanes;
+    }
+
+    public int getCities() {
+        return cities;
+    }
+
+    public int getHubs() {
+        return hubs;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    public int getRegionKm() {
+        return regionKm;
+    }
+
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    public double getHotFlightShare() {
+        return hotFlightShare;
+    }
+
+    public int getBookingMeanDays() {
+        return bookingMeanDays;
+    }
+}
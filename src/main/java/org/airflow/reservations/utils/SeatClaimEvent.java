@@ -0,0 +1,51 @@
+package org.airflow.reservations.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for claiming the seats of a reservation, in the inventory and in the database.
+ */
+@Name("org.airflow.reservations.SeatClaim")
+@Label("Seat Claim")
+@Category({"AirFlow", "Booking"})
+@Description("Seats claimed for a reservation, and whether every seat was still available")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class SeatClaimEvent extends jdk.jfr.Event {
+    @Label("Flight Id")
+    public int flightId;
+
+    @Label("Reservation Id")
+    @Description("The reservation that holds the seats, 0 if it was not created")
+    public int reservationId;
+
+    @Label("Seats")
+    public int seats;
+
+    @Label("Claimed")
+    @Description("Whether every seat was available and is now reserved")
+    public boolean claimed;
+
+    /**
+     * Commits the event if a recording wants it.
+     *
+     * @param flightId      the flight of the seats
+     * @param reservationId the reservation that holds the seats, 0 if it was not created
+     * @param seats         the number of seats claimed
+     * @param claimed       whether every seat was claimed
+     */
+    public void commit(int flightId, int reservationId, int seats, boolean claimed) {
+        if (shouldCommit()) {
+            this.flightId = flightId;
+            this.reservationId = reservationId;
+            this.seats = seats;
+            this.claimed = claimed;
+            commit();
+        }
+    }
+}
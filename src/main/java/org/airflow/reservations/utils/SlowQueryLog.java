@@ -0,0 +1,713 @@
+package org.airflow.reservations.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log of the SQL statements that take longer than a threshold.
+ * <p>
+ * The DAOs run their statements on connections wrapped by {@link #wrap(Connection, String)}. Every statement
+ * executed through a wrapped connection is timed. When one takes at least the threshold, an entry is written to
+ * the log file as one JSON object per line. The entry holds the SQL, the bound parameters, the row count, the
+ * DAO operation and the service method that called it. String parameters of statements that mention a password
+ * are masked.
+ * <p>
+ * The worst offenders also get their execution plan, read with EXPLAIN on a separate connection and written
+ * as an entry of its own. These are the statements that take at least the EXPLAIN threshold and are slower
+ * than any earlier run of the same SQL.
+ * <p>
+ * Entries are written by a background thread, so the DAOs never wait for the disk or for EXPLAIN; if the
+ * thread falls too far behind, new entries are dropped and counted. The file is rotated when it reaches its
+ * maximum size, keeping a fixed number of older files named after it ({@code .1} is the most recent).
+ * <p>
+ * The shared log is configured with the system properties {@code airflow.db.slowQuery.thresholdMs} (200 by
+ * default, a negative value disables the log), {@code airflow.db.slowQuery.explainMs} (1000),
+ * {@code airflow.db.slowQuery.file} ({@code logs/slow-queries.log}), {@code airflow.db.slowQuery.maxBytes}
+ * (10 MB) and {@code airflow.db.slowQuery.files} (5 older files).
+ */
+public final class SlowQueryLog implements AutoCloseable {
+    /** Entries waiting for the writer thread before new ones are dropped */
+    private static final int QUEUE_CAPACITY = 1024;
+    /** Distinct statements whose worst time is remembered for EXPLAIN */
+    private static final int MAX_EXPLAINED_STATEMENTS = 1024;
+    private static final Object[] NO_PARAMETERS = {};
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    /** The log of the application, created on first use */
+    private static volatile SlowQueryLog shared;
+
+    private final Path file;
+    /** Time from which a statement is logged, in nanoseconds; negative if the log is disabled */
+    private final long thresholdNanos;
+    /** Time from which a statement is explained, in nanoseconds */
+    private final long explainThresholdNanos;
+    private final long maxBytes;
+    private final int maxFiles;
+    /** Where the connections used to run EXPLAIN come from */
+    private final ConnectionPool.ConnectionFactory explainConnections;
+    /** Single thread that writes the entries and runs EXPLAIN */
+    private final ThreadPoolExecutor writer;
+    /** Worst time of every explained SQL, in nanoseconds */
+    private final ConcurrentHashMap<String, Long> worstExplained = new ConcurrentHashMap<>();
+    /** Slow statements whose entry was written */
+    private final MetricsRegistry.Counter loggedCount;
+    /** Slow statements not logged because the writer thread was behind */
+    private final MetricsRegistry.Counter droppedCount;
+
+    /** Open log file, used only by the writer thread */
+    private Writer out;
+    /** Size of the open log file, used only by the writer thread */
+    private long size;
+
+    /**
+     * Creates a log.
+     *
+     * @param file                   the log file; its directory is created when the first entry is written
+     * @param thresholdMillis        time from which a statement is logged, negative to disable the log
+     * @param explainThresholdMillis time from which a statement is also explained
+     * @param maxBytes               size at which the file is rotated
+     * @param maxFiles               number of older files kept
+     * @param explainConnections     opens the connections used to run EXPLAIN; closing them must release them
+     */
+    public SlowQueryLog(Path file, long thresholdMillis, long explainThresholdMillis, long maxBytes, int maxFiles,
+                        ConnectionPool.ConnectionFactory explainConnections) {
+        this(file, thresholdMillis, explainThresholdMillis, maxBytes, maxFiles, explainConnections,
+                new MetricsRegistry.Counter(), new MetricsRegistry.Counter());
+    }
+
+    /**
+     * Creates a log that counts its logged and dropped statements in given counters.
+     */
+    private SlowQueryLog(Path file, long thresholdMillis, long explainThresholdMillis, long maxBytes, int maxFiles,
+                         ConnectionPool.ConnectionFactory explainConnections,
+                         MetricsRegistry.Counter loggedCount, MetricsRegistry.Counter droppedCount) {
+        if (maxBytes <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("maxBytes must be > 0 and maxFiles >= 0");
+        }
+        this.file = file;
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explainThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(thresholdMillis, explainThresholdMillis));
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.explainConnections = explainConnections;
+        this.loggedCount = loggedCount;
+        this.droppedCount = droppedCount;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "airflow-slow-query-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the log of the application, creating it on first use from the system properties.
+     * EXPLAIN runs on connections borrowed from the shared pool.
+     *
+     * @return the shared log
+     */
+    public static SlowQueryLog getShared() {
+        SlowQueryLog current = shared;
+        if (current == null) {
+            synchronized (SlowQueryLog.class) {
+                current = shared;
+                if (current == null) {
+                    current = new SlowQueryLog(
+                            Path.of(System.getProperty("airflow.db.slowQuery.file", "logs/slow-queries.log")),
+                            Long.getLong("airflow.db.slowQuery.thresholdMs", 200),
+                            Long.getLong("airflow.db.slowQuery.explainMs", 1_000),
+                            Long.getLong("airflow.db.slowQuery.maxBytes", 10L * 1024 * 1024),
+                            Integer.getInteger("airflow.db.slowQuery.files", 5),
+                            ConnectionDB::getConnection,
+                            MetricsRegistry.global().counter("airflow_slow_queries_total",
+                                    "Statements written to the slow-query log."),
+                            MetricsRegistry.global().counter("airflow_slow_queries_dropped_total",
+                                    "Slow statements not logged because the log writer was behind."));
+                    if (current.isEnabled()) {
+                        SlowQueryLog created = current;
+                        Runtime.getRuntime().addShutdownHook(new Thread(created::close, "airflow-slow-query-log-close"));
+                    }
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Whether statements are timed at all.
+     *
+     * @return false if the threshold is negative
+     */
+    public boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    /**
+     * Wraps a connection so the statements run through it are timed.
+     *
+     * @param connection the connection of a DAO operation
+     * @param sqlId      the DAO operation, such as {@code FlightDAO.getById}
+     * @return the wrapped connection, or the connection itself if the log is disabled
+     */
+    public Connection wrap(Connection connection, String sqlId) {
+        if (!isEnabled() || connection == null) {
+            return connection;
+        }
+        ConnectionInterceptor interceptor = new ConnectionInterceptor(connection, sqlId);
+        return interceptor.proxy;
+    }
+
+    /**
+     * Returns the connection wrapped by {@link #wrap(Connection, String)}.
+     *
+     * @param connection a wrapped or plain connection
+     * @return the connection it wraps, or the connection itself if it is not wrapped
+     */
+    public static Connection unwrap(Connection connection) {
+        if (connection != null && Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionInterceptor interceptor) {
+            return interceptor.connection;
+        }
+        return connection;
+    }
+
+    /**
+     * Waits until the entries logged so far are written. Returns at once if the log is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        while (!writer.isShutdown()) {
+            try {
+                writer.submit(() -> {
+                }).get();
+                return;
+            } catch (RejectedExecutionException e) {
+                // The queue is full, wait for the writer to catch up
+                Thread.sleep(1);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Writes the pending entries and closes the file. Statements that finish afterwards are not logged.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Nothing else can be done with the file
+                }
+                out = null;
+            }
+        }
+    }
+
+    /** @return the number of entries written for slow statements */
+    public long getLoggedCount() {
+        return loggedCount.get();
+    }
+
+    /** @return the number of slow statements not logged because the writer thread was behind */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Queues the entry of a slow statement and, if it is among the worst, its EXPLAIN.
+     * A statement is counted as logged once its entry is written, or as dropped if the queue is full;
+     * statements that finish after the log is closed are neither.
+     */
+    private void log(SlowStatement slow) {
+        try {
+            writer.execute(() -> {
+                append(slow.toJson());
+                loggedCount.increment();
+            });
+        } catch (RejectedExecutionException e) {
+            if (!writer.isShutdown()) {
+                droppedCount.increment();
+            }
+            return;
+        }
+        if (slow.elapsedNanos >= explainThresholdNanos && explainConnections != null && isExplainable(slow.sql)
+                && isWorstSoFar(slow.sql, slow.elapsedNanos)) {
+            try {
+                writer.execute(() -> append(explain(slow)));
+            } catch (RejectedExecutionException e) {
+                // The plan is skipped while the writer is behind; a slower run explains the statement again
+            }
+        }
+    }
+
+    /**
+     * Remembers the time of a statement if it is the slowest run of its SQL.
+     * The check and the update are one atomic step, so of two concurrent runs only the slower one can win.
+     */
+    private boolean isWorstSoFar(String sql, long elapsedNanos) {
+        boolean[] worst = new boolean[1];
+        worstExplained.compute(sql, (key, previous) -> {
+            if (previous == null ? worstExplained.size() >= MAX_EXPLAINED_STATEMENTS : previous >= elapsedNanos) {
+                return previous;
+            }
+            worst[0] = true;
+            return elapsedNanos;
+        });
+        return worst[0];
+    }
+
+    /**
+     * Whether MySQL can EXPLAIN a statement.
+     */
+    private static boolean isExplainable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String start = sql.stripLeading();
+        start = start.substring(0, Math.min(start.length(), 7)).toUpperCase(Locale.ROOT);
+        return start.startsWith("SELECT") || start.startsWith("UPDATE") || start.startsWith("DELETE")
+                || start.startsWith("INSERT") || start.startsWith("REPLACE") || start.startsWith("WITH");
+    }
+
+    /**
+     * Runs EXPLAIN for a slow statement with its parameters and returns the entry of the plan.
+     */
+    private String explain(SlowStatement slow) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"time\":");
+        appendString(json, Instant.now().toString());
+        json.append(",\"type\":\"explain\",\"sqlId\":");
+        appendString(json, slow.sqlId);
+        json.append(",\"durationMs\":").append(slow.elapsedNanos / 1_000_000.0);
+        json.append(",\"sql\":");
+        appendString(json, slow.sql);
+        try (Connection connection = explainConnections.create();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + slow.sql)) {
+            for (int i = 0; i < slow.parameters.length; i++) {
+                statement.setObject(i + 1, slow.parameters[i]);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                ResultSetMetaData metaData = plan.getMetaData();
+                int columns = metaData.getColumnCount();
+                json.append(",\"plan\":[");
+                boolean firstRow = true;
+                while (plan.next()) {
+                    json.append(firstRow ? "{" : ",{");
+                    firstRow = false;
+                    for (int column = 1; column <= columns; column++) {
+                        if (column > 1) {
+                            json.append(',');
+                        }
+                        appendString(json, metaData.getColumnLabel(column));
+                        json.append(':');
+                        appendValue(json, plan.getObject(column));
+                    }
+                    json.append('}');
+                }
+                json.append(']');
+            }
+        } catch (SQLException | RuntimeException e) {
+            json.append(",\"error\":");
+            appendString(json, String.valueOf(e.getMessage()));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Appends a line to the log file, rotating it first if it is full. Runs on the writer thread.
+     */
+    private synchronized void append(String line) {
+        byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (out == null) {
+                Path directory = file.toAbsolutePath().getParent();
+                if (directory != null) {
+                    Files.createDirectories(directory);
+                }
+                size = Files.exists(file) ? Files.size(file) : 0;
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            if (size > 0 && size + bytes.length > maxBytes) {
+                rotate();
+            }
+            out.write(line);
+            out.write(System.lineSeparator());
+            out.flush();
+            size += bytes.length;
+        } catch (IOException e) {
+            System.err.println("⚠ Could not write the slow-query log " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the log file to {@code .1}, shifting the older files, and opens a new one.
+     */
+    private void rotate() throws IOException {
+        out.close();
+        out = null;
+        if (maxFiles == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rotated(i))) {
+                    Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        size = 0;
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    /**
+     * Returns the first service method on the stack of the current thread, such as
+     * {@code ReservationService.createReservation}, or null if the statement was not run by a service.
+     */
+    private static String callingServiceMethod() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("org.airflow.reservations.service."))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                })
+                .orElse(null));
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    /**
+     * A statement that took at least the threshold, waiting for its row count.
+     */
+    private static final class SlowStatement {
+        private final String time = Instant.now().toString();
+        private final String thread = Thread.currentThread().getName();
+        private final String caller = callingServiceMethod();
+        private final String sqlId;
+        private final String sql;
+        private final Object[] parameters;
+        private final int batchSize;
+        private final long elapsedNanos;
+        private long rows = -1;
+
+        private SlowStatement(String sqlId, String sql, Object[] parameters, int batchSize, long elapsedNanos) {
+            this.sqlId = sqlId;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private String toJson() {
+            StringBuilder json = new StringBuilder(256);
+            json.append("{\"time\":");
+            appendString(json, time);
+            json.append(",\"type\":\"slow_query\",\"sqlId\":");
+            appendString(json, sqlId);
+            json.append(",\"caller\":");
+            appendString(json, caller);
+            json.append(",\"thread\":");
+            appendString(json, thread);
+            json.append(",\"durationMs\":").append(elapsedNanos / 1_000_000.0);
+            json.append(",\"rows\":").append(rows);
+            if (batchSize > 0) {
+                json.append(",\"batch\":").append(batchSize);
+            }
+            json.append(",\"sql\":");
+            appendString(json, sql);
+            boolean masked = sql != null && sql.toLowerCase(Locale.ROOT).contains("password");
+            json.append(",\"parameters\":[");
+            for (int i = 0; i < parameters.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                if (masked && parameters[i] instanceof String) {
+                    json.append("\"***\"");
+                } else {
+                    appendValue(json, parameters[i]);
+                }
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /**
+     * Hands out timed statements for a connection and passes every other call through.
+     */
+    private final class ConnectionInterceptor implements InvocationHandler {
+        private final Connection connection;
+        private final String sqlId;
+        private final Connection proxy;
+
+        private ConnectionInterceptor(Connection connection, String sqlId) {
+            this.connection = connection;
+            this.sqlId = sqlId;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return new StatementInterceptor(this, (Statement) call(connection, method, args),
+                            (String) args[0]).proxy(PreparedStatement.class);
+                case "createStatement":
+                    return new StatementInterceptor(this, (Statement) call(connection, method, args),
+                            null).proxy(Statement.class);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SlowQueryLog[" + connection + "]";
+                default:
+                    return call(connection, method, args);
+            }
+        }
+    }
+
+    /**
+     * Times the executions of a statement and remembers its SQL and parameters.
+     */
+    private final class StatementInterceptor implements InvocationHandler {
+        private final ConnectionInterceptor owner;
+        private final Statement statement;
+        /** The SQL of a prepared statement, or null for a plain statement */
+        private final String sql;
+        private Object[] parameters = NO_PARAMETERS;
+        private int batchSize;
+        /** Slow query whose rows are still being read, logged when its result set or the statement closes */
+        private SlowStatement pending;
+
+        private StatementInterceptor(ConnectionInterceptor owner, Statement statement, String sql) {
+            this.owner = owner;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        private <T extends Statement> T proxy(Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                setParameter(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.startsWith("execute")) {
+                return execute(name, method, args);
+            }
+            switch (name) {
+                case "clearParameters":
+                    parameters = NO_PARAMETERS;
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "close":
+                    finishPending();
+                    break;
+                case "getConnection":
+                    return owner.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SlowQueryLog[" + statement + "]";
+                default:
+            }
+            Object result = call(statement, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet && pending != null) {
+                return countRows(resultSet);
+            }
+            return result;
+        }
+
+        private void setParameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+        }
+
+        /**
+         * Runs an execute method and logs it if it was slow. The entry of a slow query is kept until
+         * its rows are read.
+         */
+        private Object execute(String name, Method method, Object[] args) throws Throwable {
+            finishPending();
+            long start = System.nanoTime();
+            Object result = call(statement, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (elapsed < thresholdNanos) {
+                if (name.endsWith("Batch")) {
+                    batchSize = 0;
+                }
+                return result;
+            }
+            String text = (args != null && args.length > 0 && args[0] instanceof String given) ? given : sql;
+            SlowStatement slow = new SlowStatement(owner.sqlId, text, trimmedParameters(),
+                    name.endsWith("Batch") ? batchSize : 0, elapsed);
+            if (result instanceof ResultSet resultSet) {
+                pending = slow;
+                pending.rows = 0;
+                return countRows(resultSet);
+            }
+            if (result instanceof int[] counts) {
+                slow.rows = Arrays.stream(counts).asLongStream().sum();
+                batchSize = 0;
+            } else if (result instanceof long[] counts) {
+                slow.rows = Arrays.stream(counts).sum();
+                batchSize = 0;
+            } else if (result instanceof Number count) {
+                slow.rows = count.longValue();
+            } else if (Boolean.TRUE.equals(result)) {
+                pending = slow;
+                pending.rows = 0;
+                return result;
+            } else if (Boolean.FALSE.equals(result)) {
+                slow.rows = statement.getUpdateCount();
+            }
+            log(slow);
+            return result;
+        }
+
+        private Object[] trimmedParameters() {
+            int length = parameters.length;
+            while (length > 0 && parameters[length - 1] == null) {
+                length--;
+            }
+            return Arrays.copyOf(parameters, length);
+        }
+
+        /**
+         * Wraps the result set of a slow query to count its rows and log the query when it is closed.
+         */
+        private ResultSet countRows(ResultSet resultSet) {
+            SlowStatement counted = pending;
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next": {
+                                Object next = call(resultSet, method, args);
+                                if (Boolean.TRUE.equals(next)) {
+                                    counted.rows++;
+                                }
+                                return next;
+                            }
+                            case "close":
+                                if (pending == counted) {
+                                    finishPending();
+                                }
+                                break;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                        }
+                        return call(resultSet, method, args);
+                    });
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                log(pending);
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Invokes a method on the wrapped JDBC object, rethrowing what it throws.
+     */
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
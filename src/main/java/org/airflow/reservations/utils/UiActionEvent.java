@@ -0,0 +1,27 @@
+package org.airflow.reservations.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a Swing action handled on the event dispatch thread.
+ * Only actions that keep the thread busy for at least the threshold are recorded.
+ */
+@Name("org.airflow.reservations.UiAction")
+@Label("UI Action")
+@Category({"AirFlow", "Swing"})
+@Description("An action command handled by the controller on the event dispatch thread")
+@Threshold("10 ms")
+@StackTrace(false)
+public final class UiActionEvent extends jdk.jfr.Event {
+    @Label("Command")
+    public String command;
+
+    @Label("Source")
+    @Description("The class of the component that fired the action")
+    public String source;
+}
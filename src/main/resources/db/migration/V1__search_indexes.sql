@@ -0,0 +1,25 @@
+-- Secondary indexes for the lookups done by the DAOs.
+-- Columns that are foreign keys already have the index InnoDB creates for the constraint;
+-- the composite indexes below extend those prefixes so the filters are answered from one index.
+
+-- FlightDAO.getByDestinationAndOriginCity and route searches ordered by departure time
+CREATE INDEX `idx_flights_route_departure` ON `flights` (`origin_city_FK`, `destination_city_FK`, `departure_time`);
+
+-- FlightDAO.getByDepartureTimeRange and the reservation control job
+CREATE INDEX `idx_flights_departure` ON `flights` (`departure_time`);
+
+-- FlightDAO.getByCode (prefix LIKE patterns) and getByCodeOb
+CREATE INDEX `idx_flights_code` ON `flights` (`code`);
+
+-- ReservationDAO.getByFlightId and getByFlightIdAndUserId
+CREATE INDEX `idx_reservations_flight_user` ON `reservations` (`flight_FK`, `user_FK`);
+
+-- SeatDAO lookups by airplane, by availability and by seat number
+CREATE INDEX `idx_seats_airplane_reservation` ON `seats` (`airplane_FK`, `reservation_FK`);
+CREATE INDEX `idx_seats_airplane_number` ON `seats` (`airplane_FK`, `seat_number`);
+
+-- CityDAO.getByName
+CREATE INDEX `idx_cities_name` ON `cities` (`name`);
+
+-- AirplaneDAO.getByCode
+CREATE INDEX `idx_airplanes_code` ON `airplanes` (`code`);
@@ -0,0 +1,5 @@
+-- Lets the reservation jobs find the few reservations in a given status without reading
+-- every reservation of the flights in their window.
+
+-- ReservationService.closeOutCompletedFlights: checked-in reservations joined to their flights
+CREATE INDEX `idx_reservations_status_flight` ON `reservations` (`status_FK`, `flight_FK`);
@@ -0,0 +1,107 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the streaming reads of the DAOs.
+ * The JDBC objects are mocked, so these tests do not need a running database.
+ */
+public class DAOStreamTest {
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+
+    /**
+     * Mocks a connection whose query returns two cities.
+     *
+     * @throws SQLException never, the JDBC objects are mocks
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        String[] labels = {"id_PK", "name", "country", "code"};
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(1, 2);
+        when(resultSet.getString(2)).thenReturn("Bogotá", "Medellín");
+    }
+
+    @Test
+    void streamReadsWithTheFetchSizeAndClosesOnClose() throws SQLException {
+        CityDAO cityDAO = new CityDAO(connection);
+        cityDAO.setFetchSize(250);
+
+        List<String> names;
+        try (Stream<City> cities = cityDAO.stream()) {
+            names = cities.map(City::getName).collect(Collectors.toList());
+            verify(resultSet, never()).close();
+        }
+
+        assertEquals(List.of("Bogotá", "Medellín"), names);
+        verify(statement).setFetchSize(250);
+        verify(resultSet).close();
+        verify(statement).close();
+        // The connection belongs to the caller and stays open
+        verify(connection, never()).close();
+    }
+
+    @Test
+    void forEachRethrowsReadErrorsAsSQLException() throws SQLException {
+        when(resultSet.next()).thenReturn(true).thenThrow(new SQLException("Connection lost"));
+        List<City> seen = new ArrayList<>();
+
+        SQLException e = assertThrows(SQLException.class, () -> new CityDAO(connection).forEach(seen::add));
+
+        assertEquals("Connection lost", e.getMessage());
+        assertEquals(1, seen.size());
+        verify(resultSet).close();
+        verify(statement).close();
+    }
+
+    @Test
+    void failedQueryClosesTheStatement() throws SQLException {
+        when(statement.executeQuery()).thenThrow(new SQLException("Syntax error"));
+
+        assertThrows(SQLException.class, () -> new CityDAO(connection).stream());
+        verify(statement).close();
+    }
+
+    @Test
+    void fetchSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new CityDAO(connection).setFetchSize(0));
+    }
+
+    @Test
+    void inMemoryDAOsStreamFromTheStore() throws SQLException {
+        InMemoryStore store = new InMemoryStore();
+        InMemoryCityDAO cityDAO = new InMemoryCityDAO(store, null);
+        cityDAO.create(new City(0, "Cali", "Colombia", "CLO"));
+        cityDAO.create(new City(0, "Lima", "Perú", "LIM"));
+
+        List<String> codes = new ArrayList<>();
+        cityDAO.forEach(city -> codes.add(city.getCode()));
+
+        assertEquals(List.of("CLO", "LIM"), codes);
+    }
+}
@@ -1,6 +1,7 @@
 package org.airflow.reservations.DAO;
 
 import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.FlightPage;
 import org.airflow.reservations.utils.ConnectionDB;
 import org.junit.jupiter.api.*;
 
@@ -9,6 +10,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -260,4 +262,62 @@ public class FlightDAOTest {
             assertEquals(2, flight.getDestination_city_FK());
         }
     }
+
+    /**
+     * Tests that search walks every flight of a route and day through its pages,
+     * in order, without duplicates and without the cancelled flights.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    @Test
+    void testSearchPagination() throws SQLException {
+        LocalDateTime day = LocalDateTime.of(2099, 1, 1, 0, 0);
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < 5; i++) {
+                LocalDateTime departure = day.plusHours(6 + i);
+                // Two flights share a price to check that ties are paged by ID
+                String price = (i == 1 || i == 2) ? "90.50" : (100 - i) + ".00";
+                int status = (i == 3) ? 3 : 1;
+                statement.executeUpdate("INSERT INTO flights (airplane_FK, status_FK, origin_city_FK, destination_city_FK, " +
+                        "code, departure_time, scheduled_arrival_time, arrival_time, price_base) VALUES " +
+                        "(1, " + status + ", 1, 2, 'SEARCH" + i + "', '" + departure + "', '" + departure.plusHours(2) +
+                        "', NULL, " + price + ")");
+            }
+
+            ArrayList<String> byDeparture = searchAll(day, FlightPage.Sort.DEPARTURE_TIME);
+            assertEquals(List.of("SEARCH0", "SEARCH1", "SEARCH2", "SEARCH4"), byDeparture);
+
+            ArrayList<String> byPrice = searchAll(day, FlightPage.Sort.PRICE);
+            assertEquals(List.of("SEARCH1", "SEARCH2", "SEARCH4", "SEARCH0"), byPrice);
+
+            assertThrows(IllegalArgumentException.class, () -> flightDAO.search(1, 2, day, day.plusDays(1),
+                    null, FlightPage.Sort.PRICE, "not-a-token", 2));
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM flights WHERE code LIKE 'SEARCH%'");
+            }
+        }
+    }
+
+    /**
+     * Reads every page of the route 1 to 2 on a day, two flights per page.
+     *
+     * @param day  the start of the day
+     * @param sort the order of the results
+     * @return the codes of the flights found, in page order
+     * @throws SQLException if a database error occurs
+     */
+    private ArrayList<String> searchAll(LocalDateTime day, FlightPage.Sort sort) throws SQLException {
+        ArrayList<String> codes = new ArrayList<>();
+        String token = null;
+        do {
+            FlightPage page = flightDAO.search(1, 2, day, day.plusDays(1), null, sort, token, 2);
+            assertTrue(page.getFlights().size() <= 2);
+            for (Flight flight : page.getFlights()) {
+                codes.add(flight.getCode());
+            }
+            token = page.getNextPageToken();
+        } while (token != null);
+        return codes;
+    }
 }
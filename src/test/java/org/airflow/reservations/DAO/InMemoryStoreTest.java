@@ -0,0 +1,346 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.*;
+import org.airflow.reservations.service.ReservationService;
+import org.airflow.reservations.service.SeatService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InMemoryStore and the InMemory DAOs.
+ * The store lives in memory, so these tests do not need a running database.
+ */
+public class InMemoryStoreTest {
+    private InMemoryStore store;
+    private InMemoryCityDAO cityDAO;
+    private InMemorySeatDAO seatDAO;
+    private InMemoryFlightDAO flightDAO;
+    private InMemoryReservationDAO reservationDAO;
+    private InMemoryUsersDAO usersDAO;
+    private int bogotaId;
+    private int medellinId;
+    private int airplaneId;
+    private int[] seatIds;
+    private LocalDateTime departure;
+
+    /**
+     * Creates two cities, an airplane with four seats and a flight between the cities.
+     *
+     * @throws SQLException if a write fails
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        store = new InMemoryStore();
+        cityDAO = new InMemoryCityDAO(store, null);
+        seatDAO = new InMemorySeatDAO(store, null);
+        flightDAO = new InMemoryFlightDAO(store, null);
+        reservationDAO = new InMemoryReservationDAO(store, null);
+        usersDAO = new InMemoryUsersDAO(store, null);
+
+        City bogota = new City(0, "Bogotá", "Colombia", "BOG");
+        City medellin = new City(0, "Medellín", "Colombia", "MDE");
+        cityDAO.create(bogota);
+        cityDAO.create(medellin);
+        bogotaId = bogota.getId();
+        medellinId = medellin.getId();
+
+        Airplane airplane = new Airplane(0, "Avianca", "A320", "HK-1", 4, Year.of(2015));
+        new InMemoryAirplaneDAO(store, null).create(airplane);
+        airplaneId = airplane.getId();
+
+        seatIds = new int[4];
+        for (int i = 0; i < seatIds.length; i++) {
+            Seat seat = new Seat(0, airplaneId, null, (i + 1) + "A", Seat.SeatClass.ECONOMY, i % 2 == 0);
+            seatDAO.create(seat);
+            seatIds[i] = seat.getId();
+        }
+
+        departure = LocalDateTime.now().plusDays(2).withNano(0);
+        createFlight("AV100", bogotaId, medellinId, departure, 1, 150f);
+    }
+
+    /**
+     * Goes back to the database backend after the test that switched to the store.
+     */
+    @AfterEach
+    void tearDown() {
+        DAOFactory.useDatabase();
+    }
+
+    /**
+     * Tests that creating rows sets their IDs and that the indexed finders return them, ignoring case.
+     */
+    @Test
+    void testCreateAndFind() throws SQLException {
+        assertEquals(1, bogotaId);
+        assertEquals(2, medellinId);
+        assertEquals("Medellín", cityDAO.getByName("MEDELLÍN").getName());
+        assertEquals(0, cityDAO.getByName("Cali").getId());
+        assertEquals(4, seatDAO.getByAirplaneId(airplaneId).size());
+        assertEquals("3A", seatDAO.getByAirplaneIdSeatNumber(airplaneId, "3a").getSeat_number());
+
+        Flight flight = flightDAO.getByCodeOb("av100");
+        assertNotNull(flight);
+        assertEquals("SCHEDULED", flight.getStatus_name());
+        assertEquals(1, flightDAO.getByCode("AV1%").size());
+        assertNull(flightDAO.getByCodeOb("AV999"));
+        assertEquals(1, flightDAO.getByDestinationAndOriginCity(medellinId, bogotaId).size());
+        assertTrue(flightDAO.getByDestinationAndOriginCity(bogotaId, medellinId).isEmpty());
+        assertEquals(1, flightDAO.getByDepartureTimeRange(departure, departure).size());
+        assertTrue(flightDAO.getByDepartureTimeRange(departure.plusSeconds(1), departure.plusDays(1)).isEmpty());
+        assertEquals(4, seatDAO.getAvailableSeatsByFlightId(flight.getId()).size());
+    }
+
+    /**
+     * Tests that updating a row moves it between index entries and that returned objects are copies.
+     */
+    @Test
+    void testUpdateMovesIndexEntries() throws SQLException {
+        Flight flight = flightDAO.getByCodeOb("AV100");
+        flight.setOrigin_city_FK(medellinId);
+        flight.setDestination_city_FK(bogotaId);
+        assertEquals(1, flightDAO.getByOriginCity(bogotaId).size(), "Changing a returned flight must not change the store");
+
+        flightDAO.update(flight.getId(), flight);
+
+        assertTrue(flightDAO.getByOriginCity(bogotaId).isEmpty());
+        assertEquals(1, flightDAO.getByDestinationAndOriginCity(bogotaId, medellinId).size());
+    }
+
+    /**
+     * Tests that a duplicated email is rejected, as the UNIQUE constraint of the users table does.
+     */
+    @Test
+    void testUniqueEmail() throws SQLException {
+        usersDAO.create(new User(0, "Ana", "Gómez", "ana@airflow.com", "hash", false, LocalDateTime.now()));
+
+        assertThrows(SQLIntegrityConstraintViolationException.class, () ->
+                usersDAO.create(new User(0, "Ana", "Ruiz", "ANA@airflow.com", "hash", false, LocalDateTime.now())));
+        assertEquals("Gómez", usersDAO.getByEmail("ana@%").getLast_name());
+    }
+
+    /**
+     * Tests that claiming seats only takes free ones and that releasing them frees only the reservation's seats.
+     */
+    @Test
+    void testClaimAndRelease() throws SQLException {
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+
+        assertEquals(2, seatDAO.claimFlightSeats(flightId, new int[]{seatIds[0], seatIds[1]}, 10));
+        assertEquals(1, seatDAO.claimFlightSeats(flightId, new int[]{seatIds[1], seatIds[2]}, 11));
+        assertEquals(2, seatDAO.getByReservationId(10).size());
+        assertEquals(1, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+
+        assertEquals(0, seatDAO.releaseFlightSeats(flightId, new int[]{seatIds[2]}, 10));
+        assertEquals(2, seatDAO.releaseFlightSeats(flightId, new int[]{seatIds[0], seatIds[1]}, 10));
+        assertEquals(3, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+        assertTrue(seatDAO.getByReservationId(10).isEmpty());
+    }
+
+    /**
+     * Tests that a seat freed through another process's SeatService, which has its own inventory,
+     * is seen as available once the inventory is refreshed.
+     */
+    @Test
+    void testSeatFreedElsewhereIsSeenAfterRefresh() throws SQLException {
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        SeatService desktop = new SeatService(seatDAO);
+        SeatService api = new SeatService(seatDAO);
+        assertTrue(desktop.claimSeats(flightId, new int[]{seatIds[0]}, 10));
+        assertEquals(3, api.countAvailableSeats(flightId));
+
+        api.releaseSeats(flightId, seatIds[0]);
+        assertFalse(desktop.isSeatAvailable(flightId, seatIds[0]), "The desktop inventory is stale until refreshed");
+        assertEquals(3, desktop.getAvailableSeatsByFlightId(flightId).size());
+
+        assertEquals(1, desktop.rebuildInventory());
+        assertTrue(desktop.isSeatAvailable(flightId, seatIds[0]));
+        assertEquals(4, desktop.getAvailableSeatsByFlightId(flightId).size());
+        assertTrue(desktop.claimSeats(flightId, new int[]{seatIds[0]}, 11));
+    }
+
+    /**
+     * Tests that rolling back a connection of the store undoes every write of the transaction, generated IDs included.
+     */
+    @Test
+    void testRollbackUndoesTransaction() throws SQLException {
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        Reservation reservation = new Reservation(0, 1, 3, flightId, LocalDateTime.now());
+
+        try (Connection connection = store.getConnection()) {
+            connection.setAutoCommit(false);
+            new InMemoryReservationDAO(store, connection).create(reservation);
+            new InMemorySeatDAO(store, connection).claimFlightSeats(flightId, seatIds, reservation.getId());
+            // Readers outside the transaction see its uncommitted writes
+            assertEquals(Connection.TRANSACTION_READ_UNCOMMITTED, connection.getTransactionIsolation());
+            assertEquals(1, reservationDAO.getByFlightId(flightId).size());
+            connection.rollback();
+        }
+
+        assertTrue(reservationDAO.getAll().isEmpty());
+        assertEquals(4, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+        Reservation next = new Reservation(0, 1, 3, flightId, LocalDateTime.now());
+        reservationDAO.create(next);
+        assertEquals(reservation.getId(), next.getId());
+    }
+
+    /**
+     * Tests the cascades of flight_seats: deleting a reservation frees its seats and deleting a flight drops its inventory.
+     */
+    @Test
+    void testCascades() throws SQLException {
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        Reservation reservation = new Reservation(0, 1, 1, flightId, LocalDateTime.now());
+        reservationDAO.create(reservation);
+        seatDAO.claimFlightSeats(flightId, new int[]{seatIds[0]}, reservation.getId());
+
+        reservationDAO.delete(reservation.getId());
+        assertEquals(4, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+
+        seatDAO.delete(seatIds[3]);
+        assertEquals(3, seatDAO.getFlightSeatsByFlightId(flightId).size());
+
+        flightDAO.delete(flightId);
+        assertTrue(seatDAO.getFlightSeatsByFlightId(flightId).isEmpty());
+        assertEquals(0, flightDAO.getById(flightId).getId());
+    }
+
+    /**
+     * Tests that search pages follow one another without gaps or repeats and skip cancelled flights.
+     */
+    @Test
+    void testSearchPages() throws SQLException {
+        for (int i = 1; i <= 4; i++) {
+            createFlight("AV10" + i, bogotaId, medellinId, departure.plusHours(i), i == 2 ? 3 : 1, 100f + i);
+        }
+
+        List<String> codes = new ArrayList<>();
+        String token = null;
+        do {
+            FlightPage page = flightDAO.search(bogotaId, medellinId, departure, departure.plusDays(1), null,
+                    FlightPage.Sort.PRICE, token, 2);
+            page.getFlights().forEach(flight -> codes.add(flight.getCode()));
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        assertEquals(List.of("AV101", "AV103", "AV104", "AV100"), codes);
+        assertTrue(flightDAO.search(bogotaId, medellinId, departure, departure.plusDays(1), new int[0],
+                FlightPage.Sort.PRICE, null, 2).getFlights().isEmpty());
+    }
+
+    /**
+     * Tests that a snapshot brings back every table, the seat inventory and the ID counters.
+     */
+    @Test
+    void testSnapshotRoundTrip(@TempDir Path directory) throws Exception {
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        Reservation reservation = new Reservation(0, 1, 1, flightId, LocalDateTime.now().withNano(0));
+        reservationDAO.create(reservation);
+        seatDAO.claimFlightSeats(flightId, new int[]{seatIds[1]}, reservation.getId());
+        Path snapshot = directory.resolve("airflow.snapshot");
+
+        store.save(snapshot);
+        InMemoryStore loaded = InMemoryStore.load(snapshot);
+
+        InMemoryFlightDAO loadedFlights = new InMemoryFlightDAO(loaded, null);
+        InMemorySeatDAO loadedSeats = new InMemorySeatDAO(loaded, null);
+        assertEquals(flightDAO.getAll().toString(), loadedFlights.getAll().toString());
+        assertEquals(Year.of(2015), new InMemoryAirplaneDAO(loaded, null).getByCode("HK-1").getYear());
+        assertEquals(seatIds[1], loadedSeats.getByReservationId(reservation.getId()).get(0).getId());
+        assertEquals(reservation.getReserved_at(), new InMemoryReservationDAO(loaded, null).getById(reservation.getId()).getReserved_at());
+
+        City cali = new City(0, "Cali", "Colombia", "CLO");
+        new InMemoryCityDAO(loaded, null).create(cali);
+        assertEquals(3, cali.getId());
+    }
+
+    /**
+     * Tests that ReservationService books and cancels against the store once the factory selects it.
+     */
+    @Test
+    void testReservationServiceInMemory() throws SQLException {
+        DAOFactory.useInMemory(store);
+        User user = new User(0, "Luis", "Pérez", "luis@airflow.com", "hash", false, LocalDateTime.now());
+        usersDAO.create(user);
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        ReservationService service = new ReservationService(user, DAOFactory.reservationDAO(), DAOFactory.flightDAO(),
+                DAOFactory.seatDAO(), DAOFactory.cityDAO(), new SeatService(DAOFactory.seatDAO()));
+
+        Reservation reservation = service.createReservation(flightId, new int[]{seatIds[0], seatIds[2]});
+
+        assertEquals(2, seatDAO.getByReservationId(reservation.getId()).size());
+        assertThrows(IllegalArgumentException.class, () -> service.createReservation(flightId, new int[]{seatIds[2]}));
+        assertEquals(1, reservationDAO.getAll().size());
+
+        service.cancelReservation(reservation.getId());
+
+        assertTrue(reservationDAO.getAll().isEmpty());
+        assertEquals(4, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+    }
+
+    /**
+     * Tests that a group reservation books every passenger at once, and that a seat taken behind the back
+     * of the seat inventory rolls the whole group back.
+     */
+    @Test
+    void testGroupReservationInMemory() throws SQLException {
+        DAOFactory.useInMemory(store);
+        int[] passengerIds = new int[3];
+        for (int i = 0; i < passengerIds.length; i++) {
+            User passenger = new User(0, "Pasajero", "" + i, "p" + i + "@airflow.com", "hash", false, LocalDateTime.now());
+            usersDAO.create(passenger);
+            passengerIds[i] = passenger.getId();
+        }
+        int flightId = flightDAO.getByCodeOb("AV100").getId();
+        ReservationService service = new ReservationService(new User(), DAOFactory.reservationDAO(), DAOFactory.flightDAO(),
+                DAOFactory.seatDAO(), DAOFactory.cityDAO(), new SeatService(DAOFactory.seatDAO()));
+
+        ArrayList<Reservation> group = service.createGroupReservation(flightId,
+                new int[]{passengerIds[0], passengerIds[1]}, new int[]{seatIds[0], seatIds[1]});
+
+        assertEquals(2, group.size());
+        assertEquals(passengerIds[1], group.get(1).getUser_FK());
+        assertEquals(seatIds[1], seatDAO.getByReservationId(group.get(1).getId()).get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> service.createGroupReservation(flightId,
+                new int[]{passengerIds[2], passengerIds[2]}, new int[]{seatIds[2], seatIds[2]}));
+
+        seatDAO.claimFlightSeats(flightId, new int[]{seatIds[3]}, 99);
+        assertThrows(IllegalArgumentException.class, () -> service.createGroupReservation(flightId,
+                new int[]{passengerIds[2], passengerIds[2]}, new int[]{seatIds[2], seatIds[3]}));
+
+        assertEquals(2, reservationDAO.getAll().size());
+        assertEquals(1, seatDAO.getAvailableSeatsByFlightId(flightId).size());
+        Reservation last = service.createGroupReservation(flightId, new int[]{passengerIds[2]}, new int[]{seatIds[2]}).get(0);
+        assertEquals(seatIds[2], seatDAO.getByReservationId(last.getId()).get(0).getId());
+    }
+
+    /**
+     * Creates a flight with the airplane of the fixture.
+     */
+    private void createFlight(String code, int originId, int destinationId, LocalDateTime departureTime,
+                              int statusId, float price) throws SQLException {
+        Flight flight = new Flight();
+        flight.setAirplane_FK(airplaneId);
+        flight.setStatus_FK(statusId);
+        flight.setOrigin_city_FK(originId);
+        flight.setDestination_city_FK(destinationId);
+        flight.setCode(code);
+        flight.setDeparture_time(departureTime);
+        flight.setScheduled_arrival_time(departureTime.plusHours(1));
+        flight.setPrice_base(price);
+        flightDAO.create(flight);
+    }
+}
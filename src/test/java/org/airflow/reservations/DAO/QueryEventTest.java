@@ -0,0 +1,110 @@
+package org.airflow.reservations.DAO;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.airflow.reservations.utils.QueryEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the Flight Recorder events of the DAO operations.
+ * The JDBC objects are mocked, so these tests do not need a running database.
+ */
+public class QueryEventTest {
+    private Connection connection;
+    private ResultSet resultSet;
+
+    /**
+     * Mocks a connection whose queries return two cities.
+     *
+     * @throws SQLException never, the JDBC objects are mocks
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        String[] labels = {"id_PK", "name", "country", "code"};
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+    }
+
+    /**
+     * Runs an action while recording the query events without a threshold.
+     */
+    private static List<RecordedEvent> record(SQLAction action) throws Exception {
+        Path file = Files.createTempFile("queries", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(QueryEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("org.airflow.reservations.Query"))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SQLAction {
+        void run() throws SQLException;
+    }
+
+    @Test
+    void operationsAreRecordedWithTheirRows() throws Exception {
+        when(resultSet.next()).thenReturn(true, true, false, true, false);
+        CityDAO cityDAO = new CityDAO(connection);
+
+        List<RecordedEvent> events = record(() -> {
+            cityDAO.getAll();
+            cityDAO.getById(1);
+        });
+
+        assertEquals(2, events.size());
+        assertEquals("CityDAO.getAll", events.get(0).getString("sqlId"));
+        assertEquals(2, events.get(0).getLong("rows"));
+        assertEquals("CityDAO.getById", events.get(1).getString("sqlId"));
+        assertEquals(1, events.get(1).getLong("rows"));
+    }
+
+    @Test
+    void failedOperationsAreRecordedAndTheStackIsUnwound() throws Exception {
+        when(connection.createStatement()).thenThrow(new SQLException("Connection lost"));
+        when(resultSet.next()).thenReturn(true, false);
+        CityDAO cityDAO = new CityDAO(connection);
+
+        List<RecordedEvent> events = record(() -> {
+            assertThrows(SQLException.class, cityDAO::getAll);
+            cityDAO.getById(1);
+        });
+
+        assertEquals(List.of("CityDAO.getAll", "CityDAO.getById"),
+                events.stream().map(event -> event.getString("sqlId")).collect(Collectors.toList()));
+        assertEquals(1, events.get(1).getLong("rows"));
+    }
+}
@@ -0,0 +1,303 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.FlightPage;
+import org.airflow.reservations.utils.ConnectionDB;
+import org.airflow.reservations.utils.MigrationRunner;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the execution plan of every filtered DAO query.
+ * Each DAO method runs on a connection that records the statements it prepares and the values bound to them,
+ * inside a transaction that is rolled back, so the SQL checked is always the SQL the DAOs send. Every recorded
+ * statement is run through EXPLAIN, and the test fails if one of the large tables (flights, reservations,
+ * flight_seats) is read with a full scan, or if any other table is scanned with no usable index.
+ * Methods without a WHERE clause (the getAll methods) scan by design and are not listed.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+    /** Tables that must never be read with a full scan */
+    private static final Set<String> LARGE_TABLES = Set.of("flights", "reservations", "flight_seats");
+    /** A table named in a statement, with its alias if it has one */
+    private static final Pattern TABLE = Pattern.compile(
+            "\\b(?:FROM|JOIN|UPDATE|INTO)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(\\w+))?", Pattern.CASE_INSENSITIVE);
+    /** Keywords that can follow a table name and are not an alias */
+    private static final Set<String> KEYWORDS = Set.of("WHERE", "SET", "JOIN", "ON", "LIMIT", "ORDER", "GROUP",
+            "INNER", "LEFT", "RIGHT", "SELECT", "VALUES");
+
+    private Connection connection;
+
+    /**
+     * Opens a connection and applies the schema migrations so the indexes exist.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    @BeforeAll
+    void setUp() throws SQLException {
+        new MigrationRunner(ConnectionDB.getDataSource()).migrate();
+        connection = ConnectionDB.getConnection();
+    }
+
+    /**
+     * Closes the database connection.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            connection.close();
+        }
+    }
+
+    /**
+     * The DAO methods to check, with representative arguments.
+     *
+     * @return the DAO method name and the call that runs it on a connection
+     */
+    static Stream<Arguments> daoQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime later = now.plusHours(2);
+        Flight flight = new Flight();
+        flight.setAirplane_FK(1);
+        flight.setStatus_FK(1);
+        flight.setOrigin_city_FK(1);
+        flight.setDestination_city_FK(2);
+        flight.setCode("BOGMDE100");
+        flight.setDeparture_time(later);
+        flight.setScheduled_arrival_time(later.plusHours(1));
+        flight.setPrice_base(150f);
+
+        return Stream.of(
+                Arguments.of("FlightDAO.getById", call(c -> new FlightDAO(c).getById(1))),
+                Arguments.of("FlightDAO.getByCode", call(c -> new FlightDAO(c).getByCode("BOG"))),
+                Arguments.of("FlightDAO.getByCodeOb", call(c -> new FlightDAO(c).getByCodeOb("BOGMDE100"))),
+                Arguments.of("FlightDAO.getByOriginCity", call(c -> new FlightDAO(c).getByOriginCity(1))),
+                Arguments.of("FlightDAO.getByDestinationCity", call(c -> new FlightDAO(c).getByDestinationCity(1))),
+                Arguments.of("FlightDAO.getByDestinationAndOriginCity",
+                        call(c -> new FlightDAO(c).getByDestinationAndOriginCity(1, 2))),
+                Arguments.of("FlightDAO.getByDepartureTimeRange",
+                        call(c -> new FlightDAO(c).getByDepartureTimeRange(now, later))),
+                Arguments.of("FlightDAO.search", call(c -> new FlightDAO(c).search(1, 2, now, later, null,
+                        FlightPage.Sort.DEPARTURE_TIME, null, 50))),
+                Arguments.of("FlightDAO.search by price", call(c -> new FlightDAO(c).search(1, 2, now, later,
+                        new int[]{1, 2}, FlightPage.Sort.PRICE, null, 50))),
+                Arguments.of("FlightDAO.update", call(c -> new FlightDAO(c).update(1, flight))),
+                Arguments.of("FlightDAO.delete", call(c -> new FlightDAO(c).delete(1))),
+                Arguments.of("ReservationDAO.getById", call(c -> new ReservationDAO(c).getById(1))),
+                Arguments.of("ReservationDAO.getByUserId", call(c -> new ReservationDAO(c).getByUserId(1))),
+                Arguments.of("ReservationDAO.getByFlightId", call(c -> new ReservationDAO(c).getByFlightId(1))),
+                Arguments.of("ReservationDAO.getByFlightIdAndUserId",
+                        call(c -> new ReservationDAO(c).getByFlightIdAndUserId(1, 1))),
+                Arguments.of("ReservationDAO.cancelUnconfirmedByDepartureRange",
+                        call(c -> new ReservationDAO(c).cancelUnconfirmedByDepartureRange(now, later, 500))),
+                Arguments.of("ReservationDAO.completeCheckedInByFlightId",
+                        call(c -> new ReservationDAO(c).completeCheckedInByFlightId(1))),
+                Arguments.of("ReservationDAO.completeCheckedInByDepartureRange",
+                        call(c -> new ReservationDAO(c).completeCheckedInByDepartureRange(now, later))),
+                Arguments.of("SeatDAO.getById", call(c -> new SeatDAO(c).getById(1))),
+                Arguments.of("SeatDAO.getByAirplaneId", call(c -> new SeatDAO(c).getByAirplaneId(1))),
+                Arguments.of("SeatDAO.getAvailableSeatsByAirplaneId",
+                        call(c -> new SeatDAO(c).getAvailableSeatsByAirplaneId(1))),
+                Arguments.of("SeatDAO.getByAirplaneIdSeatNumber",
+                        call(c -> new SeatDAO(c).getByAirplaneIdSeatNumber(1, "1A"))),
+                Arguments.of("SeatDAO.getByReservationId", call(c -> new SeatDAO(c).getByReservationId(1))),
+                Arguments.of("SeatDAO.getByFlightId", call(c -> new SeatDAO(c).getByFlightId(1))),
+                Arguments.of("SeatDAO.getAvailableSeatsByFlightId",
+                        call(c -> new SeatDAO(c).getAvailableSeatsByFlightId(1))),
+                Arguments.of("SeatDAO.getFlightSeatsByFlightId",
+                        call(c -> new SeatDAO(c).getFlightSeatsByFlightId(1))),
+                Arguments.of("SeatDAO.claimFlightSeats",
+                        call(c -> new SeatDAO(c).claimFlightSeats(1, new int[]{1, 2}, 1))),
+                Arguments.of("SeatDAO.releaseFlightSeats",
+                        call(c -> new SeatDAO(c).releaseFlightSeats(1, new int[]{1, 2}, 1))),
+                Arguments.of("CityDAO.getById", call(c -> new CityDAO(c).getById(1))),
+                Arguments.of("CityDAO.getByName", call(c -> new CityDAO(c).getByName("Bogota"))),
+                Arguments.of("AirplaneDAO.getById", call(c -> new AirplaneDAO(c).getById(1))),
+                Arguments.of("AirplaneDAO.getByCode", call(c -> new AirplaneDAO(c).getByCode("AV001"))),
+                Arguments.of("UsersDAO.getById", call(c -> new UsersDAO(c).getById(1))),
+                Arguments.of("UsersDAO.getByEmail", call(c -> new UsersDAO(c).getByEmail("user@example.com")))
+        );
+    }
+
+    /**
+     * Runs a DAO method, then EXPLAINs every statement it sent and fails if a table is scanned
+     * when it should not be.
+     *
+     * @param name the DAO method
+     * @param call runs the DAO method on a connection
+     * @throws SQLException if a database error occurs
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("daoQueries")
+    void testQueryUsesIndex(String name, DAOCall call) throws SQLException {
+        List<RecordedStatement> statements = record(call);
+        assertFalse(statements.isEmpty(), name + " sent no statement");
+
+        List<String> fullScans = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            fullScans.addAll(fullScans(statement));
+        }
+
+        assertTrue(fullScans.isEmpty(), name + " does a full table scan on " + fullScans);
+    }
+
+    /**
+     * Runs a DAO method on a recording connection, in a transaction that is rolled back.
+     *
+     * @param call the DAO method
+     * @return the statements it executed, in order
+     * @throws SQLException if a database error occurs
+     */
+    private List<RecordedStatement> record(DAOCall call) throws SQLException {
+        List<RecordedStatement> statements = new ArrayList<>();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            call.run(recording(connection, statements));
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+        return statements;
+    }
+
+    /**
+     * Runs EXPLAIN on a statement with the values it was executed with.
+     *
+     * @param statement the statement
+     * @return the tables it scans when it should not
+     * @throws SQLException if a database error occurs
+     */
+    private List<String> fullScans(RecordedStatement statement) throws SQLException {
+        Map<String, String> tables = tableNames(statement.sql());
+        List<String> fullScans = new ArrayList<>();
+
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                explain.setObject(i + 1, statement.parameters().get(i));
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    String table = plan.getString("table");
+                    if (table == null || !"ALL".equals(plan.getString("type"))) {
+                        continue;
+                    }
+                    String tableName = tables.getOrDefault(table, table);
+                    if (LARGE_TABLES.contains(tableName) || plan.getString("possible_keys") == null) {
+                        fullScans.add(tableName);
+                    }
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * Maps the tables of a statement and their aliases to the table names, since EXPLAIN reports aliases.
+     *
+     * @param sql the statement
+     * @return the table name of every table name and alias
+     */
+    private static Map<String, String> tableNames(String sql) {
+        Map<String, String> tables = new HashMap<>();
+        Matcher matcher = TABLE.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            tables.put(table, table);
+            String alias = matcher.group(2);
+            if (alias != null && !KEYWORDS.contains(alias.toUpperCase(Locale.ROOT))) {
+                tables.put(alias, table);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Wraps a connection so the statements prepared on it are recorded when executed.
+     * Commits and auto-commit changes are ignored, so the caller can roll everything back.
+     *
+     * @param target     the connection to wrap
+     * @param statements where the executed statements are added
+     * @return the recording connection
+     */
+    private static Connection recording(Connection target, List<RecordedStatement> statements) {
+        return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "commit", "setAutoCommit" -> null;
+                    case "prepareStatement" -> recording((PreparedStatement) forward(target, method, args),
+                            (String) args[0], statements);
+                    default -> forward(target, method, args);
+                });
+    }
+
+    /**
+     * Wraps a prepared statement so it is recorded with its bound values every time it is executed or batched.
+     *
+     * @param target     the statement to wrap
+     * @param sql        the SQL of the statement
+     * @param statements where the executed statements are added
+     * @return the recording statement
+     */
+    private static PreparedStatement recording(PreparedStatement target, String sql, List<RecordedStatement> statements) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if ((name.equals("addBatch") || name.startsWith("execute") && !name.equals("executeBatch"))
+                            && (args == null || args.length == 0)) {
+                        statements.add(new RecordedStatement(sql, new ArrayList<>(parameters.values())));
+                    }
+                    return forward(target, method, args);
+                });
+    }
+
+    /**
+     * Calls a method on the wrapped object, rethrowing what it throws.
+     */
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Gives a lambda its type, so it can be passed to {@link Arguments#of}.
+     */
+    private static DAOCall call(DAOCall call) {
+        return call;
+    }
+
+    /**
+     * A call to a DAO method on a given connection.
+     */
+    @FunctionalInterface
+    interface DAOCall {
+        void run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A statement executed by a DAO, with the values bound to its parameters in order.
+     */
+    private record RecordedStatement(String sql, List<Object> parameters) {
+    }
+}
@@ -158,6 +158,40 @@ public class ReservationDAOTest {
         }
     }
 
+    /**
+     * Tests the createAll method to ensure it inserts every reservation of a batch and sets their generated IDs in order.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    @Test
+    void testCreateAll() throws SQLException {
+        ArrayList<Reservation> batch = new ArrayList<>();
+        for (int userId = 1; userId <= 3; userId++) {
+            Reservation reservation = new Reservation();
+            reservation.setUser_FK(userId);
+            reservation.setStatus_FK(3);
+            reservation.setFlight_FK(2);
+            batch.add(reservation);
+        }
+
+        reservationDAO.createAll(batch);
+
+        try {
+            for (Reservation reservation : batch) {
+                assertTrue(reservation.getId() > 0, "Every reservation should get its generated ID");
+                Reservation stored = reservationDAO.getById(reservation.getId());
+                assertEquals(reservation.getUser_FK(), stored.getUser_FK());
+                assertEquals(2, stored.getFlight_FK());
+            }
+        } finally {
+            for (Reservation reservation : batch) {
+                if (reservation.getId() > 0) {
+                    reservationDAO.delete(reservation.getId());
+                }
+            }
+        }
+    }
+
     /**
      * Tests the update method to ensure it properly updates an existing reservation in the database.
      *
@@ -0,0 +1,111 @@
+package org.airflow.reservations.DAO;
+
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Seat;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RowMapper and the mappers declared by the DAOs.
+ * The result sets are mocked, so these tests do not need a running database.
+ */
+public class RowMapperTest {
+
+    /**
+     * Mocks the metadata of a result set with the given column labels.
+     */
+    private static ResultSet resultSet(String... labels) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        return resultSet;
+    }
+
+    @Test
+    void mapAllReadsEveryRowByResolvedIndex() throws SQLException {
+        ResultSet resultSet = resultSet("ID_PK", "airplane_FK", "reservation_FK", "seat_number", "seat_class", "is_window");
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(10, 11);
+        when(resultSet.getInt(2)).thenReturn(3);
+        when(resultSet.getInt(3)).thenReturn(42, 0);
+        when(resultSet.wasNull()).thenReturn(false, true);
+        when(resultSet.getString(4)).thenReturn("1A", "1B");
+        when(resultSet.getString(5)).thenReturn("BUSINESS", "ECONOMY");
+        when(resultSet.getBoolean(6)).thenReturn(true, false);
+
+        ArrayList<Seat> seats = SeatDAO.ROW_MAPPER.mapAll(resultSet);
+
+        assertEquals(2, seats.size());
+        assertEquals(10, seats.get(0).getId());
+        assertEquals(42, seats.get(0).getReservation_FK());
+        assertEquals(Seat.SeatClass.BUSINESS, seats.get(0).getSeat_class());
+        assertEquals(11, seats.get(1).getId());
+        assertNull(seats.get(1).getReservation_FK());
+        assertEquals("1B", seats.get(1).getSeat_number());
+        // The labels are resolved once for the whole result set
+        verify(resultSet, times(1)).getMetaData();
+        verify(resultSet, never()).getInt(anyString());
+    }
+
+    @Test
+    void mapOneReturnsAnEmptyEntityWhenThereAreNoRows() throws SQLException {
+        ResultSet resultSet = resultSet("id_PK", "name", "country", "code");
+        when(resultSet.next()).thenReturn(false);
+
+        assertEquals(0, CityDAO.ROW_MAPPER.mapOne(resultSet).getId());
+    }
+
+    @Test
+    void firstColumnWinsWhenALabelRepeats() throws SQLException {
+        ResultSet resultSet = resultSet("id_PK", "name", "country", "code", "id_PK");
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(7);
+        when(resultSet.getInt(5)).thenReturn(99);
+
+        assertEquals(7, CityDAO.ROW_MAPPER.mapOne(resultSet).getId());
+    }
+
+    @Test
+    void missingColumnFailsBeforeReadingRows() throws SQLException {
+        ResultSet resultSet = resultSet("id_PK", "name");
+
+        SQLException e = assertThrows(SQLException.class, () -> CityDAO.ROW_MAPPER.mapAll(resultSet));
+        assertEquals("S0022", e.getSQLState());
+        verify(resultSet, never()).next();
+    }
+
+    @Test
+    void dateTimeFallsBackToTimestampWhenDriverRefusesLocalDateTime() throws SQLException {
+        String[] labels = {"id_PK", "airplane_FK", "status_FK", "origin_city_FK", "destination_city_FK", "code",
+                "departure_time", "scheduled_arrival_time", "arrival_time", "price_base", "status_name",
+                "status_description"};
+        ResultSet resultSet = resultSet(labels);
+        LocalDateTime departure = LocalDateTime.of(2025, 3, 1, 8, 30);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getObject(anyInt(), eq(LocalDateTime.class)))
+                .thenThrow(new SQLFeatureNotSupportedException());
+        when(resultSet.getTimestamp(7)).thenReturn(Timestamp.valueOf(departure));
+        when(resultSet.getTimestamp(9)).thenReturn(null);
+
+        ArrayList<Flight> flights = FlightDAO.ROW_MAPPER.mapAll(resultSet);
+
+        assertEquals(departure, flights.get(1).getDeparture_time());
+        assertNull(flights.get(1).getArrival_time());
+        // After the first refusal the reader goes straight to getTimestamp
+        verify(resultSet, times(1)).getObject(anyInt(), eq(LocalDateTime.class));
+    }
+}
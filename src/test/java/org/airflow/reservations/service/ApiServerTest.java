@@ -0,0 +1,230 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.*;
+import org.airflow.reservations.model.*;
+import org.airflow.reservations.utils.Json;
+import org.airflow.reservations.utils.PasswordUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ApiServer class.
+ * The services run over an InMemoryStore and the server listens on a free local port,
+ * so these tests do not need a running database.
+ */
+public class ApiServerTest {
+    private InMemoryStore store;
+    private ApiServer server;
+    private HttpClient client;
+    private int flightId;
+    private int[] seatIds;
+    private LocalDateTime departure;
+
+    /**
+     * Creates two cities, an airplane with four seats, a flight between the cities and two users,
+     * and starts a server over them.
+     *
+     * @throws Exception if the store or the server cannot be set up
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new InMemoryStore();
+        City bogota = new City(0, "Bogotá", "Colombia", "BOG");
+        City medellin = new City(0, "Medellín", "Colombia", "MDE");
+        new InMemoryCityDAO(store, null).create(bogota);
+        new InMemoryCityDAO(store, null).create(medellin);
+        Airplane airplane = new Airplane(0, "Avianca", "A320", "HK-1", 4, Year.of(2015));
+        new InMemoryAirplaneDAO(store, null).create(airplane);
+
+        InMemorySeatDAO seatDAO = new InMemorySeatDAO(store, null);
+        seatIds = new int[4];
+        for (int i = 0; i < seatIds.length; i++) {
+            Seat seat = new Seat(0, airplane.getId(), null, (i + 1) + "A", Seat.SeatClass.ECONOMY, i % 2 == 0);
+            seatDAO.create(seat);
+            seatIds[i] = seat.getId();
+        }
+
+        departure = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Flight flight = new Flight();
+        flight.setAirplane_FK(airplane.getId());
+        flight.setStatus_FK(1);
+        flight.setOrigin_city_FK(bogota.getId());
+        flight.setDestination_city_FK(medellin.getId());
+        flight.setCode("AV100");
+        flight.setDeparture_time(departure);
+        flight.setScheduled_arrival_time(departure.plusHours(1));
+        flight.setPrice_base(150f);
+        new InMemoryFlightDAO(store, null).create(flight);
+        flightId = flight.getId();
+
+        InMemoryUsersDAO usersDAO = new InMemoryUsersDAO(store, null);
+        usersDAO.create(new User(0, "Ana", "Gómez", "ana@airflow.com", PasswordUtils.hashPassword("secret1"),
+                false, LocalDateTime.now()));
+        usersDAO.create(new User(0, "Luis", "Pérez", "luis@airflow.com", PasswordUtils.hashPassword("secret2"),
+                false, LocalDateTime.now()));
+        usersDAO.create(new User(0, "Agencia", "Andes", "agencia@airflow.com", PasswordUtils.hashPassword("secret3"),
+                true, LocalDateTime.now()));
+
+        DAOFactory.useInMemory(store);
+        SeatDAO seatDAOs = DAOFactory.seatDAO();
+        SeatService seatService = new SeatService(seatDAOs);
+        ReservationDAO reservationDAO = DAOFactory.reservationDAO();
+        FlightDAO flightDAO = DAOFactory.flightDAO();
+        CityDAO cityDAO = DAOFactory.cityDAO();
+        server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), ApiServer.newExecutor("fixed", 4),
+                new FlightService(flightDAO), seatService, usersDAO,
+                user -> new ReservationService(user, reservationDAO, flightDAO, seatDAOs, cityDAO,
+                        seatService), 60_000);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    /**
+     * Stops the server and goes back to the database backend.
+     */
+    @AfterEach
+    void tearDown() {
+        server.close();
+        DAOFactory.useDatabase();
+    }
+
+    /**
+     * Tests that the API needs a session and that only exact email and password matches log in.
+     */
+    @Test
+    void testLoginIsRequired() throws Exception {
+        assertEquals(200, send("GET", "/health", null, null).statusCode());
+        assertEquals(401, send("GET", "/api/flights?origin=1&destination=2&date=2030-01-01", null, null).statusCode());
+        assertEquals(401, login("ana@airflow.com", "wrong").statusCode());
+        assertEquals(401, login("ana@%", "secret1").statusCode());
+        assertEquals(401, send("GET", "/api/reservations", null, "not-a-token").statusCode());
+
+        String token = token("ANA@airflow.com", "secret1");
+        assertEquals(200, send("GET", "/api/reservations", null, token).statusCode());
+        assertEquals(204, send("POST", "/api/logout", null, token).statusCode());
+        assertEquals(401, send("GET", "/api/reservations", null, token).statusCode());
+    }
+
+    /**
+     * Tests that flights are searched by route and day and that their available seats are listed.
+     */
+    @Test
+    void testSearchAndSeats() throws Exception {
+        String token = token("ana@airflow.com", "secret1");
+
+        HttpResponse<String> search = send("GET", "/api/flights?origin=1&destination=2&date="
+                + departure.toLocalDate(), null, token);
+        assertEquals(200, search.statusCode(), search.body());
+        List<?> flights = (List<?>) json(search).get("flights");
+        assertEquals(1, flights.size());
+        assertEquals("AV100", ((Map<?, ?>) flights.get(0)).get("code"));
+        assertEquals(departure.toString(), ((Map<?, ?>) flights.get(0)).get("departureTime"));
+
+        HttpResponse<String> seats = send("GET", "/api/flights/" + flightId + "/seats", null, token);
+        assertEquals(4L, json(seats).get("available"));
+        assertEquals(404, send("GET", "/api/flights/999", null, token).statusCode());
+        assertEquals(400, send("GET", "/api/flights?origin=1&destination=2&date=tomorrow", null, token).statusCode());
+    }
+
+    /**
+     * Tests booking, confirming and cancelling, and that a user cannot see the reservations of another.
+     */
+    @Test
+    void testBookConfirmAndCancel() throws Exception {
+        String ana = token("ana@airflow.com", "secret1");
+        String luis = token("luis@airflow.com", "secret2");
+
+        HttpResponse<String> booked = send("POST", "/api/reservations",
+                "{\"flightId\":" + flightId + ",\"seatIds\":[" + seatIds[0] + "," + seatIds[1] + "]}", ana);
+        assertEquals(201, booked.statusCode(), booked.body());
+        long reservationId = (Long) json(booked).get("id");
+        assertEquals(2L, json(send("GET", "/api/flights/" + flightId + "/seats", null, ana)).get("available"));
+
+        HttpResponse<String> taken = send("POST", "/api/reservations",
+                "{\"flightId\":" + flightId + ",\"seatIds\":[" + seatIds[1] + "]}", luis);
+        assertEquals(400, taken.statusCode());
+        assertTrue(json(taken).containsKey("error"));
+        assertEquals(404, send("GET", "/api/reservations/" + reservationId, null, luis).statusCode());
+        assertEquals(404, send("DELETE", "/api/reservations/" + reservationId, null, luis).statusCode());
+
+        HttpResponse<String> confirmed = send("POST", "/api/reservations/" + reservationId + "/confirm", null, ana);
+        assertEquals(200, confirmed.statusCode(), confirmed.body());
+        assertEquals(1L, json(confirmed).get("statusId"));
+
+        assertEquals(true, json(send("DELETE", "/api/reservations/" + reservationId, null, ana)).get("cancelled"));
+        assertEquals(4L, json(send("GET", "/api/flights/" + flightId + "/seats", null, ana)).get("available"));
+    }
+
+    /**
+     * Tests that an agency books a group in one request and that other users can only book for themselves.
+     */
+    @Test
+    void testGroupBooking() throws Exception {
+        String ana = token("ana@airflow.com", "secret1");
+        String agency = token("agencia@airflow.com", "secret3");
+        String group = "{\"flightId\":" + flightId + ",\"passengers\":[{\"userId\":1,\"seatId\":" + seatIds[0]
+                + "},{\"userId\":2,\"seatId\":" + seatIds[1] + "}]}";
+
+        assertEquals(403, send("POST", "/api/reservations/group", group, ana).statusCode());
+
+        HttpResponse<String> booked = send("POST", "/api/reservations/group", group, agency);
+        assertEquals(201, booked.statusCode(), booked.body());
+        List<?> reservations = (List<?>) json(booked).get("reservations");
+        assertEquals(2, reservations.size());
+        assertEquals(2L, ((Map<?, ?>) reservations.get(1)).get("userId"));
+        assertEquals(2L, json(send("GET", "/api/flights/" + flightId + "/seats", null, ana)).get("available"));
+        assertEquals(1, ((List<?>) Json.parse(send("GET", "/api/reservations", null, ana).body())).size());
+    }
+
+    /**
+     * Tests that malformed bodies, unknown routes and wrong methods get their status codes.
+     */
+    @Test
+    void testBadRequests() throws Exception {
+        String token = token("ana@airflow.com", "secret1");
+
+        assertEquals(400, send("POST", "/api/reservations", "{\"flightId\":", token).statusCode());
+        assertEquals(400, send("POST", "/api/reservations", "{\"flightId\":1,\"seatIds\":[]}", token).statusCode());
+        assertEquals(404, send("GET", "/api/airports", null, token).statusCode());
+        assertEquals(405, send("PUT", "/api/flights/" + flightId, null, token).statusCode());
+        assertEquals(413, send("POST", "/api/login", "\"" + "x".repeat(70_000) + "\"", null).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String token)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> login(String email, String password) throws IOException, InterruptedException {
+        return send("POST", "/api/login", Json.write(Map.of("email", email, "password", password)), null);
+    }
+
+    private String token(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = login(email, password);
+        assertEquals(200, response.statusCode(), response.body());
+        return (String) json(response).get("token");
+    }
+
+    private static Map<?, ?> json(HttpResponse<String> response) {
+        return (Map<?, ?>) Json.parse(response.body());
+    }
+}
@@ -0,0 +1,191 @@
+package org.airflow.reservations.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AsyncServiceFacade class.
+ * Tasks are queued and run by the test itself and results are delivered on the calling thread,
+ * so every interleaving is deterministic.
+ */
+public class AsyncServiceFacadeTest {
+    private Queue<Runnable> tasks;
+    private AsyncServiceFacade facade;
+    private List<String> delivered;
+
+    @BeforeEach
+    void setUp() {
+        tasks = new ArrayDeque<>();
+        facade = new AsyncServiceFacade(tasks::add, Runnable::run);
+        delivered = new ArrayList<>();
+    }
+
+    /**
+     * Tests that a task superseded before it starts never runs and its result is never delivered.
+     */
+    @Test
+    void testSupersededTaskIsSkipped() {
+        List<String> ran = new ArrayList<>();
+        CompletableFuture<String> first = facade.submit("search", () -> {
+            ran.add("first");
+            return "first";
+        }, delivered::add, error -> fail(error));
+        facade.submit("search", () -> {
+            ran.add("second");
+            return "second";
+        }, delivered::add, error -> fail(error));
+
+        runAll();
+
+        assertTrue(first.isCancelled());
+        assertEquals(List.of("second"), ran);
+        assertEquals(List.of("second"), delivered);
+    }
+
+    /**
+     * Tests that the result of a task that completes after being superseded is dropped.
+     */
+    @Test
+    void testLateResultIsDropped() {
+        facade.submit("search", () -> "first", delivered::add, error -> fail(error));
+        Runnable first = tasks.poll();
+        facade.submit("search", () -> "second", delivered::add, error -> fail(error));
+
+        // The first task was already running when the second was submitted
+        first.run();
+        runAll();
+
+        assertEquals(List.of("second"), delivered);
+    }
+
+    /**
+     * Tests that a superseded task that is already running stays in flight until it returns,
+     * so the count never drops below the number of tasks holding a permit.
+     */
+    @Test
+    void testSupersededRunningTaskStaysInFlight() {
+        facade.submit("search", () -> "first", delivered::add, error -> fail(error));
+        Runnable first = tasks.poll();
+        facade.submit("search", () -> "second", delivered::add, error -> fail(error));
+
+        assertEquals(2, facade.getInFlightCount(), "The first task is superseded but still running");
+        first.run();
+        assertEquals(1, facade.getInFlightCount());
+        runAll();
+        assertEquals(0, facade.getInFlightCount());
+    }
+
+    /**
+     * Tests that a slow service call blocks the calling thread for its whole duration when made directly,
+     * and for almost no time when submitted, which is what keeps the event dispatch thread responsive.
+     */
+    @Test
+    void testSubmitDoesNotBlockCaller() throws Exception {
+        Callable<String> slowQuery = () -> {
+            Thread.sleep(300);
+            return "flights";
+        };
+        AsyncServiceFacade background = new AsyncServiceFacade(AsyncServiceFacade.createDefaultExecutor(), Runnable::run);
+
+        long start = System.nanoTime();
+        slowQuery.call();
+        long directMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        CompletableFuture<String> future = background.submit(null, slowQuery, delivered::add, error -> fail(error));
+        long submitMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(directMillis >= 300, "The direct call blocked for " + directMillis + " ms");
+        assertTrue(submitMillis < 100, "Submitting blocked the caller for " + submitMillis + " ms");
+        assertEquals("flights", future.get(5, TimeUnit.SECONDS));
+        background.shutdown();
+    }
+
+    /**
+     * Tests that tasks under different keys do not supersede each other and that errors are delivered unwrapped.
+     */
+    @Test
+    void testIndependentKeysAndErrors() {
+        List<Throwable> errors = new ArrayList<>();
+        facade.submit("search", () -> "flights", delivered::add, errors::add);
+        facade.<String>submit("flight", () -> {
+            throw new SQLException("Connection lost");
+        }, delivered::add, errors::add);
+
+        assertTrue(facade.isPending("flight"));
+        runAll();
+
+        assertFalse(facade.isPending("flight"));
+        assertEquals(List.of("flights"), delivered);
+        assertEquals(1, errors.size());
+        assertInstanceOf(SQLException.class, errors.get(0));
+    }
+
+    /**
+     * Tests that the progress listener follows the number of tasks in flight.
+     */
+    @Test
+    void testProgressListener() {
+        List<Integer> counts = new ArrayList<>();
+        facade.setProgressListener(counts::add);
+
+        facade.submit(null, () -> 1);
+        facade.submit(null, () -> 2);
+        assertEquals(2, facade.getInFlightCount());
+        runAll();
+
+        assertEquals(0, facade.getInFlightCount());
+        assertEquals(List.of(1, 2, 1, 0), counts);
+    }
+
+    /**
+     * Tests that a task rejected by the executor completes exceptionally instead of hanging.
+     */
+    @Test
+    void testRejectedTask() {
+        AsyncServiceFacade saturated = new AsyncServiceFacade(task -> {
+            throw new RejectedExecutionException("Queue full");
+        }, Runnable::run);
+
+        CompletableFuture<Integer> future = saturated.submit(null, () -> 1);
+
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, saturated.getInFlightCount());
+    }
+
+    /**
+     * Tests that the default executor runs tasks on a background thread.
+     */
+    @Test
+    void testDefaultExecutor() throws Exception {
+        AsyncServiceFacade background = new AsyncServiceFacade(AsyncServiceFacade.createDefaultExecutor(), Runnable::run);
+        Thread caller = Thread.currentThread();
+
+        Thread worker = background.submit(null, Thread::currentThread).get();
+
+        assertNotSame(caller, worker);
+        background.shutdown();
+    }
+
+    /**
+     * Runs the queued tasks in order.
+     */
+    private void runAll() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
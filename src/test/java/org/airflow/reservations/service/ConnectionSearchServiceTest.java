@@ -0,0 +1,166 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.Itinerary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ConnectionSearchService class.
+ * The timetable is loaded from a mocked FlightDAO, so these tests do not need a running database.
+ */
+public class ConnectionSearchServiceTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 5, 1, 0, 0);
+
+    private FlightDAO flightDAO;
+    private ArrayList<Flight> flights;
+    private ConnectionSearchService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        flightDAO = mock(FlightDAO.class);
+        flights = new ArrayList<>();
+        when(flightDAO.getAll()).thenReturn(flights);
+        service = new ConnectionSearchService(new FlightTimetable(flightDAO), Duration.ofMinutes(45), Duration.ofHours(12));
+    }
+
+    /**
+     * Tests that a one-stop itinerary is found and that tight connections are rejected.
+     */
+    @Test
+    void testOneStopRespectsMinimumConnection() throws SQLException {
+        flights.add(flight(1, 1, 2, DAY.plusHours(8), 2, 100));
+        flights.add(flight(2, 2, 3, DAY.plusHours(10).plusMinutes(50), 2, 80));
+        flights.add(flight(3, 2, 3, DAY.plusHours(10).plusMinutes(40), 1, 60));
+
+        ArrayList<Itinerary> itineraries = service.searchItineraries(1, 3, DAY, DAY.plusDays(1), 2, 10);
+
+        assertEquals(1, itineraries.size(), "Flight 3 leaves 40 minutes after the arrival and cannot be used");
+        assertEquals(1, itineraries.get(0).getStops());
+        assertEquals(1, itineraries.get(0).getLegs().get(0).getId());
+        assertEquals(2, itineraries.get(0).getLegs().get(1).getId());
+        assertEquals(180.0f, itineraries.get(0).getTotalPrice(), 0.001);
+    }
+
+    /**
+     * Tests that two-stop itineraries are found and that the stop limit is respected.
+     */
+    @Test
+    void testTwoStopsAndStopLimit() throws SQLException {
+        flights.add(flight(1, 1, 2, DAY.plusHours(6), 1, 50));
+        flights.add(flight(2, 2, 3, DAY.plusHours(8), 1, 50));
+        flights.add(flight(3, 3, 4, DAY.plusHours(10), 1, 50));
+        flights.add(flight(4, 4, 5, DAY.plusHours(12), 1, 50));
+
+        ArrayList<Itinerary> twoStops = service.searchItineraries(1, 4, DAY, DAY.plusDays(1), 2, 10);
+        assertEquals(1, twoStops.size());
+        assertEquals(2, twoStops.get(0).getStops());
+
+        assertTrue(service.searchItineraries(1, 4, DAY, DAY.plusDays(1), 1, 10).isEmpty());
+        assertTrue(service.searchItineraries(1, 5, DAY, DAY.plusDays(1), 2, 10).isEmpty(),
+                "Three stops are beyond the limit");
+    }
+
+    /**
+     * Tests that results are ranked by arrival and price and dominated itineraries are dropped.
+     */
+    @Test
+    void testRanking() throws SQLException {
+        // Direct, early and expensive
+        flights.add(flight(1, 1, 3, DAY.plusHours(8), 3, 500));
+        // One stop, later but cheaper
+        flights.add(flight(2, 1, 2, DAY.plusHours(8), 2, 100));
+        flights.add(flight(3, 2, 3, DAY.plusHours(11), 2, 100));
+        // One stop through another city, arrives later and costs more: dominated
+        flights.add(flight(4, 1, 4, DAY.plusHours(7), 2, 300));
+        flights.add(flight(5, 4, 3, DAY.plusHours(12), 2, 300));
+
+        ArrayList<Itinerary> itineraries = service.searchItineraries(1, 3, DAY, DAY.plusDays(1), 2, 10);
+
+        assertEquals(2, itineraries.size());
+        assertEquals(0, itineraries.get(0).getStops());
+        assertEquals(200.0f, itineraries.get(1).getTotalPrice(), 0.001);
+    }
+
+    /**
+     * Tests that itineraries never return to a city they already passed through
+     * and that the first flight must depart within the window.
+     */
+    @Test
+    void testNoCyclesAndDepartureWindow() throws SQLException {
+        flights.add(flight(1, 1, 2, DAY.plusHours(6), 1, 50));
+        flights.add(flight(2, 2, 1, DAY.plusHours(8), 1, 50));
+        flights.add(flight(3, 1, 3, DAY.plusHours(10), 1, 50));
+        flights.add(flight(4, 1, 3, DAY.plusDays(1).plusHours(1), 1, 50));
+
+        ArrayList<Itinerary> itineraries = service.searchItineraries(1, 3, DAY, DAY.plusDays(1), 2, 10);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(3, itineraries.get(0).getLegs().get(0).getId());
+    }
+
+    /**
+     * Tests the search over a large random timetable, and that a search stays well under the
+     * time budget of the search screen. The bound is loose on purpose; the latency itself is
+     * measured by SearchBenchmark.connections.
+     */
+    @Test
+    void testLargeTimetable() throws SQLException {
+        Random random = new Random(42);
+        int cities = 150;
+        for (int id = 1; id <= 40_000; id++) {
+            int origin = 1 + random.nextInt(cities);
+            int destination = 1 + random.nextInt(cities - 1);
+            if (destination >= origin) {
+                destination++;
+            }
+            LocalDateTime departure = DAY.plusMinutes(random.nextInt(2 * 24 * 60));
+            flights.add(flight(id, origin, destination, departure, 1 + random.nextInt(6), 50 + random.nextInt(500)));
+        }
+        service.searchItineraries(1, 2, DAY, DAY.plusDays(1), 2, 20);
+
+        long start = System.nanoTime();
+        int searches = 50;
+        for (int i = 0; i < searches; i++) {
+            ArrayList<Itinerary> itineraries = service.searchItineraries(1 + i, 2 + i, DAY, DAY.plusDays(1), 2, 20);
+            for (Itinerary itinerary : itineraries) {
+                assertTrue(itinerary.getStops() <= ConnectionSearchService.MAX_STOPS);
+                for (int leg = 1; leg < itinerary.getLegs().size(); leg++) {
+                    Flight previous = itinerary.getLegs().get(leg - 1);
+                    Flight next = itinerary.getLegs().get(leg);
+                    assertEquals(previous.getDestination_city_FK(), next.getOrigin_city_FK());
+                    assertFalse(next.getDeparture_time().isBefore(previous.getScheduled_arrival_time().plusMinutes(45)));
+                }
+            }
+        }
+        double millisPerSearch = (System.nanoTime() - start) / 1e6 / searches;
+        assertTrue(millisPerSearch < 250, "A connection search over " + flights.size() + " flights took "
+                + millisPerSearch + " ms");
+    }
+
+    /**
+     * Creates a flight for the tests.
+     *
+     * @param id            the flight ID
+     * @param originId      the origin city ID
+     * @param destinationId the destination city ID
+     * @param departure     the departure time
+     * @param hours         the flight duration in hours
+     * @param price         the base price
+     * @return the flight
+     */
+    private static Flight flight(int id, int originId, int destinationId, LocalDateTime departure, int hours, float price) {
+        return new Flight(id, 1, 1, originId, destinationId, "CS" + id, departure,
+                departure.plusHours(hours), null, price);
+    }
+}
@@ -0,0 +1,150 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.FlightDAO;
+import org.airflow.reservations.model.Flight;
+import org.airflow.reservations.model.FlightPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the FlightTimetable class.
+ * The FlightDAO is replaced by a Mockito mock, so these tests do not need a running database.
+ */
+public class FlightTimetableTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 5, 1, 0, 0);
+
+    private FlightDAO flightDAO;
+    private FlightTimetable timetable;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        flightDAO = mock(FlightDAO.class);
+        when(flightDAO.getAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                flight(3, 1, 2, DAY.plusHours(12), 1),
+                flight(1, 1, 2, DAY.plusHours(8), 1),
+                flight(2, 1, 2, DAY.plusHours(8), 1),
+                flight(4, 1, 2, DAY.plusHours(9), 3),
+                flight(5, 2, 1, DAY.plusHours(10), 1),
+                flight(6, 1, 2, DAY.plusDays(1).plusHours(7), 1))));
+        timetable = new FlightTimetable(flightDAO);
+    }
+
+    /**
+     * Tests that the load indexes every flight that is not cancelled, sorted by departure and ID.
+     */
+    @Test
+    void testLoadAndFind() throws SQLException {
+        assertEquals(5, timetable.load());
+        assertEquals(2, timetable.getRouteCount());
+
+        assertArrayEquals(new int[]{1, 2, 3}, timetable.findFlightIds(1, 2, DAY, DAY.plusDays(1)));
+        assertArrayEquals(new int[]{5}, timetable.findFlightIds(2, 1, DAY, DAY.plusDays(1)));
+        assertArrayEquals(new int[0], timetable.findFlightIds(1, 3, DAY, DAY.plusDays(1)));
+    }
+
+    /**
+     * Tests that the time window includes its start and excludes its end.
+     */
+    @Test
+    void testWindowBounds() throws SQLException {
+        timetable.load();
+
+        assertArrayEquals(new int[]{1, 2}, timetable.findFlightIds(1, 2, DAY.plusHours(8), DAY.plusHours(12)));
+        assertArrayEquals(new int[]{3, 6}, timetable.findFlightIds(1, 2, DAY.plusHours(12), DAY.plusDays(2)));
+        assertArrayEquals(new int[0], timetable.findFlightIds(1, 2, DAY.plusHours(13), DAY.plusHours(14)));
+    }
+
+    /**
+     * Tests that updates move, add and remove flights incrementally.
+     */
+    @Test
+    void testIncrementalChanges() throws SQLException {
+        timetable.load();
+        int[] before = timetable.findFlightIds(1, 2, DAY, DAY.plusDays(1));
+
+        timetable.upsert(3, flight(3, 1, 2, DAY.plusHours(7), 1));
+        timetable.upsert(7, flight(0, 1, 2, DAY.plusHours(8), 1));
+        timetable.upsert(2, flight(2, 1, 2, DAY.plusHours(8), 3));
+        timetable.upsert(5, flight(5, 1, 2, DAY.plusHours(11), 1));
+        timetable.remove(1);
+
+        assertArrayEquals(new int[]{3, 7, 5}, timetable.findFlightIds(1, 2, DAY, DAY.plusDays(1)));
+        assertEquals(1, timetable.getRouteCount(), "The emptied route should be dropped");
+        assertArrayEquals(new int[]{1, 2, 3}, before, "Earlier results should not change");
+    }
+
+    /**
+     * Tests that changes made before the load are left to the load.
+     */
+    @Test
+    void testChangesBeforeLoadAreIgnored() {
+        timetable.upsert(10, flight(10, 1, 2, DAY.plusHours(5), 1));
+
+        assertFalse(timetable.isLoaded());
+        assertEquals(0, timetable.size());
+    }
+
+    /**
+     * Tests that the flights returned are copies of the indexed flights.
+     */
+    @Test
+    void testFindFlightsReturnsCopies() throws SQLException {
+        timetable.load();
+
+        ArrayList<Flight> flights = timetable.findFlights(1, 2, DAY, DAY.plusDays(1));
+        assertEquals(3, flights.size());
+        flights.get(0).setDeparture_time(DAY.plusDays(5));
+
+        assertEquals(DAY.plusHours(8), timetable.findFlights(1, 2, DAY, DAY.plusDays(1)).get(0).getDeparture_time());
+    }
+
+    /**
+     * Tests that flight searches are answered by the database until the timetable is loaded,
+     * and then by the timetable, with the same keyset pages.
+     */
+    @Test
+    void testSearchUsesTimetableOnceLoaded() throws SQLException {
+        FlightService flightService = new FlightService(flightDAO, timetable);
+        when(flightDAO.search(anyInt(), anyInt(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new FlightPage());
+
+        flightService.searchFlights(1, 2, DAY, DAY.plusDays(1), null, FlightPage.Sort.DEPARTURE_TIME, null, 2);
+        verify(flightDAO, times(1)).search(anyInt(), anyInt(), any(), any(), any(), any(), any(), anyInt());
+
+        timetable.load();
+        FlightPage first = flightService.searchFlights(1, 2, DAY, DAY.plusDays(1), null,
+                FlightPage.Sort.DEPARTURE_TIME, null, 2);
+        assertEquals(Arrays.asList(1, 2), first.getFlights().stream().map(Flight::getId).toList());
+        assertTrue(first.hasNextPage());
+
+        FlightPage second = flightService.searchFlights(1, 2, DAY, DAY.plusDays(1), null,
+                FlightPage.Sort.DEPARTURE_TIME, first.getNextPageToken(), 2);
+        assertEquals(Arrays.asList(3), second.getFlights().stream().map(Flight::getId).toList());
+        assertFalse(second.hasNextPage());
+        verify(flightDAO, times(1)).search(anyInt(), anyInt(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    /**
+     * Creates a flight for the tests.
+     *
+     * @param id            the flight ID
+     * @param originId      the origin city ID
+     * @param destinationId the destination city ID
+     * @param departure     the departure time
+     * @param statusId      the status ID
+     * @return the flight
+     */
+    private static Flight flight(int id, int originId, int destinationId, LocalDateTime departure, int statusId) {
+        return new Flight(id, 1, statusId, originId, destinationId, "TT" + id, departure,
+                departure.plusHours(2), null, 100.0f);
+    }
+}
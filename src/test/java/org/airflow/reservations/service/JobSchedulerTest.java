@@ -0,0 +1,111 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.model.JobRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the JobScheduler class.
+ * The jobs are plain lambdas, so these tests do not need a running database.
+ */
+public class JobSchedulerTest {
+    private static final Duration NEVER = Duration.ofDays(1);
+
+    private JobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new JobScheduler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Tests that every run records its rows and duration.
+     */
+    @Test
+    void testRunMetrics() {
+        AtomicInteger rows = new AtomicInteger(3);
+        scheduler.schedule("control", rows::getAndDecrement, NEVER, NEVER);
+
+        JobRun first = scheduler.runNow("control");
+        JobRun second = scheduler.runNow("control");
+
+        assertTrue(first.isSuccessful());
+        assertEquals(3, first.getRowsTouched());
+        assertFalse(first.getDuration().isNegative());
+        assertEquals(2, second.getRowsTouched());
+        assertSame(second, scheduler.getLastRun("control"));
+        assertEquals(2, scheduler.getRunCount("control"));
+        assertEquals(5, scheduler.getTotalRowsTouched("control"));
+    }
+
+    /**
+     * Tests that a failed run is recorded and does not stop the job.
+     */
+    @Test
+    void testFailedRun() {
+        AtomicInteger calls = new AtomicInteger();
+        scheduler.schedule("control", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new SQLException("Connection lost");
+            }
+            return 1;
+        }, NEVER, NEVER);
+
+        JobRun failed = scheduler.runNow("control");
+        JobRun recovered = scheduler.runNow("control");
+
+        assertFalse(failed.isSuccessful());
+        assertEquals("Connection lost", failed.getError());
+        assertTrue(recovered.isSuccessful());
+    }
+
+    /**
+     * Tests that a run is skipped while the previous run of the same job has not finished.
+     */
+    @Test
+    void testOverlappingRunIsSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.schedule("control", () -> {
+            started.countDown();
+            release.await();
+            return 1;
+        }, Duration.ZERO, NEVER);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertNull(scheduler.runNow("control"));
+        assertEquals(1, scheduler.getSkippedCount("control"));
+
+        release.countDown();
+    }
+
+    /**
+     * Tests that scheduled jobs run on their own and that names are unique.
+     */
+    @Test
+    void testScheduledRunsAndUniqueNames() throws Exception {
+        CountDownLatch runs = new CountDownLatch(3);
+        scheduler.schedule("tick", () -> {
+            runs.countDown();
+            return 0;
+        }, Duration.ZERO, Duration.ofMillis(10));
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("tick", () -> 0, NEVER, NEVER));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.runNow("unknown"));
+    }
+}
@@ -0,0 +1,149 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.*;
+import org.airflow.reservations.model.*;
+import org.airflow.reservations.utils.ConnectionDB;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contention benchmark for ReservationService.createReservation.
+ * 64 bookers compete for the seats of a single flight; every booking that reports success
+ * must own exactly the seats it asked for, and no seat may end up reserved twice.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReservationContentionTest {
+    private static final int BOOKERS = 64;
+    private static final int ATTEMPTS_PER_BOOKER = 10;
+    private static final int SEATS = 120;
+
+    private Connection connection;
+    private AirplaneDAO airplaneDAO;
+    private CityDAO cityDAO;
+    private FlightDAO flightDAO;
+    private SeatDAO seatDAO;
+    private UsersDAO usersDAO;
+    private ReservationDAO reservationDAO;
+    private User testUser;
+    private int testFlightId;
+    private int[] testSeatIds;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = ConnectionDB.getConnection();
+        airplaneDAO = new AirplaneDAO(connection);
+        cityDAO = new CityDAO(connection);
+        flightDAO = new FlightDAO(connection);
+        seatDAO = new SeatDAO(connection);
+        usersDAO = new UsersDAO(connection);
+        reservationDAO = new ReservationDAO(connection);
+
+        usersDAO.create(new User(0, "Contention", "User", "contention@example.com",
+                "password", false, LocalDateTime.now()));
+        testUser = usersDAO.getByEmail("contention@example.com");
+
+        cityDAO.create(new City(0, "ContentionCity1", "testCountry1", "CNT1"));
+        cityDAO.create(new City(0, "ContentionCity2", "testCountry2", "CNT2"));
+        airplaneDAO.create(new Airplane(0, "testAirline", "testModel", "TSTCNT1", SEATS, Year.now()));
+        int airplaneId = airplaneDAO.getByCode("TSTCNT1").getId();
+
+        Flight flight = new Flight(0, airplaneId, 1,
+                cityDAO.getByName("ContentionCity1").getId(), cityDAO.getByName("ContentionCity2").getId(),
+                "CNT100", LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(3).plusHours(2),
+                LocalDateTime.now().plusDays(3).plusHours(2), 100);
+        flightDAO.create(flight);
+        testFlightId = flight.getId();
+
+        for (int i = 0; i < SEATS; i++) {
+            seatDAO.create(new Seat(0, airplaneId, null, "C" + i, Seat.SeatClass.ECONOMY, i % 6 == 0));
+        }
+        testSeatIds = seatDAO.getByAirplaneId(airplaneId).stream().mapToInt(Seat::getId).toArray();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (Reservation reservation : reservationDAO.getByUserId(testUser.getId())) {
+            reservationDAO.delete(reservation.getId());
+        }
+        int airplaneId = airplaneDAO.getByCode("TSTCNT1").getId();
+        for (Seat seat : seatDAO.getByAirplaneId(airplaneId)) {
+            seatDAO.delete(seat.getId());
+        }
+        flightDAO.delete(testFlightId);
+        airplaneDAO.delete(airplaneId);
+        cityDAO.delete(cityDAO.getByName("ContentionCity1").getId());
+        cityDAO.delete(cityDAO.getByName("ContentionCity2").getId());
+        usersDAO.delete(testUser.getId());
+        connection.close();
+    }
+
+    /**
+     * Runs 64 concurrent bookers against one flight, each asking for one to three random seats,
+     * and checks that no seat is double-booked. Throughput is printed for comparison between runs.
+     */
+    @Test
+    void testConcurrentBookingsNeverDoubleBook() throws Exception {
+        ReservationService reservationService = new ReservationService(testUser);
+        ExecutorService executor = Executors.newFixedThreadPool(BOOKERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        Map<Integer, int[]> booked = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int b = 0; b < BOOKERS; b++) {
+            long seed = b;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_BOOKER; attempt++) {
+                    int[] seats = random.ints(0, testSeatIds.length).distinct().limit(1 + random.nextInt(3))
+                            .map(i -> testSeatIds[i]).toArray();
+                    try {
+                        Reservation reservation = reservationService.createReservation(testFlightId, seats);
+                        booked.put(reservation.getId(), seats);
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        int attempts = BOOKERS * ATTEMPTS_PER_BOOKER;
+        System.out.printf("%d bookers, %d attempts: %d booked, %d rejected, %.1f attempts/s%n",
+                BOOKERS, attempts, booked.size(), rejected.get(), attempts / (elapsedNanos / 1e9));
+
+        Set<Integer> reservedSeats = new HashSet<>();
+        for (Map.Entry<Integer, int[]> entry : booked.entrySet()) {
+            ArrayList<Seat> seats = seatDAO.getByReservationId(entry.getKey());
+            int[] held = seats.stream().mapToInt(Seat::getId).sorted().toArray();
+            int[] requested = entry.getValue().clone();
+            Arrays.sort(requested);
+            assertArrayEquals(requested, held, "Reservation " + entry.getKey() + " should hold exactly its seats");
+            for (int seatId : held) {
+                assertTrue(reservedSeats.add(seatId), "Seat " + seatId + " was booked twice");
+            }
+        }
+
+        assertEquals(booked.size(), reservationDAO.getByFlightId(testFlightId).size(),
+                "Rejected bookings should not leave reservations behind");
+        assertEquals(SEATS - reservedSeats.size(), seatDAO.getAvailableSeatsByFlightId(testFlightId).size());
+    }
+}
@@ -435,6 +435,44 @@ class ReservationServiceTest {
         assertNotEquals(2, r.getStatus_FK());
         assertEquals(4, r.getStatus_FK());
     }
+    @Test
+    void test20_controlIsIdempotent() throws Exception {
+        Reservation reservation = reservationService.createReservation(
+                flightDAO.getById(testFlight1Id).getId(),
+                new int[]{testSeat_Economy_Seat});
+
+        Flight flight = flightDAO.getById(reservation.getFlight_FK());
+        flight.setDeparture_time(LocalDateTime.now());
+        flightDAO.update(flight.getId(), flight);
+
+        assertTrue(reservationService.reservations_control() >= 1);
+        assertEquals(0, reservationService.reservations_control());
+
+        Reservation r = reservationService.FindReservation_byUserId().get(0);
+        assertEquals(2, r.getStatus_FK());
+    }
+    @Test
+    void test21_bulkCloseOutCompletesCheckedIn() throws Exception {
+        Reservation reservation = reservationService.createReservation(
+                flightDAO.getById(testFlight1Id).getId(),
+                new int[]{testSeat_Economy_Seat});
+        reservationService.confirmReservation(reservation.getId());
+        reservationService.check_inReservation(reservation.getId());
+
+        Flight flight = flightDAO.getById(reservation.getFlight_FK());
+        flight.setStatus_FK(7); // Completed
+        flightDAO.update(flight.getId(), flight);
+
+        LocalDateTime from = flight.getDeparture_time().minusDays(1);
+        LocalDateTime to = flight.getDeparture_time().plusDays(1);
+        CloseOutReport first = reservationService.closeOutCompletedFlights(from, to);
+        CloseOutReport second = reservationService.closeOutCompletedFlights(from, to);
+
+        assertTrue(first.getReservationsCompleted() >= 1);
+        assertEquals(8, first.getChunks());
+        assertEquals(0, second.getReservationsCompleted());
+        assertEquals(5, reservationService.FindReservation_byUserId().get(0).getStatus_FK());
+    }
 
 
 
@@ -0,0 +1,150 @@
+package org.airflow.reservations.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SeatHoldService class.
+ * The wheel is driven by a manual clock, so expiry is deterministic.
+ */
+public class SeatHoldServiceTest {
+    private AtomicLong now;
+    private SeatHoldService holds;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        holds = new SeatHoldService(1_000, 10, now::get, false);
+    }
+
+    /**
+     * Tests that a held seat cannot be held by another user but can be renewed by its holder.
+     */
+    @Test
+    void testHoldIsExclusive() {
+        assertTrue(holds.hold(1, 10, 100));
+        assertFalse(holds.hold(1, 10, 200));
+        assertTrue(holds.hold(1, 10, 100), "The holder should be able to renew its hold");
+        assertTrue(holds.isHeldByOther(1, 10, 200));
+        assertFalse(holds.isHeldByOther(1, 10, 100));
+        assertTrue(holds.hold(2, 10, 200), "Holds are flight-scoped");
+        assertEquals(1, holds.getRejectedCount());
+    }
+
+    /**
+     * Tests that only the holder can release a hold.
+     */
+    @Test
+    void testRelease() {
+        holds.hold(1, 10, 100);
+
+        assertFalse(holds.release(1, 10, 200));
+        assertTrue(holds.release(1, 10, 100));
+        assertTrue(holds.hold(1, 10, 200));
+    }
+
+    /**
+     * Tests that holds expire after their TTL, both on read and through the timer wheel.
+     */
+    @Test
+    void testHoldsExpire() {
+        holds.hold(1, 10, 100);
+        holds.hold(1, 11, 100);
+
+        now.addAndGet(999);
+        assertEquals(0, holds.expireHolds());
+        assertTrue(holds.isHeldByOther(1, 10, 200));
+
+        now.addAndGet(1);
+        assertFalse(holds.isHeldByOther(1, 10, 200), "Expired holds should not block other users");
+        assertEquals(2, holds.expireHolds());
+        assertEquals(0, holds.getHoldCount());
+    }
+
+    /**
+     * Tests that a renewed hold is not removed when the wheel reaches the deadline of the old hold.
+     */
+    @Test
+    void testRenewedHoldSurvivesOldDeadline() {
+        holds.hold(1, 10, 100);
+        now.addAndGet(500);
+        holds.hold(1, 10, 100);
+
+        now.addAndGet(500);
+        holds.expireHolds();
+        assertTrue(holds.isHeldByOther(1, 10, 200));
+
+        now.addAndGet(500);
+        holds.expireHolds();
+        assertEquals(0, holds.getHoldCount());
+    }
+
+    /**
+     * Tests that holds longer than one turn of the wheel are kept until their deadline.
+     */
+    @Test
+    void testLongHoldsSurviveWheelTurns() {
+        SeatHoldService longHolds = new SeatHoldService(20_000, 10, now::get, false);
+        longHolds.hold(1, 10, 100);
+
+        for (int i = 0; i < 19; i++) {
+            now.addAndGet(1_000);
+            longHolds.expireHolds();
+        }
+        assertEquals(1, longHolds.getHoldCount());
+
+        now.addAndGet(1_000);
+        longHolds.expireHolds();
+        assertEquals(0, longHolds.getHoldCount());
+    }
+
+    /**
+     * Tests that holding several seats is all-or-nothing.
+     */
+    @Test
+    void testHoldAllIsAllOrNothing() {
+        holds.hold(1, 12, 200);
+
+        assertFalse(holds.holdAll(1, new int[]{10, 11, 12}, 100));
+        assertFalse(holds.isHeldByOther(1, 10, 200));
+        assertFalse(holds.isHeldByOther(1, 11, 200));
+    }
+
+    /**
+     * Tests that concurrent holders of the same seat get exactly one hold.
+     */
+    @Test
+    void testConcurrentHolds() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            int holderId = i + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (holds.hold(1, 10, holderId)) {
+                    winners.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, winners.get());
+    }
+}
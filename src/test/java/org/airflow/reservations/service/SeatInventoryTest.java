@@ -0,0 +1,179 @@
+package org.airflow.reservations.service;
+
+import org.airflow.reservations.DAO.SeatDAO;
+import org.airflow.reservations.model.FlightSeat;
+import org.airflow.reservations.model.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the SeatInventory class.
+ * Flight seats are served by a mocked SeatDAO, so these tests do not need a running database.
+ */
+public class SeatInventoryTest {
+    private SeatDAO seatDAO;
+    private SeatInventory inventory;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        seatDAO = mock(SeatDAO.class);
+
+        ArrayList<FlightSeat> flight1 = new ArrayList<>(List.of(
+                new FlightSeat(1, 10, null, Seat.SeatClass.FIRST),
+                new FlightSeat(1, 11, 500, Seat.SeatClass.BUSINESS),
+                new FlightSeat(1, 12, null, Seat.SeatClass.ECONOMY),
+                new FlightSeat(1, 13, null, Seat.SeatClass.ECONOMY)));
+        ArrayList<FlightSeat> flight2 = new ArrayList<>(List.of(
+                new FlightSeat(2, 10, null, Seat.SeatClass.FIRST),
+                new FlightSeat(2, 11, null, Seat.SeatClass.BUSINESS),
+                new FlightSeat(2, 12, null, Seat.SeatClass.ECONOMY),
+                new FlightSeat(2, 13, null, Seat.SeatClass.ECONOMY)));
+        ArrayList<FlightSeat> all = new ArrayList<>(flight1);
+        all.addAll(flight2);
+
+        when(seatDAO.getFlightSeatsByFlightId(1)).thenReturn(flight1);
+        when(seatDAO.getFlightSeatsByFlightId(2)).thenReturn(flight2);
+        when(seatDAO.streamAllFlightSeats()).thenAnswer(invocation -> all.stream());
+
+        inventory = new SeatInventory(seatDAO);
+    }
+
+    /**
+     * Tests that the inventory loads reserved seats and per-class counts from the database.
+     */
+    @Test
+    void testLoadsFlightState() throws SQLException {
+        assertFalse(inventory.isAvailable(1, 11));
+        assertTrue(inventory.isAvailable(1, 12));
+        assertEquals(0, inventory.seatsLeft(1, Seat.SeatClass.BUSINESS));
+        assertEquals(2, inventory.seatsLeft(1, Seat.SeatClass.ECONOMY));
+        assertEquals(3, inventory.seatsLeft(1));
+    }
+
+    /**
+     * Tests that the same seat can be reserved independently on different flights.
+     */
+    @Test
+    void testSeatsAreFlightScoped() throws SQLException {
+        assertTrue(inventory.claim(1, 12));
+        assertTrue(inventory.isAvailable(2, 12), "Seat 12 should still be free on flight 2");
+        assertTrue(inventory.claim(2, 12));
+        assertFalse(inventory.claim(1, 12));
+    }
+
+    /**
+     * Tests that a claim of several seats is all-or-nothing.
+     */
+    @Test
+    void testClaimIsAllOrNothing() throws SQLException {
+        assertFalse(inventory.claim(1, 12, 11), "Seat 11 is already reserved");
+        assertTrue(inventory.isAvailable(1, 12), "Seat 12 should be rolled back");
+        assertEquals(2, inventory.seatsLeft(1, Seat.SeatClass.ECONOMY));
+
+        assertFalse(inventory.claim(1, 12, 99), "Seat 99 is not part of the flight");
+        assertTrue(inventory.isAvailable(1, 12));
+    }
+
+    /**
+     * Tests that releasing a seat makes it available again and updates the counts.
+     */
+    @Test
+    void testRelease() throws SQLException {
+        inventory.release(1, 11);
+        assertTrue(inventory.isAvailable(1, 11));
+        assertEquals(1, inventory.seatsLeft(1, Seat.SeatClass.BUSINESS));
+
+        inventory.release(1, 11);
+        assertEquals(1, inventory.seatsLeft(1, Seat.SeatClass.BUSINESS), "Releasing twice should not count twice");
+    }
+
+    /**
+     * Tests that rebuilding loads every flight in one query and replaces the in-memory state.
+     */
+    @Test
+    void testRebuild() throws SQLException {
+        inventory.claim(2, 10);
+
+        assertEquals(2, inventory.rebuild());
+        assertTrue(inventory.isAvailable(2, 10));
+        verify(seatDAO, times(1)).streamAllFlightSeats();
+        verify(seatDAO, never()).getFlightSeatsByFlightId(1);
+    }
+
+    /**
+     * Tests that readers keep seeing the previous inventory while a rebuild is still reading rows.
+     */
+    @Test
+    void testReadersSeePreviousStateDuringRebuild() throws Exception {
+        assertEquals(3, inventory.seatsLeft(1));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<FlightSeat> rows = List.of(
+                new FlightSeat(1, 10, 600, Seat.SeatClass.FIRST),
+                new FlightSeat(1, 11, 500, Seat.SeatClass.BUSINESS),
+                new FlightSeat(1, 12, null, Seat.SeatClass.ECONOMY),
+                new FlightSeat(1, 13, null, Seat.SeatClass.ECONOMY));
+        when(seatDAO.streamAllFlightSeats()).thenAnswer(invocation -> rows.stream().peek(row -> {
+            if (row.getSeat_FK() == 12) {
+                reading.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> rebuild = executor.submit(inventory::rebuild);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        assertEquals(3, inventory.seatsLeft(1), "The previous state should stay visible during the rebuild");
+        assertTrue(inventory.isAvailable(1, 10));
+
+        proceed.countDown();
+        assertEquals(1, rebuild.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(2, inventory.seatsLeft(1));
+        assertFalse(inventory.isAvailable(1, 10));
+        verify(seatDAO, times(1)).getFlightSeatsByFlightId(1);
+    }
+
+    /**
+     * Tests that concurrent claims of the same seat succeed exactly once.
+     */
+    @Test
+    void testConcurrentClaims() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (inventory.claim(2, 12, 13)) {
+                    winners.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, winners.get());
+        assertEquals(0, inventory.seatsLeft(2, Seat.SeatClass.ECONOMY));
+    }
+}
@@ -218,6 +218,21 @@ class SuggestionServiceTest {
         testFlightAlternative2Id = flightDAO.getByCodeOb("FL003").getId();
     }
 
+    /**
+     * Finds a seat of a flight, with the reservation holding it on that flight.
+     *
+     * @param flightId the ID of the flight.
+     * @param seatId   the ID of the seat.
+     * @return the seat, or null if it is not part of the flight.
+     * @throws SQLException if a database access error occurs.
+     */
+    private Seat findFlightSeat(int flightId, int seatId) throws SQLException {
+        return seatDAO.getByFlightId(flightId).stream()
+            .filter(s -> s.getId() == seatId)
+            .findFirst()
+            .orElse(null);
+    }
+
     /**
      * Creates test seat entries in the database for the cancelled and alternative flights.
      *
@@ -309,8 +324,8 @@ class SuggestionServiceTest {
     void testProcessSuggestionAcceptance_successfulReassignment() throws SQLException {
         // Get the initial state of entities.
         Reservation originalReservation = reservationDAO.getById(testReservationId);
-        Seat oldSeat = seatDAO.getById(testSeat_Economy_Seat_CancelledFlight);
-        Seat newFlightSeatBeforeReassignment = seatDAO.getById(testSeat_Economy_Seat_AlternativeFlight);
+        Seat oldSeat = findFlightSeat(testFlightCancelledId, testSeat_Economy_Seat_CancelledFlight);
+        Seat newFlightSeatBeforeReassignment = findFlightSeat(testFlightAlternative1Id, testSeat_Economy_Seat_AlternativeFlight);
 
         assertEquals(testFlightCancelledId, originalReservation.getFlight_FK(), "Reservation should initially be on cancelled flight");
         assertEquals(testReservationId, oldSeat.getReservation_FK(), "Old seat should be reserved by original reservation");
@@ -321,7 +336,7 @@ class SuggestionServiceTest {
 
         // Verify the state after reassignment.
         Reservation updatedReservation = reservationDAO.getById(testReservationId);
-        Seat freedOldSeat = seatDAO.getById(testSeat_Economy_Seat_CancelledFlight);
+        Seat freedOldSeat = findFlightSeat(testFlightCancelledId, testSeat_Economy_Seat_CancelledFlight);
 
         // Obtain newFlightAirplaneId outside the lambda to avoid SQLException.
         int newFlightAirplaneId = flightDAO.getById(testFlightAlternative1Id).getAirplane_FK();
@@ -0,0 +1,242 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ConnectionPool class.
+ * Physical connections are Mockito mocks, so these tests do not need a running database.
+ */
+public class ConnectionPoolTest {
+    private List<Connection> physicalConnections;
+    private List<PreparedStatement> physicalStatements;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        physicalConnections = new ArrayList<>();
+        physicalStatements = new ArrayList<>();
+        pool = new ConnectionPool(this::newPhysicalConnection, 2, 0, 200, 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private Connection newPhysicalConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        physicalConnections.add(connection);
+        return connection;
+    }
+
+    /**
+     * Tests that closing a pooled connection returns it to the pool and that it is reused.
+     */
+    @Test
+    void testCloseReturnsConnectionToPool() throws SQLException {
+        Connection first = pool.getConnection();
+        first.close();
+
+        assertTrue(first.isClosed(), "Returned connection should report closed");
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+
+        Connection second = pool.getConnection();
+        assertEquals(1, physicalConnections.size(), "Physical connection should be reused");
+        verify(physicalConnections.get(0), never()).close();
+        second.close();
+    }
+
+    /**
+     * Tests that the pool never opens more than its maximum size and times out waiting callers.
+     */
+    @Test
+    void testPoolIsBounded() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> pool.getConnection());
+        assertEquals(1, pool.getTimeoutCount());
+        assertEquals(2, physicalConnections.size());
+
+        first.close();
+        second.close();
+    }
+
+    /**
+     * Tests that a returned connection can no longer be used through its proxy.
+     */
+    @Test
+    void testReturnedConnectionIsUnusable() throws SQLException {
+        Connection connection = pool.getConnection();
+        connection.close();
+
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+    }
+
+    /**
+     * Tests that an open transaction is rolled back and auto-commit restored when a connection is returned.
+     */
+    @Test
+    void testStateIsResetOnReturn() throws SQLException {
+        Connection connection = pool.getConnection();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+    }
+
+    /**
+     * Tests that acquire metrics are recorded.
+     */
+    @Test
+    void testAcquireMetrics() throws SQLException {
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        assertEquals(2, pool.getAcquireCount());
+        assertEquals(1, pool.getCreatedCount());
+        assertTrue(pool.getMaxAcquireMicros() >= 0);
+    }
+
+    /**
+     * Creates a pool with a statement cache whose physical connections hand out a new mock per prepare.
+     */
+    private ConnectionPool cachingPool(int statementCacheSize) {
+        return new ConnectionPool(() -> {
+            Connection connection = newPhysicalConnection();
+            when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                physicalStatements.add(statement);
+                return statement;
+            });
+            return connection;
+        }, 1, 0, 200, 60_000, 0, statementCacheSize);
+    }
+
+    /**
+     * Tests that a statement closed by a DAO is reused for the same SQL, with its parameters cleared.
+     */
+    @Test
+    void testStatementCacheReusesClosedStatements() throws SQLException {
+        try (ConnectionPool cachingPool = cachingPool(8)) {
+            try (Connection connection = cachingPool.getConnection()) {
+                connection.prepareStatement("SELECT * FROM cities WHERE id_PK = ?").close();
+            }
+            try (Connection connection = cachingPool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT * FROM cities WHERE id_PK = ?")) {
+                assertSame(connection, statement.getConnection());
+            }
+
+            Connection physical = physicalConnections.get(0);
+            verify(physical, times(1)).prepareStatement("SELECT * FROM cities WHERE id_PK = ?");
+            assertEquals(1, cachingPool.getStatementCacheHits());
+            assertEquals(1, cachingPool.getStatementCacheMisses());
+            assertEquals(0.5, cachingPool.getStatementCacheHitRatio(), 1e-9);
+        }
+    }
+
+    /**
+     * Tests that the same SQL prepared twice before closing gets two statements, and that a
+     * statement whose properties were changed is closed instead of being cached.
+     */
+    @Test
+    void testStatementCacheNeverSharesOrReusesChangedStatements() throws SQLException {
+        try (ConnectionPool cachingPool = cachingPool(8);
+             Connection connection = cachingPool.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            assertNotSame(first, second);
+            first.setQueryTimeout(5);
+            first.close();
+            second.close();
+
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, () -> first.setInt(1, 1));
+            connection.prepareStatement("SELECT 1").close();
+            verify(physicalConnections.get(0), times(2)).prepareStatement("SELECT 1");
+            assertEquals(1, cachingPool.getStatementCacheHits());
+        }
+    }
+
+    /**
+     * Tests that the least recently used statement is closed when the cache is full.
+     */
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        try (ConnectionPool cachingPool = cachingPool(2);
+             Connection connection = cachingPool.getConnection()) {
+            connection.prepareStatement("SELECT 'a'").close();
+            connection.prepareStatement("SELECT 'b'").close();
+            connection.prepareStatement("SELECT 'c'").close();
+
+            assertEquals(1, cachingPool.getStatementCacheEvictions());
+            verify(physicalStatements.get(0)).close();
+            verify(physicalStatements.get(1), never()).close();
+        }
+    }
+
+    /**
+     * Tests that statements left open by a borrower are closed when the connection is returned.
+     */
+    @Test
+    void testOpenStatementsAreClosedOnReturn() throws SQLException {
+        try (ConnectionPool cachingPool = cachingPool(8)) {
+            Connection connection = cachingPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement("SELECT 1");
+            connection.close();
+
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, statement::executeQuery);
+        }
+    }
+
+    /**
+     * Tests that a connection held past the leak threshold is reported once to the log writer, with the
+     * borrowing thread and its stack at the time of the borrow in the message.
+     */
+    @Test
+    void testLeakReportNamesBorrowSite() throws Exception {
+        ConnectionPool leaky = new ConnectionPool(this::newPhysicalConnection, 2, 0, 200, 2_000, 50);
+        StringWriter captured = new StringWriter();
+        leaky.setLogWriter(new PrintWriter(captured));
+        try {
+            Connection held = leaky.getConnection();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!captured.toString().contains("Possible connection leak") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            held.close();
+        } finally {
+            leaky.close();
+        }
+
+        String report = captured.toString();
+        assertEquals(1, leaky.getLeakCount());
+        assertTrue(report.contains("Possible connection leak"), report);
+        assertTrue(report.contains("by thread " + Thread.currentThread().getName()), report);
+        assertTrue(report.contains("testLeakReportNamesBorrowSite"), report);
+        assertFalse(report.contains("ConnectionPool.getConnection"), report);
+    }
+}
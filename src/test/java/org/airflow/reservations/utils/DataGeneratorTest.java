@@ -0,0 +1,135 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the command line configuration and the CSV output of the DataGenerator class.
+ * These tests do not need a running database.
+ */
+public class DataGeneratorTest {
+
+    /**
+     * Tests that the defaults match the original dataset.
+     */
+    @Test
+    void testDefaults() {
+        DataGenerator.Config config = DataGenerator.Config.fromArgs(new String[0]);
+
+        assertEquals(20, config.getUsers());
+        assertEquals(10, config.getAirplanes());
+        assertEquals(30, config.getCities());
+        assertEquals(50, config.getFlights());
+        assertEquals(100, config.getReservations());
+        assertEquals(42, config.getSeed());
+    }
+
+    /**
+     * Tests that every option is parsed.
+     */
+    @Test
+    void testParseArguments() {
+        DataGenerator.Config config = DataGenerator.Config.fromArgs(new String[]{
+                "--users=100000", "--airplanes=500", "--cities=300", "--flights=1000000",
+                "--reservations=5000000", "--seed=7", "--threads=8", "--batch=5000",
+                "--start=2030-01-01", "--days=365"});
+
+        assertEquals(100_000, config.getUsers());
+        assertEquals(500, config.getAirplanes());
+        assertEquals(300, config.getCities());
+        assertEquals(1_000_000, config.getFlights());
+        assertEquals(5_000_000, config.getReservations());
+        assertEquals(7, config.getSeed());
+        assertEquals(8, config.getThreads());
+        assertEquals(5000, config.getBatchSize());
+        assertEquals(LocalDate.of(2030, 1, 1), config.getStartDate());
+        assertEquals(365, config.getDays());
+    }
+
+    /**
+     * Tests that malformed, unknown and inconsistent options are rejected.
+     */
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--users"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--planes=3"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--users=many"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--threads=0"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--cities=1"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> DataGenerator.Config.fromArgs(new String[]{"--users=0", "--reservations=10"}));
+    }
+
+    /**
+     * Tests that real cities keep their codes and generated cities get distinct three-letter codes.
+     */
+    @Test
+    void testCityCodes() {
+        assertEquals("MEX", DataGenerator.cityCode(1));
+        assertEquals("SVO", DataGenerator.cityCode(30));
+        assertEquals(3, DataGenerator.cityCode(31).length());
+        assertNotEquals(DataGenerator.cityCode(31), DataGenerator.cityCode(32));
+    }
+
+    /**
+     * Tests that flight codes carry the route and a four-digit number and fit the code column.
+     */
+    @Test
+    void testFlightCodes() {
+        assertEquals("MEXSVO0001", DataGenerator.flightCode(1, 30, 1));
+        assertEquals("MEXSVO0042", DataGenerator.flightCode(1, 30, 42));
+        assertEquals(10, DataGenerator.flightCode(31, 32, 9999).length());
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.flightCode(1, 30, 10_000));
+    }
+
+    /**
+     * Tests that a profile sets the sizes, that explicit sizes still override it and that
+     * the flights and reservations cannot be set with it.
+     */
+    @Test
+    void testProfile() {
+        DataGenerator.Config config = DataGenerator.Config.fromArgs(new String[]{"--users=10", "--profile=Regional"});
+
+        assertEquals(ScaleProfile.REGIONAL, config.getProfile());
+        assertEquals(10, config.getUsers());
+        assertEquals(ScaleProfile.REGIONAL.getAirplanes(), config.getAirplanes());
+        assertEquals(ScaleProfile.REGIONAL.getDays(), config.getDays());
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Config.fromArgs(new String[]{"--profile=huge"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> DataGenerator.Config.fromArgs(new String[]{"--profile=small", "--flights=10"}));
+    }
+
+    /**
+     * Tests that a profile written to CSV files gives one seat inventory row per seat of every flight
+     * and a load script covering every table.
+     */
+    @Test
+    void testCsvOutput(@TempDir Path directory) throws IOException {
+        DataGenerator.Config config = DataGenerator.Config.fromArgs(new String[]{
+                "--profile=small", "--users=50", "--days=3", "--threads=2", "--csv=" + directory});
+
+        new DataGenerator(config).generateAllData();
+
+        List<String> script = Files.readAllLines(directory.resolve("load.sql"));
+        for (String table : new String[]{"flight_status", "reservations_status", "users", "airplanes", "seats",
+                "cities", "flights", "reservations", "flight_seats"}) {
+            assertTrue(script.contains("TRUNCATE TABLE " + table + ";"), table);
+        }
+        assertEquals(config.getUsers() + 1, Files.readAllLines(directory.resolve("users-00000.csv")).size());
+
+        long seats = Files.readAllLines(directory.resolve("seats-00000.csv")).size() - 1;
+        List<String> flights = Files.readAllLines(directory.resolve("flights-00000.csv"));
+        List<String> inventory = Files.readAllLines(directory.resolve("flight_seats-00000.csv"));
+        assertTrue(flights.size() > 1);
+        assertTrue(inventory.size() - 1 > seats, "Every flight has the seats of its airplane");
+        assertTrue(inventory.stream().skip(1).anyMatch(row -> !row.endsWith("\\N")), "Some seats are taken");
+    }
+}
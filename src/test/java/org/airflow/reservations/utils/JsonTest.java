@@ -0,0 +1,55 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Json class.
+ */
+public class JsonTest {
+
+    /**
+     * Tests that values are written with escaping, ISO date-times and null for non-finite numbers.
+     */
+    @Test
+    void testWrite() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("name", "Vuelo \"AV100\"\n");
+        value.put("seats", new int[]{1, 2});
+        value.put("codes", Arrays.asList("BOG", null));
+        value.put("price", Double.NaN);
+        value.put("departure", LocalDateTime.of(2025, 3, 1, 8, 30));
+        value.put("window", true);
+
+        assertEquals("{\"name\":\"Vuelo \\\"AV100\\\"\\n\",\"seats\":[1,2],\"codes\":[\"BOG\",null],"
+                + "\"price\":null,\"departure\":\"2025-03-01T08:30\",\"window\":true}", Json.write(value));
+    }
+
+    /**
+     * Tests that parsing keeps key order and types, reads escapes and rejects invalid text.
+     */
+    @Test
+    void testParse() {
+        Map<?, ?> value = (Map<?, ?>) Json.parse(" {\"id\": 7, \"price\": 150.5, \"seats\": [3, 4],"
+                + " \"name\": \"Medell\\u00edn\", \"ok\": false, \"note\": null} ");
+
+        assertEquals(List.of("id", "price", "seats", "name", "ok", "note"), List.copyOf(value.keySet()));
+        assertEquals(7L, value.get("id"));
+        assertEquals(150.5, value.get("price"));
+        assertEquals(List.of(3L, 4L), value.get("seats"));
+        assertEquals("Medellín", value.get("name"));
+        assertEquals(false, value.get("ok"));
+        assertNull(value.get("note"));
+
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"id\":"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{} extra"));
+    }
+}
@@ -0,0 +1,222 @@
+package org.airflow.reservations.utils;
+
+import org.airflow.reservations.model.Reservation;
+import org.airflow.reservations.model.User;
+import org.airflow.reservations.service.ReservationService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LoadGenerator class.
+ * The load runs against an in-memory seat inventory, so these tests do not need a running database.
+ */
+public class LoadGeneratorTest {
+    /** Flights of the in-memory inventory */
+    private static final int FLIGHTS = 3;
+    /** Seats of every flight */
+    private static final int SEATS = 30;
+
+    /**
+     * Tests that a service that claims seats atomically passes the integrity check.
+     */
+    @Test
+    void testCorrectServicePasses() throws Exception {
+        LoadGenerator generator = new LoadGenerator(config(LoadGenerator.Arrival.CLOSED), new InMemoryBackend(true));
+
+        List<String> violations = generator.run();
+
+        assertTrue(violations.isEmpty(), violations.toString());
+        LoadGenerator.OperationStats book = generator.getStats(LoadGenerator.Operation.BOOK);
+        assertTrue(book.getSucceeded() > 0);
+        assertEquals(0, book.getFailed());
+        assertTrue(generator.getStats(LoadGenerator.Operation.CANCEL).getSucceeded() > 0);
+        assertTrue(generator.getStats(LoadGenerator.Operation.CONFIRM).getSucceeded() > 0);
+        assertEquals(book.getSucceeded() + book.getRejected(), book.getHistogram().getCount());
+        assertTrue(generator.getLiveReservations() > 0);
+    }
+
+    /**
+     * Tests that a service that hands out seats without checking them fails the integrity check.
+     */
+    @Test
+    void testDoubleBookingIsFlagged() throws Exception {
+        LoadGenerator generator = new LoadGenerator(config(LoadGenerator.Arrival.OPEN), new InMemoryBackend(false));
+
+        List<String> violations = generator.run();
+
+        assertFalse(violations.isEmpty());
+        assertTrue(violations.get(0).startsWith("Seat "), violations.get(0));
+    }
+
+    /**
+     * Tests that the flight popularity favours the first ranks.
+     */
+    @Test
+    void testPopularitySkew() {
+        List<Integer> flights = IntStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        LoadGenerator.Popularity popularity = new LoadGenerator.Popularity(flights, 1.2, new Random(1));
+        Map<Integer, Integer> draws = new HashMap<>();
+        Random random = new Random(2);
+        for (int i = 0; i < 100_000; i++) {
+            draws.merge(popularity.next(random), 1, Integer::sum);
+        }
+
+        int top = draws.values().stream().max(Integer::compare).orElse(0);
+        int bottom = draws.values().stream().min(Integer::compare).orElse(0);
+        assertTrue(top > 20 * bottom, "Most drawn " + top + ", least drawn " + bottom);
+        assertTrue(draws.keySet().stream().allMatch(flights::contains));
+    }
+
+    /**
+     * Tests the parsing and the validation of the options.
+     */
+    @Test
+    void testParseArguments() {
+        LoadGenerator.Config config = LoadGenerator.Config.fromArgs(new String[]{
+                "--users=64", "--flights=50", "--duration=120", "--arrival=open", "--rate=500",
+                "--skew=1.2", "--seats=4", "--mix=50,30,20", "--seed=7"});
+
+        assertEquals(64, config.getUsers());
+        assertEquals(50, config.getFlights());
+        assertEquals(120, config.getDurationSeconds());
+        assertEquals(LoadGenerator.Arrival.OPEN, config.getArrival());
+        assertEquals(500, config.getRate());
+        assertEquals(1.2, config.getSkew());
+        assertEquals(4, config.getMaxSeats());
+        assertEquals(50, config.getBookPercent());
+        assertEquals(30, config.getConfirmPercent());
+        assertEquals(7, config.getSeed());
+
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.fromArgs(new String[]{"--users=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.fromArgs(new String[]{"--arrival=burst"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.fromArgs(new String[]{"--mix=50,50"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.fromArgs(new String[]{"--mix=50,30,30"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.fromArgs(new String[]{"--threads=4"}));
+    }
+
+    /**
+     * Returns a short run of eight users with every operation in the mix.
+     */
+    private static LoadGenerator.Config config(LoadGenerator.Arrival arrival) {
+        LoadGenerator.Config config = new LoadGenerator.Config();
+        config.setUsers(8);
+        config.setFlights(FLIGHTS);
+        config.setOperations(2_000);
+        config.setArrival(arrival);
+        config.setRate(100_000);
+        config.setThinkMillis(0);
+        config.setMaxSeats(3);
+        return config;
+    }
+
+    /**
+     * Backend with the seats of a few flights in memory. The services it creates claim seats atomically,
+     * or, when checking is off, overwrite the owner of a seat as a lost update would.
+     */
+    private static final class InMemoryBackend implements LoadGenerator.Backend {
+        /** Reservation holding every seat, by flight and seat, or 0 for a free seat */
+        private final int[][] owners = new int[FLIGHTS + 1][SEATS + 1];
+        /** Seats of every reservation */
+        private final Map<Integer, int[]> seatsOf = new HashMap<>();
+        /** Flight of every reservation */
+        private final Map<Integer, Integer> flightOf = new HashMap<>();
+        /** Whether the seats are checked before they are claimed */
+        private final boolean checked;
+        private int nextReservationId = 1;
+
+        InMemoryBackend(boolean checked) {
+            this.checked = checked;
+        }
+
+        @Override
+        public List<Integer> loadUserIds(int limit) {
+            return IntStream.rangeClosed(1, Math.min(limit, 5)).boxed().collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Integer> loadFlightIds(int limit) {
+            return IntStream.rangeClosed(1, Math.min(limit, FLIGHTS)).boxed().collect(Collectors.toList());
+        }
+
+        @Override
+        public ReservationService serviceFor(User user) {
+            return new ReservationService(user, null, null, null, null, null, null) {
+                @Override
+                public Reservation createReservation(int flightId, int[] seatIds) {
+                    return book(user, flightId, seatIds);
+                }
+
+                @Override
+                public void confirmReservation(int reservationId) {
+                    // Confirmation does not change the seats
+                }
+
+                @Override
+                public void cancelReservation(int reservationId) {
+                    cancel(reservationId);
+                }
+            };
+        }
+
+        @Override
+        public synchronized int[] availableSeats(int flightId) {
+            List<Integer> free = new ArrayList<>();
+            for (int seat = 1; seat <= SEATS; seat++) {
+                if (owners[flightId][seat] == 0) {
+                    free.add(seat);
+                }
+            }
+            // Without checking, seats already sold are offered too
+            return checked ? free.stream().mapToInt(Integer::intValue).toArray() : IntStream.rangeClosed(1, SEATS).toArray();
+        }
+
+        @Override
+        public synchronized Map<Integer, Integer> seatOwners(int flightId) {
+            Map<Integer, Integer> result = new HashMap<>();
+            for (int seat = 1; seat <= SEATS; seat++) {
+                if (owners[flightId][seat] != 0) {
+                    result.put(seat, owners[flightId][seat]);
+                }
+            }
+            return result;
+        }
+
+        private synchronized Reservation book(User user, int flightId, int[] seatIds) {
+            for (int seat : seatIds) {
+                if (checked && owners[flightId][seat] != 0) {
+                    throw new IllegalArgumentException("Los asientos seleccionados ya no están disponibles");
+                }
+            }
+            int id = nextReservationId++;
+            for (int seat : seatIds) {
+                owners[flightId][seat] = id;
+            }
+            seatsOf.put(id, seatIds.clone());
+            flightOf.put(id, flightId);
+            Reservation reservation = new Reservation();
+            reservation.setId(id);
+            reservation.setUser_FK(user.getId());
+            reservation.setFlight_FK(flightId);
+            reservation.setStatus_FK(3);
+            return reservation;
+        }
+
+        private synchronized void cancel(int reservationId) {
+            int flightId = flightOf.remove(reservationId);
+            for (int seat : seatsOf.remove(reservationId)) {
+                if (owners[flightId][seat] == reservationId) {
+                    owners[flightId][seat] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MetricsRegistry class.
+ */
+public class MetricsRegistryTest {
+
+    /**
+     * Tests that counters and gauges are written in the Prometheus text format, sorted by name.
+     */
+    @Test
+    void testCountersAndGaugesInPrometheusFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicInteger active = new AtomicInteger(3);
+        registry.gauge("test_active", "Active things.", active::get);
+        MetricsRegistry.Counter bookings = registry.counter("test_bookings_total", "Bookings made.", "kind", "group");
+        bookings.increment();
+        bookings.add(4);
+        active.set(7);
+
+        assertSame(bookings, registry.counter("test_bookings_total", "Bookings made.", "kind", "group"));
+        assertEquals("""
+                # HELP test_active Active things.
+                # TYPE test_active gauge
+                test_active 7
+                # HELP test_bookings_total Bookings made.
+                # TYPE test_bookings_total counter
+                test_bookings_total{kind="group"} 5
+                """, registry.toPrometheus());
+    }
+
+    /**
+     * Tests that a histogram is published as cumulative buckets in seconds with its sum and count.
+     */
+    @Test
+    void testHistogramBuckets() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram histogram = registry.histogram("test_latency_seconds", "Latency.", "op", "get");
+        histogram.record(50_000);        // 50 µs
+        histogram.record(3_000_000);     // 3 ms
+        histogram.record(20_000_000_000L); // 20 s, above every bucket
+
+        String text = registry.toPrometheus();
+
+        assertTrue(text.contains("# TYPE test_latency_seconds histogram\n"));
+        assertTrue(text.contains("test_latency_seconds_bucket{op=\"get\",le=\"1.0E-4\"} 1\n"));
+        assertTrue(text.contains("test_latency_seconds_bucket{op=\"get\",le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("test_latency_seconds_bucket{op=\"get\",le=\"10.0\"} 2\n"));
+        assertTrue(text.contains("test_latency_seconds_bucket{op=\"get\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("test_latency_seconds_count{op=\"get\"} 3\n"));
+        assertTrue(text.contains("test_latency_seconds_sum{op=\"get\"} 20.00305\n"));
+    }
+
+    /**
+     * Tests that a name cannot be reused with another type and that labels come in pairs.
+     */
+    @Test
+    void testInvalidMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_things", "Things.");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("test_things", "Things."));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test_other", "Other.", "label"));
+    }
+
+    /**
+     * Tests that a registry with JMX enabled publishes its metrics as MBeans and replaces replaced gauges.
+     */
+    @Test
+    void testMetricsArePublishedAsMBeans() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.enableJmx();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registry.counter("test_jmx_total", "Counted over JMX.", "source", "unit test").add(2);
+        registry.gauge("test_jmx_gauge", "Measured over JMX.", () -> 1.5);
+        registry.gauge("test_jmx_gauge", "Measured over JMX.", () -> 2.5);
+        registry.histogram("test_jmx_seconds", "Timed over JMX.").record(2_000_000);
+
+        ObjectName counter = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=test_jmx_total,source=\"unit test\"");
+        ObjectName gauge = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=test_jmx_gauge");
+        ObjectName histogram = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=test_jmx_seconds");
+        try {
+            assertEquals(2L, server.getAttribute(counter, "Count"));
+            assertEquals(2.5, server.getAttribute(gauge, "Value"));
+            assertEquals(1L, server.getAttribute(histogram, "Count"));
+            assertEquals(2.0, (Double) server.getAttribute(histogram, "MaxMillis"), 0.02);
+        } finally {
+            for (ObjectName name : new ObjectName[]{counter, gauge, histogram}) {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the metrics can be written to a file.
+     */
+    @Test
+    void testWritePrometheusFile() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_file_total", "Written to a file.").increment();
+        Path file = Files.createTempDirectory("metrics").resolve("airflow.prom");
+
+        registry.writePrometheus(file);
+
+        assertEquals(registry.toPrometheus(), Files.readString(file));
+    }
+}
@@ -0,0 +1,126 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the MigrationRunner class.
+ * The database is replaced by Mockito mocks, so these tests do not need a running database.
+ */
+public class MigrationRunnerTest {
+    private Connection connection;
+    private Statement statement;
+    private ResultSet appliedVersions;
+    private MigrationRunner runner;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        appliedVersions = mock(ResultSet.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        ResultSet lockResult = mock(ResultSet.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(1);
+        when(statement.executeQuery(anyString())).thenReturn(appliedVersions);
+
+        runner = new MigrationRunner(dataSource);
+    }
+
+    /**
+     * Tests that the bundled migrations are loaded in version order with their descriptions.
+     */
+    @Test
+    void testLoadMigrations() {
+        List<MigrationRunner.Migration> migrations = runner.loadMigrations();
+
+        assertFalse(migrations.isEmpty());
+        assertEquals(1, migrations.get(0).getVersion());
+        assertEquals("search indexes", migrations.get(0).getDescription());
+        for (int i = 1; i < migrations.size(); i++) {
+            assertTrue(migrations.get(i - 1).getVersion() < migrations.get(i).getVersion());
+        }
+    }
+
+    /**
+     * Tests that scripts are split on trailing semicolons and comments are skipped.
+     */
+    @Test
+    void testSplitStatements() {
+        List<String> statements = MigrationRunner.splitStatements(
+                "-- comment\nCREATE INDEX a\n  ON t (x);\n\nDROP INDEX b ON t;  \n");
+
+        assertEquals(List.of("CREATE INDEX a\n  ON t (x)", "DROP INDEX b ON t"), statements);
+    }
+
+    /**
+     * Tests that the checksum is stable and changes when the script changes.
+     */
+    @Test
+    void testChecksum() {
+        String checksum = MigrationRunner.checksum("CREATE INDEX a ON t (x);\n");
+
+        assertEquals(64, checksum.length());
+        assertEquals(checksum, MigrationRunner.checksum("CREATE INDEX a ON t (x);\n"));
+        assertNotEquals(checksum, MigrationRunner.checksum("CREATE INDEX a ON t (y);\n"));
+    }
+
+    /**
+     * Tests that pending migrations are executed and the lock is released.
+     */
+    @Test
+    void testMigrateAppliesPendingMigrations() throws SQLException {
+        when(appliedVersions.next()).thenReturn(false);
+
+        List<MigrationRunner.Migration> applied = runner.migrate();
+
+        assertEquals(runner.loadMigrations().size(), applied.size());
+        assertEquals(runner.loadMigrations().get(0).getVersion(), applied.get(0).getVersion());
+        verify(statement, atLeastOnce()).execute(startsWith("CREATE INDEX"));
+        verify(connection, times(applied.size())).prepareStatement(startsWith("INSERT INTO schema_version"));
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    /**
+     * Tests that already applied migrations are skipped.
+     */
+    @Test
+    void testMigrateSkipsAppliedMigrations() throws SQLException {
+        MigrationRunner.Migration first = runner.loadMigrations().get(0);
+        when(appliedVersions.next()).thenReturn(true, false);
+        when(appliedVersions.getInt("version")).thenReturn(first.getVersion());
+        when(appliedVersions.getString("checksum")).thenReturn(first.getChecksum());
+
+        List<MigrationRunner.Migration> applied = runner.migrate();
+        assertEquals(runner.loadMigrations().size() - 1, applied.size());
+        assertTrue(applied.stream().noneMatch(migration -> migration.getVersion() == first.getVersion()));
+    }
+
+    /**
+     * Tests that a migration modified after it was applied makes the runner fail.
+     */
+    @Test
+    void testChecksumMismatchFails() throws SQLException {
+        when(appliedVersions.next()).thenReturn(true, false);
+        when(appliedVersions.getInt("version")).thenReturn(1);
+        when(appliedVersions.getString("checksum")).thenReturn("0".repeat(64));
+
+        assertThrows(IllegalStateException.class, () -> runner.migrate());
+        verify(statement, never()).execute(startsWith("CREATE INDEX"));
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+}
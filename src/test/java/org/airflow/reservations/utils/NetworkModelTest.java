@@ -0,0 +1,177 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NetworkModel class.
+ * The model is computed in memory, so these tests do not need a running database.
+ */
+public class NetworkModelTest {
+    private int[] capacities;
+    private NetworkModel model;
+
+    @BeforeEach
+    void setUp() {
+        capacities = new int[ScaleProfile.REGIONAL.getAirplanes()];
+        Random random = new Random(1);
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = 150 + random.nextInt(250);
+        }
+        model = build(42);
+    }
+
+    /**
+     * Tests that the same seed gives the same network and a different seed a different one.
+     */
+    @Test
+    void testDeterministic() {
+        NetworkModel same = build(42);
+        NetworkModel other = build(7);
+
+        assertEquals(model.getFlightCount(), same.getFlightCount());
+        assertEquals(model.getTotalReservations(), same.getTotalReservations());
+        for (int id = 1; id <= model.getFlightCount(); id++) {
+            assertEquals(model.getDestinationId(id), same.getDestinationId(id));
+            assertEquals(model.getDepartureMinute(id), same.getDepartureMinute(id));
+            assertEquals(model.getReservationCount(id), same.getReservationCount(id));
+        }
+        assertNotEquals(model.getTotalReservations(), other.getTotalReservations());
+    }
+
+    /**
+     * Tests that the flights of every route are numbered 1, 2, 3... in departure order,
+     * so that the route and the number identify a flight.
+     */
+    @Test
+    void testFlightNumbersAreUniquePerRoute() {
+        Map<String, Integer> lastNumber = new HashMap<>();
+        Map<String, Integer> lastDeparture = new HashMap<>();
+        Integer[] ids = new Integer[model.getFlightCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        Arrays.sort(ids, Comparator.comparingInt(model::getDepartureMinute).thenComparingInt(id -> id));
+
+        for (int id : ids) {
+            String route = model.getOriginId(id) + "-" + model.getDestinationId(id);
+            assertEquals(lastNumber.getOrDefault(route, 0) + 1, model.getFlightNumber(id), route);
+            assertTrue(lastDeparture.getOrDefault(route, -1) <= model.getDepartureMinute(id), route);
+            lastNumber.put(route, model.getFlightNumber(id));
+            lastDeparture.put(route, model.getDepartureMinute(id));
+        }
+    }
+
+    /**
+     * Tests that every leg of an airplane departs from where the previous one arrived, after it arrived.
+     */
+    @Test
+    void testRotationsNeverOverlap() {
+        int[] lastFlight = new int[capacities.length + 1];
+        for (int id = 1; id <= model.getFlightCount(); id++) {
+            int airplane = model.getAirplaneId(id);
+            int previous = lastFlight[airplane];
+            if (previous > 0) {
+                assertEquals(model.getDestinationId(previous), model.getOriginId(id), "Flight " + id);
+                assertTrue(model.getDepartureMinute(id)
+                        >= model.getDepartureMinute(previous) + model.getDurationMinutes(previous), "Flight " + id);
+            }
+            lastFlight[airplane] = id;
+        }
+        assertTrue(Arrays.stream(lastFlight).skip(1).allMatch(id -> id > 0), "Every airplane flies");
+    }
+
+    /**
+     * Tests that every flight has a hub at one end and that both ends differ.
+     */
+    @Test
+    void testHubAndSpoke() {
+        int hubToHub = 0;
+        for (int id = 1; id <= model.getFlightCount(); id++) {
+            int origin = model.getOriginId(id);
+            int destination = model.getDestinationId(id);
+            assertNotEquals(origin, destination);
+            assertTrue(model.isHub(origin) || model.isHub(destination), "Flight " + id + " links two spokes");
+            if (model.isHub(origin) && model.isHub(destination)) {
+                hubToHub++;
+            }
+        }
+        assertEquals(ScaleProfile.REGIONAL.getHubs(), model.getHubCount());
+        assertTrue(hubToHub > 0 && hubToHub < model.getFlightCount());
+    }
+
+    /**
+     * Tests that flights departing soon have sold more of their seats than flights departing in a month,
+     * and that no booking is made after now.
+     */
+    @Test
+    void testBookingCurve() {
+        int day = NetworkModel.MINUTES_PER_DAY;
+        int now = model.getNowMinute();
+        double soon = load(now, now + 7 * day);
+        double later = load(now + 28 * day, now + 35 * day);
+
+        assertTrue(soon > 2 * later, "Load " + soon + " next week, " + later + " in a month");
+        Random random = new Random(3);
+        for (int id = 1; id <= model.getFlightCount(); id += 97) {
+            assertTrue(model.drawBookingMinute(id, random) <= Math.min(now, model.getDepartureMinute(id)));
+        }
+    }
+
+    /**
+     * Tests that hot flights are a small share of the flights and that, once flown, they have sold more seats than they have.
+     */
+    @Test
+    void testHotFlights() {
+        int hot = 0;
+        int flownHot = 0;
+        double hotLoad = 0;
+        for (int id = 1; id <= model.getFlightCount(); id++) {
+            if (!model.isHot(id)) {
+                continue;
+            }
+            hot++;
+            if (model.getDepartureMinute(id) < model.getNowMinute()) {
+                flownHot++;
+                hotLoad += model.getReservationCount(id) / (double) capacities[model.getAirplaneId(id) - 1];
+            }
+        }
+
+        assertTrue(hot > 0 && hot < 2 * ScaleProfile.REGIONAL.getHotFlightShare() * model.getFlightCount());
+        assertTrue(flownHot > 0);
+        assertTrue(hotLoad / flownHot > 1.0, "Hot flights sold " + hotLoad / flownHot + " of their seats");
+    }
+
+    /**
+     * Returns the average share of the seats sold on the flights departing in a range.
+     */
+    private double load(int fromMinute, int toMinute) {
+        double sold = 0;
+        int flights = 0;
+        for (int id = 1; id <= model.getFlightCount(); id++) {
+            int departure = model.getDepartureMinute(id);
+            if (departure >= fromMinute && departure < toMinute) {
+                sold += model.getReservationCount(id) / (double) capacities[model.getAirplaneId(id) - 1];
+                flights++;
+            }
+        }
+        return sold / flights;
+    }
+
+    /**
+     * Builds the regional network with a seed.
+     */
+    private NetworkModel build(long seed) {
+        return new NetworkModel(ScaleProfile.REGIONAL, seed, ScaleProfile.REGIONAL.getCities(), capacities,
+                ScaleProfile.REGIONAL.getDays(), DayOfWeek.MONDAY);
+    }
+}
@@ -0,0 +1,97 @@
+package org.airflow.reservations.utils;
+
+import org.airflow.reservations.DAO.AirplaneDAO;
+import org.airflow.reservations.DAO.CityDAO;
+import org.airflow.reservations.model.Airplane;
+import org.airflow.reservations.model.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ReferenceDataCache class.
+ * The DAOs are replaced by Mockito mocks, so these tests do not need a running database.
+ */
+public class ReferenceDataCacheTest {
+    private CityDAO cityDAO;
+    private AirplaneDAO airplaneDAO;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        cityDAO = mock(CityDAO.class);
+        airplaneDAO = mock(AirplaneDAO.class);
+        when(cityDAO.getAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                new City(1, "Bogota", "Colombia", "BOG"),
+                new City(2, "Medellin", "Colombia", "MDE"))));
+        when(airplaneDAO.getAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                new Airplane(1, "Avianca", "A320", "AV001", 150, Year.of(2018)))));
+        cache = new ReferenceDataCache(cityDAO, airplaneDAO);
+    }
+
+    /**
+     * Tests that preloaded lookups are answered from memory.
+     */
+    @Test
+    void testPreloadedLookupsHitMemory() throws SQLException {
+        cache.preload();
+        long missesAfterPreload = cache.getMissCount();
+
+        assertEquals("MDE", cache.getCityById(2).getCode());
+        assertEquals(1, cache.getCityByName("Bogota").getId());
+        assertEquals("AV001", cache.getAirplaneById(1).getCode());
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(missesAfterPreload, cache.getMissCount());
+        verify(cityDAO, never()).getById(anyInt());
+        verify(cityDAO, never()).getByName(anyString());
+        verify(airplaneDAO, never()).getById(anyInt());
+    }
+
+    /**
+     * Tests that unknown keys fall back to the database and count as misses.
+     */
+    @Test
+    void testUnknownKeysReadDatabase() throws SQLException {
+        when(cityDAO.getByName("Cali")).thenReturn(new City(3, "Cali", "Colombia", "CLO"));
+        cache.preload();
+        long misses = cache.getMissCount();
+
+        assertEquals(3, cache.getCityByName("Cali").getId());
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    /**
+     * Tests that invalidation reloads the table on the next lookup.
+     */
+    @Test
+    void testInvalidationReloads() throws SQLException {
+        cache.preload();
+        when(cityDAO.getAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                new City(1, "Bogota D.C.", "Colombia", "BOG"))));
+
+        assertEquals("Bogota", cache.getCityById(1).getName());
+        cache.invalidateCities();
+        assertEquals("Bogota D.C.", cache.getCityById(1).getName());
+        verify(cityDAO, times(2)).getAll();
+        verify(airplaneDAO, times(1)).getAll();
+    }
+
+    /**
+     * Tests that callers get copies they can modify without affecting the cache.
+     */
+    @Test
+    void testLookupsReturnCopies() throws SQLException {
+        cache.preload();
+
+        cache.getCityById(1).setName("Changed");
+        assertEquals("Bogota", cache.getCityById(1).getName());
+    }
+}
@@ -0,0 +1,251 @@
+package org.airflow.reservations.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the SlowQueryLog class.
+ * The JDBC objects are mocked, so these tests do not need a running database.
+ */
+public class SlowQueryLogTest {
+    private static final String SQL = "SELECT * FROM flights WHERE destination_city_FK = ? AND origin_city_FK = ?";
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private AtomicInteger explains;
+    private SlowQueryLog log;
+
+    /**
+     * Mocks a connection whose query takes 30 ms and returns two rows, and a connection for EXPLAIN.
+     *
+     * @throws SQLException never, the JDBC objects are mocks
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        file = directory.resolve("logs").resolve("slow.log");
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        explains = new AtomicInteger();
+        Connection explainConnection = mock(Connection.class);
+        PreparedStatement explainStatement = mock(PreparedStatement.class);
+        ResultSet plan = mock(ResultSet.class);
+        ResultSetMetaData planColumns = mock(ResultSetMetaData.class);
+        when(explainConnection.prepareStatement("EXPLAIN " + SQL)).thenAnswer(invocation -> {
+            explains.incrementAndGet();
+            return explainStatement;
+        });
+        when(explainStatement.executeQuery()).thenReturn(plan);
+        when(plan.getMetaData()).thenReturn(planColumns);
+        when(planColumns.getColumnCount()).thenReturn(3);
+        when(planColumns.getColumnLabel(1)).thenReturn("table");
+        when(planColumns.getColumnLabel(2)).thenReturn("type");
+        when(planColumns.getColumnLabel(3)).thenReturn("rows");
+        when(plan.next()).thenReturn(true, false);
+        when(plan.getObject(1)).thenReturn("flights");
+        when(plan.getObject(2)).thenReturn("ALL");
+        when(plan.getObject(3)).thenReturn(100000L);
+
+        log = new SlowQueryLog(file, 10, 20, 1024 * 1024, 2, () -> explainConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.close();
+    }
+
+    /**
+     * Runs the query through a wrapped connection, as a DAO does.
+     */
+    private void runQuery(int destination, int origin) throws SQLException {
+        Connection wrapped = log.wrap(connection, "FlightDAO.getByDestinationAndOriginCity");
+        try (PreparedStatement query = wrapped.prepareStatement(SQL)) {
+            query.setInt(1, destination);
+            query.setInt(2, origin);
+            ResultSet rows = query.executeQuery();
+            while (rows.next()) {
+                // Read every row
+            }
+        }
+    }
+
+    /**
+     * Tests that a slow query is logged with its SQL, parameters and rows, and explained.
+     */
+    @Test
+    void testSlowQueryIsLoggedAndExplained() throws Exception {
+        runQuery(3, 5);
+        log.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"type\":\"slow_query\""), lines.get(0));
+        assertTrue(lines.get(0).contains("\"sqlId\":\"FlightDAO.getByDestinationAndOriginCity\""));
+        assertTrue(lines.get(0).contains("\"rows\":2"));
+        assertTrue(lines.get(0).contains("\"parameters\":[3,5]"));
+        assertTrue(lines.get(0).contains("\"sql\":\"" + SQL + "\""));
+        assertTrue(lines.get(1).contains("\"type\":\"explain\""), lines.get(1));
+        assertTrue(lines.get(1).contains("\"plan\":[{\"table\":\"flights\",\"type\":\"ALL\",\"rows\":100000}]"));
+        assertEquals(1, log.getLoggedCount());
+    }
+
+    /**
+     * Tests that a statement is explained again only when it is slower than every earlier run.
+     */
+    @Test
+    void testOnlyTheWorstRunIsExplained() throws Exception {
+        runQuery(3, 5);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(22);
+            return resultSet;
+        });
+        when(resultSet.next()).thenReturn(false);
+        runQuery(4, 6);
+        log.flush();
+
+        assertEquals(2, log.getLoggedCount());
+        assertEquals(1, explains.get());
+    }
+
+    /**
+     * Tests that statements finishing after the log is closed are neither logged nor counted as dropped.
+     */
+    @Test
+    void testStatementsAfterCloseAreIgnored() throws Exception {
+        log.close();
+        runQuery(3, 5);
+
+        assertEquals(0, log.getLoggedCount());
+        assertEquals(0, log.getDroppedCount());
+        assertFalse(Files.exists(file));
+    }
+
+    /**
+     * Tests that while the writer thread is blocked every slow statement is counted once, as logged or as dropped.
+     */
+    @Test
+    void testLoggedAndDroppedAddUpUnderBackpressure() throws Exception {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        log.close();
+        // Every statement is slow; the first one is explained, which blocks the writer until released
+        log = new SlowQueryLog(file, 0, 20, 1024 * 1024, 2, () -> {
+            writerBlocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SQLException("No plan");
+        });
+        runQuery(3, 5);
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+        when(statement.executeQuery()).thenReturn(resultSet);
+        int offered = 1;
+        for (int i = 0; i < 1500; i++) {
+            runQuery(3, 5);
+            offered++;
+        }
+        release.countDown();
+        log.flush();
+
+        assertTrue(log.getDroppedCount() > 0, "The queue should have filled up");
+        assertEquals(offered, log.getLoggedCount() + log.getDroppedCount());
+        assertEquals(log.getLoggedCount() + 1, Files.readAllLines(file).size(), "One line per logged statement and the plan");
+    }
+
+    /**
+     * Tests that fast statements are not logged and that a disabled log does not wrap connections.
+     */
+    @Test
+    void testFastStatementsAndDisabledLog() throws Exception {
+        when(statement.executeQuery()).thenReturn(resultSet);
+        runQuery(3, 5);
+        log.flush();
+        assertFalse(Files.exists(file));
+
+        SlowQueryLog disabled = new SlowQueryLog(file, -1, 0, 1024, 1, null);
+        try {
+            assertSame(connection, disabled.wrap(connection, "FlightDAO.getAll"));
+        } finally {
+            disabled.close();
+        }
+        assertSame(connection, SlowQueryLog.unwrap(log.wrap(connection, "FlightDAO.getAll")));
+    }
+
+    /**
+     * Tests that updates are logged with their update count and that passwords are masked.
+     */
+    @Test
+    void testUpdatesAreLoggedWithPasswordsMasked() throws Exception {
+        String update = "UPDATE users SET email = ?, password = ? WHERE id_PK = ?";
+        PreparedStatement updateStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(update)).thenReturn(updateStatement);
+        when(updateStatement.executeUpdate()).thenAnswer(invocation -> {
+            Thread.sleep(15);
+            return 1;
+        });
+
+        try (PreparedStatement wrapped = log.wrap(connection, "UsersDAO.update").prepareStatement(update)) {
+            wrapped.setString(1, "ana@airflow.com");
+            wrapped.setString(2, "$2a$10$hash");
+            wrapped.setInt(3, 7);
+            wrapped.executeUpdate();
+        }
+        log.flush();
+
+        String line = Files.readAllLines(file).get(0);
+        assertTrue(line.contains("\"rows\":1"), line);
+        assertTrue(line.contains("\"parameters\":[\"***\",\"***\",7]"), line);
+        assertFalse(line.contains("hash"));
+    }
+
+    /**
+     * Tests that the file is rotated when it is full, keeping the configured number of older files.
+     */
+    @Test
+    void testFileIsRotated() throws Exception {
+        log.close();
+        log = new SlowQueryLog(file, 10, 60_000, 300, 2, null);
+        for (int i = 0; i < 6; i++) {
+            runQuery(i, i);
+        }
+        log.flush();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(file.resolveSibling("slow.log.1")));
+        assertTrue(Files.exists(file.resolveSibling("slow.log.2")));
+        assertFalse(Files.exists(file.resolveSibling("slow.log.3")));
+        assertTrue(Files.readAllLines(file).get(0).contains("\"parameters\":[5,5]"));
+    }
+}